@@ -365,6 +365,8 @@ public abstract class AbstractMethod {
                     }
                     if( id != null ) {
                         HashMap<String,Map<String,String>> services = new HashMap<String,Map<String,String>>();
+                        HashMap<String,Map<String,String>> internalServices = new HashMap<String,Map<String,String>>();
+                        HashMap<String,Map<String,String>> adminServices = new HashMap<String,Map<String,String>>();
                         HashMap<String,Map<String,String>> bestVersion = new HashMap<String,Map<String,String>>();
                         String myRegionId = provider.getContext().getRegionId();
 
@@ -457,6 +459,8 @@ public abstract class AbstractMethod {
                                                 }
             	                                verMap.put(type, version);
             	                                map.put(regionId, url);
+                                                putEndpoint(internalServices, type, regionId, test.optString("internalURL", null));
+                                                putEndpoint(adminServices, type, regionId, test.optString("adminURL", null));
                                             } 
                                             else {
                                                 std.warn("authenticateKeystone(): Skipping lower version url "+url+" for " + type+ " map.");
@@ -488,7 +492,7 @@ public abstract class AbstractMethod {
                             endpoints.put("region-a.geo-1", "https://region-a.geo-1.dbaas-mysql.hpcloudsvc.com:8779/v1.0/66565797737008");
                             services.put(HPRDBMS.SERVICE, endpoints);
                         }
-                        return new AuthenticationContext(myRegionId, id, tenantId, services, null);
+                        return new AuthenticationContext(myRegionId, id, tenantId, services, internalServices, adminServices, null);
                     }
                 }
             }
@@ -889,6 +893,35 @@ public abstract class AbstractMethod {
     }
 
     public void deleteResource(@Nonnull final String service, @Nonnull final String resource, @Nonnull final String resourceId, @Nullable final String suffix) throws CloudException, InternalException {
+        deleteResourceForString(service, resource, resourceId, suffix);
+    }
+
+    /**
+     * Deletes a resource and returns the body of the response, for APIs such as Rackspace DNS that answer a
+     * DELETE with an asynchronous job.
+     * @param service the service hosting the resource
+     * @param resource the resource type
+     * @param resourceId the ID of the resource to delete, including any query string
+     * @param suffix an optional path element following the resource ID
+     * @return the response body, or null if the response had none
+     * @throws CloudException an error occurred with the cloud provider while deleting the resource
+     * @throws InternalException an error occurred within Dasein Cloud while deleting the resource
+     */
+    public @Nullable JSONObject deleteResourceForJSON(@Nonnull final String service, @Nonnull final String resource, @Nonnull final String resourceId, @Nullable final String suffix) throws CloudException, InternalException {
+        String body = deleteResourceForString(service, resource, resourceId, suffix);
+
+        if( body == null || body.trim().length() < 1 ) {
+            return null;
+        }
+        try {
+            return new JSONObject(body);
+        }
+        catch( JSONException e ) {
+            throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", body);
+        }
+    }
+
+    private @Nullable String deleteResourceForString(@Nonnull final String service, @Nonnull final String resource, @Nonnull final String resourceId, @Nullable final String suffix) throws CloudException, InternalException {
         AuthenticationContext context = provider.getAuthenticationContext();
         String endpoint = context.getServiceUrl(service);
 
@@ -900,13 +933,13 @@ public abstract class AbstractMethod {
             resourceUri = resource + "/" + resourceId + "/" + suffix;
         }
         try {
-            delete(context.getAuthToken(), endpoint, resourceUri);
+            return delete(context.getAuthToken(), endpoint, resourceUri);
         }
         catch (NovaException ex) {
             if (ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED) {
                 Cache<AuthenticationContext> cache = Cache.getInstance(provider, "authenticationContext", AuthenticationContext.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Day>(1, TimePeriod.DAY));
                 cache.clear();
-                deleteResource(service, resource, resourceId, suffix);
+                return deleteResourceForString(service, resource, resourceId, suffix);
             }
             else {
                 throw ex;
@@ -914,7 +947,7 @@ public abstract class AbstractMethod {
         }
     }
     
-    protected void delete(@Nonnull final String authToken, @Nonnull final String endpoint, @Nonnull final String resource) throws CloudException, InternalException {
+    protected @Nullable String delete(@Nonnull final String authToken, @Nonnull final String endpoint, @Nonnull final String resource) throws CloudException, InternalException {
         Logger std = NovaOpenStack.getLogger(NovaOpenStack.class, "std");
         Logger wire = NovaOpenStack.getLogger(NovaOpenStack.class, "wire");
         
@@ -993,7 +1026,24 @@ public abstract class AbstractMethod {
                 throw new NovaException(items);
             }
             else {
+                String data = null;
+
+                try {
+                    HttpEntity entity = response.getEntity();
+
+                    if( entity != null ) {
+                        data = EntityUtils.toString(entity);
+                        if( wire.isDebugEnabled() ) {
+                            wire.debug(data);
+                        }
+                    }
+                }
+                catch( IOException e ) {
+                    std.error("Failed to read response due to a cloud I/O error: " + e.getMessage(), e);
+                    throw new CloudException(e);
+                }
                 wire.debug("");
+                return data;
             }
         }
         finally {
@@ -1053,6 +1103,20 @@ public abstract class AbstractMethod {
     }
     
     public @Nullable JSONObject getResource(@Nonnull final String service, @Nonnull final String resource, @Nullable final String resourceId, final boolean suffix) throws CloudException, InternalException {
+        String response = getResourceForString(service, resource, resourceId, suffix);
+
+        if( response == null ) {
+            return null;
+        }
+        try {
+            return new JSONObject(response);
+        }
+        catch( JSONException e ) {
+            throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", response);
+        }
+    }
+
+    public @Nullable String getResourceForString(@Nonnull final String service, @Nonnull final String resource, @Nullable final String resourceId, final boolean suffix) throws CloudException, InternalException {
         AuthenticationContext context = provider.getAuthenticationContext();
         String endpoint = context.getServiceUrl(service);
 
@@ -1072,23 +1136,13 @@ public abstract class AbstractMethod {
             resourceUri += "/detail";
         }
         try {
-            String response = getString(context.getAuthToken(), endpoint, resourceUri);
-
-            if( response == null ) {
-                return null;
-            }
-            try {
-                return new JSONObject(response);
-            }
-            catch( JSONException e ) {
-                throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", response);
-            }
+            return getString(context.getAuthToken(), endpoint, resourceUri);
         }
         catch (NovaException ex) {
             if (ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED) {
                 Cache<AuthenticationContext> cache = Cache.getInstance(provider, "authenticationContext", AuthenticationContext.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Day>(1, TimePeriod.DAY));
                 cache.clear();
-                return getResource(service, resource, resourceId, suffix);
+                return getResourceForString(service, resource, resourceId, suffix);
             }
             else {
                 throw ex;
@@ -2623,6 +2677,19 @@ public abstract class AbstractMethod {
         }
     }
     
+    static private void putEndpoint(@Nonnull Map<String,Map<String,String>> services, @Nonnull String type, @Nullable String regionId, @Nullable String url) {
+        if( url == null || url.equals("") ) {
+            return;
+        }
+        Map<String,String> map = services.get(type);
+
+        if( map == null ) {
+            map = new HashMap<String,String>();
+            services.put(type, map);
+        }
+        map.put(regionId, url);
+    }
+
     private @Nonnull String toRegion(@Nonnull String endpoint) {
         Logger logger = NovaOpenStack.getLogger(NovaOpenStack.class, "std");
         
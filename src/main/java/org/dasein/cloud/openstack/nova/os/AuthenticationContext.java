@@ -22,7 +22,11 @@ package org.dasein.cloud.openstack.nova.os;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.dasein.cloud.dc.Jurisdiction;
 import org.dasein.cloud.dc.Region;
@@ -31,18 +35,163 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 public class AuthenticationContext { 
-    private String                         authToken;
-    private Map<String,Map<String,String>> endpoints;
-    private String                         myRegion;
-    private String                         storageToken;
-    private String                         tenantId;
+    /**
+     * The endpoint interfaces a service catalog may list for a service.
+     */
+    public enum Interface { PUBLIC, INTERNAL, ADMIN }
 
-    public AuthenticationContext(@Nonnull String regionId, @Nonnull String token, @Nonnull String tenantId, @Nonnull Map<String,Map<String,String>> services, @Nullable String storageToken) {
-        myRegion = regionId;
+    static private final class EndpointKey {
+        private final Interface endpointInterface;
+        private final String    regionId;
+        private final String    service;
+
+        private EndpointKey(@Nonnull String service, @Nullable String regionId, @Nonnull Interface endpointInterface) {
+            this.service = service;
+            this.regionId = regionId;
+            this.endpointInterface = endpointInterface;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if( other == this ) {
+                return true;
+            }
+            if( !(other instanceof EndpointKey) ) {
+                return false;
+            }
+            EndpointKey k = (EndpointKey)other;
+
+            return (service.equals(k.service) && endpointInterface.equals(k.endpointInterface) && (regionId == null ? k.regionId == null : regionId.equals(k.regionId)));
+        }
+
+        @Override
+        public int hashCode() {
+            return (service.hashCode() * 31 + (regionId == null ? 0 : regionId.hashCode())) * 31 + endpointInterface.hashCode();
+        }
+    }
+
+    private final String                    authToken;
+    private final Map<EndpointKey,String>   catalog;
+    private final Map<String,List<String>>  catalogRegions;
+    private final Map<String,String>        myEndpoints;
+    private final String                    myRegion;
+    private final Set<String>               regionIds;
+    private final String                    storageToken;
+    private final String                    tenantId;
+
+    public AuthenticationContext(@Nullable String regionId, @Nonnull String token, @Nonnull String tenantId, @Nonnull Map<String,Map<String,String>> services, @Nullable String storageToken) {
+        this(regionId, token, tenantId, services, null, null, storageToken);
+    }
+
+    /**
+     * Indexes the service catalog returned by authentication. The index is built once and never changes, so
+     * endpoint lookups need neither scanning nor locking.
+     * @param regionId the region in which this context operates, or null to use the first region in the catalog
+     * @param token the authentication token
+     * @param tenantId the tenant to which the token belongs
+     * @param services the public endpoints, mapped from service type to region to URL
+     * @param internalServices the internal endpoints in the same form, if the catalog lists any
+     * @param adminServices the admin endpoints in the same form, if the catalog lists any
+     * @param storageToken a separate token for object storage, if there is one
+     */
+    public AuthenticationContext(@Nullable String regionId, @Nonnull String token, @Nonnull String tenantId, @Nonnull Map<String,Map<String,String>> services, @Nullable Map<String,Map<String,String>> internalServices, @Nullable Map<String,Map<String,String>> adminServices, @Nullable String storageToken) {
+        Map<EndpointKey,String> endpoints = new HashMap<EndpointKey, String>();
+        Map<String,List<String>> serviceRegions = new HashMap<String, List<String>>();
+
+        index(endpoints, services, Interface.PUBLIC);
+        if( internalServices != null ) {
+            index(endpoints, internalServices, Interface.INTERNAL);
+        }
+        if( adminServices != null ) {
+            index(endpoints, adminServices, Interface.ADMIN);
+        }
+        for( Map.Entry<String,Map<String,String>> entry : services.entrySet() ) {
+            serviceRegions.put(entry.getKey(), Collections.unmodifiableList(new ArrayList<String>(entry.getValue().keySet())));
+        }
+        Map<String,String> regionMap = services.get("compute");
+
+        if( regionMap == null ) {
+            regionMap = services.get("object-store");
+        }
+        Set<String> ids = new LinkedHashSet<String>();
+
+        if( regionMap != null ) {
+            ids.addAll(regionMap.keySet());
+        }
+        if( regionId == null ) {
+            for( String id : ids ) {
+                if( id != null ) {
+                    regionId = id;
+                    break;
+                }
+            }
+        }
+        if( regionId == null ) {
+            for( List<String> list : serviceRegions.values() ) {
+                for( String id : list ) {
+                    if( id != null ) {
+                        regionId = id;
+                        break;
+                    }
+                }
+                if( regionId != null ) {
+                    break;
+                }
+            }
+        }
         authToken = token;
-        endpoints = services;
+        catalog = Collections.unmodifiableMap(endpoints);
+        catalogRegions = Collections.unmodifiableMap(serviceRegions);
+        myRegion = regionId;
+        regionIds = Collections.unmodifiableSet(ids);
         this.tenantId = tenantId;
         this.storageToken = storageToken;
+
+        Map<String,String> mine = new HashMap<String, String>();
+
+        for( String service : serviceRegions.keySet() ) {
+            String url = resolve(service, myRegion, Interface.PUBLIC);
+
+            if( url != null ) {
+                mine.put(service, url);
+            }
+        }
+        myEndpoints = Collections.unmodifiableMap(mine);
+    }
+
+    static private void index(@Nonnull Map<EndpointKey,String> endpoints, @Nonnull Map<String,Map<String,String>> services, @Nonnull Interface endpointInterface) {
+        for( Map.Entry<String,Map<String,String>> service : services.entrySet() ) {
+            for( Map.Entry<String,String> endpoint : service.getValue().entrySet() ) {
+                if( endpoint.getValue() != null ) {
+                    endpoints.put(new EndpointKey(service.getKey(), endpoint.getKey(), endpointInterface), endpoint.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the endpoint for a service in a region. A catalog entry for the region itself is preferred, then one
+     * whose region is a suffix of the region, and finally one listed without a region.
+     */
+    private @Nullable String resolve(@Nonnull String service, @Nullable String regionId, @Nonnull Interface endpointInterface) {
+        String url = catalog.get(new EndpointKey(service, regionId, endpointInterface));
+
+        if( url != null || regionId == null ) {
+            return url;
+        }
+        List<String> regions = catalogRegions.get(service);
+
+        if( regions != null ) {
+            for( String key : regions ) {
+                if( key != null && regionId.endsWith(key) ) {
+                    url = catalog.get(new EndpointKey(service, key, endpointInterface));
+                    if( url != null ) {
+                        return url;
+                    }
+                }
+            }
+        }
+        return catalog.get(new EndpointKey(service, null, endpointInterface));
     }
 
     public @Nonnull String getAuthToken() {
@@ -50,12 +199,7 @@ public class AuthenticationContext {
     }
     
     public @Nullable String getComputeUrl() {
-        Map<String,String> map = endpoints.get("compute");
-        
-        if( map == null ) {
-            return null;
-        }
-        return map.get(myRegion);
+        return catalog.get(new EndpointKey("compute", myRegion, Interface.PUBLIC));
     }
 
     public @Nullable String getNetworkUrl() {
@@ -83,51 +227,47 @@ public class AuthenticationContext {
     }
 
     public @Nullable String getServiceUrl(String service) {
-        Map<String,String> map = endpoints.get(service);
+        return myEndpoints.get(service);
+    }
 
-        if( map == null ) {
-            return null;
+    /**
+     * @param service the service type, such as <code>compute</code>
+     * @param regionId the region in question
+     * @param endpointInterface the interface through which the service is to be reached
+     * @return the URL of the service in that region, or null if the catalog lists none
+     */
+    public @Nullable String getServiceUrl(@Nonnull String service, @Nonnull String regionId, @Nonnull Interface endpointInterface) {
+        if( endpointInterface.equals(Interface.PUBLIC) && regionId.equals(myRegion) ) {
+            return myEndpoints.get(service);
         }
-        String endpoint = null;
+        return resolve(service, regionId, endpointInterface);
+    }
 
-        for( String key : map.keySet() ) {
-            if( myRegion == null ) {
-                myRegion = key;
-            }
-            if( key == null ) {
-                endpoint = map.get(null);
-            }
-            else if( key.equals(myRegion) ) {
-                return map.get(myRegion);
-            }
-            else if( myRegion.endsWith(key) ) {
-                endpoint = map.get(key);
-            }
-        }
-        return endpoint;
+    /**
+     * @param regionId the region in question
+     * @return the region, or null if the service catalog does not list it
+     */
+    public @Nullable Region getRegion(@Nonnull String regionId) {
+        return (regionIds.contains(regionId) ? toRegion(regionId) : null);
     }
-    
+
     public @Nonnull Collection<Region> listRegions() {
-        Map<String,String> map = endpoints.get("compute");
-        
-        if( map == null ) {
-            map = endpoints.get("object-store");
-        }
-        if( map == null ) {
-            return Collections.emptyList();
-        }
         ArrayList<Region> regions = new ArrayList<Region>();
         
-        for( String regionId : map.keySet() ) {
-            Region region = new Region();
-        
-            region.setActive(true);
-            region.setAvailable(true);
-            region.setJurisdiction(Jurisdiction.US.name());
-            region.setName(regionId);
-            region.setProviderRegionId(regionId);
-            regions.add(region);
+        for( String regionId : regionIds ) {
+            regions.add(toRegion(regionId));
         }
         return regions;
     }
+
+    private @Nonnull Region toRegion(String regionId) {
+        Region region = new Region();
+
+        region.setActive(true);
+        region.setAvailable(true);
+        region.setJurisdiction(Jurisdiction.US.name());
+        region.setName(regionId);
+        region.setProviderRegionId(regionId);
+        return region;
+    }
 }
@@ -0,0 +1,340 @@
+/**
+ * Copyright (C) 2009-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.openstack.nova.os;
+
+import org.apache.log4j.Logger;
+import org.dasein.cloud.CloudException;
+import org.dasein.cloud.InternalException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Runs one operation against many resources with bounded concurrency and records the outcome for each
+ * resource instead of stopping at the first failure. Operations run on the provider's executor, so batches started
+ * from within other batches share its threads rather than adding threads of their own.
+ * @since 2015.06.2
+ * @version 2015.06.2 initial version
+ */
+public class BatchExecutor {
+    static private final Logger logger = NovaOpenStack.getLogger(BatchExecutor.class, "std");
+
+    /**
+     * A unit of work to be performed against a single resource.
+     * @param <T> the type of value produced for each resource
+     */
+    public interface Operation<T> {
+        public @Nullable T execute(@Nonnull String resourceId) throws CloudException, InternalException;
+    }
+
+    /**
+     * A unit of work to be performed against one item of a list.
+     * @param <I> the type of the items
+     * @param <T> the type of value produced for each item
+     */
+    public interface ItemOperation<I,T> {
+        public @Nullable T execute(@Nonnull I item) throws CloudException, InternalException;
+    }
+
+    /**
+     * The per-item outcome of a batch run over a list, keyed by the position of each item in the list.
+     * @param <T> the type of value produced for each item
+     */
+    static public class ItemResult<T> {
+        private Map<Integer,Throwable> failures = new TreeMap<Integer, Throwable>();
+        private String                 name;
+        private Map<Integer,T>         results  = new TreeMap<Integer, T>();
+
+        private ItemResult(@Nonnull String name) {
+            this.name = name;
+        }
+
+        /**
+         * @return the errors raised by the failed operations, keyed by item position
+         */
+        public @Nonnull Map<Integer,Throwable> getFailures() {
+            return Collections.unmodifiableMap(failures);
+        }
+
+        /**
+         * @return the values produced by the successful operations, keyed by item position
+         */
+        public @Nonnull Map<Integer,T> getResults() {
+            return Collections.unmodifiableMap(results);
+        }
+
+        public boolean isSuccessful() {
+            return failures.isEmpty();
+        }
+
+        /**
+         * Throws an exception describing every failed operation if any of them failed, in the same way as
+         * {@link Result#rethrow()}.
+         * @throws CloudException one or more of the operations failed
+         * @throws InternalException the only operation in the batch failed with an internal error
+         */
+        public void rethrow() throws CloudException, InternalException {
+            Result<T> result = new Result<T>(name);
+
+            for( Map.Entry<Integer,Throwable> entry : failures.entrySet() ) {
+                result.failures.put("item " + entry.getKey(), entry.getValue());
+            }
+            for( Map.Entry<Integer,T> entry : results.entrySet() ) {
+                result.results.put("item " + entry.getKey(), entry.getValue());
+            }
+            result.rethrow();
+        }
+    }
+
+    /**
+     * The per-resource outcome of a batch.
+     * @param <T> the type of value produced for each resource
+     */
+    static public class Result<T> {
+        private Map<String,Throwable> failures = new LinkedHashMap<String, Throwable>();
+        private String                name;
+        private Map<String,T>         results  = new LinkedHashMap<String, T>();
+
+        private Result(@Nonnull String name) {
+            this.name = name;
+        }
+
+        /**
+         * @return the errors raised by the failed operations, keyed by resource ID
+         */
+        public @Nonnull Map<String,Throwable> getFailures() {
+            return Collections.unmodifiableMap(failures);
+        }
+
+        /**
+         * @return the values produced by the successful operations, keyed by resource ID
+         */
+        public @Nonnull Map<String,T> getResults() {
+            return Collections.unmodifiableMap(results);
+        }
+
+        public boolean isSuccessful() {
+            return failures.isEmpty();
+        }
+
+        /**
+         * Throws an exception describing every failed operation if any of them failed. A batch consisting of a
+         * single failed operation rethrows the original error.
+         * @throws CloudException one or more of the operations failed
+         * @throws InternalException the only operation in the batch failed with an internal error
+         */
+        public void rethrow() throws CloudException, InternalException {
+            if( failures.isEmpty() ) {
+                return;
+            }
+            Throwable first = failures.values().iterator().next();
+
+            if( failures.size() == 1 && results.isEmpty() ) {
+                if( first instanceof CloudException ) {
+                    throw (CloudException)first;
+                }
+                if( first instanceof InternalException ) {
+                    throw (InternalException)first;
+                }
+            }
+            StringBuilder msg = new StringBuilder();
+
+            msg.append(failures.size()).append(" of ").append(failures.size() + results.size()).append(" ").append(name).append(" operations failed:");
+            for( Map.Entry<String,Throwable> entry : failures.entrySet() ) {
+                msg.append(" ").append(entry.getKey()).append(" (").append(entry.getValue().getMessage()).append(");");
+            }
+            throw new CloudException(msg.toString(), first);
+        }
+    }
+
+    /**
+     * The operations of one batch, claimed one at a time by whichever threads are working on the batch.
+     */
+    static private class Batch<I,T> implements Runnable {
+        private Throwable[]         errors;
+        private List<I>             items;
+        private int                 next    = 0;
+        private ItemOperation<I,T>  operation;
+        private int                 running = 0;
+        private List<T>             values;
+
+        private Batch(@Nonnull List<I> items, @Nonnull ItemOperation<I,T> operation) {
+            this.items = items;
+            this.operation = operation;
+            this.errors = new Throwable[items.size()];
+            this.values = new ArrayList<T>(Collections.<T>nCopies(items.size(), null));
+        }
+
+        private synchronized int claim() {
+            if( next >= items.size() ) {
+                return -1;
+            }
+            running++;
+            return next++;
+        }
+
+        private synchronized void finish(int i, @Nullable T value, @Nullable Throwable error) {
+            values.set(i, value);
+            errors[i] = error;
+            running--;
+            notifyAll();
+        }
+
+        private synchronized void await() throws InterruptedException {
+            while( running > 0 ) {
+                wait();
+            }
+        }
+
+        @Override
+        public void run() {
+            int i;
+
+            while( (i = claim()) >= 0 ) {
+                T value = null;
+                Throwable error = null;
+
+                try {
+                    value = operation.execute(items.get(i));
+                }
+                catch( Throwable t ) {
+                    error = t;
+                }
+                finish(i, value, error);
+            }
+        }
+    }
+
+    private int           concurrency;
+    private String        name;
+    private NovaOpenStack provider;
+
+    /**
+     * Constructs a batch executor bounded by the batch concurrency configured for the specified provider.
+     * @param provider the provider on whose behalf the operations run
+     * @param name a name for the operation used in error messages
+     */
+    public BatchExecutor(@Nonnull NovaOpenStack provider, @Nonnull String name) {
+        this.concurrency = provider.getBatchConcurrency();
+        this.name = name;
+        this.provider = provider;
+    }
+
+    /**
+     * Executes the operation once for each distinct resource ID, running at most the configured number of
+     * operations at a time, and waits for all of them to finish. The calling thread runs operations too, taking
+     * over any that the provider's executor has no free thread for.
+     * @param resourceIds the resources to operate on
+     * @param operation the operation to perform against each resource
+     * @param <T> the type of value produced for each resource
+     * @return the per-resource outcome of the batch
+     * @throws InternalException the calling thread was interrupted while waiting for the batch
+     */
+    public @Nonnull <T> Result<T> execute(@Nonnull Collection<String> resourceIds, @Nonnull final Operation<T> operation) throws InternalException {
+        Result<T> result = new Result<T>(name);
+        List<String> ids = new ArrayList<String>(new LinkedHashSet<String>(resourceIds));
+        Batch<String,T> batch = run(ids, new ItemOperation<String, T>() {
+            @Override
+            public T execute(@Nonnull String resourceId) throws CloudException, InternalException {
+                return operation.execute(resourceId);
+            }
+        });
+
+        for( int i=0; i<ids.size(); i++ ) {
+            if( batch.errors[i] == null ) {
+                result.results.put(ids.get(i), batch.values.get(i));
+            }
+            else {
+                logger.warn(name + " failed for " + ids.get(i) + ": " + batch.errors[i].getMessage());
+                result.failures.put(ids.get(i), batch.errors[i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Executes the operation once for each item of a list, in the same way as
+     * {@link #execute(Collection, Operation)}, for work whose items are not naturally identified by strings.
+     * @param items the items to operate on
+     * @param operation the operation to perform against each item
+     * @param <I> the type of the items
+     * @param <T> the type of value produced for each item
+     * @return the per-item outcome of the batch, keyed by the position of each item in the list
+     * @throws InternalException the calling thread was interrupted while waiting for the batch
+     */
+    public @Nonnull <I,T> ItemResult<T> execute(@Nonnull List<I> items, @Nonnull ItemOperation<I,T> operation) throws InternalException {
+        ItemResult<T> result = new ItemResult<T>(name);
+        Batch<I,T> batch = run(new ArrayList<I>(items), operation);
+
+        for( int i=0; i<batch.items.size(); i++ ) {
+            if( batch.errors[i] == null ) {
+                result.results.put(i, batch.values.get(i));
+            }
+            else {
+                logger.warn(name + " failed for item " + i + ": " + batch.errors[i].getMessage());
+                result.failures.put(i, batch.errors[i]);
+            }
+        }
+        return result;
+    }
+
+    private @Nonnull <I,T> Batch<I,T> run(@Nonnull List<I> items, @Nonnull ItemOperation<I,T> operation) throws InternalException {
+        Batch<I,T> batch = new Batch<I,T>(items, operation);
+
+        if( items.size() < 2 || concurrency < 2 ) {
+            batch.run();
+        }
+        else {
+            List<Future<?>> helpers = new ArrayList<Future<?>>();
+
+            try {
+                ExecutorService executor = provider.getExecutor();
+
+                for( int i=1; i<Math.min(items.size(), concurrency); i++ ) {
+                    helpers.add(executor.submit(batch));
+                }
+                // the caller works through the batch as well, so the batch finishes even if no helper ever gets a
+                // thread; it then waits only for the operations other threads have already started
+                batch.run();
+                batch.await();
+            }
+            catch( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+                throw new InternalException(e);
+            }
+            finally {
+                for( Future<?> helper : helpers ) {
+                    helper.cancel(false);
+                }
+            }
+        }
+        return batch;
+    }
+}
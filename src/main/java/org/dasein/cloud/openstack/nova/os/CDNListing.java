@@ -0,0 +1,239 @@
+/**
+ * Copyright (C) 2009-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.openstack.nova.os;
+
+import org.apache.http.HttpStatus;
+import org.apache.log4j.Logger;
+import org.dasein.cloud.CloudErrorType;
+import org.dasein.cloud.CloudException;
+import org.dasein.cloud.InternalException;
+import org.dasein.cloud.ProviderContext;
+import org.dasein.cloud.platform.Distribution;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the distributions of a Swift-style CDN endpoint from its containers. The JSON listing of the endpoint
+ * carries the CDN settings of every container in one request. Endpoints that do not offer it are listed by name
+ * by the caller, and each container is then examined with a HEAD, several at a time.
+ * @since 2015.06.2
+ * @version 2015.06.2 initial version
+ */
+public class CDNListing {
+    static private final Logger logger = NovaOpenStack.getLogger(CDNListing.class, "std");
+
+    private NovaOpenStack provider;
+    private String        resource;
+    private String        service;
+    private boolean       sslPreferred;
+
+    /**
+     * @param provider the provider through which the endpoint is reached
+     * @param service the service type of the CDN endpoint
+     * @param resource the resource under which containers are found, if any
+     * @param sslPreferred true if a container's SSL URI is used as its location whenever it has one
+     */
+    public CDNListing(@Nonnull NovaOpenStack provider, @Nonnull String service, @Nullable String resource, boolean sslPreferred) {
+        this.provider = provider;
+        this.service = service;
+        this.resource = resource;
+        this.sslPreferred = sslPreferred;
+    }
+
+    /**
+     * Lists the distributions from the JSON listing of the endpoint.
+     * @return the distributions, or null if the endpoint does not offer a JSON listing
+     * @throws CloudException an error occurred with the cloud provider while listing the containers
+     * @throws InternalException an error occurred within Dasein Cloud while listing the containers
+     */
+    public @Nullable List<Distribution> listFromJSON() throws CloudException, InternalException {
+        NovaMethod method = new NovaMethod(provider);
+        String json;
+
+        try {
+            json = method.getResourceForString(service, "", "?format=json", false);
+        }
+        catch( CloudException e ) {
+            if( e.getHttpCode() != HttpStatus.SC_NOT_FOUND && e.getHttpCode() != HttpStatus.SC_NOT_ACCEPTABLE ) {
+                throw e;
+            }
+            logger.warn("list(): No JSON container listing, falling back to HEAD requests: " + e.getMessage());
+            return null;
+        }
+        if( json == null ) {
+            logger.warn("list(): No JSON container listing, falling back to HEAD requests");
+            return null;
+        }
+        ArrayList<Distribution> distributions = new ArrayList<Distribution>();
+
+        json = json.trim();
+        if( json.length() < 1 ) {
+            return distributions;
+        }
+        JSONArray items;
+
+        try {
+            items = (json.startsWith("[") ? new JSONArray(json) : null);
+        }
+        catch( JSONException e ) {
+            items = null;
+        }
+        if( items == null ) {
+            logger.warn("list(): The container listing is not JSON, falling back to HEAD requests");
+            return null;
+        }
+        try {
+            for( int i=0; i<items.length(); i++ ) {
+                JSONObject item = items.getJSONObject(i);
+                String container = (item.has("name") ? item.getString("name") : null);
+                String uriString = null;
+
+                if( sslPreferred && item.has("cdn_ssl_uri") && !item.isNull("cdn_ssl_uri") ) {
+                    uriString = item.getString("cdn_ssl_uri");
+                }
+                else if( item.has("cdn_uri") && !item.isNull("cdn_uri") ) {
+                    uriString = item.getString("cdn_uri");
+                }
+                Distribution d = toDistribution(container, item.optBoolean("cdn_enabled", false), uriString);
+
+                if( d != null ) {
+                    distributions.add(d);
+                }
+            }
+        }
+        catch( JSONException e ) {
+            logger.error("list(): JSON error parsing response: " + e.getMessage());
+            throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidResponse", "JSON error parsing " + items);
+        }
+        return distributions;
+    }
+
+    /**
+     * Examines each of the named containers with a HEAD, several at a time.
+     * @param containers the names of the containers
+     * @return the distributions for the containers that have CDN settings
+     * @throws CloudException an error occurred with the cloud provider while examining the containers
+     * @throws InternalException an error occurred within Dasein Cloud while examining the containers
+     */
+    public @Nonnull List<Distribution> examine(@Nonnull Collection<String> containers) throws CloudException, InternalException {
+        BatchExecutor.Result<Distribution> result = new BatchExecutor(provider, "cdn-head").execute(containers, new BatchExecutor.Operation<Distribution>() {
+            @Override
+            public Distribution execute(@Nonnull String container) throws CloudException, InternalException {
+                return examine(container);
+            }
+        });
+        ArrayList<Distribution> distributions = new ArrayList<Distribution>();
+
+        result.rethrow();
+        for( Distribution d : result.getResults().values() ) {
+            if( d != null ) {
+                distributions.add(d);
+            }
+        }
+        return distributions;
+    }
+
+    /**
+     * Examines one container with a HEAD.
+     * @param container the name of the container
+     * @return the distribution for the container, or null if it does not exist or has no CDN settings
+     * @throws CloudException an error occurred with the cloud provider while examining the container
+     * @throws InternalException an error occurred within Dasein Cloud while examining the container
+     */
+    public @Nullable Distribution examine(@Nullable String container) throws CloudException, InternalException {
+        if( container == null ) {
+            return null;
+        }
+        NovaMethod method = new NovaMethod(provider);
+        Map<String,String> headers = method.headResource(service, resource, container);
+
+        if( headers == null ) {
+            return null;
+        }
+        String enabled = null, uriString = null, sslUriString = null;
+
+        for( String key : headers.keySet() ) {
+            if( key.equalsIgnoreCase("X-CDN-Enabled") ) {
+                enabled = headers.get(key);
+            }
+            else if( key.equalsIgnoreCase("X-CDN-URI") ) {
+                uriString = headers.get(key);
+            }
+            else if( key.equalsIgnoreCase("X-CDN-SSL-URI") ) {
+                sslUriString = headers.get(key);
+            }
+        }
+        if( sslPreferred && sslUriString != null ) {
+            uriString = sslUriString;
+        }
+        return toDistribution(container, enabled != null && enabled.equalsIgnoreCase("true"), uriString);
+    }
+
+    private @Nullable Distribution toDistribution(@Nullable String container, boolean enabled, @Nullable String uriString) throws CloudException, InternalException {
+        if( container == null || uriString == null ) {
+            return null;
+        }
+        ProviderContext ctx = provider.getContext();
+
+        if( ctx == null ) {
+            throw new InternalException("No context exists for this request");
+        }
+        String dns;
+
+        try {
+            URI uri = new URI(uriString);
+
+            dns = uri.getHost();
+            if( uri.getPort() > 0 ) {
+                if( dns.startsWith("https:") && uri.getPort() != 443 ) {
+                    dns = dns + ":" + uri.getPort();
+                }
+                if( dns.startsWith("http:") && uri.getPort() != 80 ) {
+                    dns = dns + ":" + uri.getPort();
+                }
+            }
+        }
+        catch( URISyntaxException e ) {
+            throw new CloudException(e);
+        }
+        Distribution distribution = new Distribution();
+
+        distribution.setName(container);
+        distribution.setActive(enabled);
+        distribution.setAliases(new String[0]);
+        distribution.setDeployed(enabled);
+        distribution.setDnsName(dns);
+        distribution.setLocation(uriString);
+        distribution.setLogDirectory(null);
+        distribution.setProviderDistributionId(container);
+        distribution.setProviderOwnerId(ctx.getAccountNumber());
+        return distribution;
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ * Copyright (C) 2009-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.openstack.nova.os;
+
+import org.apache.http.HttpStatus;
+import org.dasein.cloud.CloudException;
+import org.dasein.cloud.InternalException;
+import org.dasein.util.CalendarWrapper;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Retries an operation that OpenStack rejects with <code>409 Conflict</code> while the resource it targets is busy,
+ * such as deleting a server that is still being built or a rule whose group is being changed. The delay between
+ * attempts starts at {@link #BACKOFF_START} and doubles up to {@link #BACKOFF_MAX}.
+ * @since 2015.06.2
+ * @version 2015.06.2 initial version
+ */
+public class ConflictBackoff {
+    static public final long BACKOFF_START = 1000L;
+    static public final long BACKOFF_MAX   = CalendarWrapper.MINUTE / 2;
+
+    /**
+     * An operation that may be rejected with a conflict.
+     * @param <T> the type of value produced by the operation
+     */
+    public interface Operation<T> {
+        public @Nullable T execute() throws CloudException, InternalException;
+    }
+
+    /**
+     * Performs the operation, retrying it for as long as it fails with a conflict and the next attempt would start
+     * before the timeout.
+     * @param timeout the time, in milliseconds since the epoch, after which no further attempt is made
+     * @param operation the operation to perform
+     * @param <T> the type of value produced by the operation
+     * @return the value produced by the first successful attempt
+     * @throws CloudException the operation failed with an error other than a conflict, or was still in conflict at
+     * the timeout
+     * @throws InternalException the operation failed with an internal error, or the thread was interrupted while
+     * waiting to try again
+     */
+    static public @Nullable <T> T retry(long timeout, @Nonnull Operation<T> operation) throws CloudException, InternalException {
+        long delay = BACKOFF_START;
+
+        while( true ) {
+            try {
+                return operation.execute();
+            }
+            catch( CloudException e ) {
+                if( e.getHttpCode() != HttpStatus.SC_CONFLICT || System.currentTimeMillis() + delay > timeout ) {
+                    throw e;
+                }
+            }
+            try { Thread.sleep(delay); }
+            catch( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+                throw new InternalException(e);
+            }
+            delay = Math.min(delay * 2, BACKOFF_MAX);
+        }
+    }
+}
@@ -0,0 +1,362 @@
+/**
+ * Copyright (C) 2009-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.openstack.nova.os;
+
+import org.dasein.cloud.CloudErrorType;
+import org.dasein.cloud.CloudException;
+import org.dasein.cloud.InternalException;
+import org.dasein.cloud.util.Cache;
+import org.dasein.cloud.util.CacheLevel;
+import org.dasein.util.CalendarWrapper;
+import org.dasein.util.uom.time.Day;
+import org.dasein.util.uom.time.TimePeriod;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory copy of the instances, flavors and snapshots of a database-as-a-service endpoint in a region, as the
+ * raw JSON the endpoint returns, indexed by ID. Each kind of resource is listed in full, a page at a time, the
+ * first time it is needed and again once it is older than its refresh interval. Listings are fetched without
+ * holding the copy, so lookups are not held up by a slow listing. Lookups by ID are answered from the copy while
+ * it is fresh and fetched individually otherwise. The database support classes keep the copy
+ * current as instances and snapshots are created, restarted and removed.
+ * @since 2015.06.2
+ * @version 2015.06.2 initial version
+ */
+public class DBaaSInventory {
+    /**
+     * The number of items requested per page when listing instances and snapshots.
+     */
+    static public final int PAGE_SIZE = 100;
+
+    public enum Kind {
+        INSTANCES("/instances", "instances", "instance", true, CalendarWrapper.SECOND * 30L),
+        FLAVORS("/flavors", "flavors", "flavor", false, CalendarWrapper.HOUR),
+        SNAPSHOTS("/snapshots", "snapshots", "snapshot", true, CalendarWrapper.SECOND * 30L);
+
+        private String  item;
+        private String  list;
+        private boolean paged;
+        private long    refreshInterval;
+        private String  resource;
+
+        private Kind(@Nonnull String resource, @Nonnull String list, @Nonnull String item, boolean paged, long refreshInterval) {
+            this.resource = resource;
+            this.list = list;
+            this.item = item;
+            this.paged = paged;
+            this.refreshInterval = refreshInterval;
+        }
+
+        public @Nonnull String getResource() {
+            return resource;
+        }
+
+        /**
+         * @return how long a listing of this kind of resource is trusted before it is listed again
+         */
+        public long getRefreshInterval() {
+            return refreshInterval;
+        }
+    }
+
+    static private class Listing {
+        private Map<String,JSONObject> byId     = new LinkedHashMap<String, JSONObject>();
+        private long                   loadedAt = -1L;
+    }
+
+    /**
+     * The listings for one endpoint in one region, shared by every support object through the cache.
+     */
+    static private class Inventory {
+        private Map<Kind,Long>    changedAt = new EnumMap<Kind, Long>(Kind.class);
+        private Map<Kind,Listing> listings  = new EnumMap<Kind, Listing>(Kind.class);
+
+        private @Nullable Listing getFresh(@Nonnull Kind kind) {
+            Listing listing = listings.get(kind);
+
+            if( listing == null || listing.loadedAt < 0L || System.currentTimeMillis() - listing.loadedAt >= kind.getRefreshInterval() ) {
+                return null;
+            }
+            return listing;
+        }
+    }
+
+    private NovaOpenStack provider;
+    private String        service;
+
+    /**
+     * @param provider the provider through which the endpoint is reached
+     * @param service the service type of the endpoint, such as <code>rax:database</code>
+     */
+    public DBaaSInventory(@Nonnull NovaOpenStack provider, @Nonnull String service) {
+        this.provider = provider;
+        this.service = service;
+    }
+
+    private @Nonnull Inventory getInventory() throws CloudException, InternalException {
+        Cache<Inventory> cache = Cache.getInstance(provider, "dbaasInventory." + service, Inventory.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Day>(1, TimePeriod.DAY));
+        Iterable<Inventory> it = cache.get(provider.getContext());
+
+        if( it != null ) {
+            Iterator<Inventory> b = it.iterator();
+
+            if( b.hasNext() ) {
+                return b.next();
+            }
+        }
+        Inventory inventory = new Inventory();
+
+        cache.put(provider.getContext(), Collections.singletonList(inventory));
+        return inventory;
+    }
+
+    /**
+     * Lists every resource of a kind, loading the listing if it is missing or stale.
+     * @param kind the kind of resource
+     * @return the resources in the order the endpoint lists them
+     * @throws CloudException an error occurred with the cloud provider while listing the resources
+     * @throws InternalException an error occurred within Dasein Cloud while listing the resources
+     */
+    public @Nonnull List<JSONObject> list(@Nonnull Kind kind) throws CloudException, InternalException {
+        Inventory inventory = getInventory();
+
+        synchronized( inventory ) {
+            Listing listing = inventory.getFresh(kind);
+
+            if( listing != null ) {
+                return new ArrayList<JSONObject>(listing.byId.values());
+            }
+        }
+        return refresh(kind);
+    }
+
+    /**
+     * Lists every resource of a kind from the endpoint, whether or not the copy is fresh, and replaces the copy
+     * with the result.
+     * @param kind the kind of resource
+     * @return the resources in the order the endpoint lists them
+     * @throws CloudException an error occurred with the cloud provider while listing the resources
+     * @throws InternalException an error occurred within Dasein Cloud while listing the resources
+     */
+    public @Nonnull List<JSONObject> refresh(@Nonnull Kind kind) throws CloudException, InternalException {
+        Inventory inventory = getInventory();
+        long startedAt = System.currentTimeMillis();
+        Listing listing = new Listing();
+
+        for( JSONObject item : fetch(kind) ) {
+            String id = getId(item);
+
+            if( id != null ) {
+                listing.byId.put(id, item);
+            }
+        }
+        synchronized( inventory ) {
+            Long changed = inventory.changedAt.get(kind);
+
+            // a change made while the listing was fetched may be missing from it, so it is kept but left stale
+            listing.loadedAt = ((changed == null || changed < startedAt) ? startedAt : -1L);
+            inventory.listings.put(kind, listing);
+        }
+        return new ArrayList<JSONObject>(listing.byId.values());
+    }
+
+    /**
+     * Looks up a resource by ID, answering from a fresh listing if there is one and asking the endpoint for the
+     * resource alone otherwise. Flavors, which are few and listed in a single call, are always looked up in the
+     * listing, loading it first if need be.
+     * @param kind the kind of resource
+     * @param id the ID of the resource
+     * @return the resource, or null if the endpoint does not know it
+     * @throws CloudException an error occurred with the cloud provider while fetching the resource
+     * @throws InternalException an error occurred within Dasein Cloud while fetching the resource
+     */
+    public @Nullable JSONObject get(@Nonnull Kind kind, @Nonnull String id) throws CloudException, InternalException {
+        Inventory inventory = getInventory();
+
+        if( !kind.paged ) {
+            for( JSONObject item : list(kind) ) {
+                if( id.equals(getId(item)) ) {
+                    return item;
+                }
+            }
+        }
+        synchronized( inventory ) {
+            Listing listing = inventory.getFresh(kind);
+
+            if( listing != null && listing.byId.containsKey(id) ) {
+                return listing.byId.get(id);
+            }
+        }
+        NovaMethod method = new NovaMethod(provider);
+        JSONObject json = method.getResource(service, kind.resource, id, false);
+        JSONObject item = null;
+
+        try {
+            if( json != null && json.has(kind.item) && !json.isNull(kind.item) ) {
+                item = json.getJSONObject(kind.item);
+            }
+        }
+        catch( JSONException e ) {
+            throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", "Missing JSON element for " + kind.item + " in " + json.toString());
+        }
+        if( item == null ) {
+            remove(kind, id);
+        }
+        else {
+            put(kind, item);
+        }
+        return item;
+    }
+
+    /**
+     * Records a resource that was created or changed. Nothing is recorded for a kind that is not loaded, since it
+     * will be listed in full when it is next needed.
+     * @param kind the kind of resource
+     * @param item the resource as returned by the endpoint
+     * @throws CloudException an error occurred with the cloud provider while accessing the cache
+     * @throws InternalException an error occurred within Dasein Cloud while accessing the cache
+     */
+    public void put(@Nonnull Kind kind, @Nonnull JSONObject item) throws CloudException, InternalException {
+        String id = getId(item);
+
+        if( id == null ) {
+            return;
+        }
+        Inventory inventory = getInventory();
+
+        synchronized( inventory ) {
+            Listing listing = inventory.listings.get(kind);
+
+            inventory.changedAt.put(kind, System.currentTimeMillis());
+            if( listing != null ) {
+                listing.byId.put(id, item);
+            }
+        }
+    }
+
+    /**
+     * Forgets a resource that was removed.
+     * @param kind the kind of resource
+     * @param id the ID of the resource
+     * @throws CloudException an error occurred with the cloud provider while accessing the cache
+     * @throws InternalException an error occurred within Dasein Cloud while accessing the cache
+     */
+    public void remove(@Nonnull Kind kind, @Nonnull String id) throws CloudException, InternalException {
+        Inventory inventory = getInventory();
+
+        synchronized( inventory ) {
+            Listing listing = inventory.listings.get(kind);
+
+            inventory.changedAt.put(kind, System.currentTimeMillis());
+            if( listing != null ) {
+                listing.byId.remove(id);
+            }
+        }
+    }
+
+    /**
+     * Forgets the listing of a kind of resource so it is listed again the next time it is needed.
+     * @param kind the kind of resource
+     * @throws CloudException an error occurred with the cloud provider while accessing the cache
+     * @throws InternalException an error occurred within Dasein Cloud while accessing the cache
+     */
+    public void invalidate(@Nonnull Kind kind) throws CloudException, InternalException {
+        Inventory inventory = getInventory();
+
+        synchronized( inventory ) {
+            inventory.listings.remove(kind);
+            inventory.changedAt.put(kind, System.currentTimeMillis());
+        }
+    }
+
+    private @Nonnull List<JSONObject> fetch(@Nonnull Kind kind) throws CloudException, InternalException {
+        NovaMethod method = new NovaMethod(provider);
+        List<JSONObject> items = new ArrayList<JSONObject>();
+        String marker = null;
+
+        while( true ) {
+            String query = null;
+
+            if( kind.paged ) {
+                query = "?limit=" + PAGE_SIZE + (marker == null ? "" : "&marker=" + marker);
+            }
+            JSONObject json = method.getResource(service, kind.resource, query, false);
+
+            if( json == null || !json.has(kind.list) ) {
+                return items;
+            }
+            try {
+                JSONArray list = json.getJSONArray(kind.list);
+                String last = null;
+
+                for( int i=0; i<list.length(); i++ ) {
+                    JSONObject item = list.getJSONObject(i);
+
+                    items.add(item);
+                    last = getId(item);
+                }
+                if( !kind.paged || last == null || last.equals(marker) || !hasNextPage(json, list.length()) ) {
+                    return items;
+                }
+                marker = last;
+            }
+            catch( JSONException e ) {
+                throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", "Missing JSON element for " + kind.list + " in " + json.toString());
+            }
+        }
+    }
+
+    private boolean hasNextPage(@Nonnull JSONObject json, int count) throws JSONException {
+        if( json.has("links") && !json.isNull("links") ) {
+            JSONArray links = json.getJSONArray("links");
+
+            for( int i=0; i<links.length(); i++ ) {
+                JSONObject link = links.getJSONObject(i);
+
+                if( link.has("rel") && "next".equalsIgnoreCase(link.getString("rel")) ) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return (count >= PAGE_SIZE);
+    }
+
+    private @Nullable String getId(@Nonnull JSONObject item) {
+        try {
+            return ((item.has("id") && !item.isNull("id")) ? item.getString("id") : null);
+        }
+        catch( JSONException e ) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/**
+ * Copyright (C) 2009-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.openstack.nova.os;
+
+import org.dasein.cloud.CloudException;
+import org.dasein.cloud.InternalException;
+import org.dasein.cloud.ResourceStatus;
+import org.dasein.cloud.platform.DatabaseState;
+import org.dasein.util.CalendarWrapper;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.concurrent.Future;
+
+/**
+ * Reads the status of the database instances of a database-as-a-service endpoint and waits on them through the
+ * provider's {@link DBaaSWaiter}. Endpoints differ only in how a status maps to a {@link DatabaseState}, which
+ * each database support class supplies.
+ * @since 2015.06.2
+ * @version 2015.06.2 initial version
+ */
+public abstract class DBaaSStatus {
+    private NovaOpenStack provider;
+    private String        service;
+
+    /**
+     * @param provider the provider through which the endpoint is reached
+     * @param service the service type of the endpoint, such as <code>rax:database</code>
+     */
+    public DBaaSStatus(@Nonnull NovaOpenStack provider, @Nonnull String service) {
+        this.provider = provider;
+        this.service = service;
+    }
+
+    /**
+     * @param item the instance as listed by the endpoint
+     * @return the state of the instance, or null if the listing does not identify it
+     * @throws CloudException an error occurred interpreting the instance
+     * @throws InternalException an error occurred within Dasein Cloud while interpreting the instance
+     */
+    protected abstract @Nullable ResourceStatus toStatus(@Nonnull JSONObject item) throws CloudException, InternalException;
+
+    /**
+     * @param item a resource as listed by the endpoint
+     * @return the raw status of the resource, if it has one
+     * @throws CloudException the status is not a string
+     */
+    static public @Nullable String getStatus(@Nonnull JSONObject item) throws CloudException {
+        try {
+            return (item.has("status") ? item.getString("status") : null);
+        }
+        catch( JSONException e ) {
+            throw new CloudException(e);
+        }
+    }
+
+    /**
+     * @param providerDatabaseId the ID of the instance
+     * @param item the instance as listed, or null if the listing no longer holds it
+     * @return true if the instance is available
+     * @throws CloudException the instance is gone or has failed
+     * @throws InternalException an error occurred within Dasein Cloud while interpreting the instance
+     */
+    public boolean isAvailable(@Nonnull String providerDatabaseId, @Nullable JSONObject item) throws CloudException, InternalException {
+        if( item == null ) {
+            throw new CloudException("Database " + providerDatabaseId + " no longer exists");
+        }
+        String status = getStatus(item);
+
+        if( "ERROR".equalsIgnoreCase(status) || "FAILED".equalsIgnoreCase(status) ) {
+            throw new CloudException("Database " + providerDatabaseId + " failed with status " + status);
+        }
+        ResourceStatus s = toStatus(item);
+
+        return (s != null && DatabaseState.AVAILABLE.equals(s.getResourceStatus()));
+    }
+
+    /**
+     * Waits in the background for an instance to become available.
+     * @param providerDatabaseId the ID of the instance
+     * @return a future that completes with the ID of the instance once it is available
+     */
+    public @Nonnull Future<String> waitForAvailable(@Nonnull final String providerDatabaseId) {
+        return getWaiter().watch(DBaaSInventory.Kind.INSTANCES, providerDatabaseId, new DBaaSWaiter.Condition<String>() {
+            @Override
+            public boolean isMet(@Nullable JSONObject item) throws CloudException, InternalException {
+                return isAvailable(providerDatabaseId, item);
+            }
+
+            @Override
+            public String toResult(@Nullable JSONObject item) {
+                return providerDatabaseId;
+            }
+        });
+    }
+
+    /**
+     * Waits in the background for an instance that was asked to restart to be available again. The wait ends once
+     * the instance has left and regained the available state, or after a minute's grace if it never leaves it.
+     * @param providerDatabaseId the ID of the instance
+     * @return a future that completes once the instance is available again
+     */
+    public @Nonnull Future<Void> waitForRestart(@Nonnull final String providerDatabaseId) {
+        return getWaiter().watch(DBaaSInventory.Kind.INSTANCES, providerDatabaseId, new DBaaSWaiter.Condition<Void>() {
+            private long    graceUntil = System.currentTimeMillis() + CalendarWrapper.MINUTE;
+            private boolean restarting = false;
+
+            @Override
+            public boolean isMet(@Nullable JSONObject item) throws CloudException, InternalException {
+                if( !isAvailable(providerDatabaseId, item) ) {
+                    restarting = true;
+                    return false;
+                }
+                return (restarting || System.currentTimeMillis() >= graceUntil);
+            }
+
+            @Override
+            public Void toResult(@Nullable JSONObject item) {
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Waits in the background for a removed instance to disappear from the listing.
+     * @param providerDatabaseId the ID of the instance
+     * @param timeout how long to wait, in milliseconds
+     * @return a future that completes once the instance is no longer listed or is listed as deleted
+     */
+    public @Nonnull Future<Void> waitForRemoval(@Nonnull String providerDatabaseId, long timeout) {
+        return getWaiter().watch(DBaaSInventory.Kind.INSTANCES, providerDatabaseId, timeout, new DBaaSWaiter.Condition<Void>() {
+            @Override
+            public boolean isMet(@Nullable JSONObject item) throws CloudException, InternalException {
+                return (item == null || "DELETED".equalsIgnoreCase(getStatus(item)));
+            }
+
+            @Override
+            public Void toResult(@Nullable JSONObject item) {
+                return null;
+            }
+        });
+    }
+
+    private @Nonnull DBaaSWaiter getWaiter() {
+        return provider.getDBaaSWaiter(service);
+    }
+}
@@ -0,0 +1,202 @@
+/**
+ * Copyright (C) 2009-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.openstack.nova.os;
+
+import org.apache.log4j.Logger;
+import org.dasein.cloud.CloudException;
+import org.dasein.cloud.InternalException;
+import org.dasein.util.CalendarWrapper;
+import org.json.JSONObject;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+
+/**
+ * Waits for database instances and snapshots of a database-as-a-service endpoint to reach a state. Every wait in
+ * progress is checked by one {@link Poller}, which lists each kind of resource being waited on once per tick
+ * rather than fetching each resource on its own. The listing runs on the provider's executor and also refreshes
+ * the region's {@link DBaaSInventory}. The outcome of a wait is handed back through a {@link Future}.
+ * @since 2015.06.2
+ * @version 2015.06.2 initial version
+ */
+public class DBaaSWaiter extends Poller<DBaaSWaiter.Wait<?>> {
+    static private final Logger logger = NovaOpenStack.getLogger(DBaaSWaiter.class, "std");
+
+    static public final long POLL_INTERVAL = CalendarWrapper.SECOND * 5L;
+    static public final long WAIT_TIMEOUT  = CalendarWrapper.MINUTE * 30L;
+
+    /**
+     * Decides from the current listing of a resource whether a wait is over. Conditions run on the provider's
+     * executor, one check at a time for each wait.
+     * @param <T> the result of the wait
+     */
+    public interface Condition<T> {
+        /**
+         * @param item the resource as currently listed, or null if the listing no longer holds it
+         * @return true once the resource has reached the state waited for
+         * @throws CloudException the resource reached a state from which it will never satisfy the condition
+         * @throws InternalException an error occurred within Dasein Cloud while checking the resource
+         */
+        public boolean isMet(@Nullable JSONObject item) throws CloudException, InternalException;
+
+        /**
+         * @param item the resource that satisfied the condition, or null if it is no longer listed
+         * @return the result of the wait
+         * @throws CloudException an error occurred interpreting the resource
+         * @throws InternalException an error occurred within Dasein Cloud while interpreting the resource
+         */
+        public @Nullable T toResult(@Nullable JSONObject item) throws CloudException, InternalException;
+    }
+
+    static class Wait<T> extends Poller.Task<T> {
+        private Condition<T>        condition;
+        private String              id;
+        private DBaaSInventory.Kind kind;
+
+        private Wait(@Nonnull DBaaSInventory.Kind kind, @Nonnull String id, long timeout, @Nonnull Condition<T> condition) {
+            super(timeout);
+            this.kind = kind;
+            this.id = id;
+            this.condition = condition;
+        }
+
+        private void check(@Nullable JSONObject item) {
+            try {
+                if( condition.isMet(item) ) {
+                    set(condition.toResult(item));
+                }
+                else if( isExpired() ) {
+                    expire();
+                }
+            }
+            catch( Throwable t ) {
+                setException(t);
+            }
+        }
+
+        private void expire() {
+            logger.warn("Wait for " + kind + " " + id + " did not finish in time");
+            setException(new CloudException("Operation timed out"));
+        }
+    }
+
+    private String service;
+
+    /**
+     * @param provider the provider through which the endpoint is reached
+     * @param service the service type of the endpoint, such as <code>rax:database</code>
+     */
+    public DBaaSWaiter(@Nonnull NovaOpenStack provider, @Nonnull String service) {
+        super(provider, POLL_INTERVAL);
+        this.service = service;
+    }
+
+    /**
+     * Starts waiting on a resource for up to {@link #WAIT_TIMEOUT}.
+     * @param kind the kind of resource, either instances or snapshots
+     * @param id the ID of the resource
+     * @param condition decides when the wait is over
+     * @param <T> the result of the wait
+     * @return a future that completes with the result of the condition, or fails if the condition fails or the
+     * wait times out
+     */
+    public @Nonnull <T> Future<T> watch(@Nonnull DBaaSInventory.Kind kind, @Nonnull String id, @Nonnull Condition<T> condition) {
+        return watch(kind, id, WAIT_TIMEOUT, condition);
+    }
+
+    /**
+     * Starts waiting on a resource.
+     * @param kind the kind of resource, either instances or snapshots
+     * @param id the ID of the resource
+     * @param timeout how long to wait, in milliseconds
+     * @param condition decides when the wait is over
+     * @param <T> the result of the wait
+     * @return a future that completes with the result of the condition, or fails if the condition fails or the
+     * wait times out
+     */
+    public @Nonnull <T> Future<T> watch(@Nonnull DBaaSInventory.Kind kind, @Nonnull String id, long timeout, @Nonnull Condition<T> condition) {
+        Wait<T> wait = new Wait<T>(kind, id, timeout, condition);
+
+        add(wait);
+        return wait;
+    }
+
+    @Override
+    protected @Nonnull Collection<List<Wait<?>>> partition(@Nonnull List<Wait<?>> due) {
+        Map<DBaaSInventory.Kind,List<Wait<?>>> byKind = new EnumMap<DBaaSInventory.Kind, List<Wait<?>>>(DBaaSInventory.Kind.class);
+
+        for( Wait<?> wait : due ) {
+            List<Wait<?>> list = byKind.get(wait.kind);
+
+            if( list == null ) {
+                list = new ArrayList<Wait<?>>();
+                byKind.put(wait.kind, list);
+            }
+            list.add(wait);
+        }
+        return byKind.values();
+    }
+
+    @Override
+    protected void check(@Nonnull List<Wait<?>> waits) throws CloudException, InternalException {
+        DBaaSInventory.Kind kind = waits.get(0).kind;
+        Map<String,JSONObject> current = new HashMap<String, JSONObject>();
+
+        try {
+            for( JSONObject item : new DBaaSInventory(getProvider(), service).refresh(kind) ) {
+                if( item.has("id") && !item.isNull("id") ) {
+                    current.put(item.getString("id"), item);
+                }
+            }
+        }
+        catch( Throwable t ) {
+            // try again on the next tick unless the wait is out of time
+            logger.warn("Unable to list " + kind + " while waiting on them: " + t.getMessage());
+            for( Wait<?> wait : waits ) {
+                if( wait.isExpired() ) {
+                    wait.expire();
+                }
+            }
+            return;
+        }
+        for( Wait<?> wait : waits ) {
+            wait.check(current.get(wait.id));
+        }
+    }
+
+    /**
+     * Blocks until a wait completes.
+     * @param future the future returned by {@link #watch(DBaaSInventory.Kind, String, Condition)}
+     * @param <T> the result of the wait
+     * @return the result of the wait
+     * @throws CloudException the wait failed or did not finish in time
+     * @throws InternalException an error occurred within Dasein Cloud while waiting
+     */
+    static public @Nullable <T> T waitFor(@Nonnull Future<T> future) throws CloudException, InternalException {
+        return waitFor(future, WAIT_TIMEOUT + CalendarWrapper.MINUTE, "a database");
+    }
+}
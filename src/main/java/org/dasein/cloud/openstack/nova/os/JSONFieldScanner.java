@@ -0,0 +1,269 @@
+/**
+ * Copyright (C) 2009-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.openstack.nova.os;
+
+import org.json.JSONException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Single pass reader that pulls a handful of top-level fields out of each entry of a JSON collection such as
+ * <code>{"servers":[{...},{...}]}</code> without building the object tree for the rest of the document. Used
+ * by the status listings, which only care about ids and states.
+ * <p>
+ * String values are returned unescaped, <code>null</code> values as null, and any other value (numbers,
+ * booleans, nested objects and arrays) as its raw JSON text.
+ * </p>
+ * @since 2015.06.2
+ * @version 2015.06.2 initial version
+ */
+public class JSONFieldScanner {
+    static public @Nonnull List<Map<String,String>> scan(@Nullable String json, @Nonnull String collection, @Nonnull String ... fields) throws JSONException {
+        List<Map<String,String>> results = new ArrayList<Map<String, String>>();
+
+        if( json == null ) {
+            return results;
+        }
+        JSONFieldScanner scanner = new JSONFieldScanner(json);
+
+        scanner.scan(collection, new HashSet<String>(Arrays.asList(fields)), results);
+        return results;
+    }
+
+    private String json;
+    private int    position;
+
+    private JSONFieldScanner(@Nonnull String json) {
+        this.json = json;
+        this.position = 0;
+    }
+
+    private void scan(@Nonnull String collection, @Nonnull Set<String> fields, @Nonnull List<Map<String,String>> results) throws JSONException {
+        if( next() != '{' ) {
+            throw error("Expected a JSON object");
+        }
+        if( peek() == '}' ) {
+            return;
+        }
+        while( true ) {
+            String key = readString();
+
+            expect(':');
+            if( key.equals(collection) && peek() == '[' ) {
+                position++;
+                if( peek() == ']' ) {
+                    position++;
+                }
+                else {
+                    while( true ) {
+                        results.add(readObject(fields));
+                        char c = next();
+
+                        if( c == ']' ) {
+                            break;
+                        }
+                        if( c != ',' ) {
+                            throw error("Expected ',' or ']'");
+                        }
+                    }
+                }
+            }
+            else {
+                skipValue();
+            }
+            char c = next();
+
+            if( c == '}' ) {
+                return;
+            }
+            if( c != ',' ) {
+                throw error("Expected ',' or '}'");
+            }
+        }
+    }
+
+    private @Nonnull Map<String,String> readObject(@Nonnull Set<String> fields) throws JSONException {
+        Map<String,String> values = new HashMap<String, String>();
+
+        if( next() != '{' ) {
+            throw error("Expected a JSON object");
+        }
+        if( peek() == '}' ) {
+            position++;
+            return values;
+        }
+        while( true ) {
+            String key = readString();
+
+            expect(':');
+            if( fields.contains(key) ) {
+                if( peek() == '"' ) {
+                    values.put(key, readString());
+                }
+                else {
+                    int start = position;
+
+                    skipValue();
+                    String raw = json.substring(start, position).trim();
+
+                    values.put(key, raw.equals("null") ? null : raw);
+                }
+            }
+            else {
+                skipValue();
+            }
+            char c = next();
+
+            if( c == '}' ) {
+                return values;
+            }
+            if( c != ',' ) {
+                throw error("Expected ',' or '}'");
+            }
+        }
+    }
+
+    private void skipValue() throws JSONException {
+        char c = peek();
+
+        if( c == '"' ) {
+            readString();
+        }
+        else if( c == '{' || c == '[' ) {
+            int depth = 0;
+
+            do {
+                c = json.charAt(position);
+                if( c == '"' ) {
+                    readString();
+                    continue;
+                }
+                if( c == '{' || c == '[' ) {
+                    depth++;
+                }
+                else if( c == '}' || c == ']' ) {
+                    depth--;
+                }
+                position++;
+            } while( depth > 0 && position < json.length() );
+            if( depth > 0 ) {
+                throw error("Unterminated JSON structure");
+            }
+        }
+        else {
+            while( position < json.length() ) {
+                c = json.charAt(position);
+                if( c == ',' || c == '}' || c == ']' ) {
+                    break;
+                }
+                position++;
+            }
+        }
+    }
+
+    private @Nonnull String readString() throws JSONException {
+        if( next() != '"' ) {
+            throw error("Expected a JSON string");
+        }
+        StringBuilder str = null;
+        int start = position;
+
+        while( position < json.length() ) {
+            char c = json.charAt(position++);
+
+            if( c == '"' ) {
+                if( str == null ) {
+                    return json.substring(start, position-1);
+                }
+                return str.toString();
+            }
+            if( c == '\\' ) {
+                if( str == null ) {
+                    str = new StringBuilder(json.substring(start, position-1));
+                }
+                if( position >= json.length() ) {
+                    break;
+                }
+                c = json.charAt(position++);
+                switch( c ) {
+                    case 'b': str.append('\b'); break;
+                    case 't': str.append('\t'); break;
+                    case 'n': str.append('\n'); break;
+                    case 'f': str.append('\f'); break;
+                    case 'r': str.append('\r'); break;
+                    case 'u':
+                        if( position + 4 > json.length() ) {
+                            throw error("Invalid unicode escape");
+                        }
+                        try {
+                            str.append((char)Integer.parseInt(json.substring(position, position + 4), 16));
+                        }
+                        catch( NumberFormatException e ) {
+                            throw error("Invalid unicode escape");
+                        }
+                        position += 4;
+                        break;
+                    default: str.append(c); break;
+                }
+            }
+            else if( str != null ) {
+                str.append(c);
+            }
+        }
+        throw error("Unterminated JSON string");
+    }
+
+    private void expect(char c) throws JSONException {
+        if( next() != c ) {
+            throw error("Expected '" + c + "'");
+        }
+    }
+
+    private char next() throws JSONException {
+        char c = peek();
+
+        position++;
+        return c;
+    }
+
+    private char peek() throws JSONException {
+        while( position < json.length() ) {
+            char c = json.charAt(position);
+
+            if( !Character.isWhitespace(c) ) {
+                return c;
+            }
+            position++;
+        }
+        throw error("Unexpected end of JSON");
+    }
+
+    private @Nonnull JSONException error(@Nonnull String message) {
+        return new JSONException(message + " at character " + position);
+    }
+}
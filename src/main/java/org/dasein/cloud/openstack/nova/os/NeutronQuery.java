@@ -0,0 +1,162 @@
+/**
+ * Copyright (C) 2009-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.openstack.nova.os;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Query string for Neutron list operations, letting callers push field selection, equality filters, sorting
+ * and paging to the server instead of fetching whole collections and filtering them locally.
+ * <p>
+ * Usage: <code>NeutronQuery.getInstance().withFilter("network_id", id).withFields("id", "fixed_ips")</code>
+ * </p>
+ * @since 2015.06.2
+ * @version 2015.06.2 initial version
+ */
+public class NeutronQuery {
+    static public @Nonnull NeutronQuery getInstance() {
+        return new NeutronQuery();
+    }
+
+    private List<String>       fields  = new ArrayList<String>();
+    private Map<String,String> filters = new LinkedHashMap<String, String>();
+    private int                limit   = 0;
+    private String             marker;
+    private Map<String,String> sorts   = new LinkedHashMap<String, String>();
+
+    private NeutronQuery() { }
+
+    /**
+     * @return a copy of this query that can be changed without affecting this one
+     */
+    public @Nonnull NeutronQuery copy() {
+        NeutronQuery query = new NeutronQuery();
+
+        query.fields.addAll(fields);
+        query.filters.putAll(filters);
+        query.limit = limit;
+        query.marker = marker;
+        query.sorts.putAll(sorts);
+        return query;
+    }
+
+    /**
+     * Restricts the attributes returned for each item. Every field named here is returned, and no others.
+     * @param fields the attributes to return
+     * @return this
+     */
+    public @Nonnull NeutronQuery withFields(@Nonnull String ... fields) {
+        for( String field : fields ) {
+            if( !this.fields.contains(field) ) {
+                this.fields.add(field);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Restricts the results to items whose attribute has the specified value.
+     * @param attribute the attribute to match
+     * @param value the value it must have
+     * @return this
+     */
+    public @Nonnull NeutronQuery withFilter(@Nonnull String attribute, @Nonnull String value) {
+        filters.put(attribute, value);
+        return this;
+    }
+
+    public @Nonnull NeutronQuery withLimit(int limit) {
+        this.limit = limit;
+        return this;
+    }
+
+    public @Nonnull NeutronQuery withMarker(@Nullable String marker) {
+        this.marker = marker;
+        return this;
+    }
+
+    public @Nonnull NeutronQuery sortedBy(@Nonnull String attribute, boolean ascending) {
+        sorts.put(attribute, ascending ? "asc" : "desc");
+        return this;
+    }
+
+    public @Nonnull List<String> getFields() {
+        return new ArrayList<String>(fields);
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public @Nullable String getMarker() {
+        return marker;
+    }
+
+    /**
+     * @return the query string, including the leading <code>?</code>, or an empty string if the query is empty
+     */
+    public @Nonnull String toQueryString() {
+        StringBuilder str = new StringBuilder();
+
+        for( Map.Entry<String,String> filter : filters.entrySet() ) {
+            append(str, filter.getKey(), filter.getValue());
+        }
+        for( String field : fields ) {
+            append(str, "fields", field);
+        }
+        for( Map.Entry<String,String> sort : sorts.entrySet() ) {
+            append(str, "sort_key", sort.getKey());
+            append(str, "sort_dir", sort.getValue());
+        }
+        if( limit > 0 ) {
+            append(str, "limit", String.valueOf(limit));
+        }
+        if( marker != null ) {
+            append(str, "marker", marker);
+        }
+        return str.toString();
+    }
+
+    private void append(@Nonnull StringBuilder str, @Nonnull String name, @Nonnull String value) {
+        str.append(str.length() == 0 ? "?" : "&");
+        str.append(encode(name)).append("=").append(encode(value));
+    }
+
+    private @Nonnull String encode(@Nonnull String value) {
+        try {
+            return URLEncoder.encode(value, "utf-8");
+        }
+        catch( UnsupportedEncodingException e ) {
+            throw new RuntimeException("UTF-8 is not supported: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public @Nonnull String toString() {
+        return toQueryString();
+    }
+}
@@ -72,12 +72,10 @@ public class NovaLocationServices extends AbstractDataCenterServices<NovaOpenSta
             if( regionId == null ) {
                 throw new CloudException("No region is known for zones request");
             }
-            for( DataCenter dc : listDataCenters(regionId) ) {
-                if( dc.getProviderDataCenterId().equals(providerDataCenterId) ) {
-                    return dc;
-                }
+            if( !providerDataCenterId.equals(toDataCenterId(regionId)) || getProvider().getAuthenticationContext().getRegion(regionId) == null ) {
+                return null;
             }
-            return null;
+            return toDataCenter(regionId);
         }
         finally {
             APITrace.end();
@@ -88,12 +86,7 @@ public class NovaLocationServices extends AbstractDataCenterServices<NovaOpenSta
     public @Nullable Region getRegion(String providerRegionId) throws InternalException, CloudException {
         APITrace.begin(getProvider(), "DC.getRegion");
         try {
-            for( Region region : listRegions() ) {
-                if( region.getProviderRegionId().equals(providerRegionId) ) {
-                    return region;
-                }
-            }
-            return null;
+            return getProvider().getAuthenticationContext().getRegion(providerRegionId);
         }
         finally {
             APITrace.end();
@@ -109,20 +102,31 @@ public class NovaLocationServices extends AbstractDataCenterServices<NovaOpenSta
             if( region == null ) {
                 throw new CloudException("No such region: " + providerRegionId);
             }
-            DataCenter dc = new DataCenter();
-
-            dc.setActive(true);
-            dc.setAvailable(true);
-            dc.setName(region.getProviderRegionId() + "-a");
-            dc.setProviderDataCenterId(region.getProviderRegionId() + "-a");
-            dc.setRegionId(providerRegionId);
-            return Collections.singletonList(dc);
+            return Collections.singletonList(toDataCenter(region.getProviderRegionId()));
         }
         finally {
             APITrace.end();
         }
     }
 
+    /**
+     * Each region has a single data center, named after the region.
+     */
+    private @Nonnull String toDataCenterId(@Nonnull String regionId) {
+        return regionId + "-a";
+    }
+
+    private @Nonnull DataCenter toDataCenter(@Nonnull String regionId) {
+        DataCenter dc = new DataCenter();
+
+        dc.setActive(true);
+        dc.setAvailable(true);
+        dc.setName(toDataCenterId(regionId));
+        dc.setProviderDataCenterId(toDataCenterId(regionId));
+        dc.setRegionId(regionId);
+        return dc;
+    }
+
     @Override
     public @Nonnull Iterable<Region> listRegions() throws InternalException, CloudException {
         APITrace.begin(getProvider(), "DC.listRegions");
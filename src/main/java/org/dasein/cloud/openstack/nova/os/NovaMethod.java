@@ -28,13 +28,18 @@ import org.dasein.cloud.util.Cache;
 import org.dasein.cloud.util.CacheLevel;
 import org.dasein.util.uom.time.Day;
 import org.dasein.util.uom.time.TimePeriod;
+import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class NovaMethod extends AbstractMethod {
     public NovaMethod(NovaOpenStack provider) { super(provider); }
@@ -124,6 +129,24 @@ public class NovaMethod extends AbstractMethod {
     }
     
     public @Nullable JSONObject getServers(@Nonnull final String resource, @Nullable final String resourceId, final boolean suffix) throws CloudException, InternalException {
+        return getServers(resource, resourceId, suffix, null);
+    }
+
+    public @Nullable JSONObject getServers(@Nonnull final String resource, @Nullable final String resourceId, final boolean suffix, @Nullable final String query) throws CloudException, InternalException {
+        String response = getServersForString(resource, resourceId, suffix, query);
+
+        if( response == null ) {
+            return null;
+        }
+        try {
+            return new JSONObject(response);
+        }
+        catch( JSONException e ) {
+            throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", response);
+        }
+    }
+
+    public @Nullable String getServersForString(@Nonnull final String resource, @Nullable final String resourceId, final boolean suffix, @Nullable final String query) throws CloudException, InternalException {
         AuthenticationContext context = provider.getAuthenticationContext();
         String endpoint = context.getComputeUrl();
         
@@ -137,24 +160,17 @@ public class NovaMethod extends AbstractMethod {
         else if( suffix ) {
             resourceUri += "/detail";
         }
+        if( query != null ) {
+            resourceUri += query;
+        }
         try {
-            String response = getString(context.getAuthToken(), endpoint, resourceUri);
-
-            if( response == null ) {
-                return null;
-            }
-            try {
-                return new JSONObject(response);
-            }
-            catch( JSONException e ) {
-                throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", response);
-            }
+            return getString(context.getAuthToken(), endpoint, resourceUri);
         }
         catch (NovaException ex) {
             if (ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED) {
                 Cache<AuthenticationContext> cache = Cache.getInstance(provider, "authenticationContext", AuthenticationContext.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Day>(1, TimePeriod.DAY));
                 cache.clear();
-                return getServers(resource, resourceId, suffix);
+                return getServersForString(resource, resourceId, suffix, query);
             }
             else {
                 throw ex;
@@ -211,6 +227,64 @@ public class NovaMethod extends AbstractMethod {
         }
     }
 
+    public @Nullable JSONObject getNetworks(@Nonnull final String resource, @Nullable final String resourceId, @Nullable final NeutronQuery query) throws CloudException, InternalException {
+        String queryString = (query == null ? null : query.toQueryString());
+
+        return getNetworks(resource, resourceId, false, (queryString == null || queryString.isEmpty()) ? null : queryString);
+    }
+
+    /**
+     * Lists a Neutron collection, following <code>marker</code>/<code>limit</code> paging when the query sets a
+     * limit. Servers with paging disabled return the whole collection on the first request; paging stops as soon
+     * as a page is short, oversized or brings back nothing new.
+     * @param resource the collection resource, such as <code>v2.0/ports</code>
+     * @param collection the name of the array in the response, such as <code>ports</code>
+     * @param query the fields, filters, sorting and page size to send, or null for the whole collection
+     * @return every item in the collection matching the query
+     * @throws CloudException an error occurred with the cloud provider while listing the collection
+     * @throws InternalException an error occurred within Dasein Cloud while listing the collection
+     */
+    public @Nonnull List<JSONObject> listNetworks(@Nonnull final String resource, @Nonnull final String collection, @Nullable final NeutronQuery query) throws CloudException, InternalException {
+        NeutronQuery page = (query == null ? NeutronQuery.getInstance() : query.copy());
+        List<JSONObject> items = new ArrayList<JSONObject>();
+        Set<String> seen = new HashSet<String>();
+
+        if( page.getLimit() > 0 && !page.getFields().isEmpty() ) {
+            page.withFields("id");
+        }
+        try {
+            while( true ) {
+                JSONObject ob = getNetworks(resource, null, page);
+
+                if( ob == null || !ob.has(collection) ) {
+                    return items;
+                }
+                JSONArray list = ob.getJSONArray(collection);
+                String last = null;
+                int count = 0;
+
+                for( int i=0; i<list.length(); i++ ) {
+                    JSONObject item = list.getJSONObject(i);
+                    String id = (item.has("id") ? item.getString("id") : null);
+
+                    if( id != null && !seen.add(id) ) {
+                        continue;
+                    }
+                    items.add(item);
+                    last = id;
+                    count++;
+                }
+                if( page.getLimit() < 1 || list.length() != page.getLimit() || count == 0 || last == null ) {
+                    return items;
+                }
+                page.withMarker(last);
+            }
+        }
+        catch( JSONException e ) {
+            throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", "Missing JSON element for " + collection + ": " + e.getMessage());
+        }
+    }
+
     public @Nullable String postServersForString(@Nonnull final String resource, @Nullable final String resourceId, @Nonnull final JSONObject body, final boolean suffix) throws CloudException, InternalException {
         AuthenticationContext context = provider.getAuthenticationContext();
 
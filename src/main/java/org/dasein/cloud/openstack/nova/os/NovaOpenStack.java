@@ -21,11 +21,21 @@ package org.dasein.cloud.openstack.nova.os;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
@@ -43,6 +53,7 @@ import org.dasein.cloud.Tag;
 import org.dasein.cloud.openstack.nova.os.compute.NovaComputeServices;
 import org.dasein.cloud.openstack.nova.os.ext.hp.HPPlatformServices;
 import org.dasein.cloud.openstack.nova.os.ext.rackspace.RackspacePlatformServices;
+import org.dasein.cloud.openstack.nova.os.ext.rackspace.dns.DNSJobTracker;
 import org.dasein.cloud.openstack.nova.os.identity.NovaIdentityServices;
 import org.dasein.cloud.openstack.nova.os.network.NovaNetworkServices;
 import org.dasein.cloud.openstack.nova.os.storage.SwiftStorageServices;
@@ -334,6 +345,205 @@ public class NovaOpenStack extends AbstractCloud {
         return (value != null && value.equalsIgnoreCase("true"));
     }
 
+    /**
+     * @return the maximum number of concurrent API calls a single batch operation may issue, as set by the
+     * <code>batchConcurrency</code> custom property or system property (default 10)
+     */
+    public int getBatchConcurrency() {
+        return getPositiveIntProperty("batchConcurrency", 10);
+    }
+
+    private int getPositiveIntProperty(@Nonnull String name, int defaultValue) {
+        ProviderContext ctx = getContext();
+        String value = null;
+
+        if( ctx != null ) {
+            Properties p = ctx.getCustomProperties();
+
+            if( p != null ) {
+                value = p.getProperty(name);
+            }
+        }
+        if( value == null ) {
+            value = System.getProperty(name);
+        }
+        if( value != null ) {
+            try {
+                int i = Integer.parseInt(value.trim());
+
+                if( i > 0 ) {
+                    return i;
+                }
+            }
+            catch( NumberFormatException e ) {
+                logger.warn("Invalid " + name + " value: " + value);
+            }
+        }
+        return defaultValue;
+    }
+
+    private transient boolean            closed;
+    private transient ThreadPoolExecutor executor;
+
+    /**
+     * Keeps the pools and pollers from being built again once {@link #close()} has shut them down, since nothing
+     * would ever shut the new ones down. The caller must hold the lock on this provider.
+     */
+    private void checkOpen() {
+        if( closed ) {
+            throw new IllegalStateException("This provider has been closed");
+        }
+    }
+
+    /**
+     * Provides the executor on which this provider runs its asynchronous operations, such as the
+     * <code>*Concurrently</code> listings. The executor belongs to this provider and is shut down by
+     * {@link #close()}. Its size is set by the <code>executorThreads</code> custom property or system property
+     * (default 10) and its queue by <code>executorQueueSize</code> (default 100); once the queue is full, new work
+     * runs on the submitting thread.
+     * @return the executor for this provider's asynchronous operations
+     * @throws IllegalStateException this provider has been closed
+     */
+    public synchronized @Nonnull ExecutorService getExecutor() {
+        checkOpen();
+        if( executor == null ) {
+            int threads = getPositiveIntProperty("executorThreads", 10);
+            ThreadFactory factory = new ThreadFactory() {
+                private AtomicInteger count = new AtomicInteger(0);
+
+                @Override
+                public Thread newThread(@Nonnull Runnable r) {
+                    Thread t = new Thread(r, "dasein-nova-executor-" + count.incrementAndGet());
+
+                    t.setDaemon(true);
+                    return t;
+                }
+            };
+
+            executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(getPositiveIntProperty("executorQueueSize", 100)), factory, new ThreadPoolExecutor.CallerRunsPolicy());
+            executor.allowCoreThreadTimeOut(true);
+        }
+        return executor;
+    }
+
+    /**
+     * @return the number of operations waiting for a thread in this provider's executor
+     */
+    public synchronized int getExecutorQueueDepth() {
+        return (executor == null ? 0 : executor.getQueue().size());
+    }
+
+    /**
+     * @return the approximate number of operations running in this provider's executor
+     */
+    public synchronized int getExecutorActiveCount() {
+        return (executor == null ? 0 : executor.getActiveCount());
+    }
+
+    private transient ScheduledThreadPoolExecutor scheduler;
+
+    /**
+     * Provides the single thread on which this provider runs periodic work, such as polling the status of
+     * asynchronous jobs. Work scheduled here should be short; anything slow belongs on {@link #getExecutor()}.
+     * The scheduler is shut down by {@link #close()}.
+     * @return the scheduler for this provider's periodic work
+     * @throws IllegalStateException this provider has been closed
+     */
+    public synchronized @Nonnull ScheduledExecutorService getScheduler() {
+        checkOpen();
+        if( scheduler == null ) {
+            scheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+                @Override
+                public Thread newThread(@Nonnull Runnable r) {
+                    Thread t = new Thread(r, "dasein-nova-scheduler");
+
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+        }
+        return scheduler;
+    }
+
+    private transient DNSJobTracker dnsJobTracker;
+
+    /**
+     * @return the tracker through which this provider waits on asynchronous Rackspace DNS jobs
+     * @throws IllegalStateException this provider has been closed
+     */
+    public synchronized @Nonnull DNSJobTracker getDNSJobTracker() {
+        checkOpen();
+        if( dnsJobTracker == null ) {
+            dnsJobTracker = new DNSJobTracker(this);
+        }
+        return dnsJobTracker;
+    }
+
+    private transient Map<String,DBaaSWaiter> dbaasWaiters;
+
+    /**
+     * @param service the service type of the database endpoint, such as <code>rax:database</code>
+     * @return the waiter through which this provider waits on the instances and snapshots of that endpoint
+     * @throws IllegalStateException this provider has been closed
+     */
+    public synchronized @Nonnull DBaaSWaiter getDBaaSWaiter(@Nonnull String service) {
+        checkOpen();
+        if( dbaasWaiters == null ) {
+            dbaasWaiters = new HashMap<String, DBaaSWaiter>();
+        }
+        DBaaSWaiter waiter = dbaasWaiters.get(service);
+
+        if( waiter == null ) {
+            waiter = new DBaaSWaiter(this, service);
+            dbaasWaiters.put(service, waiter);
+        }
+        return waiter;
+    }
+
+    @Override
+    public void close() {
+        try {
+            ThreadPoolExecutor pool;
+            ScheduledThreadPoolExecutor timer;
+            DNSJobTracker tracker;
+            Map<String,DBaaSWaiter> waiters;
+
+            synchronized( this ) {
+                closed = true;
+                pool = executor;
+                executor = null;
+                timer = scheduler;
+                scheduler = null;
+                tracker = dnsJobTracker;
+                dnsJobTracker = null;
+                waiters = dbaasWaiters;
+                dbaasWaiters = null;
+            }
+            if( tracker != null ) {
+                tracker.close();
+            }
+            if( waiters != null ) {
+                for( DBaaSWaiter waiter : waiters.values() ) {
+                    waiter.close();
+                }
+            }
+            if( timer != null ) {
+                timer.shutdownNow();
+            }
+            if( pool != null ) {
+                // anyone waiting on work that never started gets a cancellation instead of waiting forever
+                for( Runnable r : pool.shutdownNow() ) {
+                    if( r instanceof Future ) {
+                        ((Future<?>)r).cancel(false);
+                    }
+                }
+            }
+        }
+        finally {
+            super.close();
+        }
+    }
+
     public boolean isRackspace() {
         return getCloudProvider().equals(OpenStackProvider.RACKSPACE);
     }
@@ -414,14 +624,7 @@ public class NovaOpenStack extends AbstractCloud {
     	APITrace.begin(this, "Cloud.createTags");
     	try {
     		try {
-    			NovaMethod method = new NovaMethod(this);
-    			HashMap<String,Object> json = new HashMap<String, Object>();
-    			Map<String, Object> newMeta = new HashMap<String, Object>();
-    			for (int i = 0; i < keyValuePairs.length; i++) {
-    				newMeta.put( keyValuePairs[i].getKey().toLowerCase(), keyValuePairs[i].getValue() != null ? keyValuePairs[i].getValue() : "");
-    			}
-    			json.put("metadata", newMeta);
-    			method.putString(service, resource, resourceId, new JSONObject(json), "metadata");
+    			putTags(service, resource, resourceId, keyValuePairs);
     		} catch( Exception e ) {
     			logger.error("Error while creating tags for " + resource + " - " + resourceId + ".", e);
     		}
@@ -429,19 +632,50 @@ public class NovaOpenStack extends AbstractCloud {
     		APITrace.end();
     	}
     }
+
+    /**
+     * Replaces the metadata of many resources at once, running the individual metadata calls concurrently.
+     * Unlike the single resource variant, failures are reported back to the caller once every resource has
+     * been processed.
+     * @param service the service owning the resources
+     * @param resource the resource collection path
+     * @param resourceIds the resources to tag
+     * @param keyValuePairs the tags to set
+     * @throws CloudException tagging failed for one or more resources
+     * @throws InternalException an error occurred within Dasein Cloud while processing the request
+     */
+    public void createTags( final String service, final String resource, String[] resourceIds, final Tag... keyValuePairs ) throws CloudException, InternalException {
+        APITrace.begin(this, "Cloud.createTags");
+        try {
+            new BatchExecutor(this, "createTags").execute(Arrays.asList(resourceIds), new BatchExecutor.Operation<Void>() {
+                @Override
+                public Void execute(@Nonnull String resourceId) throws CloudException, InternalException {
+                    putTags(service, resource, resourceId, keyValuePairs);
+                    return null;
+                }
+            }).rethrow();
+        }
+        finally {
+            APITrace.end();
+        }
+    }
+
+    private void putTags( String service, String resource, String resourceId, Tag... keyValuePairs ) throws CloudException, InternalException {
+        NovaMethod method = new NovaMethod(this);
+        HashMap<String,Object> json = new HashMap<String, Object>();
+        Map<String, Object> newMeta = new HashMap<String, Object>();
+        for (int i = 0; i < keyValuePairs.length; i++) {
+            newMeta.put( keyValuePairs[i].getKey().toLowerCase(), keyValuePairs[i].getValue() != null ? keyValuePairs[i].getValue() : "");
+        }
+        json.put("metadata", newMeta);
+        method.putString(service, resource, resourceId, new JSONObject(json), "metadata");
+    }
     
     public void updateTags( String service, String resource, String resourceId, Tag... keyValuePairs ) throws CloudException, InternalException {
     	APITrace.begin(this, "Cloud.updateTags");
     	try {
     		try {
-    			NovaMethod method = new NovaMethod(this);
-    			HashMap<String,Object> json = new HashMap<String, Object>();
-    			Map<String, Object> newMeta = new HashMap<String, Object>();
-    			for (int i = 0; i < keyValuePairs.length; i++) {
-    				newMeta.put( keyValuePairs[i].getKey().toLowerCase(), keyValuePairs[i].getValue() != null ? keyValuePairs[i].getValue() : "");
-    			}
-    			json.put("metadata", newMeta);
-    			method.postString(service, resource, resourceId, "metadata", new JSONObject(json));
+    			postTags(service, resource, resourceId, keyValuePairs);
     		} catch( Exception e ) {
     			logger.error("Error while updating tags for " + resource + " - " + resourceId + ".", e);
     		}
@@ -449,15 +683,49 @@ public class NovaOpenStack extends AbstractCloud {
     		APITrace.end();
     	}
     }
+
+    /**
+     * Merges tags into the metadata of many resources at once, running the individual metadata calls
+     * concurrently. Failures are reported back to the caller once every resource has been processed.
+     * @param service the service owning the resources
+     * @param resource the resource collection path
+     * @param resourceIds the resources to tag
+     * @param keyValuePairs the tags to add or update
+     * @throws CloudException tagging failed for one or more resources
+     * @throws InternalException an error occurred within Dasein Cloud while processing the request
+     */
+    public void updateTags( final String service, final String resource, String[] resourceIds, final Tag... keyValuePairs ) throws CloudException, InternalException {
+        APITrace.begin(this, "Cloud.updateTags");
+        try {
+            new BatchExecutor(this, "updateTags").execute(Arrays.asList(resourceIds), new BatchExecutor.Operation<Void>() {
+                @Override
+                public Void execute(@Nonnull String resourceId) throws CloudException, InternalException {
+                    postTags(service, resource, resourceId, keyValuePairs);
+                    return null;
+                }
+            }).rethrow();
+        }
+        finally {
+            APITrace.end();
+        }
+    }
+
+    private void postTags( String service, String resource, String resourceId, Tag... keyValuePairs ) throws CloudException, InternalException {
+        NovaMethod method = new NovaMethod(this);
+        HashMap<String,Object> json = new HashMap<String, Object>();
+        Map<String, Object> newMeta = new HashMap<String, Object>();
+        for (int i = 0; i < keyValuePairs.length; i++) {
+            newMeta.put( keyValuePairs[i].getKey().toLowerCase(), keyValuePairs[i].getValue() != null ? keyValuePairs[i].getValue() : "");
+        }
+        json.put("metadata", newMeta);
+        method.postString(service, resource, resourceId, "metadata", new JSONObject(json));
+    }
     
     public void removeTags( String service, String resource, String resourceId, Tag... keyValuePairs ) throws CloudException, InternalException {
     	APITrace.begin(this, "Cloud.removeTags");
     	try {
     		try {
-    			NovaMethod method = new NovaMethod(this);
-    			for (int i = 0; i < keyValuePairs.length; i++) {
-    				method.deleteResource(service, resource + "/" + resourceId + "/metadata", keyValuePairs[i].getKey().toLowerCase(), null);
-    			}
+    			deleteTags(service, resource, resourceId, keyValuePairs);
     		} catch( Exception e ) {
     			logger.error("Error while removing tags from " + resource + " - " + resourceId + ".", e);
     		}
@@ -465,4 +733,37 @@ public class NovaOpenStack extends AbstractCloud {
     		APITrace.end();
     	}
     }
+
+    /**
+     * Removes tags from the metadata of many resources at once, running the individual metadata calls
+     * concurrently. Failures are reported back to the caller once every resource has been processed.
+     * @param service the service owning the resources
+     * @param resource the resource collection path
+     * @param resourceIds the resources to untag
+     * @param keyValuePairs the tags to remove
+     * @throws CloudException removing tags failed for one or more resources
+     * @throws InternalException an error occurred within Dasein Cloud while processing the request
+     */
+    public void removeTags( final String service, final String resource, String[] resourceIds, final Tag... keyValuePairs ) throws CloudException, InternalException {
+        APITrace.begin(this, "Cloud.removeTags");
+        try {
+            new BatchExecutor(this, "removeTags").execute(Arrays.asList(resourceIds), new BatchExecutor.Operation<Void>() {
+                @Override
+                public Void execute(@Nonnull String resourceId) throws CloudException, InternalException {
+                    deleteTags(service, resource, resourceId, keyValuePairs);
+                    return null;
+                }
+            }).rethrow();
+        }
+        finally {
+            APITrace.end();
+        }
+    }
+
+    private void deleteTags( String service, String resource, String resourceId, Tag... keyValuePairs ) throws CloudException, InternalException {
+        NovaMethod method = new NovaMethod(this);
+        for (int i = 0; i < keyValuePairs.length; i++) {
+            method.deleteResource(service, resource + "/" + resourceId + "/metadata", keyValuePairs[i].getKey().toLowerCase(), null);
+        }
+    }
 }
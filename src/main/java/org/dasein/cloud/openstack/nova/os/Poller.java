@@ -0,0 +1,251 @@
+/**
+ * Copyright (C) 2009-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.openstack.nova.os;
+
+import org.apache.log4j.Logger;
+import org.dasein.cloud.CloudException;
+import org.dasein.cloud.InternalException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Completes futures by polling the cloud for the state of the work they stand for. Every outstanding task of a
+ * poller is watched from one ticker on the provider's scheduler, which only picks the tasks that are due and hands
+ * their checks to the provider's executor, since checks make blocking calls to the cloud. The ticker runs only
+ * while there are tasks outstanding.
+ * @param <W> the type of task polled
+ * @since 2015.06.2
+ * @version 2015.06.2 initial version
+ */
+public abstract class Poller<W extends Poller.Task<?>> {
+    static private final Logger logger = NovaOpenStack.getLogger(Poller.class, "std");
+
+    /**
+     * A future that is completed by its poller rather than by running it.
+     * @param <T> the result of the task
+     */
+    static public abstract class Task<T> extends FutureTask<T> {
+        private boolean checking;
+        private long    timeout;
+
+        /**
+         * @param timeout how long the task may take, in milliseconds
+         */
+        protected Task(long timeout) {
+            super(new Callable<T>() {
+                @Override
+                public T call() throws Exception {
+                    throw new IllegalStateException("Polled tasks complete only through polling");
+                }
+            });
+            this.timeout = System.currentTimeMillis() + timeout;
+        }
+
+        /**
+         * @param now the current time
+         * @return true if the task should be checked on this tick
+         */
+        protected boolean isDue(long now) {
+            return true;
+        }
+
+        /**
+         * @return true once the task has run out of time
+         */
+        public boolean isExpired() {
+            return (System.currentTimeMillis() >= timeout);
+        }
+    }
+
+    private final List<W>      tasks = new ArrayList<W>();
+    private long               interval;
+    private NovaOpenStack      provider;
+    private ScheduledFuture<?> ticker;
+
+    /**
+     * @param provider the provider whose scheduler and executor do the polling
+     * @param interval how often to look for tasks that are due, in milliseconds
+     */
+    protected Poller(@Nonnull NovaOpenStack provider, long interval) {
+        this.provider = provider;
+        this.interval = interval;
+    }
+
+    protected @Nonnull NovaOpenStack getProvider() {
+        return provider;
+    }
+
+    /**
+     * Starts polling a task, starting the ticker if it is not running.
+     * @param task the task to poll
+     * @return the task
+     */
+    protected @Nonnull W add(@Nonnull W task) {
+        synchronized( this ) {
+            tasks.add(task);
+            if( ticker == null ) {
+                ticker = provider.getScheduler().scheduleWithFixedDelay(new Runnable() {
+                    @Override
+                    public void run() {
+                        tick();
+                    }
+                }, interval, interval, TimeUnit.MILLISECONDS);
+            }
+        }
+        return task;
+    }
+
+    /**
+     * Cancels every outstanding task and stops polling. Called when the provider is closed.
+     */
+    public synchronized void close() {
+        for( W task : tasks ) {
+            task.cancel(false);
+        }
+        tasks.clear();
+        if( ticker != null ) {
+            ticker.cancel(false);
+            ticker = null;
+        }
+    }
+
+    private void tick() {
+        List<W> due = new ArrayList<W>();
+        long now = System.currentTimeMillis();
+
+        synchronized( this ) {
+            Iterator<W> it = tasks.iterator();
+
+            while( it.hasNext() ) {
+                W task = it.next();
+                Task<?> t = task;
+
+                if( t.isDone() ) {
+                    it.remove();
+                }
+                else if( !t.checking && t.isDue(now) ) {
+                    t.checking = true;
+                    due.add(task);
+                }
+            }
+            if( tasks.isEmpty() && ticker != null ) {
+                ticker.cancel(false);
+                ticker = null;
+            }
+        }
+        if( due.isEmpty() ) {
+            return;
+        }
+        for( final List<W> group : partition(due) ) {
+            provider.getExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        check(group);
+                    }
+                    catch( Throwable t ) {
+                        // the tasks are checked again on the next tick
+                        logger.warn("Unable to check " + group.size() + " polled tasks: " + t.getMessage());
+                    }
+                    finally {
+                        synchronized( Poller.this ) {
+                            for( Task<?> task : group ) {
+                                task.checking = false;
+                            }
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Splits the tasks due on a tick into groups that are each checked by one call to {@link #check(List)}. By
+     * default every task is checked on its own.
+     * @param due the tasks due on this tick
+     * @return the groups of tasks
+     */
+    protected @Nonnull Collection<List<W>> partition(@Nonnull List<W> due) {
+        List<List<W>> groups = new ArrayList<List<W>>();
+
+        for( W task : due ) {
+            groups.add(Collections.singletonList(task));
+        }
+        return groups;
+    }
+
+    /**
+     * Checks a group of due tasks, completing those that are over. Runs on the provider's executor; no other check
+     * of the same tasks runs at the same time.
+     * @param tasks the tasks to check
+     * @throws CloudException an error occurred with the cloud provider while checking the tasks
+     * @throws InternalException an error occurred within Dasein Cloud while checking the tasks
+     */
+    protected abstract void check(@Nonnull List<W> tasks) throws CloudException, InternalException;
+
+    /**
+     * Blocks until a polled task completes.
+     * @param future the task
+     * @param timeout how long to wait, in milliseconds
+     * @param what what the task stands for, for the error raised if the wait is interrupted
+     * @param <T> the result of the task
+     * @return the result of the task
+     * @throws CloudException the task failed or did not finish in time
+     * @throws InternalException an error occurred within Dasein Cloud while waiting
+     */
+    static protected @Nullable <T> T waitFor(@Nonnull Future<T> future, long timeout, @Nonnull String what) throws CloudException, InternalException {
+        try {
+            return future.get(timeout, TimeUnit.MILLISECONDS);
+        }
+        catch( ExecutionException e ) {
+            Throwable t = e.getCause();
+
+            if( t instanceof CloudException ) {
+                throw (CloudException)t;
+            }
+            if( t instanceof InternalException ) {
+                throw (InternalException)t;
+            }
+            throw new InternalException(t);
+        }
+        catch( TimeoutException e ) {
+            future.cancel(false);
+            throw new CloudException("Operation timed out");
+        }
+        catch( InterruptedException e ) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new InternalException("Interrupted while waiting for " + what);
+        }
+    }
+}
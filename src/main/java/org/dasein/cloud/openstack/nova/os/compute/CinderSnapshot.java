@@ -33,19 +33,29 @@ import org.dasein.cloud.compute.SnapshotCreateOptions;
 import org.dasein.cloud.compute.SnapshotFilterOptions;
 import org.dasein.cloud.compute.SnapshotState;
 import org.dasein.cloud.identity.ServiceAction;
+import org.dasein.cloud.openstack.nova.os.JSONFieldScanner;
 import org.dasein.cloud.openstack.nova.os.NovaMethod;
 import org.dasein.cloud.openstack.nova.os.NovaOpenStack;
 import org.dasein.cloud.util.APITrace;
+import org.dasein.cloud.util.Cache;
+import org.dasein.cloud.util.CacheLevel;
 import org.dasein.util.CalendarWrapper;
+import org.dasein.util.uom.time.Minute;
+import org.dasein.util.uom.time.TimePeriod;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 /**
  * Implements support for snapshots from the OpenStack Cinder API.
@@ -101,6 +111,11 @@ public class CinderSnapshot extends AbstractSnapshotSupport<NovaOpenStack> {
                     Snapshot snapshot = toSnapshot(result.getJSONObject("snapshot"));
 
                     if( snapshot != null ) {
+                        SnapshotIndex index = getIndex();
+
+                        synchronized( index ) {
+                            index.put(snapshot);
+                        }
                         return snapshot.getProviderSnapshotId();
                     }
                 }
@@ -164,23 +179,19 @@ public class CinderSnapshot extends AbstractSnapshotSupport<NovaOpenStack> {
             NovaMethod method = new NovaMethod((NovaOpenStack)getProvider());
             ArrayList<ResourceStatus> snapshots = new ArrayList<ResourceStatus>();
 
-            JSONObject json = method.getResource(SERVICE, getResource(), null, false);
-
-            if( json != null && json.has("snapshots") ) {
-                try {
-                    JSONArray list = json.getJSONArray("snapshots");
+            String response = method.getResourceForString(SERVICE, getResource(), null, false);
 
-                    for( int i=0; i<list.length(); i++ ) {
-                        ResourceStatus snapshot = toStatus(list.getJSONObject(i));
+            try {
+                for( Map<String,String> json : JSONFieldScanner.scan(response, "snapshots", "id", "status") ) {
+                    ResourceStatus snapshot = toStatus(json.get("id"), json.get("status"));
 
-                        if( snapshot != null ) {
-                            snapshots.add(snapshot);
-                        }
+                    if( snapshot != null ) {
+                        snapshots.add(snapshot);
                     }
                 }
-                catch( JSONException e ) {
-                    throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", "Missing JSON element for snapshots in " + json.toString());
-                }
+            }
+            catch( JSONException e ) {
+                throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", "Missing JSON element for snapshots: " + e.getMessage());
             }
             return snapshots;
         }
@@ -209,33 +220,153 @@ public class CinderSnapshot extends AbstractSnapshotSupport<NovaOpenStack> {
     public @Nonnull Iterable<Snapshot> listSnapshots() throws InternalException, CloudException {
         APITrace.begin(getProvider(), "Snapshot.listSnapshots");
         try {
-            NovaMethod method = new NovaMethod((NovaOpenStack)getProvider());
-            ArrayList<Snapshot> snapshots = new ArrayList<Snapshot>();
+            return loadSnapshots(null);
+        }
+        finally {
+            APITrace.end();
+        }
+    }
 
-            JSONObject json = method.getResource(SERVICE, getResource(), null, false);
+    /**
+     * Lists the snapshots taken of the specified volume, oldest first. The results come from the snapshot index
+     * when it holds the volume as of a listing newer than {@link SnapshotIndex#REFRESH_INTERVAL}. Otherwise only the snapshots of that volume are fetched, using the
+     * Cinder <code>volume_id</code> filter, and added to the index.
+     * @param volumeId the volume whose snapshots are being listed
+     * @return the snapshots of the volume
+     * @throws InternalException an error occurred within Dasein Cloud while listing the snapshots
+     * @throws CloudException an error occurred with the cloud provider while listing the snapshots
+     */
+    public @Nonnull Iterable<Snapshot> listSnapshotsForVolume(@Nonnull String volumeId) throws InternalException, CloudException {
+        APITrace.begin(getProvider(), "Snapshot.listSnapshotsForVolume");
+        try {
+            SnapshotIndex index = getIndex(volumeId);
 
-            if( json != null && json.has("snapshots") ) {
-                try {
-                    JSONArray list = json.getJSONArray("snapshots");
+            synchronized( index ) {
+                return index.list(volumeId);
+            }
+        }
+        finally {
+            APITrace.end();
+        }
+    }
 
-                    for( int i=0; i<list.length(); i++ ) {
-                        Snapshot snapshot = toSnapshot(list.getJSONObject(i));
+    /**
+     * Identifies the most recently created snapshot of the specified volume. Like
+     * {@link #listSnapshotsForVolume(String)}, the answer comes from the snapshot index while it holds the volume as
+     * of a listing newer than {@link SnapshotIndex#REFRESH_INTERVAL}, and the snapshots of the volume are fetched
+     * again only once that listing is stale.
+     * @param volumeId the volume in question
+     * @return the latest snapshot of the volume, or null if the volume has no snapshots
+     * @throws InternalException an error occurred within Dasein Cloud while looking up the snapshots
+     * @throws CloudException an error occurred with the cloud provider while looking up the snapshots
+     */
+    public @Nullable Snapshot getLatestSnapshot(@Nonnull String volumeId) throws InternalException, CloudException {
+        APITrace.begin(getProvider(), "Snapshot.getLatestSnapshot");
+        try {
+            SnapshotIndex index = getIndex(volumeId);
 
-                        if( snapshot != null ) {
-                            snapshots.add(snapshot);
+            synchronized( index ) {
+                return index.getLatest(volumeId);
+            }
+        }
+        finally {
+            APITrace.end();
+        }
+    }
+
+    private @Nonnull SnapshotIndex getIndex() throws InternalException, CloudException {
+        Cache<SnapshotIndex> cache = Cache.getInstance(getProvider(), "snapshotIndex", SnapshotIndex.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Minute>(15, TimePeriod.MINUTE));
+        Iterable<SnapshotIndex> current = cache.get(getContext());
+
+        if( current != null ) {
+            for( SnapshotIndex index : current ) {
+                return index;
+            }
+        }
+        SnapshotIndex index = new SnapshotIndex();
+
+        cache.put(getContext(), Collections.singletonList(index));
+        return index;
+    }
+
+    private @Nonnull SnapshotIndex getIndex(@Nonnull String volumeId) throws InternalException, CloudException {
+        SnapshotIndex index = getIndex();
+        boolean loaded;
+
+        synchronized( index ) {
+            loaded = index.isLoaded(volumeId);
+        }
+        if( !loaded ) {
+            loadSnapshots(volumeId);
+            index = getIndex();
+        }
+        return index;
+    }
+
+    /**
+     * Fetches snapshots from Cinder and records them in the snapshot index. Clouds that do not honor the
+     * <code>volume_id</code> filter return every snapshot in the tenant, in which case the whole index is rebuilt
+     * from the response.
+     * @param volumeId the volume whose snapshots are fetched, or null to fetch every snapshot in the tenant
+     * @return the fetched snapshots belonging to the volume, or all snapshots if no volume was specified
+     */
+    private @Nonnull List<Snapshot> loadSnapshots(@Nullable String volumeId) throws InternalException, CloudException {
+        NovaMethod method = new NovaMethod((NovaOpenStack)getProvider());
+        ArrayList<Snapshot> snapshots = new ArrayList<Snapshot>();
+        boolean filtered = true;
+
+        JSONObject json = method.getResource(SERVICE, getResource(), (volumeId == null ? null : "?volume_id=" + encode(volumeId)), false);
+
+        if( json != null && json.has("snapshots") ) {
+            try {
+                JSONArray list = json.getJSONArray("snapshots");
+
+                for( int i=0; i<list.length(); i++ ) {
+                    Snapshot snapshot = toSnapshot(list.getJSONObject(i));
+
+                    if( snapshot != null ) {
+                        if( volumeId != null && !volumeId.equals(snapshot.getVolumeId()) ) {
+                            filtered = false;
                         }
+                        snapshots.add(snapshot);
                     }
                 }
-                catch( JSONException e ) {
-                    logger.error("listSnapshots(): Unable to identify expected values in JSON: " + e.getMessage());
-                    e.printStackTrace();
-                    throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", "Missing JSON element for snapshots in " + json.toString());
+            }
+            catch( JSONException e ) {
+                logger.error("listSnapshots(): Unable to identify expected values in JSON: " + e.getMessage());
+                e.printStackTrace();
+                throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", "Missing JSON element for snapshots in " + json.toString());
+            }
+        }
+        SnapshotIndex index = getIndex();
+
+        synchronized( index ) {
+            if( volumeId == null || !filtered ) {
+                index.load(snapshots);
+            }
+            else {
+                index.load(volumeId, snapshots);
+            }
+        }
+        if( volumeId != null && !filtered ) {
+            ArrayList<Snapshot> matches = new ArrayList<Snapshot>();
+
+            for( Snapshot snapshot : snapshots ) {
+                if( volumeId.equals(snapshot.getVolumeId()) ) {
+                    matches.add(snapshot);
                 }
             }
-            return snapshots;
+            return matches;
         }
-        finally {
-            APITrace.end();
+        return snapshots;
+    }
+
+    private @Nonnull String encode(@Nonnull String value) throws InternalException {
+        try {
+            return URLEncoder.encode(value, "utf-8");
+        }
+        catch( UnsupportedEncodingException e ) {
+            throw new InternalException(e);
         }
     }
 
@@ -265,6 +396,12 @@ public class CinderSnapshot extends AbstractSnapshotSupport<NovaOpenStack> {
             NovaMethod method = new NovaMethod((NovaOpenStack)getProvider());
 
             method.deleteResource(SERVICE, getResource(), snapshotId, null);
+
+            SnapshotIndex index = getIndex();
+
+            synchronized( index ) {
+                index.remove(snapshotId);
+            }
             timeout = System.currentTimeMillis() + (CalendarWrapper.MINUTE * 5L);
             while( System.currentTimeMillis() < timeout ) {
                 try {
@@ -290,27 +427,11 @@ public class CinderSnapshot extends AbstractSnapshotSupport<NovaOpenStack> {
     public @Nonnull Iterable<Snapshot> searchSnapshots(@Nonnull SnapshotFilterOptions options) throws InternalException, CloudException {
         APITrace.begin(getProvider(), "Snapshot.searchSnapshots");
         try {
-            NovaMethod method = new NovaMethod((NovaOpenStack)getProvider());
             ArrayList<Snapshot> snapshots = new ArrayList<Snapshot>();
 
-            JSONObject json = method.getResource(SERVICE, getResource(), null, false);
-
-            if( json != null && json.has("snapshots") ) {
-                try {
-                    JSONArray list = json.getJSONArray("snapshots");
-
-                    for( int i=0; i<list.length(); i++ ) {
-                        Snapshot snapshot = toSnapshot(list.getJSONObject(i));
-
-                        if( snapshot != null && options.matches(snapshot, null) ) {
-                            snapshots.add(snapshot);
-                        }
-                    }
-                }
-                catch( JSONException e ) {
-                    logger.error("searchSnapshots(): Unable to identify expected values in JSON: " + e.getMessage());
-                    e.printStackTrace();
-                    throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", "Missing JSON element for snapshots in " + json.toString());
+            for( Snapshot snapshot : loadSnapshots(null) ) {
+                if( options.matches(snapshot, null) ) {
+                    snapshots.add(snapshot);
                 }
             }
             return snapshots;
@@ -404,40 +525,27 @@ public class CinderSnapshot extends AbstractSnapshotSupport<NovaOpenStack> {
         }
     }
 
-    private @Nullable ResourceStatus toStatus(@Nullable JSONObject json) throws CloudException, InternalException {
-        if( json == null ) {
+    private @Nullable ResourceStatus toStatus(@Nullable String snapshotId, @Nullable String status) {
+        if( snapshotId == null ) {
             return null;
         }
+        SnapshotState state = SnapshotState.PENDING;
 
-        try {
-            String snapshotId = (json.has("id") ? json.getString("id") : null);
-
-            if( snapshotId == null ) {
-                return null;
+        if( status != null ) {
+            if( status.equalsIgnoreCase("deleted") ) {
+                state = SnapshotState.DELETED;
             }
-            SnapshotState state = SnapshotState.PENDING;
-
-            String status = (json.has("status") ? json.getString("status") : null);
-
-            if( status != null ) {
-                if( status.equalsIgnoreCase("deleted") ) {
-                    state = SnapshotState.DELETED;
-                }
-                else if( status.equalsIgnoreCase("available") ) {
-                    state = SnapshotState.AVAILABLE;
-                }
-                else if( status.equalsIgnoreCase("creating") ) {
-                    state = SnapshotState.PENDING;
-                }
-                else {
-                    logger.warn("DEBUG: Unknown OpenStack snapshot state: " + status);
-                }
+            else if( status.equalsIgnoreCase("available") ) {
+                state = SnapshotState.AVAILABLE;
+            }
+            else if( status.equalsIgnoreCase("creating") ) {
+                state = SnapshotState.PENDING;
+            }
+            else {
+                logger.warn("DEBUG: Unknown OpenStack snapshot state: " + status);
             }
-            return new ResourceStatus(snapshotId, state);
-        }
-        catch( JSONException e ) {
-            throw new CloudException(e);
         }
+        return new ResourceStatus(snapshotId, state);
     }
     
     @Override
@@ -453,8 +561,12 @@ public class CinderSnapshot extends AbstractSnapshotSupport<NovaOpenStack> {
     
     @Override
     public void setTags(@Nonnull String[] snapshotIds, @Nonnull Tag... tags) throws CloudException, InternalException {
-    	for( String id : snapshotIds ) {
-    		setTags(id, tags);
+    	APITrace.begin(getProvider(), "Snapshot.setTags");
+    	try {
+    		((NovaOpenStack) getProvider()).createTags( SERVICE, "/snapshots", snapshotIds, tags);
+    	}
+    	finally {
+    		APITrace.end();
     	}
     }
     
@@ -471,8 +583,12 @@ public class CinderSnapshot extends AbstractSnapshotSupport<NovaOpenStack> {
     
     @Override
     public void updateTags(@Nonnull String[] snapshotIds, @Nonnull Tag... tags) throws CloudException, InternalException {
-    	for( String id : snapshotIds ) {
-    		updateTags(id, tags);
+    	APITrace.begin(getProvider(), "Snapshot.updateTags");
+    	try {
+    		((NovaOpenStack) getProvider()).updateTags( SERVICE, "/snapshots", snapshotIds, tags);
+    	}
+    	finally {
+    		APITrace.end();
     	}
     }
     
@@ -489,8 +605,12 @@ public class CinderSnapshot extends AbstractSnapshotSupport<NovaOpenStack> {
     
     @Override
     public void removeTags(@Nonnull String[] snapshotIds, @Nonnull Tag... tags) throws CloudException, InternalException {
-    	for( String id : snapshotIds ) {
-    		removeTags(id, tags);
+    	APITrace.begin(getProvider(), "Snapshot.removeTags");
+    	try {
+    		((NovaOpenStack) getProvider()).removeTags( SERVICE, "/snapshots", snapshotIds, tags);
+    	}
+    	finally {
+    		APITrace.end();
     	}
     }
 }
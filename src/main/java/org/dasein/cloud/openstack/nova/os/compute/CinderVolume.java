@@ -36,6 +36,8 @@ import org.dasein.cloud.compute.VolumeFormat;
 import org.dasein.cloud.compute.VolumeProduct;
 import org.dasein.cloud.compute.VolumeState;
 import org.dasein.cloud.compute.VolumeType;
+import org.dasein.cloud.openstack.nova.os.BatchExecutor;
+import org.dasein.cloud.openstack.nova.os.JSONFieldScanner;
 import org.dasein.cloud.openstack.nova.os.NovaMethod;
 import org.dasein.cloud.openstack.nova.os.NovaOpenStack;
 import org.dasein.cloud.openstack.nova.os.OpenStackProvider;
@@ -43,8 +45,13 @@ import org.dasein.cloud.util.APITrace;
 import org.dasein.cloud.util.Cache;
 import org.dasein.cloud.util.CacheLevel;
 import org.dasein.util.CalendarWrapper;
+import org.dasein.util.Jiterator;
+import org.dasein.util.JiteratorPopulator;
+import org.dasein.util.PopulatorThread;
 import org.dasein.util.uom.storage.Gigabyte;
 import org.dasein.util.uom.storage.Storage;
+import org.dasein.util.uom.time.Hour;
+import org.dasein.util.uom.time.TimePeriod;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -52,10 +59,14 @@ import org.json.JSONObject;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Support for the Cinder volumes API in Dasein Cloud.
@@ -69,6 +80,163 @@ public class CinderVolume extends AbstractVolumeSupport {
 
     static public final String SERVICE  = "volume";
 
+    /**
+     * Number of volumes requested per page when listing volumes. Cinder caps each page at its own
+     * <code>osapi_max_limit</code>, so a page may hold fewer volumes than this without being the last.
+     */
+    static public final int    PAGE_SIZE = 100;
+
+    /**
+     * Volume types keyed by both ID and name so volumes can be matched to their product without scanning the
+     * product list. Older Cinder releases report the type name rather than its ID for a volume.
+     */
+    static private class VolumeProductIndex {
+        private Map<String,VolumeProduct> byId   = new HashMap<String, VolumeProduct>();
+        private Map<String,VolumeProduct> byName = new HashMap<String, VolumeProduct>();
+
+        VolumeProductIndex(@Nonnull Iterable<VolumeProduct> products) {
+            for( VolumeProduct prd : products ) {
+                byId.put(prd.getProviderProductId(), prd);
+                if( !byName.containsKey(prd.getName()) ) {
+                    byName.put(prd.getName(), prd);
+                }
+            }
+        }
+
+        @Nullable VolumeProduct lookup(@Nonnull String idOrName) {
+            VolumeProduct prd = byId.get(idOrName);
+
+            if( prd == null ) { // TODO: stupid Folsom bug
+                prd = byName.get(idOrName);
+            }
+            return prd;
+        }
+    }
+
+    static private final long ATTACHMENT_POLL_INTERVAL = 5000L;
+
+    /**
+     * Tracks the volumes of one batch while they wait on an attachment change. The volumes still waiting are
+     * fetched together once per poll interval rather than each polling its own status, and only those volumes
+     * are fetched.
+     */
+    private class AttachmentPoller {
+        private long               lastPoll = 0L;
+        private Set<String>        pending;
+        private Map<String,Volume> volumes  = new HashMap<String, Volume>();
+
+        AttachmentPoller(@Nonnull Collection<String> volumeIds) {
+            pending = new HashSet<String>(volumeIds);
+        }
+
+        synchronized @Nullable Volume getVolume(@Nonnull String volumeId) throws CloudException, InternalException {
+            if( System.currentTimeMillis() - lastPoll >= ATTACHMENT_POLL_INTERVAL ) {
+                BatchExecutor.Result<Volume> result = new BatchExecutor((NovaOpenStack)getProvider(), "volume-poll").execute(new ArrayList<String>(pending), new BatchExecutor.Operation<Volume>() {
+                    @Override
+                    public Volume execute(@Nonnull String id) throws CloudException, InternalException {
+                        return CinderVolume.this.getVolume(id);
+                    }
+                });
+                Map<String,Volume> current = new HashMap<String, Volume>();
+
+                for( Map.Entry<String,Throwable> failure : result.getFailures().entrySet() ) {
+                    // keep what was last seen and try again on the next poll
+                    logger.warn("Unable to poll volume " + failure.getKey() + ": " + failure.getValue().getMessage());
+                    if( volumes.containsKey(failure.getKey()) ) {
+                        current.put(failure.getKey(), volumes.get(failure.getKey()));
+                    }
+                }
+                for( Map.Entry<String,Volume> entry : result.getResults().entrySet() ) {
+                    if( entry.getValue() != null ) {
+                        current.put(entry.getKey(), entry.getValue());
+                    }
+                }
+                if( !current.containsKey(volumeId) && result.getFailures().containsKey(volumeId) ) {
+                    Throwable t = result.getFailures().get(volumeId);
+
+                    throw (t instanceof CloudException ? (CloudException)t : new CloudException(t));
+                }
+                volumes = current;
+                lastPoll = System.currentTimeMillis();
+            }
+            return volumes.get(volumeId);
+        }
+
+        synchronized void finish(@Nonnull String volumeId) {
+            pending.remove(volumeId);
+            volumes.remove(volumeId);
+        }
+
+        /**
+         * Waits for the volume to become attached to the specified server or, if no server is specified, to become
+         * detached from any server.
+         */
+        @Nonnull Volume waitFor(@Nonnull String volumeId, @Nullable String serverId) throws CloudException, InternalException {
+            try {
+                return poll(volumeId, serverId);
+            }
+            finally {
+                finish(volumeId);
+            }
+        }
+
+        private @Nonnull Volume poll(@Nonnull String volumeId, @Nullable String serverId) throws CloudException, InternalException {
+            long timeout = System.currentTimeMillis() + (CalendarWrapper.MINUTE * 10L);
+
+            while( true ) {
+                Volume v = getVolume(volumeId);
+
+                if( v == null ) {
+                    throw new CloudException("No such volume: " + volumeId);
+                }
+                if( VolumeState.ERROR.equals(v.getCurrentState()) ) {
+                    throw new CloudException("Volume " + volumeId + " entered an error state");
+                }
+                String vmId = v.getProviderVirtualMachineId();
+
+                if( serverId == null ? (vmId == null && !VolumeState.PENDING.equals(v.getCurrentState())) : serverId.equals(vmId) ) {
+                    return v;
+                }
+                if( timeout <= System.currentTimeMillis() ) {
+                    throw new CloudException("Timed out waiting for volume " + volumeId + (serverId == null ? " to detach" : " to attach to " + serverId));
+                }
+                try { Thread.sleep(ATTACHMENT_POLL_INTERVAL); }
+                catch( InterruptedException e ) {
+                    Thread.currentThread().interrupt();
+                    throw new InternalException(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Hands out turns in a fixed order so requests that must reach a server in sequence can still be issued from
+     * concurrent workers. Every turn must be finished, whether or not its request was sent, so later turns are
+     * never left waiting on one that failed.
+     */
+    static private class Sequencer {
+        private Set<Integer> finished = new HashSet<Integer>();
+        private int          next     = 0;
+
+        synchronized void await(int turn) throws InternalException {
+            while( next < turn ) {
+                try { wait(); }
+                catch( InterruptedException e ) {
+                    Thread.currentThread().interrupt();
+                    throw new InternalException(e);
+                }
+            }
+        }
+
+        synchronized void finish(int turn) {
+            finished.add(turn);
+            while( finished.remove(next) ) {
+                next++;
+            }
+            notifyAll();
+        }
+    }
+
     public CinderVolume(@Nonnull NovaOpenStack provider) {
         super(provider);
     }
@@ -91,17 +259,72 @@ public class CinderVolume extends AbstractVolumeSupport {
     public void attach(@Nonnull String volumeId, @Nonnull String toServer, @Nonnull String device) throws InternalException, CloudException {
         APITrace.begin(getProvider(), "Volume.attach");
         try {
-            HashMap<String,Object> attachment = new HashMap<String, Object>();
-            HashMap<String,Object> wrapper = new HashMap<String, Object>();
-            NovaMethod method = new NovaMethod(((NovaOpenStack)getProvider()));
+            requestAttach(new NovaMethod(((NovaOpenStack)getProvider())), volumeId, toServer, device);
+        }
+        finally {
+            APITrace.end();
+        }
+    }
+
+    private void requestAttach(@Nonnull NovaMethod method, @Nonnull String volumeId, @Nonnull String toServer, @Nullable String device) throws InternalException, CloudException {
+        HashMap<String,Object> attachment = new HashMap<String, Object>();
+        HashMap<String,Object> wrapper = new HashMap<String, Object>();
 
-            attachment.put("volumeId", volumeId);
+        attachment.put("volumeId", volumeId);
+        if( device != null ) {
             attachment.put("device", device);
-            wrapper.put("volumeAttachment", attachment);
+        }
+        wrapper.put("volumeAttachment", attachment);
+        if( method.postString(NovaServer.SERVICE, "/servers", toServer, getAttachmentsResource(), new JSONObject(wrapper)) == null ) {
+            throw new CloudException("No response from the cloud");
+        }
+    }
 
-            if( method.postString(NovaServer.SERVICE, "/servers", toServer, getAttachmentsResource(), new JSONObject(wrapper)) == null ) {
-                throw new CloudException("No response from the cloud");
-            }
+    /**
+     * Attaches several volumes to one server and waits for every attachment to settle. The attachment requests
+     * are issued concurrently when every volume carries its own device name. If any volume leaves the device to
+     * Nova, the requests are issued one at a time in map order, because Nova assigns the next free device in
+     * request order. The volumes still pending are fetched together once per poll interval until they settle.
+     * @param toServer the server to which the volumes are attached
+     * @param volumeDevices the volumes to attach, in order, mapped to their device names or to null to let Nova choose
+     * @return the attached volume or the error for each volume, keyed by volume ID
+     * @throws InternalException an error occurred within Dasein Cloud while coordinating the batch
+     * @throws CloudException an error occurred with the cloud provider while coordinating the batch
+     */
+    public @Nonnull BatchExecutor.Result<Volume> attach(@Nonnull final String toServer, @Nonnull Map<String,String> volumeDevices) throws InternalException, CloudException {
+        APITrace.begin(getProvider(), "Volume.attachBatch");
+        try {
+            final Map<String,String> devices = new HashMap<String, String>(volumeDevices);
+            final List<String> order = new ArrayList<String>(volumeDevices.keySet());
+            final boolean ordered = (devices.containsValue(null) || new HashSet<String>(devices.values()).size() < devices.size());
+            final Sequencer sequencer = new Sequencer();
+            final AttachmentPoller poller = new AttachmentPoller(order);
+            final NovaMethod method = new NovaMethod(((NovaOpenStack)getProvider()));
+
+            return new BatchExecutor((NovaOpenStack)getProvider(), "volume-attach").execute(order, new BatchExecutor.Operation<Volume>() {
+                @Override
+                public Volume execute(@Nonnull String volumeId) throws CloudException, InternalException {
+                    int turn = order.indexOf(volumeId);
+                    boolean requested = false;
+
+                    try {
+                        if( ordered ) {
+                            sequencer.await(turn);
+                        }
+                        requestAttach(method, volumeId, toServer, devices.get(volumeId));
+                        requested = true;
+                    }
+                    finally {
+                        if( ordered ) {
+                            sequencer.finish(turn);
+                        }
+                        if( !requested ) {
+                            poller.finish(volumeId);
+                        }
+                    }
+                    return poller.waitFor(volumeId, toServer);
+                }
+            });
         }
         finally {
             APITrace.end();
@@ -153,7 +376,7 @@ public class CinderVolume extends AbstractVolumeSupport {
 
             if( result != null && result.has("volume") ) {
                 try {
-                    Volume volume = toVolume(result.getJSONObject("volume"), listVolumeProducts());
+                    Volume volume = toVolume(result.getJSONObject("volume"), null);
 
                     if( volume != null ) {
                         return volume.getProviderVolumeId();
@@ -188,9 +411,70 @@ public class CinderVolume extends AbstractVolumeSupport {
             if( volume.getProviderVirtualMachineId() == null ) {
                 throw new CloudException("Volume " + volumeId + " is not attached");
             }
-            NovaMethod method = new NovaMethod(((NovaOpenStack)getProvider()));
+            requestDetach(new NovaMethod(((NovaOpenStack)getProvider())), volume, force);
+        }
+        finally {
+            APITrace.end();
+        }
+    }
 
-            method.deleteResource(NovaServer.SERVICE, "/servers", volume.getProviderVirtualMachineId(), getAttachmentsResource() + "/" + volumeId);
+    /**
+     * Asks for a volume to be detached. A forced detach goes through the Cinder <code>os-force_detach</code>
+     * action, which releases the volume even if the server does not let go of it; a normal detach removes the
+     * attachment through Nova.
+     */
+    private void requestDetach(@Nonnull NovaMethod method, @Nonnull Volume volume, boolean force) throws InternalException, CloudException {
+        if( force ) {
+            HashMap<String,Object> wrapper = new HashMap<String, Object>();
+
+            wrapper.put("os-force_detach", new HashMap<String,Object>());
+            method.postString(SERVICE, getResource(), volume.getProviderVolumeId(), new JSONObject(wrapper), true);
+        }
+        else {
+            method.deleteResource(NovaServer.SERVICE, "/servers", volume.getProviderVirtualMachineId(), getAttachmentsResource() + "/" + volume.getProviderVolumeId());
+        }
+    }
+
+    /**
+     * Detaches several volumes concurrently and waits for every detachment to settle. The volumes in the batch
+     * are fetched together once per poll interval, first to find their attachments and then until they settle.
+     * @param volumeIds the volumes to detach
+     * @param force true to detach through the Cinder force-detach action
+     * @return the detached volume or the error for each volume, keyed by volume ID
+     * @throws InternalException an error occurred within Dasein Cloud while coordinating the batch
+     * @throws CloudException an error occurred with the cloud provider while coordinating the batch
+     */
+    public @Nonnull BatchExecutor.Result<Volume> detach(@Nonnull Collection<String> volumeIds, final boolean force) throws InternalException, CloudException {
+        APITrace.begin(getProvider(), "Volume.detachBatch");
+        try {
+            final AttachmentPoller poller = new AttachmentPoller(volumeIds);
+            final NovaMethod method = new NovaMethod(((NovaOpenStack)getProvider()));
+
+            return new BatchExecutor((NovaOpenStack)getProvider(), "volume-detach").execute(volumeIds, new BatchExecutor.Operation<Volume>() {
+                @Override
+                public Volume execute(@Nonnull String volumeId) throws CloudException, InternalException {
+                    boolean requested = false;
+
+                    try {
+                        Volume volume = poller.getVolume(volumeId);
+
+                        if( volume == null ) {
+                            throw new CloudException("No such volume: " + volumeId);
+                        }
+                        if( volume.getProviderVirtualMachineId() == null ) {
+                            throw new CloudException("Volume " + volumeId + " is not attached");
+                        }
+                        requestDetach(method, volume, force);
+                        requested = true;
+                    }
+                    finally {
+                        if( !requested ) {
+                            poller.finish(volumeId);
+                        }
+                    }
+                    return poller.waitFor(volumeId, null);
+                }
+            });
         }
         finally {
             APITrace.end();
@@ -241,7 +525,7 @@ public class CinderVolume extends AbstractVolumeSupport {
             }
             try {
                 if( ob.has("volume") ) {
-                    return toVolume(ob.getJSONObject("volume"), listVolumeProducts());
+                    return toVolume(ob.getJSONObject("volume"), null);
                 }
             }
             catch( JSONException e ) {
@@ -304,7 +588,7 @@ public class CinderVolume extends AbstractVolumeSupport {
     public @Nonnull Iterable<VolumeProduct> listVolumeProducts() throws InternalException, CloudException {
         APITrace.begin(getProvider(), "Volume.listVolumeProducts");
         try {
-            Cache<VolumeProduct> cache = Cache.getInstance(getProvider(), "volumeProducts", VolumeProduct.class, CacheLevel.REGION_ACCOUNT);
+            Cache<VolumeProduct> cache = getVolumeProductCache();
             Iterable<VolumeProduct> current = cache.get(getContext());
 
             if( current != null ) {
@@ -357,6 +641,7 @@ public class CinderVolume extends AbstractVolumeSupport {
                 }
             }
             cache.put(getContext(), Collections.unmodifiableList(products));
+            getVolumeProductIndexCache().put(getContext(), Collections.singletonList(new VolumeProductIndex(products)));
             return products;
         }
         finally {
@@ -364,6 +649,42 @@ public class CinderVolume extends AbstractVolumeSupport {
         }
     }
 
+    /**
+     * Discards the cached volume types and reloads them from Cinder. The cached types otherwise expire after
+     * an hour, so this is only needed when a type is known to have been added or removed.
+     * @return the current list of volume types
+     * @throws InternalException an error occurred within Dasein Cloud while loading the types
+     * @throws CloudException an error occurred with the cloud provider while loading the types
+     */
+    public @Nonnull Iterable<VolumeProduct> refreshVolumeProducts() throws InternalException, CloudException {
+        getVolumeProductCache().clear();
+        getVolumeProductIndexCache().clear();
+        return listVolumeProducts();
+    }
+
+    private @Nonnull Cache<VolumeProduct> getVolumeProductCache() {
+        return Cache.getInstance(getProvider(), "volumeProducts", VolumeProduct.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Hour>(1, TimePeriod.HOUR));
+    }
+
+    private @Nonnull Cache<VolumeProductIndex> getVolumeProductIndexCache() {
+        return Cache.getInstance(getProvider(), "volumeProductIndex", VolumeProductIndex.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Hour>(1, TimePeriod.HOUR));
+    }
+
+    private @Nonnull VolumeProductIndex getVolumeProductIndex() throws InternalException, CloudException {
+        Cache<VolumeProductIndex> cache = getVolumeProductIndexCache();
+        Iterable<VolumeProductIndex> current = cache.get(getContext());
+
+        if( current != null ) {
+            for( VolumeProductIndex index : current ) {
+                return index;
+            }
+        }
+        VolumeProductIndex index = new VolumeProductIndex(listVolumeProducts());
+
+        cache.put(getContext(), Collections.singletonList(index));
+        return index;
+    }
+
     @Override
     public @Nonnull Iterable<ResourceStatus> listVolumeStatus() throws InternalException, CloudException {
         APITrace.begin(getProvider(), "Volume.listVolumeStatus");
@@ -371,25 +692,20 @@ public class CinderVolume extends AbstractVolumeSupport {
             NovaMethod method = new NovaMethod(((NovaOpenStack)getProvider()));
             ArrayList<ResourceStatus> volumes = new ArrayList<ResourceStatus>();
 
-            JSONObject json = method.getResource(SERVICE, getResource(), null, false);
+            String response = method.getResourceForString(SERVICE, getResource(), null, false);
 
-            if( json != null && json.has("volumes") ) {
-                try {
-                    JSONArray list = json.getJSONArray("volumes");
-
-                    for( int i=0; i<list.length(); i++ ) {
-                        ResourceStatus volume = toStatus(list.getJSONObject(i));
+            try {
+                for( Map<String,String> json : JSONFieldScanner.scan(response, "volumes", "id", "status") ) {
+                    ResourceStatus volume = toStatus(json.get("id"), json.get("status"));
 
-                        if( volume != null ) {
-                            volumes.add(volume);
-                        }
+                    if( volume != null ) {
+                        volumes.add(volume);
                     }
                 }
-                catch( JSONException e ) {
-                    logger.error("listVolumes(): Unable to identify expected values in JSON: " + e.getMessage());
-                    e.printStackTrace();
-                    throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", "Missing JSON element for volumes in " + json.toString());
-                }
+            }
+            catch( JSONException e ) {
+                logger.error("listVolumeStatus(): Unable to identify expected values in JSON: " + e.getMessage());
+                throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", "Missing JSON element for volumes: " + e.getMessage());
             }
             return volumes;
         }
@@ -400,37 +716,82 @@ public class CinderVolume extends AbstractVolumeSupport {
 
     @Override
     public @Nonnull Iterable<Volume> listVolumes() throws InternalException, CloudException {
-        APITrace.begin(getProvider(), "Volume.listVolumes");
-        try {
-            Iterable<VolumeProduct> products = listVolumeProducts();
-            NovaMethod method = new NovaMethod(((NovaOpenStack)getProvider()));
-            ArrayList<Volume> volumes = new ArrayList<Volume>();
-
-            JSONObject json = method.getResource(SERVICE, getResource(), null, false);
+        PopulatorThread<Volume> populator;
 
-            if( json != null && json.has("volumes") ) {
+        getProvider().hold();
+        populator = new PopulatorThread<Volume>(new JiteratorPopulator<Volume>() {
+            public void populate(@Nonnull Jiterator<Volume> iterator) throws CloudException, InternalException {
                 try {
-                    JSONArray list = json.getJSONArray("volumes");
+                    APITrace.begin(getProvider(), "Volume.listVolumes");
+                    try {
+                        loadVolumes(iterator);
+                    }
+                    finally {
+                        APITrace.end();
+                    }
+                }
+                finally {
+                    getProvider().release();
+                }
+            }
+        });
+        populator.populate();
+        return populator.getResult();
+    }
 
-                    for( int i=0; i<list.length(); i++ ) {
-                        JSONObject v = list.getJSONObject(i);
-                        Volume volume = toVolume(v, products);
+    /**
+     * Pages through the volumes using the Cinder <code>limit</code> and <code>marker</code> parameters, pushing
+     * each volume onto the iterator as soon as its page arrives. Clouds that ignore the paging parameters return
+     * every volume on the first request. A short page does not end the listing, since Cinder may cap pages below
+     * the requested limit; paging stops only when a page brings back nothing new.
+     * @param iterator the iterator to which volumes are pushed
+     * @throws CloudException an error occurred with the cloud provider while listing volumes
+     * @throws InternalException an error occurred within Dasein Cloud while listing volumes
+     */
+    private void loadVolumes(@Nonnull Jiterator<Volume> iterator) throws CloudException, InternalException {
+        NovaMethod method = new NovaMethod(((NovaOpenStack)getProvider()));
+        VolumeProductIndex types = null;
+        Set<String> seen = new HashSet<String>();
+        String marker = null;
+
+        while( true ) {
+            String query = "?limit=" + PAGE_SIZE + (marker == null ? "" : "&marker=" + marker);
+            JSONObject json = method.getResource(SERVICE, getResource(), query, false);
+
+            if( json == null || !json.has("volumes") ) {
+                return;
+            }
+            int count = 0;
 
-                        if( volume != null ) {
-                            volumes.add(volume);
-                        }
+            try {
+                JSONArray list = json.getJSONArray("volumes");
+
+                for( int i=0; i<list.length(); i++ ) {
+                    JSONObject v = list.getJSONObject(i);
+
+                    if( !v.has("id") || !seen.add(v.getString("id")) ) {
+                        continue;
+                    }
+                    count++;
+                    marker = v.getString("id");
+                    if( types == null && (v.has("volume_type") || v.has("volumeType")) ) {
+                        types = getVolumeProductIndex();
+                    }
+                    Volume volume = toVolume(v, types);
+
+                    if( volume != null ) {
+                        iterator.push(volume);
                     }
                 }
-                catch( JSONException e ) {
-                    logger.error("listVolumes(): Unable to identify expected values in JSON: " + e.getMessage());
-                    e.printStackTrace();
-                    throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", "Missing JSON element for volumes in " + json.toString());
+                if( count == 0 ) {
+                    return;
                 }
             }
-            return volumes;
-        }
-        finally {
-            APITrace.end();
+            catch( JSONException e ) {
+                logger.error("listVolumes(): Unable to identify expected values in JSON: " + e.getMessage());
+                e.printStackTrace();
+                throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", "Missing JSON element for volumes in " + json.toString());
+            }
         }
     }
 
@@ -494,52 +855,36 @@ public class CinderVolume extends AbstractVolumeSupport {
         }
     }
 
-    private @Nullable ResourceStatus toStatus(@Nullable JSONObject json) throws CloudException, InternalException {
-        if( json == null ) {
+    private @Nullable ResourceStatus toStatus(@Nullable String volumeId, @Nullable String status) {
+        if( volumeId == null ) {
             return null;
         }
-        try {
-            String volumeId = null;
+        VolumeState state = VolumeState.PENDING;
 
-            if( json.has("id") ) {
-                volumeId = json.getString("id");
+        if( status != null ) {
+            if( status.equalsIgnoreCase("available") ) {
+                state = VolumeState.AVAILABLE;
             }
-            if( volumeId == null ) {
-                return null;
+            else if( status.equalsIgnoreCase("creating") ) {
+                state = VolumeState.PENDING;
             }
-
-            VolumeState state = VolumeState.PENDING;
-
-            if( json.has("status") ) {
-                String status = json.getString("status");
-
-                if( status.equalsIgnoreCase("available") ) {
-                    state = VolumeState.AVAILABLE;
-                }
-                else if( status.equalsIgnoreCase("creating") ) {
-                    state = VolumeState.PENDING;
-                }
-                else if( status.equalsIgnoreCase("error") ) {
-                    state = VolumeState.ERROR;
-                }
-                else if( status.equals("in-use") ) {
-                    state = VolumeState.AVAILABLE;
-                }
-                else if( status.equals("attaching") ) {
-                    state = VolumeState.PENDING;
-                }
-                else {
-                    logger.warn("DEBUG: Unknown OpenStack Cinder volume state: " + status);
-                }
+            else if( status.equalsIgnoreCase("error") ) {
+                state = VolumeState.ERROR;
+            }
+            else if( status.equals("in-use") ) {
+                state = VolumeState.AVAILABLE;
+            }
+            else if( status.equals("attaching") ) {
+                state = VolumeState.PENDING;
+            }
+            else {
+                logger.warn("DEBUG: Unknown OpenStack Cinder volume state: " + status);
             }
-            return new ResourceStatus(volumeId, state);
-        }
-        catch( JSONException e ) {
-            throw new CloudException(e);
         }
+        return new ResourceStatus(volumeId, state);
     }
 
-    private @Nullable Volume toVolume(@Nullable JSONObject json, @Nonnull Iterable<VolumeProduct> types) throws CloudException, InternalException {
+    private @Nullable Volume toVolume(@Nullable JSONObject json, @Nullable VolumeProductIndex types) throws CloudException, InternalException {
         if( json == null ) {
             return null;
         }
@@ -665,22 +1010,11 @@ public class CinderVolume extends AbstractVolumeSupport {
             volume.setProviderVolumeId(volumeId);
             volume.setSize(new Storage<Gigabyte>(size, Storage.GIGABYTE));
             if( productId != null ) {
-                VolumeProduct match = null;
-
-                for( VolumeProduct prd : types ) {
-                    if( productId.equals(prd.getProviderProductId()) ) {
-                        match = prd;
-                        break;
-                    }
-                }
-                if( match == null ) { // TODO: stupid Folsom bug
-                    for( VolumeProduct prd : types ) {
-                        if( productId.equals(prd.getName()) ) {
-                            match = prd;
-                            break;
-                        }
-                    }
+                if( types == null ) {
+                    types = getVolumeProductIndex();
                 }
+                VolumeProduct match = types.lookup(productId);
+
                 if( match != null ) {
                     volume.setProviderProductId(match.getProviderProductId());
                     volume.setType(match.getType());
@@ -712,8 +1046,12 @@ public class CinderVolume extends AbstractVolumeSupport {
     
     @Override
     public void setTags(@Nonnull String[] volumeIds, @Nonnull Tag... tags) throws CloudException, InternalException {
-    	for( String id : volumeIds ) {
-    		setTags(id, tags);
+    	APITrace.begin(getProvider(), "Volume.setTags");
+    	try {
+    		((NovaOpenStack) getProvider()).createTags( SERVICE, "/volumes", volumeIds, tags);
+    	}
+    	finally {
+    		APITrace.end();
     	}
     }
     
@@ -730,8 +1068,12 @@ public class CinderVolume extends AbstractVolumeSupport {
     
     @Override
     public void updateTags(@Nonnull String[] volumeIds, @Nonnull Tag... tags) throws CloudException, InternalException {
-    	for( String id : volumeIds ) {
-    		updateTags(id, tags);
+    	APITrace.begin(getProvider(), "Volume.updateTags");
+    	try {
+    		((NovaOpenStack) getProvider()).updateTags( SERVICE, "/volumes", volumeIds, tags);
+    	}
+    	finally {
+    		APITrace.end();
     	}
     }
     
@@ -748,8 +1090,12 @@ public class CinderVolume extends AbstractVolumeSupport {
     
     @Override
     public void removeTags(@Nonnull String[] volumeIds, @Nonnull Tag... tags) throws CloudException, InternalException {
-    	for( String id : volumeIds ) {
-    		removeTags(id, tags);
+    	APITrace.begin(getProvider(), "Volume.removeTags");
+    	try {
+    		((NovaOpenStack) getProvider()).removeTags( SERVICE, "/volumes", volumeIds, tags);
+    	}
+    	finally {
+    		APITrace.end();
     	}
     }
 }
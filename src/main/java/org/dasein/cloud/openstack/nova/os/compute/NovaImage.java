@@ -23,6 +23,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Locale;
+import java.util.Map;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -50,6 +51,7 @@ import org.dasein.cloud.compute.Platform;
 import org.dasein.cloud.compute.VirtualMachine;
 import org.dasein.cloud.compute.VirtualMachineSupport;
 import org.dasein.cloud.compute.VmState;
+import org.dasein.cloud.openstack.nova.os.JSONFieldScanner;
 import org.dasein.cloud.openstack.nova.os.NovaException;
 import org.dasein.cloud.openstack.nova.os.NovaMethod;
 import org.dasein.cloud.openstack.nova.os.NovaOpenStack;
@@ -319,21 +321,16 @@ public class NovaImage extends AbstractImageSupport<NovaOpenStack> {
                 return Collections.emptyList();
             }
             NovaMethod method = new NovaMethod((NovaOpenStack)getProvider());
-            JSONObject ob = method.getServers("/images", null, true);
+            String response = method.getServersForString("/images", null, true, null);
             ArrayList<ResourceStatus> images = new ArrayList<ResourceStatus>();
 
             try {
-                if( ob != null && ob.has("images") ) {
-                    JSONArray list = ob.getJSONArray("images");
-
-                    for( int i=0; i<list.length(); i++ ) {
-                        JSONObject image = list.getJSONObject(i);
-                        ResourceStatus img = toStatus(image);
-
-                        if( img != null ) {
-                            images.add(img);
-                        }
+                for( Map<String,String> image : JSONFieldScanner.scan(response, "images", "id", "status", "metadata") ) {
+                    String md = image.get("metadata");
+                    ResourceStatus img = toStatus(image.get("id"), image.get("status"), md == null ? null : new JSONObject(md));
 
+                    if( img != null ) {
+                        images.add(img);
                     }
                 }
             }
@@ -609,23 +606,25 @@ public class NovaImage extends AbstractImageSupport<NovaOpenStack> {
     }
 
     public @Nullable ResourceStatus toStatus(@Nullable JSONObject json) throws CloudException, InternalException {
-
         if( json == null ) {
             return null;
         }
+        try {
+            return toStatus(json.has("id") ? json.getString("id") : null, json.has("status") ? json.getString("status") : null, json.has("metadata") ? json.getJSONObject("metadata") : null);
+        }
+        catch( JSONException e ) {
+            throw new InternalException(e);
+        }
+    }
+
+    private @Nullable ResourceStatus toStatus(@Nullable String id, @Nullable String status, @Nullable JSONObject md) throws CloudException, InternalException {
+        if( id == null ) {
+            return null;
+        }
         String owner = ((NovaOpenStack)getProvider()).getCloudProvider().getDefaultImageOwner(getTenantId());
         MachineImageState state = MachineImageState.PENDING;
-        String id = null;
 
         try {
-            if( json.has("id") ) {
-                id = json.getString("id");
-            }
-            if( id == null ) {
-                return null;
-            }
-            JSONObject md = (json.has("metadata") ? json.getJSONObject("metadata") : null);
-
             if( md != null && md.has("owner") && !md.isNull("owner")) {
                 owner = md.getString("owner");
             }
@@ -635,29 +634,29 @@ public class NovaImage extends AbstractImageSupport<NovaOpenStack> {
             else if( md != null && md.has("image_type") && !md.isNull("image_type") && md.getString("image_type").equals("snapshot") ) {
                 owner = getTenantId();
             }
-            if( json.has("status") ) {
-                String s = json.getString("status").toLowerCase();
-
-                if( s.equals("saving") ) {
-                    state = MachineImageState.PENDING;
-                }
-                else if( s.equals("active") || s.equals("queued") || s.equals("preparing") ) {
-                    state = MachineImageState.ACTIVE;
-                }
-                else if( s.equals("deleting") ) {
-                    state = MachineImageState.PENDING;
-                }
-                else if( s.equals("failed") ) {
-                    return null;
-                }
-                else {
-                    state = MachineImageState.PENDING;
-                }
-            }
         }
         catch( JSONException e ) {
             throw new InternalException(e);
         }
+        if( status != null ) {
+            String s = status.toLowerCase();
+
+            if( s.equals("saving") ) {
+                state = MachineImageState.PENDING;
+            }
+            else if( s.equals("active") || s.equals("queued") || s.equals("preparing") ) {
+                state = MachineImageState.ACTIVE;
+            }
+            else if( s.equals("deleting") ) {
+                state = MachineImageState.PENDING;
+            }
+            else if( s.equals("failed") ) {
+                return null;
+            }
+            else {
+                state = MachineImageState.PENDING;
+            }
+        }
         if( !owner.equals(getTenantId()) ) {
             return null;
         }
@@ -677,8 +676,12 @@ public class NovaImage extends AbstractImageSupport<NovaOpenStack> {
     
     @Override
     public void setTags(@Nonnull String[] imageIds, @Nonnull Tag... tags) throws CloudException, InternalException {
-    	for( String id : imageIds ) {
-    		setTags(id, tags);
+    	APITrace.begin(getProvider(), "Image.setTags");
+    	try {
+    		getProvider().createTags( SERVICE, "/images", imageIds, tags);
+    	}
+    	finally {
+    		APITrace.end();
     	}
     }
     
@@ -695,8 +698,12 @@ public class NovaImage extends AbstractImageSupport<NovaOpenStack> {
     
     @Override
     public void updateTags(@Nonnull String[] imageIds, @Nonnull Tag... tags) throws CloudException, InternalException {
-    	for( String id : imageIds ) {
-    		updateTags(id, tags);
+    	APITrace.begin(getProvider(), "Image.updateTags");
+    	try {
+    		getProvider().updateTags( SERVICE, "/images", imageIds, tags);
+    	}
+    	finally {
+    		APITrace.end();
     	}
     }
     
@@ -713,8 +720,12 @@ public class NovaImage extends AbstractImageSupport<NovaOpenStack> {
     
     @Override
     public void removeTags(@Nonnull String[] imageIds, @Nonnull Tag... tags) throws CloudException, InternalException {
-    	for( String id : imageIds ) {
-    		removeTags(id, tags);
+    	APITrace.begin(getProvider(), "Image.removeTags");
+    	try {
+    		getProvider().removeTags( SERVICE, "/images", imageIds, tags);
+    	}
+    	finally {
+    		APITrace.end();
     	}
     }
 }
@@ -21,7 +21,6 @@ package org.dasein.cloud.openstack.nova.os.compute;
 
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.net.util.SubnetUtils;
-import org.apache.http.HttpStatus;
 import org.apache.log4j.Logger;
 import org.dasein.cloud.CloudErrorType;
 import org.dasein.cloud.CloudException;
@@ -34,16 +33,19 @@ import org.dasein.cloud.network.Firewall;
 import org.dasein.cloud.network.FirewallSupport;
 import org.dasein.cloud.network.IPVersion;
 import org.dasein.cloud.network.IpAddress;
-import org.dasein.cloud.network.IpAddressSupport;
 import org.dasein.cloud.network.NetworkServices;
 import org.dasein.cloud.network.RawAddress;
 import org.dasein.cloud.network.Subnet;
 import org.dasein.cloud.network.VLAN;
 import org.dasein.cloud.network.VLANSupport;
-import org.dasein.cloud.openstack.nova.os.NovaException;
+import org.dasein.cloud.openstack.nova.os.BatchExecutor;
+import org.dasein.cloud.openstack.nova.os.ConflictBackoff;
+import org.dasein.cloud.openstack.nova.os.JSONFieldScanner;
 import org.dasein.cloud.openstack.nova.os.NovaMethod;
 import org.dasein.cloud.openstack.nova.os.NovaOpenStack;
 import org.dasein.cloud.openstack.nova.os.OpenStackProvider;
+import org.dasein.cloud.openstack.nova.os.network.FloatingIPSnapshot;
+import org.dasein.cloud.openstack.nova.os.network.NovaFloatingIP;
 import org.dasein.cloud.openstack.nova.os.network.NovaNetworkServices;
 import org.dasein.cloud.openstack.nova.os.network.Quantum;
 import org.dasein.cloud.util.APITrace;
@@ -62,12 +64,20 @@ import org.json.JSONObject;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
 
 /**
  * Implements services supporting interaction with cloud virtual machines.
@@ -151,22 +161,12 @@ public class NovaServer extends AbstractVMSupport<NovaOpenStack> {
             if( ob == null ) {
                 return null;
             }
-            Iterable<IpAddress> ipv4, ipv6;
+            FloatingIPSnapshot addresses = getFloatingIPs();
             Iterable<VLAN> networks;
 
             NetworkServices services = getProvider().getNetworkServices();
 
             if( services != null ) {
-                IpAddressSupport support = services.getIpAddressSupport();
-
-                if( support != null ) {
-                    ipv4 = support.listIpPool(IPVersion.IPV4, false);
-                    ipv6 = support.listIpPool(IPVersion.IPV6, false);
-                }
-                else {
-                    ipv4 = ipv6 = Collections.emptyList();
-                }
-
                 VLANSupport vs = services.getVlanSupport();
 
                 if( vs != null ) {
@@ -177,13 +177,12 @@ public class NovaServer extends AbstractVMSupport<NovaOpenStack> {
                 }
             }
             else {
-                ipv4 = ipv6 = Collections.emptyList();
                 networks = Collections.emptyList();
             }
             try {
                 if( ob.has("server") ) {
                     JSONObject server = ob.getJSONObject("server");
-                    VirtualMachine vm = toVirtualMachine(server, ipv4, ipv6, networks);
+                    VirtualMachine vm = toVirtualMachine(server, addresses, networks);
 
                     if( vm != null ) {
                         return vm;
@@ -421,11 +420,10 @@ public class NovaServer extends AbstractVMSupport<NovaOpenStack> {
 
             if( result.has("server") ) {
                 try {
-                    Collection<IpAddress> ips = Collections.emptyList();
                     Collection<VLAN> nets = Collections.emptyList();
 
                     JSONObject server = result.getJSONObject("server");
-                    vm = toVirtualMachine(server, ips, ips, nets);
+                    vm = toVirtualMachine(server, new FloatingIPSnapshot(), nets);
 
                     if( vm != null ) {
                         String vmId = vm.getProviderVirtualMachineId();
@@ -698,27 +696,22 @@ public class NovaServer extends AbstractVMSupport<NovaOpenStack> {
         APITrace.begin(getProvider(), "VM.listVirtualMachineStatus");
         try {
             NovaMethod method = new NovaMethod(getProvider());
-            JSONObject ob = method.getServers("/servers", null, true);
+            // Nova has no status-only listing, but we only need id and status out of the detail document
+            String response = method.getServersForString("/servers", null, true, null);
             List<ResourceStatus> servers = new ArrayList<ResourceStatus>();
 
             try {
-                if( ob != null && ob.has("servers") ) {
-                    JSONArray list = ob.getJSONArray("servers");
-
-                    for( int i=0; i<list.length(); i++ ) {
-                        JSONObject server = list.getJSONObject(i);
-                        ResourceStatus vm = toStatus(server);
-
-                        if( vm != null ) {
-                            servers.add(vm);
-                        }
+                for( Map<String,String> server : JSONFieldScanner.scan(response, "servers", "id", "status") ) {
+                    String serverId = server.get("id");
 
+                    if( serverId != null ) {
+                        servers.add(new ResourceStatus(serverId, toState(server.get("status"))));
                     }
                 }
             }
             catch( JSONException e ) {
-                logger.error("listVirtualMachines(): Unable to identify expected values in JSON: " + e.getMessage());                e.printStackTrace();
-                throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", "Missing JSON element for servers in " + ob.toString());
+                logger.error("listVirtualMachineStatus(): Unable to identify expected values in JSON: " + e.getMessage());
+                throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", "Missing JSON element for servers: " + e.getMessage());
             }
             return servers;
         }
@@ -735,18 +728,11 @@ public class NovaServer extends AbstractVMSupport<NovaOpenStack> {
             JSONObject ob = method.getServers("/servers", null, true);
             List<VirtualMachine> servers = new ArrayList<VirtualMachine>();
 
-            Iterable<IpAddress> ipv4 = Collections.emptyList(), ipv6 = Collections.emptyList();
+            FloatingIPSnapshot addresses = getFloatingIPs();
             Iterable<VLAN> nets = Collections.emptyList();
             NetworkServices services = getProvider().getNetworkServices();
 
             if( services != null ) {
-                IpAddressSupport support = services.getIpAddressSupport();
-
-                if( support != null ) {
-                    ipv4 = support.listIpPool(IPVersion.IPV4, false);
-                    ipv6 = support.listIpPool(IPVersion.IPV6, false);
-                }
-
                 VLANSupport vs = services.getVlanSupport();
 
                 if( vs != null ) {
@@ -759,7 +745,7 @@ public class NovaServer extends AbstractVMSupport<NovaOpenStack> {
 
                     for( int i=0; i<list.length(); i++ ) {
                         JSONObject server = list.getJSONObject(i);
-                        VirtualMachine vm = toVirtualMachine(server, ipv4, ipv6, nets);
+                        VirtualMachine vm = toVirtualMachine(server, addresses, nets);
 
                         if( vm != null ) {
                             servers.add(vm);
@@ -779,6 +765,134 @@ public class NovaServer extends AbstractVMSupport<NovaOpenStack> {
         }
     }
 
+    /**
+     * Brings the locally held server inventory for the current region up to date and notifies the listener of
+     * every server that was added, changed, or removed since the previous sync. The first sync loads the full
+     * server list; later syncs ask Nova only for the servers changed since the last one (including deleted
+     * servers), so steady-state polling only downloads and converts the deltas.
+     * @param listener an optional listener to be notified of the changes applied by this sync
+     * @return the current view of all virtual machines in the inventory
+     * @throws InternalException an error occurred within Dasein Cloud while processing the request
+     * @throws CloudException an error occurred in the cloud provider while processing the request
+     */
+    public @Nonnull Iterable<VirtualMachine> syncVirtualMachines(@Nullable ServerInventory.Listener listener) throws InternalException, CloudException {
+        APITrace.begin(getProvider(), "VM.syncVirtualMachines");
+        try {
+            ServerInventory inventory = getInventory();
+
+            synchronized( inventory ) {
+                NovaMethod method = new NovaMethod(getProvider());
+                String since = inventory.getLastChange();
+                SimpleDateFormat fmt = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'");
+
+                fmt.setTimeZone(TimeZone.getTimeZone("UTC"));
+                // fallback marker for when nothing changed; backed off to absorb clock drift against the cloud
+                String marker = fmt.format(new Date(System.currentTimeMillis() - CalendarWrapper.MINUTE));
+                JSONObject ob;
+
+                if( since == null ) {
+                    ob = method.getServers("/servers", null, true);
+                }
+                else {
+                    try {
+                        ob = method.getServers("/servers", null, true, "?changes-since=" + URLEncoder.encode(since, "utf-8"));
+                    }
+                    catch( UnsupportedEncodingException e ) {
+                        throw new InternalException(e);
+                    }
+                }
+                List<JSONObject> pending = new ArrayList<JSONObject>();
+                Set<String> seen = new HashSet<String>();
+                String latest = null;
+
+                try {
+                    if( ob != null && ob.has("servers") ) {
+                        JSONArray list = ob.getJSONArray("servers");
+
+                        for( int i=0; i<list.length(); i++ ) {
+                            JSONObject server = list.getJSONObject(i);
+                            String id = (server.has("id") ? server.getString("id") : null);
+                            String updatedAt = ((server.has("updated") && !server.isNull("updated")) ? server.getString("updated") : null);
+                            String status = (server.has("status") ? server.getString("status") : null);
+
+                            if( id == null ) {
+                                continue;
+                            }
+                            if( updatedAt != null && (latest == null || updatedAt.compareTo(latest) > 0) ) {
+                                latest = updatedAt;
+                            }
+                            if( status != null && status.equalsIgnoreCase("deleted") ) {
+                                if( inventory.remove(id) != null && listener != null ) {
+                                    listener.removed(id);
+                                }
+                                continue;
+                            }
+                            seen.add(id);
+                            if( !inventory.isCurrent(id, updatedAt) ) {
+                                pending.add(server);
+                            }
+                        }
+                    }
+                    if( !pending.isEmpty() ) {
+                        FloatingIPSnapshot addresses = getFloatingIPs();
+                        Iterable<VLAN> nets = Collections.emptyList();
+                        NetworkServices services = getProvider().getNetworkServices();
+
+                        if( services != null ) {
+                            VLANSupport vs = services.getVlanSupport();
+
+                            if( vs != null ) {
+                                nets = vs.listVlans();
+                            }
+                        }
+                        for( JSONObject server : pending ) {
+                            VirtualMachine vm = toVirtualMachine(server, addresses, nets);
+
+                            if( vm != null ) {
+                                boolean known = inventory.contains(vm.getProviderVirtualMachineId());
+
+                                inventory.put(vm, (server.has("updated") && !server.isNull("updated")) ? server.getString("updated") : null);
+                                if( listener != null ) {
+                                    if( known ) {
+                                        listener.changed(vm);
+                                    }
+                                    else {
+                                        listener.added(vm);
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+                catch( JSONException e ) {
+                    logger.error("syncVirtualMachines(): Unable to identify expected values in JSON: " + e.getMessage());
+                    throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", "Missing JSON element for servers");
+                }
+                if( since == null ) {
+                    // a full listing is authoritative, so anything we still hold that was not listed is gone
+                    for( String id : inventory.listIds() ) {
+                        if( !seen.contains(id) ) {
+                            inventory.remove(id);
+                            if( listener != null ) {
+                                listener.removed(id);
+                            }
+                        }
+                    }
+                }
+                if( latest != null ) {
+                    inventory.setLastChange(latest);
+                }
+                else if( since == null ) {
+                    inventory.setLastChange(marker);
+                }
+                return inventory.list();
+            }
+        }
+        finally {
+            APITrace.end();
+        }
+    }
+
     @Override
     public void pause(@Nonnull String vmId) throws InternalException, CloudException {
         APITrace.begin(getProvider(), "VM.pause");
@@ -952,41 +1066,45 @@ public class NovaServer extends AbstractVMSupport<NovaOpenStack> {
     public void terminate(@Nonnull String vmId, @Nullable String explanation) throws InternalException, CloudException {
         APITrace.begin(getProvider(), "VM.terminate");
         try {
-            VirtualMachine vm = getVirtualMachine(vmId);
+            final VirtualMachine vm = getVirtualMachine(vmId);
             if( vm == null) {
                 return; // do nothing, machine is already gone
             }
-            NovaMethod method = new NovaMethod(getProvider());
-            long timeout = System.currentTimeMillis() + CalendarWrapper.HOUR;
+            final NovaMethod method = new NovaMethod(getProvider());
+            final Quantum quantum = getProvider().getNetworkServices().getVlanSupport();
+            final long timeout = System.currentTimeMillis() + CalendarWrapper.HOUR;
+            Set<String> resourceIds = new LinkedHashSet<String>();
 
-            do {
-                try {
-                    Quantum quantum = getProvider().getNetworkServices().getVlanSupport();
-                    if( quantum != null ) {
-                        String cachedPortId = (String) vm.getTag("org.dasein.portId");
-                        Iterable<String> portIds = quantum.listPorts(vm);
-                        for (String portId : portIds) {
-                            quantum.removePort(portId);
-                            if (portId.equalsIgnoreCase(cachedPortId)) {
-                                cachedPortId = null;
+            resourceIds.add(vmId);
+            if( quantum != null ) {
+                for( String portId : quantum.listPorts(vm) ) {
+                    resourceIds.add(portId);
+                }
+                // if ports were detached, listPorts will not return any ports, so remove the cached one directly
+                String cachedPortId = (String) vm.getTag("org.dasein.portId");
+
+                if( cachedPortId != null ) {
+                    resourceIds.add(cachedPortId);
+                }
+            }
+            // the server and all of its ports are torn down at the same time
+            new BatchExecutor(getProvider(), "vm-terminate").execute(resourceIds, new BatchExecutor.Operation<Void>() {
+                @Override
+                public Void execute(@Nonnull final String resourceId) throws CloudException, InternalException {
+                    return ConflictBackoff.retry(timeout, new ConflictBackoff.Operation<Void>() {
+                        @Override
+                        public Void execute() throws CloudException, InternalException {
+                            if( resourceId.equals(vm.getProviderVirtualMachineId()) ) {
+                                method.deleteServers("/servers", resourceId);
                             }
+                            else {
+                                quantum.removePort(resourceId);
+                            }
+                            return null;
                         }
-                        // if ports were detached, listPorts will not return any ports, diff method to be used
-                        if (cachedPortId != null) {
-                            quantum.removePort(cachedPortId);
-                        }
-                    }
-                    method.deleteServers("/servers", vmId);
-                    return;
-                }
-                catch( NovaException e ) {
-                    if( e.getHttpCode() != HttpStatus.SC_CONFLICT ) {
-                        throw e;
-                    }
+                    });
                 }
-                try { Thread.sleep(CalendarWrapper.MINUTE); }
-                catch( InterruptedException e ) { /* ignore */ }
-            } while( System.currentTimeMillis() < timeout );
+            }).rethrow();
         }
         finally {
             APITrace.end();
@@ -1028,66 +1146,87 @@ public class NovaServer extends AbstractVMSupport<NovaOpenStack> {
         return product;
     }
 
-    private @Nullable ResourceStatus toStatus(@Nullable JSONObject server) throws JSONException, InternalException, CloudException {
-        if( server == null ) {
-            return null;
+    private @Nonnull VmState toState(@Nullable String status) {
+        if( status == null ) {
+            return VmState.PENDING;
         }
-        String serverId = null;
+        String s = status.toLowerCase();
+        VmState state;
 
-        if( server.has("id") ) {
-            serverId = server.getString("id");
+        if( s.equals("active") ) {
+            state = VmState.RUNNING;
         }
-        if( serverId == null ) {
-            return null;
+        else if( s.equals("build") ) {
+            state = VmState.PENDING;
+        }
+        else if( s.equals("deleted") ) {
+            state = VmState.TERMINATED;
         }
+        else if( s.equals("suspended") ) {
+            state = VmState.SUSPENDED;
+        }
+        else if( s.equalsIgnoreCase("paused") ) {
+            state = VmState.PAUSED;
+        }
+        else if( s.equalsIgnoreCase("stopped") || s.equalsIgnoreCase("shutoff")) {
+            state = VmState.STOPPED;
+        }
+        else if( s.equalsIgnoreCase("stopping") ) {
+            state = VmState.STOPPING;
+        }
+        else if( s.equalsIgnoreCase("pausing") ) {
+            state = VmState.PAUSING;
+        }
+        else if( s.equalsIgnoreCase("suspending") ) {
+            state = VmState.SUSPENDING;
+        }
+        else if( s.equals("error") ) {
+            state = VmState.ERROR;
+        }
+        else if( s.equals("reboot") || s.equals("hard_reboot") ) {
+            state = VmState.REBOOTING;
+        }
+        else {
+            logger.warn("toState(): Unknown server state: " + s);
+            state = VmState.PENDING;
+        }
+        return state;
+    }
 
-        VmState state = VmState.PENDING;
+    /**
+     * Provides the server inventory for the current region. The lookup and the creation of a missing inventory
+     * happen under the cache's lock, so concurrent first syncs cannot each install an inventory of their own.
+     */
+    private @Nonnull ServerInventory getInventory() throws CloudException, InternalException {
+        Cache<ServerInventory> cache = Cache.getInstance(getProvider(), "serverInventory", ServerInventory.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Day>(1, TimePeriod.DAY));
 
-        if( server.has("status") ) {
-            String s = server.getString("status").toLowerCase();
+        synchronized( cache ) {
+            Iterable<ServerInventory> it = cache.get(getContext());
 
-            if( s.equals("active") ) {
-                state = VmState.RUNNING;
-            }
-            else if( s.equals("build") ) {
-                state = VmState.PENDING;
-            }
-            else if( s.equals("deleted") ) {
-                state = VmState.TERMINATED;
-            }
-            else if( s.equals("suspended") ) {
-                state = VmState.SUSPENDED;
-            }
-            else if( s.equalsIgnoreCase("paused") ) {
-                state = VmState.PAUSED;
-            }
-            else if( s.equalsIgnoreCase("stopped") || s.equalsIgnoreCase("shutoff")) {
-                state = VmState.STOPPED;
-            }
-            else if( s.equalsIgnoreCase("stopping") ) {
-                state = VmState.STOPPING;
-            }
-            else if( s.equalsIgnoreCase("pausing") ) {
-                state = VmState.PAUSING;
-            }
-            else if( s.equalsIgnoreCase("suspending") ) {
-                state = VmState.SUSPENDING;
-            }
-            else if( s.equals("error") ) {
-                state = VmState.ERROR;
-            }
-            else if( s.equals("reboot") || s.equals("hard_reboot") ) {
-                state = VmState.REBOOTING;
-            }
-            else {
-                logger.warn("toVirtualMachine(): Unknown server state: " + s);
-                state = VmState.PENDING;
+            if( it != null ) {
+                Iterator<ServerInventory> b = it.iterator();
+
+                if( b.hasNext() ) {
+                    return b.next();
+                }
             }
+            ServerInventory inventory = new ServerInventory();
+
+            cache.put(getContext(), Collections.singletonList(inventory));
+            return inventory;
         }
-        return new ResourceStatus(serverId, state);
     }
 
-    private @Nullable VirtualMachine toVirtualMachine(@Nullable JSONObject server, @Nonnull Iterable<IpAddress> ipv4, @Nonnull Iterable<IpAddress> ipv6, @Nonnull Iterable<VLAN> networks) throws JSONException, InternalException, CloudException {
+    private @Nonnull FloatingIPSnapshot getFloatingIPs() throws CloudException, InternalException {
+        NovaFloatingIP support = getProvider().getNetworkServices().getIpAddressSupport();
+
+        if( support == null ) {
+            return new FloatingIPSnapshot();
+        }
+        return support.getSnapshot();
+    }
+
+    private @Nullable VirtualMachine toVirtualMachine(@Nullable JSONObject server, @Nonnull FloatingIPSnapshot addresses, @Nonnull Iterable<VLAN> networks) throws JSONException, InternalException, CloudException {
         if( server == null ) {
             return null;
         }
@@ -1329,51 +1468,21 @@ public class NovaServer extends AbstractVMSupport<NovaOpenStack> {
             }
             RawAddress[] raw = vm.getPublicAddresses();
 
-            if( raw != null ) {
-                for( RawAddress addr : vm.getPublicAddresses() ) {
-                    if( addr.getVersion().equals(IPVersion.IPV4) ) {
-                        for( IpAddress a : ipv4 ) {
-                            if( a.getRawAddress().getIpAddress().equals(addr.getIpAddress()) ) {
-                                vm.setProviderAssignedIpAddressId(a.getProviderIpAddressId());
-                                break;
-                            }
-                        }
-                    }
-                    else if( addr.getVersion().equals(IPVersion.IPV6) ) {
-                        for( IpAddress a : ipv6 ) {
-                            if( a.getRawAddress().getIpAddress().equals(addr.getIpAddress()) ) {
-                                vm.setProviderAssignedIpAddressId(a.getProviderIpAddressId());
-                                break;
-                            }
-                        }
-                    }
-                }
-            }
-            if( vm.getProviderAssignedIpAddressId() == null ) {
-                for( IpAddress addr : ipv4 ) {
-                    String serverId = addr.getServerId();
+            synchronized( addresses ) {
+                if( raw != null ) {
+                    for( RawAddress addr : raw ) {
+                        IpAddress a = addresses.getAddressByIp(addr.getIpAddress());
 
-                    if( serverId != null && serverId.equals(vm.getProviderVirtualMachineId()) ) {
-                        vm.setProviderAssignedIpAddressId(addr.getProviderIpAddressId());
-                        break;
+                        if( a != null && addr.getVersion().equals(a.getVersion()) ) {
+                            vm.setProviderAssignedIpAddressId(a.getProviderIpAddressId());
+                        }
                     }
                 }
                 if( vm.getProviderAssignedIpAddressId() == null ) {
-                    for( IpAddress addr : ipv6 ) {
-                        String serverId = addr.getServerId();
+                    List<IpAddress> assigned = addresses.listAddressesByInstance(vm.getProviderVirtualMachineId());
 
-                        if( serverId != null && addr.getServerId().equals(vm.getProviderVirtualMachineId()) ) {
-                            vm.setProviderAssignedIpAddressId(addr.getProviderIpAddressId());
-                            break;
-                        }
-                    }
-                }
-            }
-            if( vm.getProviderAssignedIpAddressId() == null ) {
-                for( IpAddress addr : ipv6 ) {
-                    if( addr.getServerId().equals(vm.getProviderVirtualMachineId()) ) {
-                        vm.setProviderAssignedIpAddressId(addr.getProviderIpAddressId());
-                        break;
+                    if( !assigned.isEmpty() ) {
+                        vm.setProviderAssignedIpAddressId(assigned.get(0).getProviderIpAddressId());
                     }
                 }
             }
@@ -1438,8 +1547,12 @@ public class NovaServer extends AbstractVMSupport<NovaOpenStack> {
     
     @Override
     public void setTags(@Nonnull String[] vmIds, @Nonnull Tag... tags) throws CloudException, InternalException {
-    	for( String id : vmIds ) {
-    		setTags(id, tags);
+    	APITrace.begin(getProvider(), "Server.setTags");
+    	try {
+    		getProvider().createTags( SERVICE, "/servers", vmIds, tags);
+    	}
+    	finally {
+    		APITrace.end();
     	}
     }
     
@@ -1456,8 +1569,12 @@ public class NovaServer extends AbstractVMSupport<NovaOpenStack> {
     
     @Override
     public void updateTags(@Nonnull String[] vmIds, @Nonnull Tag... tags) throws CloudException, InternalException {
-    	for( String id : vmIds ) {
-    		updateTags(id, tags);
+    	APITrace.begin(getProvider(), "Server.updateTags");
+    	try {
+    		getProvider().updateTags( SERVICE, "/servers", vmIds, tags);
+    	}
+    	finally {
+    		APITrace.end();
     	}
     }
     
@@ -1474,62 +1591,12 @@ public class NovaServer extends AbstractVMSupport<NovaOpenStack> {
     
     @Override
     public void removeTags(@Nonnull String[] vmIds, @Nonnull Tag... tags) throws CloudException, InternalException {
-    	for( String id : vmIds ) {
-    		removeTags(id, tags);
-    	}
-    }
-
-    @Override
-    public void setTags(@Nonnull String vmId, @Nonnull Tag... tags) throws CloudException, InternalException {
-    	APITrace.begin(getProvider(), "Server.setTags");
-    	try {
-    		getProvider().createTags( SERVICE, "/servers", vmId, tags);
-    	}
-    	finally {
-    		APITrace.end();
-    	}
-    }
-
-    @Override
-    public void setTags(@Nonnull String[] vmIds, @Nonnull Tag... tags) throws CloudException, InternalException {
-    	for( String id : vmIds ) {
-    		setTags(id, tags);
-    	}
-    }
-
-    @Override
-    public void updateTags(@Nonnull String vmId, @Nonnull Tag... tags) throws CloudException, InternalException {
-    	APITrace.begin(getProvider(), "Server.updateTags");
-    	try {
-    		getProvider().updateTags( SERVICE, "/servers", vmId, tags);
-    	}
-    	finally {
-    		APITrace.end();
-    	}
-    }
-
-    @Override
-    public void updateTags(@Nonnull String[] vmIds, @Nonnull Tag... tags) throws CloudException, InternalException {
-    	for( String id : vmIds ) {
-    		updateTags(id, tags);
-    	}
-    }
-
-    @Override
-    public void removeTags(@Nonnull String vmId, @Nonnull Tag... tags) throws CloudException, InternalException {
     	APITrace.begin(getProvider(), "Server.removeTags");
     	try {
-    		getProvider().removeTags( SERVICE, "/servers", vmId, tags);
+    		getProvider().removeTags( SERVICE, "/servers", vmIds, tags);
     	}
     	finally {
     		APITrace.end();
     	}
     }
-
-    @Override
-    public void removeTags(@Nonnull String[] vmIds, @Nonnull Tag... tags) throws CloudException, InternalException {
-    	for( String id : vmIds ) {
-    		removeTags(id, tags);
-    	}
-    }
 }
@@ -0,0 +1,99 @@
+/**
+ * Copyright (C) 2009-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.openstack.nova.os.compute;
+
+import org.dasein.cloud.compute.VirtualMachine;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Local view of the servers in a region that is kept current by applying the deltas reported through the
+ * Nova <code>changes-since</code> filter rather than re-reading the full server list on every poll.
+ * @since 2015.06.2
+ * @version 2015.06.2 initial version
+ */
+public class ServerInventory {
+    /**
+     * Receives the changes applied to the inventory during a sync.
+     */
+    public interface Listener {
+        public void added(@Nonnull VirtualMachine vm);
+
+        public void changed(@Nonnull VirtualMachine vm);
+
+        public void removed(@Nonnull String vmId);
+    }
+
+    private String                      lastChange;
+    private Map<String,VirtualMachine>  servers = new HashMap<String, VirtualMachine>();
+    private Map<String,String>          updated = new HashMap<String, String>();
+
+    /**
+     * @return the latest <code>updated</code> timestamp seen from Nova, or null if no listing has been loaded yet
+     */
+    public @Nullable String getLastChange() {
+        return lastChange;
+    }
+
+    void setLastChange(@Nullable String lastChange) {
+        this.lastChange = lastChange;
+    }
+
+    boolean contains(@Nonnull String vmId) {
+        return servers.containsKey(vmId);
+    }
+
+    boolean isCurrent(@Nonnull String vmId, @Nullable String updatedAt) {
+        return (updatedAt != null && servers.containsKey(vmId) && updatedAt.equals(updated.get(vmId)));
+    }
+
+    @Nonnull Collection<String> listIds() {
+        return new ArrayList<String>(servers.keySet());
+    }
+
+    void put(@Nonnull VirtualMachine vm, @Nullable String updatedAt) {
+        String id = vm.getProviderVirtualMachineId();
+
+        servers.put(id, vm);
+        if( updatedAt == null ) {
+            updated.remove(id);
+        }
+        else {
+            updated.put(id, updatedAt);
+        }
+    }
+
+    @Nullable VirtualMachine remove(@Nonnull String vmId) {
+        updated.remove(vmId);
+        return servers.remove(vmId);
+    }
+
+    /**
+     * @return a snapshot of the virtual machines currently held in the inventory
+     */
+    public @Nonnull Collection<VirtualMachine> list() {
+        return new ArrayList<VirtualMachine>(servers.values());
+    }
+}
@@ -0,0 +1,183 @@
+/**
+ * Copyright (C) 2009-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.openstack.nova.os.compute;
+
+import org.dasein.cloud.compute.Snapshot;
+import org.dasein.util.CalendarWrapper;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Snapshots indexed by the volume from which they were taken, ordered by creation time within each volume. The
+ * index is filled in as snapshots are listed, either for the whole tenant or one volume at a time, and is kept
+ * current by the create and remove operations in {@link CinderSnapshot}. Snapshots created or removed outside this
+ * driver are not seen until a listing is older than the refresh interval and is fetched again.
+ * @since 2015.06.2
+ * @version 2015.06.2 initial version
+ */
+public class SnapshotIndex {
+    static public final long REFRESH_INTERVAL = CalendarWrapper.MINUTE;
+
+    static private final Comparator<Snapshot> BY_CREATION = new Comparator<Snapshot>() {
+        @Override
+        public int compare(Snapshot a, Snapshot b) {
+            if( a.getSnapshotTimestamp() < b.getSnapshotTimestamp() ) {
+                return -1;
+            }
+            if( a.getSnapshotTimestamp() > b.getSnapshotTimestamp() ) {
+                return 1;
+            }
+            return a.getProviderSnapshotId().compareTo(b.getProviderSnapshotId());
+        }
+    };
+
+    private long                       completeAt    = -1L;
+    private Map<String,Long>           loadedVolumes = new HashMap<String, Long>();
+    private Map<String,Snapshot>       snapshots     = new HashMap<String, Snapshot>();
+    private Map<String,List<Snapshot>> byVolume      = new HashMap<String, List<Snapshot>>();
+
+    /**
+     * @return true if the index holds every snapshot in the tenant as of a listing newer than the refresh interval
+     */
+    public boolean isComplete() {
+        return isFresh(completeAt);
+    }
+
+    /**
+     * @param volumeId the volume in question
+     * @return true if the index holds every snapshot of the specified volume as of a listing newer than the
+     * refresh interval
+     */
+    public boolean isLoaded(@Nonnull String volumeId) {
+        if( isComplete() ) {
+            return true;
+        }
+        Long loadedAt = loadedVolumes.get(volumeId);
+
+        return (loadedAt != null && isFresh(loadedAt));
+    }
+
+    private boolean isFresh(long loadedAt) {
+        return (loadedAt >= 0L && System.currentTimeMillis() - loadedAt < REFRESH_INTERVAL);
+    }
+
+    void load(@Nonnull Iterable<Snapshot> all) {
+        snapshots.clear();
+        byVolume.clear();
+        loadedVolumes.clear();
+        for( Snapshot snapshot : all ) {
+            put(snapshot);
+        }
+        completeAt = System.currentTimeMillis();
+    }
+
+    void load(@Nonnull String volumeId, @Nonnull Iterable<Snapshot> forVolume) {
+        List<Snapshot> list = byVolume.remove(volumeId);
+
+        if( list != null ) {
+            for( Snapshot snapshot : list ) {
+                snapshots.remove(snapshot.getProviderSnapshotId());
+            }
+        }
+        for( Snapshot snapshot : forVolume ) {
+            put(snapshot);
+        }
+        loadedVolumes.put(volumeId, System.currentTimeMillis());
+    }
+
+    void put(@Nonnull Snapshot snapshot) {
+        remove(snapshot.getProviderSnapshotId());
+        snapshots.put(snapshot.getProviderSnapshotId(), snapshot);
+
+        String volumeId = snapshot.getVolumeId();
+
+        if( volumeId != null ) {
+            List<Snapshot> list = byVolume.get(volumeId);
+
+            if( list == null ) {
+                list = new ArrayList<Snapshot>();
+                byVolume.put(volumeId, list);
+            }
+            int i = Collections.binarySearch(list, snapshot, BY_CREATION);
+
+            list.add(i < 0 ? -(i + 1) : i, snapshot);
+        }
+    }
+
+    void remove(@Nonnull String snapshotId) {
+        Snapshot snapshot = snapshots.remove(snapshotId);
+
+        if( snapshot != null && snapshot.getVolumeId() != null ) {
+            List<Snapshot> list = byVolume.get(snapshot.getVolumeId());
+
+            if( list != null ) {
+                list.remove(snapshot);
+            }
+        }
+    }
+
+    /**
+     * @param snapshotId the snapshot in question
+     * @return the indexed snapshot, or null if it is not in the index
+     */
+    public @Nullable Snapshot getSnapshot(@Nonnull String snapshotId) {
+        return snapshots.get(snapshotId);
+    }
+
+    /**
+     * @param volumeId the volume in question
+     * @return the most recently created indexed snapshot of the volume, or null if none is indexed
+     */
+    public @Nullable Snapshot getLatest(@Nonnull String volumeId) {
+        List<Snapshot> list = byVolume.get(volumeId);
+
+        if( list == null || list.isEmpty() ) {
+            return null;
+        }
+        return list.get(list.size() - 1);
+    }
+
+    /**
+     * @param volumeId the volume in question
+     * @return a snapshot of the indexed snapshots of the volume, oldest first
+     */
+    public @Nonnull List<Snapshot> list(@Nonnull String volumeId) {
+        List<Snapshot> list = byVolume.get(volumeId);
+
+        if( list == null ) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<Snapshot>(list);
+    }
+
+    /**
+     * @return a snapshot of every indexed snapshot
+     */
+    public @Nonnull List<Snapshot> list() {
+        return new ArrayList<Snapshot>(snapshots.values());
+    }
+}
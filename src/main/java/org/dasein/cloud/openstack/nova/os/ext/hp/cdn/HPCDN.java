@@ -26,6 +26,7 @@ import org.dasein.cloud.InternalException;
 import org.dasein.cloud.ProviderContext;
 import org.dasein.cloud.ResourceStatus;
 import org.dasein.cloud.identity.ServiceAction;
+import org.dasein.cloud.openstack.nova.os.CDNListing;
 import org.dasein.cloud.openstack.nova.os.NovaMethod;
 import org.dasein.cloud.openstack.nova.os.NovaOpenStack;
 import org.dasein.cloud.platform.CDNCapabilities;
@@ -39,13 +40,11 @@ import javax.annotation.Nullable;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.StringReader;
-import java.net.URI;
-import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
-import java.util.Map;
 
 /**
  * Supports the HP CDN terminology. If this becomes standard Nova, great. If not, oh well.
@@ -66,10 +65,6 @@ public class HPCDN implements CDNSupport {
         provider = cloud;
     }
 
-    private @Nonnull String getTenantId() throws CloudException, InternalException {
-        return provider.getContext().getAccountNumber();
-    }
-
     @Override
     public @Nonnull String create(@Nonnull String origin, @Nonnull String name, boolean active, @CheckForNull String... aliases) throws InternalException, CloudException {
         APITrace.begin(provider, "CDN.create");
@@ -128,7 +123,7 @@ public class HPCDN implements CDNSupport {
             if( ctx == null ) {
                 throw new InternalException("No context exists for this request");
             }
-            return toDistribution(ctx, distributionId);
+            return new CDNListing(provider, SERVICE, RESOURCE, false).examine(distributionId);
         }
         finally {
             APITrace.end();
@@ -161,30 +156,7 @@ public class HPCDN implements CDNSupport {
                 logger.error("No context exists for this request");
                 throw new InternalException("No context exists for this request");
             }
-            NovaMethod method = new NovaMethod(provider);
-            String response = method.getHPCDN(null);
-            ArrayList<Distribution> distributions = new ArrayList<Distribution>();
-            
-            try {
-                if( response != null ) {
-                    BufferedReader reader = new BufferedReader(new StringReader(response));
-                    String container;
-                    
-                    while( (container = reader.readLine()) != null ) {
-                        Distribution d = toDistribution(ctx, container);
-
-                        if( d != null ) {
-                            distributions.add(d);
-                        }
-                    }
-                }
-            }
-            catch( IOException e ) {
-                logger.error("list(): I/O error parsing response: " + e.getMessage());
-                e.printStackTrace();
-                throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidResponse", "I/O error parsing " + response);
-            }
-            return distributions;
+            return listDistributions();
         }
         finally {
             APITrace.end();
@@ -195,29 +167,12 @@ public class HPCDN implements CDNSupport {
     public @Nonnull Iterable<ResourceStatus> listDistributionStatus() throws InternalException, CloudException {
         APITrace.begin(provider, "CDN.listDistributionStatus");
         try {
-            NovaMethod method = new NovaMethod(provider);
-            String response = method.getHPCDN(null);
-            ArrayList<ResourceStatus> distributions = new ArrayList<ResourceStatus>();
-
-            try {
-                if( response != null ) {
-                    BufferedReader reader = new BufferedReader(new StringReader(response));
-                    String container;
+            ArrayList<ResourceStatus> status = new ArrayList<ResourceStatus>();
 
-                    while( (container = reader.readLine()) != null ) {
-                        ResourceStatus d = toStatus(container);
-
-                        if( d != null ) {
-                            distributions.add(d);
-                        }
-                    }
-                }
-            }
-            catch( IOException e ) {
-                e.printStackTrace();
-                throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidResponse", "I/O error parsing " + response);
+            for( Distribution d : listDistributions() ) {
+                status.add(new ResourceStatus(d.getProviderDistributionId(), d.isActive()));
             }
-            return distributions;
+            return status;
         }
         finally {
             APITrace.end();
@@ -250,87 +205,43 @@ public class HPCDN implements CDNSupport {
         return new String[0];
     }
     
-    private @Nullable Distribution toDistribution(@Nonnull ProviderContext ctx, @Nullable String container) throws CloudException, InternalException {
-        if( container == null ) {
-            return null;
+    /**
+     * Lists the CDN containers with their CDN settings. The JSON listing carries the settings of every container
+     * in one request; a CDN endpoint that does not offer it is listed by name and each container is then
+     * examined with a HEAD, several at a time.
+     * @return the distributions in the current region
+     * @throws CloudException an error occurred with the cloud provider while listing the containers
+     * @throws InternalException an error occurred within Dasein Cloud while listing the containers
+     */
+    private @Nonnull List<Distribution> listDistributions() throws CloudException, InternalException {
+        if( provider.getContext() == null ) {
+            throw new InternalException("No context exists for this request");
+        }
+        CDNListing listing = new CDNListing(provider, SERVICE, RESOURCE, false);
+        List<Distribution> distributions = listing.listFromJSON();
+
+        if( distributions != null ) {
+            return distributions;
         }
         NovaMethod method = new NovaMethod(provider);
-        Map<String,String> headers = method.headResource(SERVICE, RESOURCE, container);
-
-        if( headers == null ) {
-            return null;
-        }
-        String enabled = null, uriString = null;
-        for( String key : headers.keySet() ) {
-            if( key.equalsIgnoreCase("X-CDN-Enabled") ) {
-                enabled = headers.get(key);
-            }
-            else if( key.equalsIgnoreCase("X-CDN-URI") ) {
-                uriString = headers.get(key);
-                
-            }
-        }
-        if( uriString == null ) {
-            return null;
-        }
-        String dns;
+        String response = method.getHPCDN(null);
+        ArrayList<String> containers = new ArrayList<String>();
 
         try {
-            URI uri = new URI(uriString);
-            
-            dns = uri.getHost();
-            if( uri.getPort() > 0 ) {
-                if( dns.startsWith("https:") && uri.getPort() != 443 ) {
-                    dns = dns + ":" + uri.getPort();
-                }
-                if( dns.startsWith("http:") && uri.getPort() != 80 ) {
-                    dns = dns + ":" + uri.getPort();
-                }
-            }
-        }
-        catch( URISyntaxException e ) {
-            throw new CloudException(e);
-        }
-
-        Distribution distribution = new Distribution();
-
-
-        distribution.setName(container);
-        distribution.setActive(enabled != null && enabled.equalsIgnoreCase("true"));
-        distribution.setAliases(new String[0]);
-        distribution.setDeployed(enabled != null && enabled.equalsIgnoreCase("true"));
-        distribution.setDnsName(dns);
-        distribution.setLocation(uriString);
-        distribution.setLogDirectory(null);
-        distribution.setProviderDistributionId(container);
-        distribution.setProviderOwnerId(getTenantId());
-        return distribution;
-    }
-
-    private @Nullable ResourceStatus toStatus(@Nullable String container) throws CloudException, InternalException {
-        if( container == null ) {
-            return null;
-        }
-        NovaMethod method = new NovaMethod(provider);
-        Map<String,String> headers = method.headResource(SERVICE, RESOURCE, container);
-
-        if( headers == null ) {
-            return null;
-        }
-
-        String enabled = null, uriString = null;
-        for( String key : headers.keySet() ) {
-            if( key.equalsIgnoreCase("X-CDN-Enabled") ) {
-                enabled = headers.get(key);
-            }
-            else if( key.equalsIgnoreCase("X-CDN-URI") ) {
-                uriString = headers.get(key);
+            if( response != null ) {
+                BufferedReader reader = new BufferedReader(new StringReader(response));
+                String container;
 
+                while( (container = reader.readLine()) != null ) {
+                    containers.add(container);
+                }
             }
         }
-        if( uriString == null ) {
-            return null;
+        catch( IOException e ) {
+            logger.error("list(): I/O error parsing response: " + e.getMessage());
+            e.printStackTrace();
+            throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidResponse", "I/O error parsing " + response);
         }
-        return new ResourceStatus(container, enabled != null && enabled.equalsIgnoreCase("true"));
+        return listing.examine(containers);
     }
 }
@@ -26,6 +26,9 @@ import org.dasein.cloud.InternalException;
 import org.dasein.cloud.ProviderContext;
 import org.dasein.cloud.ResourceStatus;
 import org.dasein.cloud.identity.ServiceAction;
+import org.dasein.cloud.openstack.nova.os.DBaaSInventory;
+import org.dasein.cloud.openstack.nova.os.DBaaSStatus;
+import org.dasein.cloud.openstack.nova.os.DBaaSWaiter;
 import org.dasein.cloud.openstack.nova.os.NovaMethod;
 import org.dasein.cloud.openstack.nova.os.NovaOpenStack;
 import org.dasein.cloud.platform.*;
@@ -38,6 +41,7 @@ import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.*;
+import java.util.concurrent.Future;
 
 /**
  * Implements Dasein Cloud relational database support for the HP cloud.
@@ -60,6 +64,23 @@ public class HPRDBMS extends AbstractRelationalDatabaseSupport<NovaOpenStack> {
         return getProvider().getContext().getAccountNumber();
     }
 
+    private @Nonnull DBaaSInventory getInventory() {
+        return new DBaaSInventory(getProvider(), SERVICE);
+    }
+
+    private @Nonnull DBaaSStatus getInstanceStatus() {
+        return new DBaaSStatus(getProvider(), SERVICE) {
+            @Override
+            protected @Nullable ResourceStatus toStatus(@Nonnull JSONObject item) throws CloudException, InternalException {
+                return HPRDBMS.this.toStatus(item);
+            }
+        };
+    }
+
+    private @Nonnull DBaaSWaiter getWaiter() {
+        return getProvider().getDBaaSWaiter(SERVICE);
+    }
+
     @Override
     public @Nonnull String createFromScratch(@Nonnull String dataSourceName, @Nonnull DatabaseProduct product, @Nonnull String databaseVersion, @Nonnull String withAdminUser, @Nonnull String withAdminPassword, int hostPort) throws CloudException, InternalException {
         APITrace.begin(getProvider(), "RDBMS.createFromScratch");
@@ -106,9 +127,11 @@ public class HPRDBMS extends AbstractRelationalDatabaseSupport<NovaOpenStack> {
 
             if( result != null && result.has("instance") ) {
                 try {
-                    Database db = toDatabase(ctx, result.getJSONObject("instance"));
+                    JSONObject instance = result.getJSONObject("instance");
+                    Database db = toDatabase(ctx, instance);
 
                     if( db != null ) {
+                        getInventory().put(DBaaSInventory.Kind.INSTANCES, instance);
                         return db.getProviderDatabaseId();
                     }
                 }
@@ -127,6 +150,15 @@ public class HPRDBMS extends AbstractRelationalDatabaseSupport<NovaOpenStack> {
         }
     }
 
+    /**
+     * Creates a database as {@link #createFromScratch(String, DatabaseProduct, String, String, String, int)} does
+     * without holding the caller until it is ready.
+     * @return a future that completes with the ID of the new database once it is available
+     */
+    public @Nonnull Future<String> createFromScratchAsync(@Nonnull String dataSourceName, @Nonnull DatabaseProduct product, @Nonnull String databaseVersion, @Nonnull String withAdminUser, @Nonnull String withAdminPassword, int hostPort) throws CloudException, InternalException {
+        return getInstanceStatus().waitForAvailable(createFromScratch(dataSourceName, product, databaseVersion, withAdminUser, withAdminPassword, hostPort));
+    }
+
     @Override
     public String createFromLatest(String dataSourceName, String providerDatabaseId, String productSize, String providerDataCenterId, int hostPort) throws InternalException, CloudException {
         APITrace.begin(getProvider(), "RDBMS.createFromLatest");
@@ -174,9 +206,11 @@ public class HPRDBMS extends AbstractRelationalDatabaseSupport<NovaOpenStack> {
 
             if( result != null && result.has("instance") ) {
                 try {
-                    Database db = toDatabase(ctx, result.getJSONObject("instance"));
+                    JSONObject instance = result.getJSONObject("instance");
+                    Database db = toDatabase(ctx, instance);
 
                     if( db != null ) {
+                        getInventory().put(DBaaSInventory.Kind.INSTANCES, instance);
                         return db.getProviderDatabaseId();
                     }
                 }
@@ -195,6 +229,15 @@ public class HPRDBMS extends AbstractRelationalDatabaseSupport<NovaOpenStack> {
         }
     }
 
+    /**
+     * Creates a database as {@link #createFromSnapshot(String, String, String, String, String, int)} does without
+     * holding the caller until it is ready.
+     * @return a future that completes with the ID of the new database once it is available
+     */
+    public @Nonnull Future<String> createFromSnapshotAsync(String dataSourceName, String providerDatabaseId, String providerDbSnapshotId, String productSize, String providerDataCenterId, int hostPort) throws CloudException, InternalException {
+        return getInstanceStatus().waitForAvailable(createFromSnapshot(dataSourceName, providerDatabaseId, providerDbSnapshotId, productSize, providerDataCenterId, hostPort));
+    }
+
     @Override
     public String createFromTimestamp(String dataSourceName, String providerDatabaseId, long beforeTimestamp, String productSize, String providerDataCenterId, int hostPort) throws InternalException, CloudException {
         APITrace.begin(getProvider(), "RDBMS.createFromTimestamp");
@@ -241,22 +284,7 @@ public class HPRDBMS extends AbstractRelationalDatabaseSupport<NovaOpenStack> {
                 logger.error("No context exists for this request");
                 throw new InternalException("No context exists for this request");
             }
-            NovaMethod method = new NovaMethod(getProvider());
-            JSONObject ob = method.getResource(SERVICE, RESOURCE, providerDatabaseId, false);
-
-            if( ob == null ) {
-                return null;
-            }
-            try {
-                if( ob.has("instance") ) {
-                    return toDatabase(ctx, ob.getJSONObject("instance"));
-                }
-            }
-            catch( JSONException e ) {
-                logger.error("getDatabase(): Unable to identify expected values in JSON: " + e.getMessage());
-                throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", "Missing JSON element for instance");
-            }
-            return null;
+            return toDatabase(ctx, getInventory().get(DBaaSInventory.Kind.INSTANCES, providerDatabaseId));
         }
         finally {
             APITrace.end();
@@ -285,19 +313,25 @@ public class HPRDBMS extends AbstractRelationalDatabaseSupport<NovaOpenStack> {
     }
 
     public @Nullable DatabaseProduct getDatabaseProduct(String flavor) throws CloudException, InternalException {
-        boolean hasSize = flavor.contains(":");
+        ProviderContext ctx = getProvider().getContext();
 
-        for( DatabaseEngine engine : DatabaseEngine.values() ) {
-            for( DatabaseProduct product : getDatabaseProducts(engine) ) {
-                if( hasSize && product.getProductSize().equals(flavor) ) {
-                    return product;
-                }
-                else if( !hasSize && product.getProductSize().startsWith(flavor) ) {
-                    return product;
-                }
+        if( ctx == null ) {
+            logger.error("No context exists for this request");
+            throw new InternalException("No context exists for this request");
+        }
+        int idx = flavor.indexOf(":");
+        int size = 2;
+
+        if( idx > -1 ) {
+            try {
+                size = Integer.parseInt(flavor.substring(idx+1));
+            }
+            catch( NumberFormatException e ) {
+                return null;
             }
+            flavor = flavor.substring(0, idx);
         }
-        return null;
+        return toProduct(ctx, size, getInventory().get(DBaaSInventory.Kind.FLAVORS, flavor));
     }
 
     public Iterable<DatabaseProduct> getDatabaseProducts(DatabaseEngine forEngine) throws CloudException, InternalException {
@@ -314,35 +348,16 @@ public class HPRDBMS extends AbstractRelationalDatabaseSupport<NovaOpenStack> {
                     std.error("No context exists for this request");
                     throw new InternalException("No context exists for this request");
                 }
-                NovaMethod method = new NovaMethod(getProvider());
-
-                JSONObject json = method.getResource(SERVICE, "/flavors", null, false);
-
                 List<DatabaseProduct> products = new ArrayList<DatabaseProduct>();
 
-                if( json != null && json.has("flavors") ) {
-                    try {
-                        JSONArray flavors = json.getJSONArray("flavors");
-
-                        for( int i=0; i<flavors.length(); i++ ) {
-                            JSONObject flavor = flavors.getJSONObject(i);
+                for( JSONObject flavor : getInventory().list(DBaaSInventory.Kind.FLAVORS) ) {
+                    for( int size : new int[] { 2, 5, 10, 20, 25, 30, 40, 50, 60, 70, 80, 90, 100, 150, 200, 250, 300, 400, 500, 600, 700, 800, 900, 1000 } ) {
+                        DatabaseProduct product = toProduct(ctx, size, flavor);
 
-                            if( flavor != null ) {
-                                for( int size : new int[] { 2, 5, 10, 20, 25, 30, 40, 50, 60, 70, 80, 90, 100, 150, 200, 250, 300, 400, 500, 600, 700, 800, 900, 1000 } ) {
-                                    DatabaseProduct product = toProduct(ctx, size, flavor);
-
-                                    if( product != null ) {
-                                        products.add(product);
-                                    }
-                                }
-                            }
+                        if( product != null ) {
+                            products.add(product);
                         }
                     }
-                    catch( JSONException e ) {
-                        std.error("getDatabaseProducts(): Unable to identify expected values in JSON: " + e.getMessage());
-                        e.printStackTrace();
-                        throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", "Missing JSON element for flavors in " + json.toString());
-                    }
                 }
                 return products;
             }
@@ -372,35 +387,16 @@ public class HPRDBMS extends AbstractRelationalDatabaseSupport<NovaOpenStack> {
                     std.error("No context exists for this request");
                     throw new InternalException("No context exists for this request");
                 }
-                NovaMethod method = new NovaMethod(getProvider());
-
-                JSONObject json = method.getResource(SERVICE, "/flavors", null, false);
-
                 List<DatabaseProduct> products = new ArrayList<DatabaseProduct>();
 
-                if( json != null && json.has("flavors") ) {
-                    try {
-                        JSONArray flavors = json.getJSONArray("flavors");
-
-                        for( int i=0; i<flavors.length(); i++ ) {
-                            JSONObject flavor = flavors.getJSONObject(i);
-
-                            if( flavor != null ) {
-                                for( int size : new int[] { 2, 5, 10, 20, 25, 30, 40, 50, 60, 70, 80, 90, 100, 150, 200, 250, 300, 400, 500, 600, 700, 800, 900, 1000 } ) {
-                                    DatabaseProduct product = toProduct(ctx, size, flavor);
+                for( JSONObject flavor : getInventory().list(DBaaSInventory.Kind.FLAVORS) ) {
+                    for( int size : new int[] { 2, 5, 10, 20, 25, 30, 40, 50, 60, 70, 80, 90, 100, 150, 200, 250, 300, 400, 500, 600, 700, 800, 900, 1000 } ) {
+                        DatabaseProduct product = toProduct(ctx, size, flavor);
 
-                                    if( product != null ) {
-                                        products.add(product);
-                                    }
-                                }
-                            }
+                        if( product != null ) {
+                            products.add(product);
                         }
                     }
-                    catch( JSONException e ) {
-                        std.error("getDatabaseProducts(): Unable to identify expected values in JSON: " + e.getMessage());
-                        e.printStackTrace();
-                        throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", "Missing JSON element for flavors in " + json.toString());
-                    }
                 }
                 return products;
             }
@@ -433,14 +429,10 @@ public class HPRDBMS extends AbstractRelationalDatabaseSupport<NovaOpenStack> {
             if( idx > -1 ) {
                 productId = productId.substring(0, idx);
             }
-            NovaMethod method = new NovaMethod(getProvider());
-
-            JSONObject json = method.getResource(SERVICE, "/flavors", productId, false);
+            JSONObject flavor = getInventory().get(DBaaSInventory.Kind.FLAVORS, productId);
 
-            if( json != null && json.has("flavor") ) {
+            if( flavor != null ) {
                 try {
-                    JSONObject flavor = json.getJSONObject("flavor");
-
                     if( flavor.has("links") ) {
                         JSONArray links = flavor.getJSONArray("links");
 
@@ -462,7 +454,7 @@ public class HPRDBMS extends AbstractRelationalDatabaseSupport<NovaOpenStack> {
                 catch( JSONException e ) {
                     std.error("getFlavorRef(): Unable to identify expected values in JSON: " + e.getMessage());
                     e.printStackTrace();
-                    throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", "Missing JSON element for flavors in " + json.toString());
+                    throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", "Missing JSON element for flavors in " + flavor.toString());
                 }
             }
             return null;
@@ -484,22 +476,7 @@ public class HPRDBMS extends AbstractRelationalDatabaseSupport<NovaOpenStack> {
                 logger.error("No context exists for this request");
                 throw new InternalException("No context exists for this request");
             }
-            NovaMethod method = new NovaMethod(getProvider());
-            JSONObject ob = method.getResource(SERVICE, SNAPSHOTS, providerDbSnapshotId, false);
-
-            if( ob == null ) {
-                return null;
-            }
-            try {
-                if( ob.has("snapshot") ) {
-                    return toSnapshot(ctx, ob.getJSONObject("snapshot"));
-                }
-            }
-            catch( JSONException e ) {
-                logger.error("getSnapshot(): Unable to identify expected values in JSON: " + e.getMessage());
-                throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", "Missing JSON element for snapshots");
-            }
-            return null;
+            return toSnapshot(ctx, getInventory().get(DBaaSInventory.Kind.SNAPSHOTS, providerDbSnapshotId));
         }
         finally {
             APITrace.end();
@@ -531,26 +508,13 @@ public class HPRDBMS extends AbstractRelationalDatabaseSupport<NovaOpenStack> {
     public @Nonnull Iterable<ResourceStatus> listDatabaseStatus() throws CloudException, InternalException {
         APITrace.begin(getProvider(), "RDBMS.listDatabaseStatus");
         try {
-            NovaMethod method = new NovaMethod(getProvider());
             List<ResourceStatus> databases = new ArrayList<ResourceStatus>();
 
-            JSONObject json = method.getResource(SERVICE, RESOURCE, null, false);
-
-            if( json != null && json.has("instances") ) {
-                try {
-                    JSONArray list = json.getJSONArray("instances");
-
-                    for( int i=0; i<list.length(); i++ ) {
-                        ResourceStatus db = toStatus(list.getJSONObject(i));
+            for( JSONObject instance : getInventory().list(DBaaSInventory.Kind.INSTANCES) ) {
+                ResourceStatus db = toStatus(instance);
 
-                        if( db != null ) {
-                            databases.add(db);
-                        }
-                    }
-                }
-                catch( JSONException e ) {
-                    e.printStackTrace();
-                    throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", "Missing JSON element for instances in " + json.toString());
+                if( db != null ) {
+                    databases.add(db);
                 }
             }
             return databases;
@@ -570,27 +534,13 @@ public class HPRDBMS extends AbstractRelationalDatabaseSupport<NovaOpenStack> {
                 logger.error("No context exists for this request");
                 throw new InternalException("No context exists for this request");
             }
-            NovaMethod method = new NovaMethod(getProvider());
             List<Database> databases = new ArrayList<Database>();
 
-            JSONObject json = method.getResource(SERVICE, RESOURCE, null, false);
+            for( JSONObject instance : getInventory().list(DBaaSInventory.Kind.INSTANCES) ) {
+                Database db = toDatabase(ctx, instance);
 
-            if( json != null && json.has("instances") ) {
-                try {
-                    JSONArray list = json.getJSONArray("instances");
-
-                    for( int i=0; i<list.length(); i++ ) {
-                        Database db = toDatabase(ctx, list.getJSONObject(i));
-
-                        if( db != null ) {
-                            databases.add(db);
-                        }
-                    }
-                }
-                catch( JSONException e ) {
-                    logger.error("listDatabases(): Unable to identify expected values in JSON: " + e.getMessage());
-                    e.printStackTrace();
-                    throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", "Missing JSON element for instances in " + json.toString());
+                if( db != null ) {
+                    databases.add(db);
                 }
             }
             return databases;
@@ -615,27 +565,13 @@ public class HPRDBMS extends AbstractRelationalDatabaseSupport<NovaOpenStack> {
                 logger.error("No context exists for this request");
                 throw new InternalException("No context exists for this request");
             }
-            NovaMethod method = new NovaMethod(getProvider());
             List<DatabaseSnapshot> snapshots = new ArrayList<DatabaseSnapshot>();
 
-            JSONObject json = method.getResource(SERVICE, SNAPSHOTS, null, false);
-
-            if( json != null && json.has("snapshots") ) {
-                try {
-                    JSONArray list = json.getJSONArray("snapshots");
-
-                    for( int i=0; i<list.length(); i++ ) {
-                        DatabaseSnapshot snapshot = toSnapshot(ctx, list.getJSONObject(i));
+            for( JSONObject item : getInventory().list(DBaaSInventory.Kind.SNAPSHOTS) ) {
+                DatabaseSnapshot snapshot = toSnapshot(ctx, item);
 
-                        if( snapshot != null ) {
-                            snapshots.add(snapshot);
-                        }
-                    }
-                }
-                catch( JSONException e ) {
-                    logger.error("listSnapshots(): Unable to identify expected values in JSON: " + e.getMessage());
-                    e.printStackTrace();
-                    throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", "Missing JSON element for snapshots in " + json.toString());
+                if( snapshot != null ) {
+                    snapshots.add(snapshot);
                 }
             }
             return snapshots;
@@ -658,12 +594,25 @@ public class HPRDBMS extends AbstractRelationalDatabaseSupport<NovaOpenStack> {
             NovaMethod method = new NovaMethod(getProvider());
 
             method.deleteResource(SERVICE, RESOURCE, providerDatabaseId, null);
+            getInventory().remove(DBaaSInventory.Kind.INSTANCES, providerDatabaseId);
         }
         finally {
             APITrace.end();
         }
     }
 
+    /**
+     * Removes a database as {@link #removeDatabase(String)} does and waits in the background for it to go.
+     * @param providerDatabaseId the database to remove
+     * @return a future that completes once the database is no longer listed
+     * @throws CloudException an error occurred with the cloud provider while requesting the removal
+     * @throws InternalException an error occurred within Dasein Cloud while requesting the removal
+     */
+    public @Nonnull Future<Void> removeDatabaseAsync(@Nonnull String providerDatabaseId) throws CloudException, InternalException {
+        removeDatabase(providerDatabaseId);
+        return getInstanceStatus().waitForRemoval(providerDatabaseId, DBaaSWaiter.WAIT_TIMEOUT);
+    }
+
     @Override
     public void removeSnapshot(String providerSnapshotId) throws CloudException, InternalException {
         APITrace.begin(getProvider(), "RDBMS.removeSnapshot");
@@ -677,6 +626,7 @@ public class HPRDBMS extends AbstractRelationalDatabaseSupport<NovaOpenStack> {
             NovaMethod method = new NovaMethod(getProvider());
 
             method.deleteResource(SERVICE, SNAPSHOTS, providerSnapshotId, null);
+            getInventory().remove(DBaaSInventory.Kind.SNAPSHOTS, providerSnapshotId);
         }
         finally {
             APITrace.end();
@@ -691,6 +641,29 @@ public class HPRDBMS extends AbstractRelationalDatabaseSupport<NovaOpenStack> {
     @Override
     public void restart(String providerDatabaseId, boolean blockUntilDone) throws CloudException, InternalException {
         APITrace.begin(getProvider(), "RDBMS.restart");
+        try {
+            Future<Void> restart = restartAsync(providerDatabaseId);
+
+            if( blockUntilDone ) {
+                DBaaSWaiter.waitFor(restart);
+            }
+        }
+        finally {
+            APITrace.end();
+        }
+    }
+
+    /**
+     * Restarts a database without holding the caller until it is back. A restart need not show in the listing
+     * before it is under way, so a database that stays available for a minute after the request is taken to
+     * have restarted.
+     * @param providerDatabaseId the database to restart
+     * @return a future that completes once the database is available again
+     * @throws CloudException an error occurred with the cloud provider while requesting the restart
+     * @throws InternalException an error occurred within Dasein Cloud while requesting the restart
+     */
+    public @Nonnull Future<Void> restartAsync(@Nonnull final String providerDatabaseId) throws CloudException, InternalException {
+        APITrace.begin(getProvider(), "RDBMS.restartAsync");
         try {
             ProviderContext ctx = getProvider().getContext();
 
@@ -702,7 +675,8 @@ public class HPRDBMS extends AbstractRelationalDatabaseSupport<NovaOpenStack> {
             NovaMethod method = new NovaMethod(getProvider());
 
             method.postResourceHeaders(SERVICE, RESOURCE, providerDatabaseId + "/restart", new HashMap<String,String>());
-
+            getInventory().invalidate(DBaaSInventory.Kind.INSTANCES);
+            return getInstanceStatus().waitForRestart(providerDatabaseId);
         }
         finally {
             APITrace.end();
@@ -732,9 +706,11 @@ public class HPRDBMS extends AbstractRelationalDatabaseSupport<NovaOpenStack> {
 
             if( result != null && result.has("snapshot") ) {
                 try {
-                    DatabaseSnapshot snapshot = toSnapshot(ctx, result.getJSONObject("snapshot"));
+                    JSONObject item = result.getJSONObject("snapshot");
+                    DatabaseSnapshot snapshot = toSnapshot(ctx, item);
 
                     if( snapshot != null ) {
+                        getInventory().put(DBaaSInventory.Kind.SNAPSHOTS, item);
                         return snapshot;
                     }
                 }
@@ -753,6 +729,47 @@ public class HPRDBMS extends AbstractRelationalDatabaseSupport<NovaOpenStack> {
         }
     }
 
+    /**
+     * Snapshots a database as {@link #snapshot(String, String)} does and waits in the background for the snapshot
+     * to complete.
+     * @param providerDatabaseId the database to snapshot
+     * @param name the name of the snapshot
+     * @return a future that completes with the snapshot once it is available
+     * @throws CloudException an error occurred with the cloud provider while requesting the snapshot
+     * @throws InternalException an error occurred within Dasein Cloud while requesting the snapshot
+     */
+    public @Nonnull Future<DatabaseSnapshot> snapshotAsync(String providerDatabaseId, String name) throws CloudException, InternalException {
+        final ProviderContext ctx = getProvider().getContext();
+
+        if( ctx == null ) {
+            logger.error("No context exists for this request");
+            throw new InternalException("No context exists for this request");
+        }
+        final String snapshotId = snapshot(providerDatabaseId, name).getProviderSnapshotId();
+
+        return getWaiter().watch(DBaaSInventory.Kind.SNAPSHOTS, snapshotId, new DBaaSWaiter.Condition<DatabaseSnapshot>() {
+            @Override
+            public boolean isMet(@Nullable JSONObject item) throws CloudException, InternalException {
+                if( item == null ) {
+                    throw new CloudException("Snapshot " + snapshotId + " no longer exists");
+                }
+                String status = DBaaSStatus.getStatus(item);
+
+                if( "ERROR".equalsIgnoreCase(status) || "FAILED".equalsIgnoreCase(status) ) {
+                    throw new CloudException("Snapshot " + snapshotId + " failed with status " + status);
+                }
+                DatabaseSnapshot snapshot = toSnapshot(ctx, item);
+
+                return (snapshot != null && DatabaseSnapshotState.AVAILABLE.equals(snapshot.getCurrentState()));
+            }
+
+            @Override
+            public DatabaseSnapshot toResult(@Nullable JSONObject item) throws CloudException, InternalException {
+                return toSnapshot(ctx, item);
+            }
+        });
+    }
+
     @Override
     public @Nonnull String[] mapServiceAction(@Nonnull ServiceAction action) {
         return new String[0];
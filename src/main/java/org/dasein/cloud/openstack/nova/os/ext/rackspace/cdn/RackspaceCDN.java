@@ -19,11 +19,14 @@
 
 package org.dasein.cloud.openstack.nova.os.ext.rackspace.cdn;
 
+import org.apache.log4j.Logger;
+import org.dasein.cloud.CloudErrorType;
 import org.dasein.cloud.CloudException;
 import org.dasein.cloud.InternalException;
 import org.dasein.cloud.ProviderContext;
 import org.dasein.cloud.ResourceStatus;
 import org.dasein.cloud.identity.ServiceAction;
+import org.dasein.cloud.openstack.nova.os.CDNListing;
 import org.dasein.cloud.openstack.nova.os.NovaMethod;
 import org.dasein.cloud.openstack.nova.os.NovaOpenStack;
 import org.dasein.cloud.platform.CDNCapabilities;
@@ -33,11 +36,11 @@ import org.dasein.cloud.util.APITrace;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.net.URI;
-import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
@@ -47,6 +50,8 @@ import java.util.Map;
  * @version 2013.02 updated for 2013.02 model
  */
 public class RackspaceCDN implements CDNSupport {
+    static private final Logger logger = NovaOpenStack.getLogger(RackspaceCDN.class, "std");
+
     static public final String SERVICE  = "rax:object-cdn";
     static public final String RESOURCE = null;
 
@@ -198,20 +203,7 @@ public class RackspaceCDN implements CDNSupport {
             if( ctx == null ) {
                 throw new InternalException("No context exists for this request");
             }
-            ArrayList<Distribution> distributions = new ArrayList<Distribution>();
-            NovaMethod method = new NovaMethod(provider);
-            String[] list = method.getItemList(SERVICE, RESOURCE, false);
-
-            if( list != null ) {
-                for( String container : list ) {
-                    Distribution d = toDistribution(ctx, container);
-
-                    if( d != null ) {
-                        distributions.add(d);
-                    }
-                }
-            }
-            return distributions;
+            return listDistributions();
         }
         finally {
             APITrace.end();
@@ -222,25 +214,12 @@ public class RackspaceCDN implements CDNSupport {
     public @Nonnull Iterable<ResourceStatus> listDistributionStatus() throws InternalException, CloudException {
         APITrace.begin(provider, "CDN.listDistributionStatus");
         try {
-            ProviderContext ctx = provider.getContext();
-
-            if( ctx == null ) {
-                throw new InternalException("No context exists for this request");
-            }
-            ArrayList<ResourceStatus> distributions = new ArrayList<ResourceStatus>();
-            NovaMethod method = new NovaMethod(provider);
-            String[] list = method.getItemList(SERVICE, RESOURCE, false);
-
-            if( list != null ) {
-                for( String container : list ) {
-                    ResourceStatus d = toStatus(container);
+            ArrayList<ResourceStatus> status = new ArrayList<ResourceStatus>();
 
-                    if( d != null ) {
-                        distributions.add(d);
-                    }
-                }
+            for( Distribution d : listDistributions() ) {
+                status.add(new ResourceStatus(d.getProviderDistributionId(), d.isActive()));
             }
-            return distributions;
+            return status;
         }
         finally {
             APITrace.end();
@@ -270,94 +249,30 @@ public class RackspaceCDN implements CDNSupport {
         }
     }
 
-    private @Nullable Distribution toDistribution(@Nonnull ProviderContext ctx, @Nullable String container) throws CloudException, InternalException {
-        if( container == null ) {
-            return null;
-        }
-        NovaMethod method = new NovaMethod(provider);
-        Map<String,String> headers = method.headResource(SERVICE, RESOURCE, container);
-
-        if( headers == null ) {
-            return null;
-        }
-        String enabled = null, uriString = null;
-        for( String key : headers.keySet() ) {
-            if( key.equalsIgnoreCase("X-CDN-Enabled") ) {
-                enabled = headers.get(key);
-            }
-            else if( key.equalsIgnoreCase("X-CDN-URI") ) {
-                if( uriString == null ) {
-                    uriString = headers.get(key);
-                }
-            }
-            else if( key.equalsIgnoreCase("X-CDN-SSL-URI") ) {
-                uriString = headers.get(key);
-            }
-        }
-        if( uriString == null ) {
-            return null;
-        }
-        String dns;
-
-        try {
-            URI uri = new URI(uriString);
-
-            dns = uri.getHost();
-            if( uri.getPort() > 0 ) {
-                if( dns.startsWith("https:") && uri.getPort() != 443 ) {
-                    dns = dns + ":" + uri.getPort();
-                }
-                if( dns.startsWith("http:") && uri.getPort() != 80 ) {
-                    dns = dns + ":" + uri.getPort();
-                }
-            }
-        }
-        catch( URISyntaxException e ) {
-            throw new CloudException(e);
+    /**
+     * Lists the CDN-enabled containers with their CDN settings. The JSON listing carries the settings of every
+     * container in one request; if the endpoint does not offer it, containers are listed by name and each one is
+     * then examined with a HEAD, several at a time.
+     * @return the distributions in the current region
+     * @throws CloudException an error occurred with the cloud provider while listing the containers
+     * @throws InternalException an error occurred within Dasein Cloud while listing the containers
+     */
+    private @Nonnull List<Distribution> listDistributions() throws CloudException, InternalException {
+        if( provider.getContext() == null ) {
+            throw new InternalException("No context exists for this request");
         }
+        CDNListing listing = new CDNListing(provider, SERVICE, RESOURCE, true);
+        List<Distribution> distributions = listing.listFromJSON();
 
-        Distribution distribution = new Distribution();
-
-
-        distribution.setName(container);
-        distribution.setActive(enabled != null && enabled.equalsIgnoreCase("true"));
-        distribution.setAliases(new String[0]);
-        distribution.setDeployed(enabled != null && enabled.equalsIgnoreCase("true"));
-        distribution.setDnsName(dns);
-        distribution.setLocation(uriString);
-        distribution.setLogDirectory(null);
-        distribution.setProviderDistributionId(container);
-        distribution.setProviderOwnerId(getTenantId());
-        return distribution;
-    }
-
-    private @Nullable ResourceStatus toStatus(@Nullable String container) throws CloudException, InternalException {
-        if( container == null ) {
-            return null;
+        if( distributions != null ) {
+            return distributions;
         }
         NovaMethod method = new NovaMethod(provider);
-        Map<String,String> headers = method.headResource(SERVICE, RESOURCE, container);
+        String[] list = method.getItemList(SERVICE, RESOURCE, false);
 
-        if( headers == null ) {
-            return null;
-        }
-        String enabled = null, uriString = null;
-        for( String key : headers.keySet() ) {
-            if( key.equalsIgnoreCase("X-CDN-Enabled") ) {
-                enabled = headers.get(key);
-            }
-            else if( key.equalsIgnoreCase("X-CDN-URI") ) {
-                if( uriString == null ) {
-                    uriString = headers.get(key);
-                }
-            }
-            else if( key.equalsIgnoreCase("X-CDN-SSL-URI") ) {
-                uriString = headers.get(key);
-            }
-        }
-        if( uriString == null ) {
-            return null;
+        if( list == null ) {
+            return new ArrayList<Distribution>();
         }
-        return new ResourceStatus(container, enabled != null && enabled.equalsIgnoreCase("true"));
+        return listing.examine(Arrays.asList(list));
     }
 }
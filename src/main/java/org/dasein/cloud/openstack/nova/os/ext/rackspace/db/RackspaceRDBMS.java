@@ -26,6 +26,9 @@ import org.dasein.cloud.InternalException;
 import org.dasein.cloud.ProviderContext;
 import org.dasein.cloud.ResourceStatus;
 import org.dasein.cloud.identity.ServiceAction;
+import org.dasein.cloud.openstack.nova.os.DBaaSInventory;
+import org.dasein.cloud.openstack.nova.os.DBaaSStatus;
+import org.dasein.cloud.openstack.nova.os.DBaaSWaiter;
 import org.dasein.cloud.openstack.nova.os.NovaMethod;
 import org.dasein.cloud.openstack.nova.os.NovaOpenStack;
 import org.dasein.cloud.platform.*;
@@ -39,6 +42,7 @@ import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.*;
+import java.util.concurrent.Future;
 
 /**
  * Implements Dasein Cloud relational database support for the Rackspace cloud.
@@ -62,6 +66,19 @@ public class RackspaceRDBMS extends AbstractRelationalDatabaseSupport<NovaOpenSt
         return getProvider().getContext().getAccountNumber();
     }
 
+    private @Nonnull DBaaSInventory getInventory() {
+        return new DBaaSInventory(getProvider(), SERVICE);
+    }
+
+    private @Nonnull DBaaSStatus getInstanceStatus() {
+        return new DBaaSStatus(getProvider(), SERVICE) {
+            @Override
+            protected @Nullable ResourceStatus toStatus(@Nonnull JSONObject item) throws CloudException, InternalException {
+                return RackspaceRDBMS.this.toStatus(item);
+            }
+        };
+    }
+
     @Override
     public @Nonnull String createFromScratch(@Nonnull String dataSourceName, @Nonnull DatabaseProduct product, @Nonnull String databaseVersion, @Nonnull String withAdminUser, @Nonnull String withAdminPassword, int hostPort) throws CloudException, InternalException {
         APITrace.begin(getProvider(), "RDBMS.createFromScratch");
@@ -128,9 +145,11 @@ public class RackspaceRDBMS extends AbstractRelationalDatabaseSupport<NovaOpenSt
 
             if( result != null && result.has("instance") ) {
                 try {
-                    Database db = toDatabase(ctx, result.getJSONObject("instance"));
+                    JSONObject instance = result.getJSONObject("instance");
+                    Database db = toDatabase(ctx, instance);
 
                     if( db != null ) {
+                        getInventory().put(DBaaSInventory.Kind.INSTANCES, instance);
                         return db.getProviderDatabaseId();
                     }
                 }
@@ -149,6 +168,15 @@ public class RackspaceRDBMS extends AbstractRelationalDatabaseSupport<NovaOpenSt
         }
     }
 
+    /**
+     * Creates a database as {@link #createFromScratch(String, DatabaseProduct, String, String, String, int)} does
+     * without holding the caller until it is ready.
+     * @return a future that completes with the ID of the new database once it is available
+     */
+    public @Nonnull Future<String> createFromScratchAsync(@Nonnull String dataSourceName, @Nonnull DatabaseProduct product, @Nonnull String databaseVersion, @Nonnull String withAdminUser, @Nonnull String withAdminPassword, int hostPort) throws CloudException, InternalException {
+        return getInstanceStatus().waitForAvailable(createFromScratch(dataSourceName, product, databaseVersion, withAdminUser, withAdminPassword, hostPort));
+    }
+
     private transient volatile RackspaceRDBMSCapabilities capabilities;
 
     @Override
@@ -174,22 +202,7 @@ public class RackspaceRDBMS extends AbstractRelationalDatabaseSupport<NovaOpenSt
                 logger.error("No context exists for this request");
                 throw new InternalException("No context exists for this request");
             }
-            NovaMethod method = new NovaMethod(getProvider());
-            JSONObject ob = method.getResource(SERVICE, RESOURCE, providerDatabaseId, false);
-
-            if( ob == null ) {
-                return null;
-            }
-            try {
-                if( ob.has("instance") ) {
-                    return toDatabase(ctx, ob.getJSONObject("instance"));
-                }
-            }
-            catch( JSONException e ) {
-                logger.error("getDatabase(): Unable to identify expected values in JSON: " + e.getMessage());
-                throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", "Missing JSON element for instance");
-            }
-            return null;
+            return toDatabase(ctx, getInventory().get(DBaaSInventory.Kind.INSTANCES, providerDatabaseId));
         }
         finally {
             APITrace.end();
@@ -233,21 +246,7 @@ public class RackspaceRDBMS extends AbstractRelationalDatabaseSupport<NovaOpenSt
                 size = Integer.parseInt(flavor.substring(idx+1));
                 flavor = flavor.substring(0, idx);
             }
-            NovaMethod method = new NovaMethod(getProvider());
-
-            JSONObject json = method.getResource(SERVICE, "/flavors", flavor, false);
-
-            if( json != null && json.has("flavor") ) {
-                try {
-                    return toProduct(ctx, size, json.getJSONObject("flavor"));
-                }
-                catch( JSONException e ) {
-                    logger.error("getDatabaseProduct(): Unable to identify expected values in JSON: " + e.getMessage());
-                    e.printStackTrace();
-                    throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", "Missing JSON element for flavors in " + json.toString());
-                }
-            }
-            return null;
+            return toProduct(ctx, size, getInventory().get(DBaaSInventory.Kind.FLAVORS, flavor));
         }
         finally {
             APITrace.end();
@@ -271,35 +270,16 @@ public class RackspaceRDBMS extends AbstractRelationalDatabaseSupport<NovaOpenSt
                         std.error("No context exists for this request");
                         throw new InternalException("No context exists for this request");
                     }
-                    NovaMethod method = new NovaMethod(getProvider());
-
-                    JSONObject json = method.getResource(SERVICE, "/flavors", null, false);
-
                     List<DatabaseProduct> products = new ArrayList<DatabaseProduct>();
 
-                    if( json != null && json.has("flavors") ) {
-                        try {
-                            JSONArray flavors = json.getJSONArray("flavors");
+                    for( JSONObject flavor : getInventory().list(DBaaSInventory.Kind.FLAVORS) ) {
+                        for( int size : new int[] { 2, 5, 10, 20, 25, 30, 40, 50, 60, 70, 80, 90, 100, 150}) { //150 is max size , 200, 250, 300, 400, 500, 600, 700, 800, 900, 1000 } ) {
+                            DatabaseProduct product = toProduct(ctx, size, flavor);
 
-                            for( int i=0; i<flavors.length(); i++ ) {
-                                JSONObject flavor = flavors.getJSONObject(i);
-
-                                if( flavor != null ) {
-                                    for( int size : new int[] { 2, 5, 10, 20, 25, 30, 40, 50, 60, 70, 80, 90, 100, 150}) { //150 is max size , 200, 250, 300, 400, 500, 600, 700, 800, 900, 1000 } ) {
-                                        DatabaseProduct product = toProduct(ctx, size, flavor);
-
-                                        if( product != null ) {
-                                            products.add(product);
-                                        }
-                                    }
-                                }
+                            if( product != null ) {
+                                products.add(product);
                             }
                         }
-                        catch( JSONException e ) {
-                            std.error("getDatabaseProducts(): Unable to identify expected values in JSON: " + e.getMessage());
-                            e.printStackTrace();
-                            throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", "Missing JSON element for flavors in " + json.toString());
-                        }
                     }
                     return products;
                 }
@@ -332,14 +312,10 @@ public class RackspaceRDBMS extends AbstractRelationalDatabaseSupport<NovaOpenSt
             if( idx > -1 ) {
                 productId = productId.substring(0, idx);
             }
-            NovaMethod method = new NovaMethod(getProvider());
-
-            JSONObject json = method.getResource(SERVICE, "/flavors", productId, false);
+            JSONObject flavor = getInventory().get(DBaaSInventory.Kind.FLAVORS, productId);
 
-            if( json != null && json.has("flavor") ) {
+            if( flavor != null ) {
                 try {
-                    JSONObject flavor = json.getJSONObject("flavor");
-
                     if( flavor.has("links") ) {
                         JSONArray links = flavor.getJSONArray("links");
                         
@@ -361,7 +337,7 @@ public class RackspaceRDBMS extends AbstractRelationalDatabaseSupport<NovaOpenSt
                 catch( JSONException e ) {
                     logger.error("getFlavorRef(): Unable to identify expected values in JSON: " + e.getMessage());
                     e.printStackTrace();
-                    throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", "Missing JSON element for flavors in " + json.toString());
+                    throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", "Missing JSON element for flavors in " + flavor.toString());
                 }
             }
             return null;
@@ -396,25 +372,13 @@ public class RackspaceRDBMS extends AbstractRelationalDatabaseSupport<NovaOpenSt
             if( ctx == null ) {
                 throw new InternalException("No context exists for this request");
             }
-            NovaMethod method = new NovaMethod(getProvider());
             List<ResourceStatus> databases = new ArrayList<ResourceStatus>();
 
-            JSONObject json = method.getResource(SERVICE, RESOURCE, null, false);
-
-            if( json != null && json.has("instances") ) {
-                try {
-                    JSONArray list = json.getJSONArray("instances");
+            for( JSONObject instance : getInventory().list(DBaaSInventory.Kind.INSTANCES) ) {
+                ResourceStatus db = toStatus(instance);
 
-                    for( int i=0; i<list.length(); i++ ) {
-                        ResourceStatus db = toStatus(list.getJSONObject(i));
-
-                        if( db != null ) {
-                            databases.add(db);
-                        }
-                    }
-                }
-                catch( JSONException e ) {
-                    throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", "Missing JSON element for instances in " + json.toString());
+                if( db != null ) {
+                    databases.add(db);
                 }
             }
             return databases;
@@ -434,27 +398,13 @@ public class RackspaceRDBMS extends AbstractRelationalDatabaseSupport<NovaOpenSt
                 logger.error("No context exists for this request");
                 throw new InternalException("No context exists for this request");
             }
-            NovaMethod method = new NovaMethod(getProvider());
             List<Database> databases = new ArrayList<Database>();
 
-            JSONObject json = method.getResource(SERVICE, RESOURCE, null, false);
-
-            if( json != null && json.has("instances") ) {
-                try {
-                    JSONArray list = json.getJSONArray("instances");
-
-                    for( int i=0; i<list.length(); i++ ) {
-                        Database db = toDatabase(ctx, list.getJSONObject(i));
+            for( JSONObject instance : getInventory().list(DBaaSInventory.Kind.INSTANCES) ) {
+                Database db = toDatabase(ctx, instance);
 
-                        if( db != null ) {
-                            databases.add(db);
-                        }
-                    }
-                }
-                catch( JSONException e ) {
-                    logger.error("listDatabases(): Unable to identify expected values in JSON: " + e.getMessage());
-                    e.printStackTrace();
-                    throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", "Missing JSON element for instances in " + json.toString());
+                if( db != null ) {
+                    databases.add(db);
                 }
             }
             return databases;
@@ -468,31 +418,13 @@ public class RackspaceRDBMS extends AbstractRelationalDatabaseSupport<NovaOpenSt
     public void removeDatabase(String providerDatabaseId) throws CloudException, InternalException {
         APITrace.begin(getProvider(), "RDBMS.removeDatabase");
         try {
-            ProviderContext ctx = getProvider().getContext();
+            Future<Void> removal = remove(providerDatabaseId, CalendarWrapper.MINUTE * 5L);
 
-            if( ctx == null ) {
-                logger.error("No context exists for this request");
-                throw new InternalException("No context exists for this request");
+            try {
+                DBaaSWaiter.waitFor(removal);
             }
-            NovaMethod method = new NovaMethod(getProvider());
-
-            method.deleteResource(SERVICE, RESOURCE, providerDatabaseId, null);
-
-            long timeout = System.currentTimeMillis() + (CalendarWrapper.MINUTE * 5L);
-
-            while( timeout > System.currentTimeMillis() ) {
-                try {
-                    Database db = getDatabase(providerDatabaseId);
-
-                    if( db == null || DatabaseState.DELETED.equals(db.getCurrentState()) ) {
-                        return;
-                    }
-                }
-                catch( Throwable ignore ) {
-                    // ignore
-                }
-                try { Thread.sleep(15000L); }
-                catch( Throwable ignore ) { }
+            catch( CloudException e ) {
+                logger.warn("removeDatabase(): Removal of " + providerDatabaseId + " was not confirmed: " + e.getMessage());
             }
         }
         finally {
@@ -500,6 +432,37 @@ public class RackspaceRDBMS extends AbstractRelationalDatabaseSupport<NovaOpenSt
         }
     }
 
+    /**
+     * Removes a database without holding the caller until it is gone.
+     * @param providerDatabaseId the database to remove
+     * @return a future that completes once the database is no longer listed
+     * @throws CloudException an error occurred with the cloud provider while requesting the removal
+     * @throws InternalException an error occurred within Dasein Cloud while requesting the removal
+     */
+    public @Nonnull Future<Void> removeDatabaseAsync(@Nonnull String providerDatabaseId) throws CloudException, InternalException {
+        APITrace.begin(getProvider(), "RDBMS.removeDatabaseAsync");
+        try {
+            return remove(providerDatabaseId, DBaaSWaiter.WAIT_TIMEOUT);
+        }
+        finally {
+            APITrace.end();
+        }
+    }
+
+    private @Nonnull Future<Void> remove(@Nonnull String providerDatabaseId, long timeout) throws CloudException, InternalException {
+        ProviderContext ctx = getProvider().getContext();
+
+        if( ctx == null ) {
+            logger.error("No context exists for this request");
+            throw new InternalException("No context exists for this request");
+        }
+        NovaMethod method = new NovaMethod(getProvider());
+
+        method.deleteResource(SERVICE, RESOURCE, providerDatabaseId, null);
+        getInventory().remove(DBaaSInventory.Kind.INSTANCES, providerDatabaseId);
+        return getInstanceStatus().waitForRemoval(providerDatabaseId, timeout);
+    }
+
     @Override
     public void resetConfiguration(String providerConfigurationId, String... parameters) throws CloudException, InternalException {
         // NO-OP since all configurations are at their defaults without configuration support
@@ -508,6 +471,29 @@ public class RackspaceRDBMS extends AbstractRelationalDatabaseSupport<NovaOpenSt
     @Override
     public void restart(String providerDatabaseId, boolean blockUntilDone) throws CloudException, InternalException {
         APITrace.begin(getProvider(), "RDBMS.restart");
+        try {
+            Future<Void> restart = restartAsync(providerDatabaseId);
+
+            if( blockUntilDone ) {
+                DBaaSWaiter.waitFor(restart);
+            }
+        }
+        finally {
+            APITrace.end();
+        }
+    }
+
+    /**
+     * Restarts a database without holding the caller until it is back. A restart need not show in the listing
+     * before it is under way, so a database that stays available for a minute after the request is taken to
+     * have restarted.
+     * @param providerDatabaseId the database to restart
+     * @return a future that completes once the database is available again
+     * @throws CloudException an error occurred with the cloud provider while requesting the restart
+     * @throws InternalException an error occurred within Dasein Cloud while requesting the restart
+     */
+    public @Nonnull Future<Void> restartAsync(@Nonnull final String providerDatabaseId) throws CloudException, InternalException {
+        APITrace.begin(getProvider(), "RDBMS.restartAsync");
         try {
             ProviderContext ctx = getProvider().getContext();
 
@@ -520,7 +506,9 @@ public class RackspaceRDBMS extends AbstractRelationalDatabaseSupport<NovaOpenSt
             Map<String,Object> wrapper = new HashMap<String, Object>();
 
             wrapper.put("restart", new HashMap<String,Object>());
-            method.postString(SERVICE, RESOURCE, "action", new JSONObject(wrapper), false);
+            method.postString(SERVICE, RESOURCE, providerDatabaseId + "/action", new JSONObject(wrapper), false);
+            getInventory().invalidate(DBaaSInventory.Kind.INSTANCES);
+            return getInstanceStatus().waitForRestart(providerDatabaseId);
         }
         finally {
             APITrace.end();
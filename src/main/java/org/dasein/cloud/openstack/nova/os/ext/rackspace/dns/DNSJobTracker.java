@@ -0,0 +1,294 @@
+/**
+ * Copyright (C) 2009-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.openstack.nova.os.ext.rackspace.dns;
+
+import org.apache.log4j.Logger;
+import org.dasein.cloud.CloudException;
+import org.dasein.cloud.InternalException;
+import org.dasein.cloud.openstack.nova.os.NovaException;
+import org.dasein.cloud.openstack.nova.os.NovaMethod;
+import org.dasein.cloud.openstack.nova.os.NovaOpenStack;
+import org.dasein.cloud.openstack.nova.os.Poller;
+import org.dasein.util.CalendarWrapper;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Waits on the asynchronous jobs with which Rackspace Cloud DNS answers changes to zones and records. Every
+ * outstanding job of a provider is watched by one {@link Poller}. Each job is checked first after
+ * {@link #POLL_INTERVAL_MIN}, backing off to {@link #POLL_INTERVAL_MAX} while it runs. Job details are requested
+ * only once a job has finished, and the result is handed back through a {@link Future}.
+ * @since 2015.06.2
+ * @version 2015.06.2 initial version
+ */
+public class DNSJobTracker extends Poller<DNSJobTracker.Job<?>> {
+    static private final Logger logger = NovaOpenStack.getLogger(DNSJobTracker.class, "std");
+
+    static private final String SERVICE = "rax:dns";
+
+    static public final long POLL_INTERVAL_MIN = CalendarWrapper.SECOND;
+    static public final long POLL_INTERVAL_MAX = CalendarWrapper.SECOND * 30L;
+    static public final long JOB_TIMEOUT       = CalendarWrapper.MINUTE * 20L;
+
+    /**
+     * Turns the response of a completed job into the result of the operation that started it. Handlers run on
+     * the provider's executor.
+     * @param <T> the result of the operation
+     */
+    public interface JobHandler<T> {
+        public @Nullable T handle(@Nullable JSONObject response) throws CloudException, InternalException;
+    }
+
+    static class Job<T> extends Poller.Task<T> {
+        private JobHandler<T> handler;
+        private long          interval;
+        private String        jobId;
+        private long          nextPoll;
+
+        private Job(@Nonnull String jobId, @Nonnull JobHandler<T> handler) {
+            super(JOB_TIMEOUT);
+            this.jobId = jobId;
+            this.handler = handler;
+            this.interval = POLL_INTERVAL_MIN;
+            this.nextPoll = System.currentTimeMillis() + POLL_INTERVAL_MIN;
+        }
+
+        @Override
+        protected boolean isDue(long now) {
+            return (nextPoll <= now);
+        }
+
+        private void complete(@Nullable JSONObject response) {
+            try {
+                set(handler.handle(response));
+            }
+            catch( Throwable t ) {
+                setException(t);
+            }
+        }
+
+        private void fail(@Nonnull Throwable t) {
+            setException(t);
+        }
+    }
+
+    public DNSJobTracker(@Nonnull NovaOpenStack provider) {
+        super(provider, POLL_INTERVAL_MIN);
+    }
+
+    /**
+     * Starts tracking a job.
+     * @param jobId the ID of the job returned by the DNS API
+     * @param handler turns the response of the job into the result of the future
+     * @param <T> the result of the operation
+     * @return a future that completes with the handled response, or fails with the job's error
+     */
+    public @Nonnull <T> Future<T> track(@Nonnull String jobId, @Nonnull JobHandler<T> handler) {
+        Job<T> job = new Job<T>(jobId, handler);
+
+        add(job);
+        return job;
+    }
+
+    @Override
+    protected void check(@Nonnull List<Job<?>> jobs) {
+        for( Job<?> job : jobs ) {
+            try {
+                check(job);
+            }
+            catch( Throwable t ) {
+                job.fail(t);
+            }
+        }
+    }
+
+    private void check(@Nonnull Job<?> job) throws CloudException, InternalException {
+        NovaMethod method = new NovaMethod(getProvider());
+
+        try {
+            JSONObject response = method.getResource(SERVICE, "/status", job.jobId, false);
+
+            if( response == null ) {
+                throw new CloudException("Job disappeared");
+            }
+            String status = (response.has("status") ? response.getString("status") : null);
+
+            if( status == null ) {
+                throw new CloudException("No job status");
+            }
+            if( status.equalsIgnoreCase("completed") || status.equalsIgnoreCase("error") ) {
+                response = method.getResource(SERVICE, "/status", job.jobId + "?showDetails=true", false);
+                if( response == null ) {
+                    throw new CloudException("Job disappeared");
+                }
+                if( status.equalsIgnoreCase("completed") ) {
+                    job.complete(response.has("response") ? response.getJSONObject("response") : null);
+                }
+                else if( response.has("error") && !response.isNull("error") ) {
+                    JSONObject error = response.getJSONObject("error");
+                    int code = (error.has("code") ? error.getInt("code") : 418);
+
+                    job.fail(new NovaException(NovaException.parseException(code, error.toString())));
+                }
+                else {
+                    job.fail(new CloudException("Unknown error"));
+                }
+                return;
+            }
+            if( job.isExpired() ) {
+                logger.warn("DNS job " + job.jobId + " did not finish in time");
+                job.fail(new CloudException("Operation timed out"));
+                return;
+            }
+            job.interval = Math.min(job.interval * 2L, POLL_INTERVAL_MAX);
+            job.nextPoll = System.currentTimeMillis() + job.interval;
+        }
+        catch( JSONException e ) {
+            throw new CloudException("Invalid JSON from server: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Blocks until a tracked job completes.
+     * @param future the future returned by {@link #track(String, JobHandler)}
+     * @param <T> the result of the operation
+     * @return the result of the job
+     * @throws CloudException the job failed or did not finish in time
+     * @throws InternalException an error occurred within Dasein Cloud while waiting
+     */
+    static public @Nullable <T> T waitFor(@Nonnull Future<T> future) throws CloudException, InternalException {
+        return waitFor(future, JOB_TIMEOUT + CalendarWrapper.MINUTE, "a DNS job");
+    }
+
+    /**
+     * A future standing for several others, done once all of them are.
+     */
+    static private abstract class Combined<V> implements Future<V> {
+        private List<? extends Future<?>> futures;
+
+        private Combined(@Nonnull List<? extends Future<?>> futures) {
+            this.futures = futures;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = false;
+
+            for( Future<?> f : futures ) {
+                cancelled = f.cancel(mayInterruptIfRunning) || cancelled;
+            }
+            return cancelled;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            for( Future<?> f : futures ) {
+                if( f.isCancelled() ) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public boolean isDone() {
+            for( Future<?> f : futures ) {
+                if( !f.isDone() ) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public V get() throws InterruptedException, ExecutionException {
+            try {
+                return get(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            }
+            catch( TimeoutException e ) {
+                throw new ExecutionException(e);
+            }
+        }
+
+        protected long remaining(long deadline) {
+            return Math.max(0L, deadline - System.nanoTime());
+        }
+
+        protected long toDeadline(long timeout, @Nonnull TimeUnit unit) {
+            long nanos = unit.toNanos(timeout);
+            long now = System.nanoTime();
+
+            return (nanos >= Long.MAX_VALUE - now ? Long.MAX_VALUE : now + nanos);
+        }
+    }
+
+    /**
+     * Combines several jobs into one future that completes once all of them have.
+     * @param futures the jobs to combine
+     * @return a future that fails with the first failure among the jobs
+     */
+    static public @Nonnull Future<Void> all(@Nonnull final List<? extends Future<?>> futures) {
+        return new Combined<Void>(futures) {
+            @Override
+            public Void get(long timeout, @Nonnull TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+                long deadline = toDeadline(timeout, unit);
+
+                for( Future<?> f : futures ) {
+                    f.get(remaining(deadline), TimeUnit.NANOSECONDS);
+                }
+                return null;
+            }
+        };
+    }
+
+    /**
+     * Combines several jobs producing lists into one future producing all of their items, in the order of the jobs.
+     * @param futures the jobs to combine
+     * @param <T> the type of item produced by the jobs
+     * @return a future that fails with the first failure among the jobs
+     */
+    static public @Nonnull <T> Future<List<T>> collect(@Nonnull final List<? extends Future<List<T>>> futures) {
+        return new Combined<List<T>>(futures) {
+            @Override
+            public List<T> get(long timeout, @Nonnull TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+                long deadline = toDeadline(timeout, unit);
+                List<T> items = new ArrayList<T>();
+
+                for( Future<List<T>> f : futures ) {
+                    List<T> list = f.get(remaining(deadline), TimeUnit.NANOSECONDS);
+
+                    if( list != null ) {
+                        items.addAll(list);
+                    }
+                }
+                return items;
+            }
+        };
+    }
+}
@@ -0,0 +1,195 @@
+/**
+ * Copyright (C) 2009-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.openstack.nova.os.ext.rackspace.dns;
+
+import org.dasein.cloud.network.DNSRecord;
+import org.dasein.util.CalendarWrapper;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory copy of the records of the Rackspace DNS zones in a region, indexed per zone by record ID and by
+ * name. Each zone is loaded on its own the first time its records are needed and reloaded once it is older than
+ * the refresh interval; {@link RackspaceCloudDNS} keeps loaded zones current as records are added and deleted.
+ * Zones are fetched without holding the index's lock and swapped in afterwards. A zone that changed while its
+ * records were being fetched is swapped in but left stale, so it is fetched again when it is next needed.
+ * @since 2015.06.2
+ * @version 2015.06.2 initial version
+ */
+public class DNSRecordIndex {
+    static public final long REFRESH_INTERVAL = CalendarWrapper.MINUTE;
+
+    /**
+     * A record together with the ID and name under which the DNS API knows it. The API name lacks the trailing
+     * dot Dasein Cloud adds to fully qualified record names.
+     */
+    static public class Entry {
+        private String    name;
+        private DNSRecord record;
+        private String    recordId;
+
+        public Entry(@Nonnull String recordId, @Nonnull String name, @Nonnull DNSRecord record) {
+            this.recordId = recordId;
+            this.name = name;
+            this.record = record;
+        }
+
+        public @Nonnull String getName() {
+            return name;
+        }
+
+        public @Nonnull DNSRecord getRecord() {
+            return record;
+        }
+
+        public @Nonnull String getRecordId() {
+            return recordId;
+        }
+    }
+
+    static private class Zone {
+        private Map<String,Entry>       byId     = new LinkedHashMap<String, Entry>();
+        private Map<String,List<Entry>> byName   = new HashMap<String, List<Entry>>();
+        private long                    loadedAt = -1L;
+    }
+
+    private Map<String,Long> changedAt = new HashMap<String, Long>();
+    private Map<String,Zone> zones     = new HashMap<String, Zone>();
+
+    /**
+     * @param zoneId the zone in question
+     * @return true if the records of the zone have never been loaded or are older than the refresh interval
+     */
+    public boolean isStale(@Nonnull String zoneId) {
+        Zone zone = zones.get(zoneId);
+
+        return (zone == null || zone.loadedAt < 0L || System.currentTimeMillis() - zone.loadedAt >= REFRESH_INTERVAL);
+    }
+
+    /**
+     * Replaces the records of a zone with the result of a fetch.
+     * @param zoneId the zone whose records were fetched
+     * @param entries the records of the zone
+     * @param startedAt when the fetch started; if the zone changed after that, the records are kept but the zone
+     * stays stale
+     */
+    void load(@Nonnull String zoneId, @Nonnull List<Entry> entries, long startedAt) {
+        Zone zone = new Zone();
+        Long changed = changedAt.get(zoneId);
+
+        for( Entry entry : entries ) {
+            put(zone, entry);
+        }
+        zone.loadedAt = ((changed == null || changed < startedAt) ? startedAt : -1L);
+        zones.put(zoneId, zone);
+    }
+
+    void invalidate(@Nonnull String zoneId) {
+        zones.remove(zoneId);
+        changedAt.put(zoneId, System.currentTimeMillis());
+    }
+
+    /**
+     * Adds a record to a loaded zone. Nothing is recorded for a zone that is not loaded, since its records will be
+     * fetched in full when they are next needed.
+     * @param zoneId the zone holding the record
+     * @param entry the record
+     */
+    void put(@Nonnull String zoneId, @Nonnull Entry entry) {
+        Zone zone = zones.get(zoneId);
+
+        changedAt.put(zoneId, System.currentTimeMillis());
+        if( zone != null ) {
+            put(zone, entry);
+        }
+    }
+
+    private void put(@Nonnull Zone zone, @Nonnull Entry entry) {
+        remove(zone, entry.getRecordId());
+        zone.byId.put(entry.getRecordId(), entry);
+
+        List<Entry> list = zone.byName.get(entry.getName());
+
+        if( list == null ) {
+            list = new ArrayList<Entry>();
+            zone.byName.put(entry.getName(), list);
+        }
+        list.add(entry);
+    }
+
+    void remove(@Nonnull String zoneId, @Nonnull String recordId) {
+        Zone zone = zones.get(zoneId);
+
+        changedAt.put(zoneId, System.currentTimeMillis());
+        if( zone != null ) {
+            remove(zone, recordId);
+        }
+    }
+
+    private void remove(@Nonnull Zone zone, @Nonnull String recordId) {
+        Entry entry = zone.byId.remove(recordId);
+
+        if( entry != null ) {
+            List<Entry> list = zone.byName.get(entry.getName());
+
+            if( list != null ) {
+                list.remove(entry);
+                if( list.isEmpty() ) {
+                    zone.byName.remove(entry.getName());
+                }
+            }
+        }
+    }
+
+    /**
+     * @param zoneId the zone in question
+     * @return the records of the zone in the order the API lists them, or null if the zone is not loaded
+     */
+    public @Nullable List<Entry> list(@Nonnull String zoneId) {
+        Zone zone = zones.get(zoneId);
+
+        return (zone == null ? null : new ArrayList<Entry>(zone.byId.values()));
+    }
+
+    /**
+     * @param zoneId the zone in question
+     * @param name the record name, with or without a trailing dot
+     * @return the records of the zone with that name, or null if the zone is not loaded
+     */
+    public @Nullable List<Entry> listByName(@Nonnull String zoneId, @Nonnull String name) {
+        Zone zone = zones.get(zoneId);
+
+        if( zone == null ) {
+            return null;
+        }
+        if( name.endsWith(".") ) {
+            name = name.substring(0, name.length()-1);
+        }
+        List<Entry> list = zone.byName.get(name);
+
+        return (list == null ? new ArrayList<Entry>() : new ArrayList<Entry>(list));
+    }
+}
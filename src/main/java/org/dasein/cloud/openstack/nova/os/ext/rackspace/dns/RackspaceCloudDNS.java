@@ -30,11 +30,14 @@ import org.dasein.cloud.network.DNSRecord;
 import org.dasein.cloud.network.DNSRecordType;
 import org.dasein.cloud.network.DNSSupport;
 import org.dasein.cloud.network.DNSZone;
-import org.dasein.cloud.openstack.nova.os.NovaException;
+import org.dasein.cloud.openstack.nova.os.BatchExecutor;
 import org.dasein.cloud.openstack.nova.os.NovaMethod;
 import org.dasein.cloud.openstack.nova.os.NovaOpenStack;
 import org.dasein.cloud.util.APITrace;
-import org.dasein.util.CalendarWrapper;
+import org.dasein.cloud.util.Cache;
+import org.dasein.cloud.util.CacheLevel;
+import org.dasein.util.uom.time.Day;
+import org.dasein.util.uom.time.TimePeriod;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -43,11 +46,15 @@ import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.Future;
 
 /**
  * Implements Rackspace DNS services as an extension to an OpenStack cloud.
@@ -61,99 +68,446 @@ public class RackspaceCloudDNS implements DNSSupport {
 
     static private final String RESOURCE = "/domains";
     static private final String SERVICE = "rax:dns";
+
+    /**
+     * The most records sent in a single request when records are added or deleted in bulk.
+     */
+    static public final int RECORD_BATCH_SIZE = 100;
     
     private NovaOpenStack provider;
     
     public RackspaceCloudDNS(NovaOpenStack provider) { this.provider = provider; }
 
+    static private @Nonnull CloudException invalidResponse(@Nonnull String message, @Nonnull JSONException cause) {
+        CloudException e = new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidResponse", message);
+
+        e.initCause(cause);
+        return e;
+    }
+
     private @Nonnull String getTenantId() throws CloudException, InternalException {
         return provider.getContext().getAccountNumber();
     }
 
+    private @Nonnull DNSRecordIndex getCachedIndex() throws CloudException, InternalException {
+        Cache<DNSRecordIndex> cache = Cache.getInstance(provider, "dnsRecordIndex", DNSRecordIndex.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Day>(1, TimePeriod.DAY));
+        Iterable<DNSRecordIndex> it = cache.get(provider.getContext());
+
+        if( it != null ) {
+            Iterator<DNSRecordIndex> b = it.iterator();
+
+            if( b.hasNext() ) {
+                return b.next();
+            }
+        }
+        DNSRecordIndex index = new DNSRecordIndex();
+
+        cache.put(provider.getContext(), Collections.singletonList(index));
+        return index;
+    }
+
+    /**
+     * Provides the record index with the records of the specified zone loaded, fetching them if the zone has not
+     * been loaded or has gone stale. The records are fetched without holding the index's lock, so lookups in other
+     * zones and the job handlers that keep the index current are not held up by the download.
+     * @param providerDnsZoneId the zone whose records are needed
+     * @return the record index for the current region
+     * @throws CloudException an error occurred with the cloud provider while fetching the records
+     * @throws InternalException an error occurred within Dasein Cloud while fetching the records
+     */
+    private @Nonnull DNSRecordIndex getRecordIndex(@Nonnull String providerDnsZoneId) throws CloudException, InternalException {
+        DNSRecordIndex index = getCachedIndex();
+        boolean stale;
+
+        synchronized( index ) {
+            stale = index.isStale(providerDnsZoneId);
+        }
+        if( stale ) {
+            ProviderContext ctx = provider.getContext();
+
+            if( ctx == null ) {
+                logger.error("No context exists for this request");
+                throw new InternalException("No context exists for this request");
+            }
+            long started = System.currentTimeMillis();
+            DNSZone zone = getDnsZone(providerDnsZoneId);
+
+            if( zone == null ) {
+                synchronized( index ) {
+                    index.invalidate(providerDnsZoneId);
+                }
+                throw new CloudException("No such zone: " + providerDnsZoneId);
+            }
+            List<DNSRecordIndex.Entry> entries = new ArrayList<DNSRecordIndex.Entry>();
+
+            for( JSONObject item : listAll(providerDnsZoneId + "/records", "records") ) {
+                DNSRecordIndex.Entry entry = toEntry(ctx, zone, item);
+
+                if( entry != null ) {
+                    entries.add(entry);
+                }
+            }
+            synchronized( index ) {
+                index.load(providerDnsZoneId, entries, started);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Lists every item of a paged DNS collection. The first page reveals the total number of items and the page
+     * size, after which the remaining pages are fetched concurrently.
+     * @param resourceId the collection below <code>/domains</code>, or null for the domains themselves
+     * @param key the name of the array holding the items in each page
+     * @return the items of every page, in order
+     * @throws CloudException an error occurred with the cloud provider while fetching the pages
+     * @throws InternalException an error occurred within Dasein Cloud while fetching the pages
+     */
+    private @Nonnull List<JSONObject> listAll(@Nullable String resourceId, @Nonnull final String key) throws CloudException, InternalException {
+        final NovaMethod method = new NovaMethod(provider);
+        JSONObject response = method.getResource(SERVICE, RESOURCE, resourceId, false);
+        List<JSONObject> items = new ArrayList<JSONObject>();
+
+        if( response == null ) {
+            return items;
+        }
+        try {
+            int total = (response.has("totalEntries") ? response.getInt("totalEntries") : 0);
+            JSONArray list = (response.has(key) ? response.getJSONArray(key) : null);
+            final int pageSize = (list == null ? 0 : list.length());
+
+            for( int i=0; i<pageSize; i++ ) {
+                items.add(list.getJSONObject(i));
+            }
+            if( pageSize > 0 && pageSize < total ) {
+                final String prefix = (resourceId == null ? "?offset=" : resourceId + "?offset=");
+                List<String> offsets = new ArrayList<String>();
+
+                for( int offset=pageSize; offset<total; offset += pageSize ) {
+                    offsets.add(String.valueOf(offset));
+                }
+                BatchExecutor.Result<List<JSONObject>> result = new BatchExecutor(provider, "dns-pages").execute(offsets, new BatchExecutor.Operation<List<JSONObject>>() {
+                    @Override
+                    public List<JSONObject> execute(@Nonnull String offset) throws CloudException, InternalException {
+                        JSONObject page = method.getResource(SERVICE, RESOURCE, prefix + offset + "&limit=" + pageSize, false);
+                        List<JSONObject> pageItems = new ArrayList<JSONObject>();
+
+                        try {
+                            if( page != null && page.has(key) ) {
+                                JSONArray pageList = page.getJSONArray(key);
+
+                                for( int i=0; i<pageList.length(); i++ ) {
+                                    pageItems.add(pageList.getJSONObject(i));
+                                }
+                            }
+                        }
+                        catch( JSONException e ) {
+                            logger.error("listAll(): JSON error parsing response: " + e.getMessage());
+                            throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidResponse", "JSON error parsing " + page);
+                        }
+                        return pageItems;
+                    }
+                });
+
+                result.rethrow();
+                for( List<JSONObject> page : result.getResults().values() ) {
+                    items.addAll(page);
+                }
+            }
+        }
+        catch( JSONException e ) {
+            logger.error("listAll(): JSON error parsing response: " + e.getMessage(), e);
+            throw invalidResponse("JSON error parsing " + response, e);
+        }
+        return items;
+    }
+
     @Override
     public @Nonnull DNSRecord addDnsRecord(@Nonnull String providerDnsZoneId, @Nonnull DNSRecordType recordType, @Nonnull String name, @Nonnegative int ttl, @Nonnull String... values) throws CloudException, InternalException {
         APITrace.begin(provider, "DNS.addDnsRecord");
         try {
-            DNSZone zone = getDnsZone(providerDnsZoneId);
+            DNSRecord record = DNSJobTracker.waitFor(addDnsRecordAsync(providerDnsZoneId, recordType, name, ttl, values));
+
+            if( record == null ) {
+                logger.error("addDnsRecord(): No record was created, but no error specified");
+                throw new CloudException("No record was created, but no error specified");
+            }
+            return record;
+        }
+        finally {
+            APITrace.end();
+        }
+    }
+
+    /**
+     * Adds a record without waiting for the DNS job that creates it. All values are submitted in a single request.
+     * @param providerDnsZoneId the zone to which the record is added
+     * @param recordType the type of the record
+     * @param name the name of the record
+     * @param ttl the time to live of the record, or 0 for the default
+     * @param values the values of the record
+     * @return a future completing with the last record created
+     * @throws CloudException an error occurred with the cloud provider while submitting the record
+     * @throws InternalException an error occurred within Dasein Cloud while submitting the record
+     */
+    public @Nonnull Future<DNSRecord> addDnsRecordAsync(@Nonnull String providerDnsZoneId, @Nonnull DNSRecordType recordType, @Nonnull String name, @Nonnegative int ttl, @Nonnull String... values) throws CloudException, InternalException {
+        APITrace.begin(provider, "DNS.addDnsRecordAsync");
+        try {
+            final DNSZone zone = getDnsZone(providerDnsZoneId);
             
             if( zone == null ) {
                 throw new CloudException("No such zone: " + providerDnsZoneId);
             }
-            if( recordType.equals(DNSRecordType.A) || recordType.equals(DNSRecordType.AAAA) || recordType.equals(DNSRecordType.CNAME) || recordType.equals(DNSRecordType.MX) ) {
-                if( name.endsWith(zone.getDomainName() + ".") ) {
-                    name = name.substring(0, name.length()-1);
+            final ProviderContext ctx = provider.getContext();
+
+            if( ctx == null ) {
+                logger.error("No context exists for this request");
+                throw new InternalException("No context exists for this request");
+            }
+            final DNSRecordIndex index = getCachedIndex();
+            ArrayList<Map<String,Object>> records = new ArrayList<Map<String, Object>>();
+
+            for( String value : values ) {
+                if( value != null ) {
+                    records.add(toRecordBody(zone, recordType, name, ttl, value));
                 }
-                else if( !name.endsWith(zone.getDomainName()) ) {
-                    name = name + "." + zone.getDomainName();
+            }
+            if( records.isEmpty() ) {
+                logger.error("addDnsRecord(): No values were specified for the record");
+                throw new CloudException("No record was created, but no error specified");
+            }
+            return provider.getDNSJobTracker().track(postRecords(providerDnsZoneId, records), new DNSJobTracker.JobHandler<DNSRecord>() {
+                @Override
+                public DNSRecord handle(@Nullable JSONObject response) throws CloudException, InternalException {
+                    List<DNSRecord> created = indexRecords(ctx, zone, index, response);
+
+                    if( created.isEmpty() ) {
+                        logger.error("addDnsRecord(): No record was created, but no error specified");
+                        throw new CloudException("No record was created, but no error specified");
+                    }
+                    return created.get(created.size()-1);
                 }
+            });
+        }
+        finally {
+            APITrace.end();
+        }
+    }
+
+    /**
+     * Adds many records to a zone and waits until all of them exist.
+     * @param providerDnsZoneId the zone to which the records are added
+     * @param records the records to add; a record with several values becomes one DNS record per value
+     * @return the records created
+     * @throws CloudException an error occurred with the cloud provider while adding the records
+     * @throws InternalException an error occurred within Dasein Cloud while adding the records
+     * @see #addDnsRecordsAsync(String, Collection)
+     */
+    public @Nonnull List<DNSRecord> addDnsRecords(@Nonnull String providerDnsZoneId, @Nonnull Collection<DNSRecord> records) throws CloudException, InternalException {
+        APITrace.begin(provider, "DNS.addDnsRecords");
+        try {
+            List<DNSRecord> created = DNSJobTracker.waitFor(addDnsRecordsAsync(providerDnsZoneId, records));
+
+            return (created == null ? new ArrayList<DNSRecord>() : created);
+        }
+        finally {
+            APITrace.end();
+        }
+    }
+
+    /**
+     * Adds many records to a zone without waiting for them to be created. The records are split into requests of
+     * at most {@link #RECORD_BATCH_SIZE} records, the requests are submitted concurrently, and each is tracked
+     * through a single DNS job.
+     * @param providerDnsZoneId the zone to which the records are added
+     * @param records the records to add; a record with several values becomes one DNS record per value
+     * @return a future completing with the records created, in the order they were submitted
+     * @throws CloudException an error occurred with the cloud provider while submitting the records; if only some
+     * of the requests failed, the message names the records whose requests were accepted and will still be created
+     * @throws InternalException an error occurred within Dasein Cloud while submitting the records
+     */
+    public @Nonnull Future<List<DNSRecord>> addDnsRecordsAsync(@Nonnull final String providerDnsZoneId, @Nonnull Collection<DNSRecord> records) throws CloudException, InternalException {
+        APITrace.begin(provider, "DNS.addDnsRecordsAsync");
+        try {
+            final DNSZone zone = getDnsZone(providerDnsZoneId);
+
+            if( zone == null ) {
+                throw new CloudException("No such zone: " + providerDnsZoneId);
             }
-            ProviderContext ctx = provider.getContext();
+            final ProviderContext ctx = provider.getContext();
 
             if( ctx == null ) {
                 logger.error("No context exists for this request");
                 throw new InternalException("No context exists for this request");
             }
-            DNSRecord lastRecord = null;
-            
-            for( String value : values ) {
-                if( value != null ) {
-                    NovaMethod method = new NovaMethod(provider);
-        
-                    HashMap<String,Object> wrapper = new HashMap<String, Object>();
-                    ArrayList<Map<String,Object>> records = new ArrayList<Map<String, Object>>();
-        
-                    HashMap<String,Object> record = new HashMap<String, Object>();
-        
-                    record.put("name", name);
-                    record.put("data", value);
-                    record.put("type", recordType.name());
-                    record.put("ttl", ttl > 0 ? ttl : 3600);
-                    
-                    records.add(record);
-        
-                    wrapper.put("records", records);
-        
-                    JSONObject response = method.postString(SERVICE, RESOURCE, providerDnsZoneId + "/records", new JSONObject(wrapper), false);
-        
-                    try {
-                        if( response != null && response.has("jobId") ) {
-                            response = waitForJob(response.getString("jobId"));
-                            if( response != null && response.has("records") ) {
-                                JSONArray list = response.getJSONArray("records");
+            final DNSRecordIndex index = getCachedIndex();
+            List<Map<String,Object>> bodies = new ArrayList<Map<String, Object>>();
 
-                                for( int i=0; i<list.length(); i++ ) {
-                                    DNSRecord r = toRecord(ctx, zone, list.getJSONObject(i));
+            for( DNSRecord record : records ) {
+                String[] values = record.getValues();
 
-                                    if( r != null ) {
-                                        lastRecord = r;
-                                    }
-                                }
-                            }
+                if( values != null ) {
+                    for( String value : values ) {
+                        if( value != null ) {
+                            bodies.add(toRecordBody(zone, record.getType(), record.getName(), record.getTtl(), value));
                         }
                     }
-                    catch( JSONException e ) {
-                        logger.error("createDnsZone(): JSON error parsing response: " + e.getMessage());
-                        e.printStackTrace();
-                        throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidResponse", "JSON error parsing " + response);
+                }
+            }
+            List<List<Map<String,Object>>> chunks = toChunks(bodies);
+            BatchExecutor.ItemResult<Future<List<DNSRecord>>> result = new BatchExecutor(provider, "dns-add").execute(chunks, new BatchExecutor.ItemOperation<List<Map<String,Object>>, Future<List<DNSRecord>>>() {
+                @Override
+                public Future<List<DNSRecord>> execute(@Nonnull List<Map<String,Object>> chunk) throws CloudException, InternalException {
+                    String jobId = postRecords(providerDnsZoneId, chunk);
+
+                    return provider.getDNSJobTracker().track(jobId, new DNSJobTracker.JobHandler<List<DNSRecord>>() {
+                        @Override
+                        public List<DNSRecord> handle(@Nullable JSONObject response) throws CloudException, InternalException {
+                            return indexRecords(ctx, zone, index, response);
+                        }
+                    });
+                }
+            });
+
+            if( !result.isSuccessful() ) {
+                Throwable first = result.getFailures().values().iterator().next();
+
+                if( result.getResults().isEmpty() ) {
+                    result.rethrow();
+                }
+                // the accepted requests cannot be recalled, so tell the caller which records they will create
+                StringBuilder msg = new StringBuilder();
+
+                msg.append(result.getFailures().size()).append(" of ").append(chunks.size()).append(" requests to add records failed (").append(first.getMessage()).append("); records still being created:");
+                for( Integer i : result.getResults().keySet() ) {
+                    for( Map<String,Object> body : chunks.get(i) ) {
+                        msg.append(" ").append(body.get("name")).append(" ").append(body.get("type")).append(" ").append(body.get("data")).append(";");
                     }
                 }
+                throw new CloudException(msg.toString(), first);
             }
-            if( lastRecord == null ) {
+            return DNSJobTracker.collect(new ArrayList<Future<List<DNSRecord>>>(result.getResults().values()));
+        }
+        finally {
+            APITrace.end();
+        }
+    }
+
+    /**
+     * Builds the API representation of a single record value, qualifying the name with the zone's domain where
+     * the record type calls for it.
+     */
+    private @Nonnull Map<String,Object> toRecordBody(@Nonnull DNSZone zone, @Nonnull DNSRecordType recordType, @Nonnull String name, int ttl, @Nonnull String value) {
+        if( recordType.equals(DNSRecordType.A) || recordType.equals(DNSRecordType.AAAA) || recordType.equals(DNSRecordType.CNAME) || recordType.equals(DNSRecordType.MX) ) {
+            if( name.endsWith(zone.getDomainName() + ".") ) {
+                name = name.substring(0, name.length()-1);
+            }
+            else if( !name.endsWith(zone.getDomainName()) ) {
+                name = name + "." + zone.getDomainName();
+            }
+        }
+        HashMap<String,Object> record = new HashMap<String, Object>();
+
+        record.put("name", name);
+        record.put("data", value);
+        record.put("type", recordType.name());
+        record.put("ttl", ttl > 0 ? ttl : 3600);
+        return record;
+    }
+
+    private @Nonnull <T> List<List<T>> toChunks(@Nonnull List<T> items) {
+        List<List<T>> chunks = new ArrayList<List<T>>();
+
+        for( int i=0; i<items.size(); i += RECORD_BATCH_SIZE ) {
+            chunks.add(items.subList(i, Math.min(items.size(), i + RECORD_BATCH_SIZE)));
+        }
+        return chunks;
+    }
+
+    /**
+     * Submits records to a zone in a single request.
+     * @return the ID of the job creating the records
+     */
+    private @Nonnull String postRecords(@Nonnull String providerDnsZoneId, @Nonnull List<Map<String,Object>> records) throws CloudException, InternalException {
+        NovaMethod method = new NovaMethod(provider);
+        HashMap<String,Object> wrapper = new HashMap<String, Object>();
+
+        wrapper.put("records", records);
+
+        JSONObject response = method.postString(SERVICE, RESOURCE, providerDnsZoneId + "/records", new JSONObject(wrapper), false);
+
+        try {
+            if( response == null || !response.has("jobId") ) {
                 logger.error("addDnsRecord(): No record was created, but no error specified");
                 throw new CloudException("No record was created, but no error specified");
             }
-            return lastRecord;
+            return response.getString("jobId");
         }
-        finally {
-            APITrace.end();
+        catch( JSONException e ) {
+            logger.error("addDnsRecord(): JSON error parsing response: " + e.getMessage(), e);
+            throw invalidResponse("JSON error parsing " + response, e);
+        }
+    }
+
+    /**
+     * Parses the records created by a completed job and adds them to the record index.
+     */
+    private @Nonnull List<DNSRecord> indexRecords(@Nonnull ProviderContext ctx, @Nonnull DNSZone zone, @Nonnull DNSRecordIndex index, @Nullable JSONObject response) throws CloudException, InternalException {
+        List<DNSRecord> created = new ArrayList<DNSRecord>();
+
+        try {
+            if( response != null && response.has("records") ) {
+                JSONArray list = response.getJSONArray("records");
+
+                for( int i=0; i<list.length(); i++ ) {
+                    DNSRecordIndex.Entry entry = toEntry(ctx, zone, list.getJSONObject(i));
+
+                    if( entry != null ) {
+                        synchronized( index ) {
+                            index.put(zone.getProviderDnsZoneId(), entry);
+                        }
+                        created.add(entry.getRecord());
+                    }
+                }
+            }
         }
+        catch( JSONException e ) {
+            logger.error("addDnsRecord(): JSON error parsing response: " + e.getMessage());
+            throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidResponse", "JSON error parsing " + response);
+        }
+        return created;
     }
 
     @Override
     public @Nonnull String createDnsZone(@Nonnull String domainName, @Nonnull String name, @Nonnull String description) throws CloudException, InternalException {
         APITrace.begin(provider, "DNS.createDnsZone");
         try {
-            ProviderContext ctx = provider.getContext();
+            String zoneId = DNSJobTracker.waitFor(createDnsZoneAsync(domainName, name, description));
+
+            if( zoneId == null ) {
+                logger.error("createDnsZone(): No zone was created, but no error specified");
+                throw new CloudException("No zone was created, but no error specified");
+            }
+            return zoneId;
+        }
+        finally {
+            APITrace.end();
+        }
+    }
+
+    /**
+     * Creates a zone without waiting for the DNS job that creates it.
+     * @param domainName the domain name of the zone
+     * @param name the name of the zone
+     * @param description a description of the zone
+     * @return a future completing with the ID of the new zone
+     * @throws CloudException an error occurred with the cloud provider while submitting the zone
+     * @throws InternalException an error occurred within Dasein Cloud while submitting the zone
+     */
+    public @Nonnull Future<String> createDnsZoneAsync(@Nonnull String domainName, @Nonnull String name, @Nonnull String description) throws CloudException, InternalException {
+        APITrace.begin(provider, "DNS.createDnsZoneAsync");
+        try {
+            final ProviderContext ctx = provider.getContext();
 
             if( ctx == null ) {
                 logger.error("No context exists for this request");
@@ -177,28 +531,39 @@ public class RackspaceCloudDNS implements DNSSupport {
             JSONObject response = method.postString(SERVICE, RESOURCE, null, new JSONObject(wrapper), false);
 
             try {
-                if( response != null && response.has("jobId") ) {
-                    response = waitForJob(response.getString("jobId"));
-                    if( response != null && response.has("domains") ) {
-                        JSONArray list = response.getJSONArray("domains");
+                if( response == null || !response.has("jobId") ) {
+                    logger.error("createDnsZone(): No zone was created, but no error specified");
+                    throw new CloudException("No zone was created, but no error specified");
+                }
+                return provider.getDNSJobTracker().track(response.getString("jobId"), new DNSJobTracker.JobHandler<String>() {
+                    @Override
+                    public String handle(@Nullable JSONObject response) throws CloudException, InternalException {
+                        try {
+                            if( response != null && response.has("domains") ) {
+                                JSONArray list = response.getJSONArray("domains");
 
-                        for( int i=0; i<list.length(); i++ ) {
-                            DNSZone zone = toZone(ctx, list.getJSONObject(i));
+                                for( int i=0; i<list.length(); i++ ) {
+                                    DNSZone zone = toZone(ctx, list.getJSONObject(i));
 
-                            if( zone != null ) {
-                                return zone.getProviderDnsZoneId();
+                                    if( zone != null ) {
+                                        return zone.getProviderDnsZoneId();
+                                    }
+                                }
                             }
                         }
+                        catch( JSONException e ) {
+                            logger.error("createDnsZone(): JSON error parsing response: " + e.getMessage());
+                            throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidResponse", "JSON error parsing " + response);
+                        }
+                        logger.error("createDnsZone(): No zone was created, but no error specified");
+                        throw new CloudException("No zone was created, but no error specified");
                     }
-                }
+                });
             }
             catch( JSONException e ) {
-                logger.error("createDnsZone(): JSON error parsing response: " + e.getMessage());
-                e.printStackTrace();
-                throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidResponse", "JSON error parsing " + response);
+                logger.error("createDnsZone(): JSON error parsing response: " + e.getMessage(), e);
+                throw invalidResponse("JSON error parsing " + response, e);
             }
-            logger.error("createDnsZone(): No zone was created, but no error specified");
-            throw new CloudException("No zone was created, but no error specified");
         }
         finally {
             APITrace.end();
@@ -208,46 +573,19 @@ public class RackspaceCloudDNS implements DNSSupport {
     private @Nonnull List<String> lookupRecord(DNSRecord record) throws CloudException, InternalException {
         APITrace.begin(provider, "DNS.lookupRecord");
         try {
-            ProviderContext ctx = provider.getContext();
-
-            if( ctx == null ) {
-                logger.error("No context exists for this request");
-                throw new InternalException("No context exists for this request");
-            }
-            NovaMethod method = new NovaMethod(provider);
-            JSONObject response = method.getResource(SERVICE, RESOURCE, record.getProviderZoneId() + "/records", false);
+            DNSRecordIndex index = getRecordIndex(record.getProviderZoneId());
+            List<DNSRecordIndex.Entry> entries;
 
-            if( response == null ) {
-                return null;
+            synchronized( index ) {
+                entries = index.listByName(record.getProviderZoneId(), record.getName());
             }
             ArrayList<String> ids = new ArrayList<String>();
-            
-            try {
-                if( response.has("records") ) {
-                    JSONArray list = response.getJSONArray("records");
-
-                    for( int i=0; i<list.length(); i++ ) {
-                        JSONObject item = list.getJSONObject(i);
 
-                        if( item != null ) {
-                            String n = (item.has("name") ? item.getString("name") : null);
-                            String id = (item.has("id") ? item.getString("id") : null);
-                            
-                            if( n == null || id == null ) {
-                                continue;
-                            }
-                            if( record.getName().equals(n) || record.getName().equals(n + ".") ) {
-                                ids.add(id);
-                            }
-                        }
-                    }
+            if( entries != null ) {
+                for( DNSRecordIndex.Entry entry : entries ) {
+                    ids.add(entry.getRecordId());
                 }
             }
-            catch( JSONException e ) {
-                logger.error("lookupRecord(): JSON error parsing response: " + e.getMessage());
-                e.printStackTrace();
-                throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidResponse", "JSON error parsing " + response);
-            }
             return ids;
         }
         finally {
@@ -258,6 +596,23 @@ public class RackspaceCloudDNS implements DNSSupport {
     @Override
     public void deleteDnsRecords(@Nonnull DNSRecord... dnsRecords) throws CloudException, InternalException {
         APITrace.begin(provider, "DNS.deleteDnsRecords");
+        try {
+            DNSJobTracker.waitFor(deleteDnsRecordsAsync(dnsRecords));
+        }
+        finally {
+            APITrace.end();
+        }
+    }
+
+    /**
+     * Deletes records without waiting for the DNS jobs that remove them.
+     * @param dnsRecords the records to delete
+     * @return a future completing once every record is gone
+     * @throws CloudException an error occurred with the cloud provider while submitting the deletions
+     * @throws InternalException an error occurred within Dasein Cloud while submitting the deletions
+     */
+    public @Nonnull Future<Void> deleteDnsRecordsAsync(@Nonnull DNSRecord... dnsRecords) throws CloudException, InternalException {
+        APITrace.begin(provider, "DNS.deleteDnsRecordsAsync");
         try {
             ProviderContext ctx = provider.getContext();
 
@@ -265,21 +620,81 @@ public class RackspaceCloudDNS implements DNSSupport {
                 logger.error("No context exists for this request");
                 throw new InternalException("No context exists for this request");
             }
+            final DNSRecordIndex index = getCachedIndex();
+            Map<String,List<String>> idsByZone = new LinkedHashMap<String, List<String>>();
+
             for( DNSRecord record : dnsRecords ) {
-                NovaMethod method = new NovaMethod(provider);
+                List<String> ids = idsByZone.get(record.getProviderZoneId());
 
-                List<String> ids = lookupRecord(record);
-                
-                for( String id : ids ) {
-                    method.deleteResource(SERVICE, RESOURCE, record.getProviderZoneId() + "/records/" + id, null);
+                if( ids == null ) {
+                    ids = new ArrayList<String>();
+                    idsByZone.put(record.getProviderZoneId(), ids);
+                }
+                ids.addAll(lookupRecord(record));
+            }
+            final List<String> chunkZones = new ArrayList<String>();
+            List<Integer> chunkIds = new ArrayList<Integer>();
+            final List<List<String>> chunks = new ArrayList<List<String>>();
+
+            for( Map.Entry<String,List<String>> entry : idsByZone.entrySet() ) {
+                for( List<String> chunk : toChunks(entry.getValue()) ) {
+                    chunkIds.add(chunks.size());
+                    chunkZones.add(entry.getKey());
+                    chunks.add(chunk);
                 }
             }
+            BatchExecutor.ItemResult<Future<Void>> result = new BatchExecutor(provider, "dns-delete").execute(chunkIds, new BatchExecutor.ItemOperation<Integer, Future<Void>>() {
+                @Override
+                public Future<Void> execute(@Nonnull Integer i) throws CloudException, InternalException {
+                    return deleteRecords(index, chunkZones.get(i), chunks.get(i));
+                }
+            });
+
+            result.rethrow();
+            return DNSJobTracker.all(new ArrayList<Future<Void>>(result.getResults().values()));
         }
         finally {
             APITrace.end();
         }
     }
 
+    /**
+     * Deletes records from a zone in a single request.
+     * @return a future completing once the records are gone
+     */
+    private @Nonnull Future<Void> deleteRecords(@Nonnull final DNSRecordIndex index, @Nonnull final String providerDnsZoneId, @Nonnull final List<String> recordIds) throws CloudException, InternalException {
+        NovaMethod method = new NovaMethod(provider);
+        StringBuilder query = new StringBuilder();
+
+        for( String id : recordIds ) {
+            query.append(query.length() == 0 ? "?" : "&").append("id=").append(id);
+        }
+        JSONObject response = method.deleteResourceForJSON(SERVICE, RESOURCE, providerDnsZoneId + "/records" + query, null);
+        DNSJobTracker.JobHandler<Void> handler = new DNSJobTracker.JobHandler<Void>() {
+            @Override
+            public Void handle(@Nullable JSONObject response) {
+                synchronized( index ) {
+                    for( String id : recordIds ) {
+                        index.remove(providerDnsZoneId, id);
+                    }
+                }
+                return null;
+            }
+        };
+
+        try {
+            if( response != null && response.has("jobId") ) {
+                return provider.getDNSJobTracker().track(response.getString("jobId"), handler);
+            }
+        }
+        catch( JSONException e ) {
+            logger.error("deleteDnsRecords(): JSON error parsing response: " + e.getMessage());
+            throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidResponse", "JSON error parsing " + response);
+        }
+        handler.handle(null);
+        return DNSJobTracker.all(new ArrayList<Future<Void>>());
+    }
+
     @Override
     public void deleteDnsZone(@Nonnull String providerDnsZoneId) throws CloudException, InternalException {
         APITrace.begin(provider, "DNS.deleteDnsZone");
@@ -293,6 +708,12 @@ public class RackspaceCloudDNS implements DNSSupport {
             NovaMethod method = new NovaMethod(provider);
 
             method.deleteResource(SERVICE, RESOURCE, providerDnsZoneId, null);
+
+            DNSRecordIndex index = getCachedIndex();
+
+            synchronized( index ) {
+                index.invalidate(providerDnsZoneId);
+            }
         }
         finally {
             APITrace.end();
@@ -346,7 +767,8 @@ public class RackspaceCloudDNS implements DNSSupport {
                 std.error("No context exists for this request");
                 throw new InternalException("No context exists for this request");
             }
-            String query = providerDnsZoneId + "?showRecords=true";
+            // records are served by listDnsRecords, so only the zone itself is fetched here
+            String query = providerDnsZoneId + "?showRecords=false";
 
             if( withSubdomains ) {
                 query = query + "&showSubdomains=true";
@@ -379,9 +801,8 @@ public class RackspaceCloudDNS implements DNSSupport {
                 }
             }
             catch( JSONException e ) {
-                std.error("getCompleteDNS(): JSON error parsing response: " + e.getMessage());
-                e.printStackTrace();
-                throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidResponse", "JSON error parsing " + response);
+                std.error("getCompleteDNS(): JSON error parsing response: " + e.getMessage(), e);
+                throw invalidResponse("JSON error parsing " + response, e);
             }
             return null;
         }
@@ -406,61 +827,26 @@ public class RackspaceCloudDNS implements DNSSupport {
     public @Nonnull Iterable<DNSRecord> listDnsRecords(@Nonnull String providerDnsZoneId, @Nullable DNSRecordType forType, @Nullable String name) throws CloudException, InternalException {
         APITrace.begin(provider, "DNS.listDnsRecords");
         try {
-            DNSZone zone = getDnsZone(providerDnsZoneId);
-            
-            if( zone == null ) {
-                throw new CloudException("No such zone: " + providerDnsZoneId);
-            }
-            ProviderContext ctx = provider.getContext();
+            DNSRecordIndex index = getRecordIndex(providerDnsZoneId);
+            List<DNSRecordIndex.Entry> entries;
 
-            if( ctx == null ) {
-                logger.error("No context exists for this request");
-                throw new InternalException("No context exists for this request");
+            synchronized( index ) {
+                entries = (name == null ? index.list(providerDnsZoneId) : index.listByName(providerDnsZoneId, name));
             }
-            NovaMethod method = new NovaMethod(provider);
-            JSONObject response = method.getResource(SERVICE, RESOURCE, providerDnsZoneId + "/records", false);
-
-            if( response == null ) {
+            if( entries == null ) {
                 return Collections.emptyList();
             }
             ArrayList<DNSRecord> records = new ArrayList<DNSRecord>();
-            try {
-                int count = 0, total = 0;
-
-                if( response.has("totalEntries") ) {
-                    total = response.getInt("totalEntries");
-                }
-                while( response != null ) {
-                    int current = 0;
 
-                    if( response.has("records") ) {
-                        JSONArray list = response.getJSONArray("records");
+            for( DNSRecordIndex.Entry entry : entries ) {
+                DNSRecord record = entry.getRecord();
 
-                        current = list.length();
-                        count += current;
-                        for( int i=0; i<list.length(); i++ ) {
-                            DNSRecord record = toRecord(ctx, zone, list.getJSONObject(i));
-    
-                            if( record != null ) {
-                                if( forType == null || forType.equals(record.getType()) ) {
-                                    if( name == null || name.equals(record.getName()) ) {
-                                        records.add(record);
-                                    }
-                                }
-                            }
-                        }
-                    }
-                    response = null;
-                    if( current > 0 && count < total ) {
-                        response = method.getResource(SERVICE, RESOURCE, providerDnsZoneId + "/records?offset=" + count, false);
+                if( forType == null || forType.equals(record.getType()) ) {
+                    if( name == null || name.equals(record.getName()) ) {
+                        records.add(record);
                     }
                 }
             }
-            catch( JSONException e ) {
-                logger.error("listDnsRecords(): JSON error parsing response: " + e.getMessage());
-                e.printStackTrace();
-                throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidResponse", "JSON error parsing " + response);
-            }
             return records;
         }
         finally {
@@ -477,44 +863,17 @@ public class RackspaceCloudDNS implements DNSSupport {
             if( ctx == null ) {
                 throw new InternalException("No context exists for this request");
             }
-            NovaMethod method = new NovaMethod(provider);
-            JSONObject response = method.getResource(SERVICE, RESOURCE, null, false);
-
-            if( response == null ) {
-                return Collections.emptyList();
-            }
             ArrayList<ResourceStatus> zones = new ArrayList<ResourceStatus>();
 
             try {
-                int count = 0, total = 0;
-
-                if( response.has("totalEntries") ) {
-                    total = response.getInt("totalEntries");
-                }
-                while( response != null ) {
-                    int current = 0;
-
-                    if( response.has("domains") ) {
-                        JSONArray list = response.getJSONArray("domains");
-
-                        current = list.length();
-                        count += current;
-                        for( int i=0; i<list.length(); i++ ) {
-                            JSONObject item = list.getJSONObject(i);
-
-                            if( item != null && item.has("id") ) {
-                                zones.add(new ResourceStatus(item.getString("id"), true));
-                            }
-                        }
-                    }
-                    response = null;
-                    if( current > 0 && count < total ) {
-                        response = method.getResource(SERVICE, RESOURCE, "?offset=" + count, false);
+                for( JSONObject item : listAll(null, "domains") ) {
+                    if( item != null && item.has("id") ) {
+                        zones.add(new ResourceStatus(item.getString("id"), true));
                     }
                 }
             }
             catch( JSONException e ) {
-                throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidResponse", "JSON error parsing " + response);
+                throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidResponse", "JSON error parsing domain list");
             }
             return zones;
         }
@@ -533,51 +892,33 @@ public class RackspaceCloudDNS implements DNSSupport {
                 logger.error("No context exists for this request");
                 throw new InternalException("No context exists for this request");
             }
-            NovaMethod method = new NovaMethod(provider);
-            JSONObject response = method.getResource(SERVICE, RESOURCE, null, false);
-            
-            if( response == null ) {
-                return Collections.emptyList();
-            }
-            ArrayList<DNSZone> zones = new ArrayList<DNSZone>();
+            List<String> ids = new ArrayList<String>();
 
             try {
-                int count = 0, total = 0;
-
-                if( response.has("totalEntries") ) {
-                    total = response.getInt("totalEntries");
-                }
-                while( response != null ) {
-                    int current = 0;
-
-                    if( response.has("domains") ) {
-                        JSONArray list = response.getJSONArray("domains");
-
-                        current = list.length();
-                        count += current;
-                        for( int i=0; i<list.length(); i++ ) {
-                            JSONObject item = list.getJSONObject(i);
-
-                            if( item != null && item.has("id") ) {
-                                CompleteDNS dns = getCompleteDNS(item.getString("id"), true);
-
-                                if( dns != null ) {
-                                    zones.add(dns.domain);
-                                    zones.addAll(dns.subdomains);
-                                }
-                            }
-                        }
-                    }
-                    response = null;
-                    if( current > 0 && count < total ) {
-                        response = method.getResource(SERVICE, RESOURCE, "?offset=" + count, false);
+                for( JSONObject item : listAll(null, "domains") ) {
+                    if( item != null && item.has("id") ) {
+                        ids.add(item.getString("id"));
                     }
                 }
             }
             catch( JSONException e ) {
-                logger.error("listDnsZones(): JSON error parsing response: " + e.getMessage());
-                e.printStackTrace();
-                throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidResponse", "JSON error parsing " + response);
+                logger.error("listDnsZones(): JSON error parsing response: " + e.getMessage(), e);
+                throw invalidResponse("JSON error parsing domain list", e);
+            }
+            BatchExecutor.Result<CompleteDNS> result = new BatchExecutor(provider, "dns-zones").execute(ids, new BatchExecutor.Operation<CompleteDNS>() {
+                @Override
+                public CompleteDNS execute(@Nonnull String zoneId) throws CloudException, InternalException {
+                    return getCompleteDNS(zoneId, true);
+                }
+            });
+            ArrayList<DNSZone> zones = new ArrayList<DNSZone>();
+
+            result.rethrow();
+            for( CompleteDNS dns : result.getResults().values() ) {
+                if( dns != null ) {
+                    zones.add(dns.domain);
+                    zones.addAll(dns.subdomains);
+                }
             }
             return zones;
         }
@@ -603,6 +944,20 @@ public class RackspaceCloudDNS implements DNSSupport {
         return new String[0];
     }
     
+    private @Nullable DNSRecordIndex.Entry toEntry(@Nonnull ProviderContext ctx, @Nonnull DNSZone zone, @Nullable JSONObject json) throws CloudException, InternalException {
+        DNSRecord record = toRecord(ctx, zone, json);
+
+        if( record == null ) {
+            return null;
+        }
+        try {
+            return new DNSRecordIndex.Entry(json.getString("id"), json.getString("name"), record);
+        }
+        catch( JSONException e ) {
+            throw new CloudException(e);
+        }
+    }
+
     private @Nullable DNSRecord toRecord(@SuppressWarnings("UnusedParameters") @Nonnull ProviderContext ctx, @Nonnull DNSZone zone, @Nullable JSONObject json)  throws CloudException, InternalException {
         if( json == null ) {
             return null;
@@ -697,53 +1052,4 @@ public class RackspaceCloudDNS implements DNSSupport {
             throw new CloudException(e);
         }
     }
-    
-    private JSONObject waitForJob(String jobId) throws CloudException, InternalException {
-        long timeout = System.currentTimeMillis() + (CalendarWrapper.MINUTE * 20);
-
-        ProviderContext ctx = provider.getContext();
-
-        if( ctx == null ) {
-            throw new InternalException("No context exists for this request");
-        }
-        while( System.currentTimeMillis() < timeout ) {
-            try {
-                NovaMethod method = new NovaMethod(provider);
-                JSONObject response = method.getResource(SERVICE, "/status", jobId + "?showDetails=true", false);
-    
-                if( response == null ) {
-                    throw new CloudException("Job disappeared");
-                }
-                String status = (response.has("status")? response.getString("status") : null);
-                
-                if( status == null ) {
-                    throw new CloudException("No job status");
-                }
-                if( status.equalsIgnoreCase("completed") ) {
-                    if( response.has("response") ) {
-                        return response.getJSONObject("response");
-                    }
-                }
-                else if( status.equalsIgnoreCase("error") ) {
-                    if( response.has("error") ) {
-                        JSONObject error = response.getJSONObject("error");
-                        
-                        if( error == null ) {
-                            throw new CloudException("Unknown error");
-                        }
-                        int code = (error.has("code") ? error.getInt("code") : 418);
-                        
-                        throw new NovaException(NovaException.parseException(code, error.toString()));
-                    }
-                    throw new CloudException("Unknown error");
-                }
-            }
-            catch( JSONException e ) {
-                throw new CloudException("Invalid JSON from server: " + e.getMessage());
-            }
-            try { Thread.sleep(CalendarWrapper.SECOND * 30); }
-            catch( InterruptedException ignore ) { }
-        }
-        throw new CloudException("Operation timed out");
-    }
-}
\ No newline at end of file
+}
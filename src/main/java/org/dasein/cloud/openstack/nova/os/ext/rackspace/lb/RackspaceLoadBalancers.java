@@ -45,6 +45,7 @@ import org.dasein.cloud.network.LoadBalancerCreateOptions;
 import org.dasein.cloud.network.LoadBalancerEndpoint;
 import org.dasein.cloud.network.LoadBalancerState;
 import org.dasein.cloud.network.RawAddress;
+import org.dasein.cloud.openstack.nova.os.BatchExecutor;
 import org.dasein.cloud.openstack.nova.os.NovaException;
 import org.dasein.cloud.openstack.nova.os.NovaMethod;
 import org.dasein.cloud.openstack.nova.os.NovaOpenStack;
@@ -62,6 +63,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.TreeSet;
@@ -459,11 +461,9 @@ public class RackspaceLoadBalancers extends AbstractLoadBalancerSupport<NovaOpen
             if( ob == null ) {
                 return null;
             }
-            Iterable<VirtualMachine> vms = provider.getComputeServices().getVirtualMachineSupport().listVirtualMachines();
-            
             try {
                 if( ob.has("loadBalancer") ) {
-                    LoadBalancer lb = toLoadBalancer(ob.getJSONObject("loadBalancer"), vms);
+                    LoadBalancer lb = toLoadBalancer(ob.getJSONObject("loadBalancer"), new VirtualMachineIndex());
                         
                     if( lb != null ) {
                         return lb;
@@ -515,6 +515,7 @@ public class RackspaceLoadBalancers extends AbstractLoadBalancerSupport<NovaOpen
                     if( json.has("nodes") ) {
                         ArrayList<LoadBalancerEndpoint> endpoints = new ArrayList<LoadBalancerEndpoint>();
                         JSONArray arr = json.getJSONArray("nodes");
+                        VirtualMachineIndex vms = new VirtualMachineIndex();
 
                         for( int i=0; i<arr.length(); i++ ) {
                             LbEndpointState state = LbEndpointState.ACTIVE;
@@ -525,29 +526,9 @@ public class RackspaceLoadBalancers extends AbstractLoadBalancerSupport<NovaOpen
                             }
                             if( item.has("address") && !item.isNull("address")) {
                                 String addr = item.getString("address");
-                                VirtualMachine node = null;
-
-                                for( VirtualMachine vm : getProvider().getComputeServices().getVirtualMachineSupport().listVirtualMachines() ) {
-                                    RawAddress[] addrs = vm.getPublicAddresses();
-
-                                    for( RawAddress a : addrs ){
-                                        if( addr.equals(a.getIpAddress()) ) {
-                                            node = vm;
-                                            break;
-                                        }
-                                    }
-                                    if( node == null ) {
-                                        addrs = vm.getPrivateAddresses();
-                                        for( RawAddress a : addrs ){
-                                            if( addr.equals(a.getIpAddress()) ) {
-                                                node = vm;
-                                                break;
-                                            }
-                                        }
-                                    }
-                                }
+                                String node = vms.getVirtualMachineId(addr);
                                 if( node != null ) {
-                                    endpoints.add(LoadBalancerEndpoint.getInstance(LbEndpointType.VM, node.getProviderVirtualMachineId(), state));
+                                    endpoints.add(LoadBalancerEndpoint.getInstance(LbEndpointType.VM, node, state));
                                 }
                                 else {
                                     endpoints.add(LoadBalancerEndpoint.getInstance(LbEndpointType.IP, addr, state));
@@ -593,6 +574,7 @@ public class RackspaceLoadBalancers extends AbstractLoadBalancerSupport<NovaOpen
                     if( json.has("nodes") ) {
                         ArrayList<LoadBalancerEndpoint> endpoints = new ArrayList<LoadBalancerEndpoint>();
                         JSONArray arr = json.getJSONArray("nodes");
+                        VirtualMachineIndex vms = new VirtualMachineIndex();
 
                         for( int i=0; i<arr.length(); i++ ) {
                             LbEndpointState state = LbEndpointState.ACTIVE;
@@ -603,41 +585,21 @@ public class RackspaceLoadBalancers extends AbstractLoadBalancerSupport<NovaOpen
                             }
                             if( item.has("address") && !item.isNull("address")) {
                                 String addr = item.getString("address");
-                                VirtualMachine node = null;
-
-                                for( VirtualMachine vm : getProvider().getComputeServices().getVirtualMachineSupport().listVirtualMachines() ) {
-                                    RawAddress[] addrs = vm.getPublicAddresses();
-
-                                    for( RawAddress a : addrs ){
-                                        if( addr.equals(a.getIpAddress()) ) {
-                                            node = vm;
-                                            break;
-                                        }
-                                    }
-                                    if( node == null ) {
-                                        addrs = vm.getPrivateAddresses();
-                                        for( RawAddress a : addrs ){
-                                            if( addr.equals(a.getIpAddress()) ) {
-                                                node = vm;
-                                                break;
-                                            }
-                                        }
-                                    }
-                                }
+                                String node = vms.getVirtualMachineId(addr);
                                 if( node != null && type.equals(LbEndpointType.VM) ) {
                                     boolean included = true;
 
                                     if( values.length > 0 ) {
                                         included = false;
                                         for( String value : values ) {
-                                            if( value.equals(node.getProviderVirtualMachineId()) ) {
+                                            if( value.equals(node) ) {
                                                 included = true;
                                                 break;
                                             }
                                         }
                                     }
                                     if( included ) {
-                                        endpoints.add(LoadBalancerEndpoint.getInstance(LbEndpointType.VM, node.getProviderVirtualMachineId(), state));
+                                        endpoints.add(LoadBalancerEndpoint.getInstance(LbEndpointType.VM, node, state));
                                     }
                                 }
                                 else if( node == null && type.equals(LbEndpointType.IP) ) {
@@ -738,41 +700,55 @@ public class RackspaceLoadBalancers extends AbstractLoadBalancerSupport<NovaOpen
                 logger.error("No context exists for this request");
                 throw new InternalException("No context exists for this request");
             }
-            NovaMethod method = new NovaMethod(provider);
+            final NovaMethod method = new NovaMethod(provider);
             JSONObject ob = method.getResource(SERVICE, RESOURCE, null, false);
-            
+            List<String> ids = new ArrayList<String>();
+
             try {
-                ArrayList<LoadBalancer> loadBalancers = new ArrayList<LoadBalancer>();
-                
-                if( ob.has("loadBalancers") ) {
+                if( ob != null && ob.has("loadBalancers") ) {
                     JSONArray lbs = ob.getJSONArray("loadBalancers");
-                    
-                    if( lbs.length() > 0 ) {
-                        Iterable<VirtualMachine> vms = provider.getComputeServices().getVirtualMachineSupport().listVirtualMachines();
 
-                        for( int i=0; i<lbs.length(); i++ ) {
-                            JSONObject tmp = lbs.getJSONObject(i);
-                            
-                            if( tmp.has("id") ) {
-                                JSONObject actual = method.getResource(SERVICE, RESOURCE, tmp.getString("id"), false);
-                                
-                                if( actual != null && actual.has("loadBalancer") ) {
-                                    LoadBalancer lb = this.toLoadBalancer(actual.getJSONObject("loadBalancer"), vms);
-                                
-                                    if( lb != null ) {
-                                        loadBalancers.add(lb);
-                                    }
-                                }
-                            }
+                    for( int i=0; i<lbs.length(); i++ ) {
+                        JSONObject tmp = lbs.getJSONObject(i);
+
+                        if( tmp.has("id") ) {
+                            ids.add(tmp.getString("id"));
                         }
                     }
                 }
-                return loadBalancers;
             }
             catch( JSONException e ) {
                 logger.error("listLoadBalancers(): Unable to identify expected values in JSON: " + e.getMessage());
                 throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", "Missing JSON element for load balancers: " + e.getMessage());
             }
+            // the listing omits nodes and ports, so each load balancer's details are fetched concurrently
+            final VirtualMachineIndex vms = new VirtualMachineIndex();
+            BatchExecutor.Result<LoadBalancer> result = new BatchExecutor(provider, "lb-detail").execute(ids, new BatchExecutor.Operation<LoadBalancer>() {
+                @Override
+                public LoadBalancer execute(@Nonnull String loadBalancerId) throws CloudException, InternalException {
+                    JSONObject actual = method.getResource(SERVICE, RESOURCE, loadBalancerId, false);
+
+                    try {
+                        if( actual != null && actual.has("loadBalancer") ) {
+                            return toLoadBalancer(actual.getJSONObject("loadBalancer"), vms);
+                        }
+                        return null;
+                    }
+                    catch( JSONException e ) {
+                        logger.error("listLoadBalancers(): Unable to identify expected values in JSON: " + e.getMessage());
+                        throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", "Missing JSON element for load balancers: " + e.getMessage());
+                    }
+                }
+            });
+            ArrayList<LoadBalancer> loadBalancers = new ArrayList<LoadBalancer>();
+
+            result.rethrow();
+            for( LoadBalancer lb : result.getResults().values() ) {
+                if( lb != null ) {
+                    loadBalancers.add(lb);
+                }
+            }
+            return loadBalancers;
         }
         finally {
             APITrace.end();
@@ -826,6 +802,38 @@ public class RackspaceLoadBalancers extends AbstractLoadBalancerSupport<NovaOpen
         }
     }
 
+    /**
+     * Resolves node addresses to the virtual machines that hold them. The virtual machines are listed at most once,
+     * and only when the first address needs resolving, so load balancers without nodes cost nothing.
+     */
+    private class VirtualMachineIndex {
+        private Map<String,String> byAddress;
+
+        synchronized @Nullable String getVirtualMachineId(@Nonnull String address) throws CloudException, InternalException {
+            if( byAddress == null ) {
+                Map<String,String> index = new HashMap<String, String>();
+
+                for( VirtualMachine vm : provider.getComputeServices().getVirtualMachineSupport().listVirtualMachines() ) {
+                    RawAddress[] addrs = vm.getPublicAddresses();
+
+                    if( addrs != null ) {
+                        for( RawAddress a : addrs ) {
+                            index.put(a.getIpAddress(), vm.getProviderVirtualMachineId());
+                        }
+                    }
+                    addrs = vm.getPrivateAddresses();
+                    if( addrs != null ) {
+                        for( RawAddress a : addrs ) {
+                            index.put(a.getIpAddress(), vm.getProviderVirtualMachineId());
+                        }
+                    }
+                }
+                byAddress = index;
+            }
+            return byAddress.get(address);
+        }
+    }
+
     static private class Node {
         public String nodeId;
         public String address;
@@ -1029,7 +1037,7 @@ public class RackspaceLoadBalancers extends AbstractLoadBalancerSupport<NovaOpen
         }
     }
 
-    private @Nullable LoadBalancer toLoadBalancer(@Nullable JSONObject json, @Nullable Iterable<VirtualMachine> possibleNodes) throws InternalException, CloudException {
+    private @Nullable LoadBalancer toLoadBalancer(@Nullable JSONObject json, @Nullable VirtualMachineIndex possibleNodes) throws InternalException, CloudException {
         if( json == null ) {
             return null;
         }
@@ -1102,31 +1110,10 @@ public class RackspaceLoadBalancers extends AbstractLoadBalancerSupport<NovaOpen
 
                     if( ob.has("address") ) {
                         String addr = ob.getString("address");
-                        VirtualMachine node = null;
+                        String node = (possibleNodes == null ? null : possibleNodes.getVirtualMachineId(addr));
 
-                        if( possibleNodes != null ) {
-                            for( VirtualMachine vm : possibleNodes ) {
-                                RawAddress[] addrs = vm.getPublicAddresses();
-
-                                for( RawAddress a : addrs ){
-                                    if( addr.equals(a.getIpAddress()) ) {
-                                        node = vm;
-                                        break;
-                                    }
-                                }
-                                if( node == null ) {
-                                    addrs = vm.getPrivateAddresses();
-                                    for( RawAddress a : addrs ){
-                                        if( addr.equals(a.getIpAddress()) ) {
-                                            node = vm;
-                                            break;
-                                        }
-                                    }
-                                }
-                            }
-                        }
                         if( node != null ) {
-                            nodes.add(node.getProviderVirtualMachineId());
+                            nodes.add(node);
                         }
                     }
                     else if( ob.has("port") ) {
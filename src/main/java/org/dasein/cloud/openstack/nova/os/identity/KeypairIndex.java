@@ -0,0 +1,130 @@
+/**
+ * Copyright (C) 2009-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.openstack.nova.os.identity;
+
+import org.dasein.cloud.identity.SSHKeypair;
+import org.dasein.util.CalendarWrapper;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory copy of the keypairs in a region, indexed by name and by fingerprint. The copy is reloaded once it is
+ * older than the refresh interval, and {@link NovaKeypair} keeps it current as keypairs are created, imported and
+ * deleted. Private keys are never kept, and keypairs are copied on the way in and out so callers cannot change the
+ * index.
+ * @since 2015.06.2
+ * @version 2015.06.2 initial version
+ */
+public class KeypairIndex {
+    static public final long REFRESH_INTERVAL = CalendarWrapper.MINUTE * 5L;
+
+    private Map<String,SSHKeypair> byFingerprint = new HashMap<String, SSHKeypair>();
+    private Map<String,SSHKeypair> byName        = new LinkedHashMap<String, SSHKeypair>();
+    private long                   loadedAt      = -1L;
+
+    /**
+     * Constructs an empty index that is stale until it is loaded.
+     */
+    public KeypairIndex() { }
+
+    /**
+     * @return true if the index has never been loaded or is older than the refresh interval
+     */
+    public boolean isStale() {
+        return (loadedAt < 0L || System.currentTimeMillis() - loadedAt >= REFRESH_INTERVAL);
+    }
+
+    void load(@Nonnull Iterable<SSHKeypair> keypairs) {
+        byFingerprint.clear();
+        byName.clear();
+        for( SSHKeypair keypair : keypairs ) {
+            put(keypair);
+        }
+        loadedAt = System.currentTimeMillis();
+    }
+
+    void put(@Nonnull SSHKeypair keypair) {
+        SSHKeypair copy = copy(keypair);
+
+        remove(copy.getProviderKeypairId());
+        byName.put(copy.getProviderKeypairId(), copy);
+        if( copy.getFingerprint() != null ) {
+            byFingerprint.put(copy.getFingerprint(), copy);
+        }
+    }
+
+    void remove(@Nonnull String name) {
+        SSHKeypair keypair = byName.remove(name);
+
+        if( keypair != null && keypair.getFingerprint() != null && byFingerprint.get(keypair.getFingerprint()) == keypair ) {
+            byFingerprint.remove(keypair.getFingerprint());
+        }
+    }
+
+    /**
+     * @param name the name of the keypair
+     * @return a copy of the keypair, or null if the index does not hold it
+     */
+    public @Nullable SSHKeypair getKeypair(@Nonnull String name) {
+        SSHKeypair keypair = byName.get(name);
+
+        return (keypair == null ? null : copy(keypair));
+    }
+
+    /**
+     * @param fingerprint the fingerprint of the keypair's public key
+     * @return a copy of the keypair, or null if the index does not hold it
+     */
+    public @Nullable SSHKeypair getKeypairByFingerprint(@Nonnull String fingerprint) {
+        SSHKeypair keypair = byFingerprint.get(fingerprint);
+
+        return (keypair == null ? null : copy(keypair));
+    }
+
+    /**
+     * @return copies of every keypair in the index
+     */
+    public @Nonnull List<SSHKeypair> listKeypairs() {
+        List<SSHKeypair> keypairs = new ArrayList<SSHKeypair>();
+
+        for( SSHKeypair keypair : byName.values() ) {
+            keypairs.add(copy(keypair));
+        }
+        return keypairs;
+    }
+
+    static private @Nonnull SSHKeypair copy(@Nonnull SSHKeypair keypair) {
+        SSHKeypair copy = new SSHKeypair();
+
+        copy.setFingerprint(keypair.getFingerprint());
+        copy.setName(keypair.getName());
+        copy.setProviderKeypairId(keypair.getProviderKeypairId());
+        copy.setProviderOwnerId(keypair.getProviderOwnerId());
+        copy.setProviderRegionId(keypair.getProviderRegionId());
+        copy.setPublicKey(keypair.getPublicKey());
+        return copy;
+    }
+}
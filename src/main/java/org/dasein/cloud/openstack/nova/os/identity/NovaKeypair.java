@@ -34,7 +34,11 @@ import org.dasein.cloud.openstack.nova.os.NovaException;
 import org.dasein.cloud.openstack.nova.os.NovaMethod;
 import org.dasein.cloud.openstack.nova.os.NovaOpenStack;
 import org.dasein.cloud.util.APITrace;
+import org.dasein.cloud.util.Cache;
+import org.dasein.cloud.util.CacheLevel;
 import org.dasein.util.CalendarWrapper;
+import org.dasein.util.uom.time.Day;
+import org.dasein.util.uom.time.TimePeriod;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -44,7 +48,10 @@ import javax.annotation.Nullable;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Locale;
 
 /**
@@ -93,13 +100,11 @@ public class NovaKeypair implements ShellKeySupport {
                     if( kp == null ) {
                         throw new CloudException("No matching keypair was generated from " + ob.toString());
                     }
+                    record(kp);
                     return kp;
                 }
                 catch( JSONException e ) {
-                    logger.error("createKeypair(): Unable to understand create response: " + e.getMessage());
-                    if( logger.isTraceEnabled() ) {
-                        e.printStackTrace();
-                    }
+                    logger.error("createKeypair(): Unable to understand create response: " + e.getMessage(), e);
                     throw new CloudException(e);
                 }
             }
@@ -128,6 +133,12 @@ public class NovaKeypair implements ShellKeySupport {
             do {
                 try {
                     method.deleteServers("/os-keypairs", keypairId);
+
+                    KeypairIndex index = getCachedIndex();
+
+                    synchronized( index ) {
+                        index.remove(keypairId);
+                    }
                     return;
                 }
                 catch( NovaException e ) {
@@ -173,38 +184,49 @@ public class NovaKeypair implements ShellKeySupport {
                 logger.error("No context exists for this request");
                 throw new InternalException("No context exists for this request");
             }
-            NovaMethod method = new NovaMethod(provider);
-            JSONObject ob = method.getServers("/os-keypairs", null, false);
+            KeypairIndex index = getCachedIndex();
 
-            try {
-                if( ob != null && ob.has("keypairs") ) {
-                    JSONArray list = ob.getJSONArray("keypairs");
-
-                    for( int i=0; i<list.length(); i++ ) {
-                        JSONObject json = list.getJSONObject(i);
+            synchronized( index ) {
+                SSHKeypair kp = (index.isStale() ? null : index.getKeypair(keypairId));
 
-                        try {
-                            if( json.has("keypair") ) {
-                                JSONObject kp = json.getJSONObject("keypair");
+                if( kp != null ) {
+                    return kp;
+                }
+            }
+            NovaMethod method = new NovaMethod(provider);
+            JSONObject ob;
 
-                                SSHKeypair k = toKeypair(ctx, kp);
-                                
-                                if( k != null && keypairId.equals(k.getProviderKeypairId()) ) {
-                                    return k;
-                                }
-                            }
-                        }
-                        catch( JSONException e ) {
-                            logger.error("Invalid JSON from cloud: " + e.getMessage());
-                            throw new CloudException("Invalid JSON from cloud: " + e.getMessage());
-                        }
-                    }
+            try {
+                ob = method.getServers("/os-keypairs", keypairId, false);
+            }
+            catch( CloudException e ) {
+                if( e.getHttpCode() != HttpStatus.SC_NOT_FOUND && e.getHttpCode() != HttpStatus.SC_METHOD_NOT_ALLOWED ) {
+                    throw e;
+                }
+                // clouds without the single keypair resource are answered from the full listing, which also tells
+                // a missing keypair from a missing resource
+                logger.debug("getKeypair(): Unable to fetch " + keypairId + " directly, falling back to the listing: " + e.getMessage());
+                index = getIndex();
+                synchronized( index ) {
+                    return index.getKeypair(keypairId);
+                }
+            }
+            if( ob == null || !ob.has("keypair") ) {
+                synchronized( index ) {
+                    index.remove(keypairId);
                 }
                 return null;
             }
+            try {
+                SSHKeypair kp = toKeypair(ctx, ob.getJSONObject("keypair"));
+
+                if( kp != null ) {
+                    record(kp);
+                }
+                return kp;
+            }
             catch( JSONException e ) {
-                logger.error("list(): Unable to identify expected values in JSON: " + e.getMessage());
-                e.printStackTrace();
+                logger.error("getKeypair(): Unable to identify expected values in JSON: " + e.getMessage());
                 throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", "Missing JSON element for keypair in " + ob.toString());
             }
         }
@@ -213,6 +235,70 @@ public class NovaKeypair implements ShellKeySupport {
         }
     }
 
+    /**
+     * Looks up a keypair by the fingerprint of its public key.
+     * @param fingerprint the fingerprint as reported by the cloud
+     * @return the matching keypair, or null if no keypair in the current region has that fingerprint
+     * @throws CloudException an error occurred with the cloud provider while loading the keypairs
+     * @throws InternalException an error occurred within Dasein Cloud while loading the keypairs
+     */
+    public @Nullable SSHKeypair getKeypairByFingerprint(@Nonnull String fingerprint) throws InternalException, CloudException {
+        APITrace.begin(provider, "Keypair.getKeypairByFingerprint");
+        try {
+            KeypairIndex index = getIndex();
+
+            synchronized( index ) {
+                return index.getKeypairByFingerprint(fingerprint);
+            }
+        }
+        finally {
+            APITrace.end();
+        }
+    }
+
+    private @Nonnull KeypairIndex getCachedIndex() throws CloudException, InternalException {
+        Cache<KeypairIndex> cache = Cache.getInstance(provider, "keypairIndex", KeypairIndex.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Day>(1, TimePeriod.DAY));
+        Iterable<KeypairIndex> it = cache.get(provider.getContext());
+
+        if( it != null ) {
+            Iterator<KeypairIndex> b = it.iterator();
+
+            if( b.hasNext() ) {
+                return b.next();
+            }
+        }
+        KeypairIndex index = new KeypairIndex();
+
+        cache.put(provider.getContext(), Collections.singletonList(index));
+        return index;
+    }
+
+    /**
+     * Provides the keypairs of the current region, first reloading them if they are older than
+     * {@link KeypairIndex#REFRESH_INTERVAL}. Callers reading the index should synchronize on it.
+     * @return the current keypair index
+     * @throws CloudException an error occurred with the cloud provider while loading the keypairs
+     * @throws InternalException an error occurred within Dasein Cloud while loading the keypairs
+     */
+    public @Nonnull KeypairIndex getIndex() throws CloudException, InternalException {
+        KeypairIndex index = getCachedIndex();
+
+        synchronized( index ) {
+            if( index.isStale() ) {
+                index.load(loadKeypairs());
+            }
+        }
+        return index;
+    }
+
+    private void record(@Nonnull SSHKeypair keypair) throws CloudException, InternalException {
+        KeypairIndex index = getCachedIndex();
+
+        synchronized( index ) {
+            index.put(keypair);
+        }
+    }
+
     @Override
     @Deprecated
     public @Nonnull String getProviderTermForKeypair(@Nonnull Locale locale) {
@@ -255,11 +341,11 @@ public class NovaKeypair implements ShellKeySupport {
                     if( kp == null ) {
                         throw new CloudException("No matching keypair was generated from " + ob.toString());
                     }
+                    record(kp);
                     return kp;
                 }
                 catch( JSONException e ) {
-                    logger.error("importKeypair(): Unable to understand create response: " + e.getMessage());
-                    e.printStackTrace();
+                    logger.error("importKeypair(): Unable to understand create response: " + e.getMessage(), e);
                     throw new CloudException(e);
                 }
             }
@@ -308,47 +394,57 @@ public class NovaKeypair implements ShellKeySupport {
     public @Nonnull Collection<SSHKeypair> list() throws InternalException, CloudException {
         APITrace.begin(provider, "Keypair.list");
         try {
-            ProviderContext ctx = provider.getContext();
+            KeypairIndex index = getIndex();
 
-            if( ctx == null ) {
-                logger.error("No context exists for this request");
-                throw new InternalException("No context exists for this request");
+            synchronized( index ) {
+                return index.listKeypairs();
             }
-            NovaMethod method = new NovaMethod(provider);
-            JSONObject ob = method.getServers("/os-keypairs", null, false);
-            ArrayList<SSHKeypair> keypairs = new ArrayList<SSHKeypair>();
+        }
+        finally {
+            APITrace.end();
+        }
+    }
 
-            try {
-                if( ob != null && ob.has("keypairs") ) {
-                    JSONArray list = ob.getJSONArray("keypairs");
+    private @Nonnull List<SSHKeypair> loadKeypairs() throws InternalException, CloudException {
+        ProviderContext ctx = provider.getContext();
+
+        if( ctx == null ) {
+            logger.error("No context exists for this request");
+            throw new InternalException("No context exists for this request");
+        }
+        NovaMethod method = new NovaMethod(provider);
+        JSONObject ob = method.getServers("/os-keypairs", null, false);
+        ArrayList<SSHKeypair> keypairs = new ArrayList<SSHKeypair>();
+
+        try {
+            if( ob != null && ob.has("keypairs") ) {
+                JSONArray list = ob.getJSONArray("keypairs");
 
-                    for( int i=0; i<list.length(); i++ ) {
-                        JSONObject json = list.getJSONObject(i);
+                for( int i=0; i<list.length(); i++ ) {
+                    JSONObject json = list.getJSONObject(i);
 
-                        try {
-                            if( json.has("keypair") ) {
-                                JSONObject kp = json.getJSONObject("keypair");
+                    try {
+                        if( json.has("keypair") ) {
+                            SSHKeypair kp = toKeypair(ctx, json.getJSONObject("keypair"));
 
-                                keypairs.add(toKeypair(ctx, kp));
+                            if( kp != null ) {
+                                keypairs.add(kp);
                             }
                         }
-                        catch( JSONException e ) {
-                            logger.error("Invalid JSON from cloud: " + e.getMessage());
-                            throw new CloudException("Invalid JSON from cloud: " + e.getMessage());
-                        }
+                    }
+                    catch( JSONException e ) {
+                        logger.error("Invalid JSON from cloud: " + e.getMessage());
+                        throw new CloudException("Invalid JSON from cloud: " + e.getMessage());
                     }
                 }
             }
-            catch( JSONException e ) {
-                logger.error("list(): Unable to identify expected values in JSON: " + e.getMessage());
-                e.printStackTrace();
-                throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", "Missing JSON element for keypair in " + ob.toString());
-            }
-            return keypairs;
         }
-        finally {
-            APITrace.end();
+        catch( JSONException e ) {
+            logger.error("list(): Unable to identify expected values in JSON: " + e.getMessage());
+            e.printStackTrace();
+            throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", "Missing JSON element for keypair in " + ob.toString());
         }
+        return keypairs;
     }
 
     @Override
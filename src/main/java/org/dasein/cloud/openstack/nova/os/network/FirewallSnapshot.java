@@ -0,0 +1,188 @@
+/**
+ * Copyright (C) 2009-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.openstack.nova.os.network;
+
+import org.dasein.cloud.network.Firewall;
+import org.dasein.cloud.network.FirewallRule;
+import org.dasein.util.CalendarWrapper;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory copy of the security groups in a region together with their rules, as returned inline by a single
+ * listing of the groups. The copy is reloaded once it is older than the refresh interval, and
+ * {@link NovaSecurityGroup} keeps it current as groups and rules are created and removed. Groups are copied on
+ * the way in and on the way out, so callers never share an instance with the snapshot.
+ * @since 2015.06.2
+ * @version 2015.06.2 initial version
+ */
+public class FirewallSnapshot {
+    static public final long REFRESH_INTERVAL = CalendarWrapper.MINUTE;
+
+    private long                           changedAt  = -1L;
+    private Map<String,Firewall>           firewalls  = new LinkedHashMap<String, Firewall>();
+    private long                           loadedAt   = -1L;
+    private Map<String,String>             ruleGroups = new HashMap<String, String>();
+    private Map<String,List<FirewallRule>> rules      = new HashMap<String, List<FirewallRule>>();
+
+    /**
+     * @return true if the snapshot has never been loaded or is older than the refresh interval
+     */
+    public boolean isStale() {
+        return (loadedAt < 0L || System.currentTimeMillis() - loadedAt >= REFRESH_INTERVAL);
+    }
+
+    /**
+     * Replaces the snapshot with the result of a listing of every group.
+     * @param groups the groups in the tenant
+     * @param groupRules the rules of each group, keyed by group ID
+     * @param startedAt when the listing started; if the snapshot changed after that, the listing is kept but the
+     * snapshot stays stale
+     */
+    void load(@Nonnull List<Firewall> groups, @Nonnull Map<String,List<FirewallRule>> groupRules, long startedAt) {
+        firewalls = new LinkedHashMap<String, Firewall>();
+        ruleGroups = new HashMap<String, String>();
+        rules = new HashMap<String, List<FirewallRule>>();
+        for( Firewall firewall : groups ) {
+            add(firewall, groupRules.get(firewall.getProviderFirewallId()));
+        }
+        loadedAt = (changedAt < startedAt ? startedAt : -1L);
+    }
+
+    void put(@Nonnull Firewall firewall, @Nullable List<FirewallRule> groupRules) {
+        changedAt = System.currentTimeMillis();
+        add(firewall, groupRules);
+    }
+
+    private void add(@Nonnull Firewall firewall, @Nullable List<FirewallRule> groupRules) {
+        firewalls.put(firewall.getProviderFirewallId(), copy(firewall));
+        if( groupRules != null ) {
+            addRules(firewall.getProviderFirewallId(), groupRules);
+        }
+    }
+
+    void putRules(@Nonnull String firewallId, @Nonnull List<FirewallRule> groupRules) {
+        changedAt = System.currentTimeMillis();
+        addRules(firewallId, groupRules);
+    }
+
+    private void addRules(@Nonnull String firewallId, @Nonnull List<FirewallRule> groupRules) {
+        dropRules(firewallId);
+        for( FirewallRule rule : groupRules ) {
+            ruleGroups.put(rule.getProviderRuleId(), firewallId);
+        }
+        rules.put(firewallId, new ArrayList<FirewallRule>(groupRules));
+    }
+
+    /**
+     * Forgets the rules of a group so they are fetched again the next time they are needed.
+     * @param firewallId the group whose rules changed
+     */
+    void invalidateRules(@Nonnull String firewallId) {
+        changedAt = System.currentTimeMillis();
+        dropRules(firewallId);
+    }
+
+    private void dropRules(@Nonnull String firewallId) {
+        List<FirewallRule> list = rules.remove(firewallId);
+
+        if( list != null ) {
+            for( FirewallRule rule : list ) {
+                ruleGroups.remove(rule.getProviderRuleId());
+            }
+        }
+    }
+
+    void remove(@Nonnull String firewallId) {
+        changedAt = System.currentTimeMillis();
+        firewalls.remove(firewallId);
+        dropRules(firewallId);
+    }
+
+    void removeRule(@Nonnull String ruleId) {
+        changedAt = System.currentTimeMillis();
+
+        String firewallId = ruleGroups.remove(ruleId);
+
+        if( firewallId != null ) {
+            List<FirewallRule> list = rules.get(firewallId);
+
+            if( list != null ) {
+                for( int i=0; i<list.size(); i++ ) {
+                    if( ruleId.equals(list.get(i).getProviderRuleId()) ) {
+                        list.remove(i);
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @param firewallId the group in question
+     * @return a copy of the group, or null if it is not in the snapshot
+     */
+    public @Nullable Firewall getFirewall(@Nonnull String firewallId) {
+        Firewall firewall = firewalls.get(firewallId);
+
+        return (firewall == null ? null : copy(firewall));
+    }
+
+    /**
+     * @return copies of every group in the snapshot
+     */
+    public @Nonnull List<Firewall> listFirewalls() {
+        List<Firewall> list = new ArrayList<Firewall>();
+
+        for( Firewall firewall : firewalls.values() ) {
+            list.add(copy(firewall));
+        }
+        return list;
+    }
+
+    /**
+     * @param firewallId the group in question
+     * @return the rules of the group, or null if they are not in the snapshot
+     */
+    public @Nullable List<FirewallRule> listRules(@Nonnull String firewallId) {
+        List<FirewallRule> list = rules.get(firewallId);
+
+        return (list == null ? null : new ArrayList<FirewallRule>(list));
+    }
+
+    static private @Nonnull Firewall copy(@Nonnull Firewall firewall) {
+        Firewall copy = new Firewall();
+
+        copy.setActive(firewall.isActive());
+        copy.setAvailable(firewall.isAvailable());
+        copy.setDescription(firewall.getDescription());
+        copy.setName(firewall.getName());
+        copy.setProviderFirewallId(firewall.getProviderFirewallId());
+        copy.setProviderVlanId(firewall.getProviderVlanId());
+        copy.setRegionId(firewall.getRegionId());
+        return copy;
+    }
+}
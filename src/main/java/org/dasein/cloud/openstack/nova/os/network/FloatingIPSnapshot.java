@@ -0,0 +1,191 @@
+/**
+ * Copyright (C) 2009-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.openstack.nova.os.network;
+
+import org.dasein.cloud.network.IpAddress;
+import org.dasein.util.CalendarWrapper;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory copy of the floating IP pool in a region, indexed by ID, by address and by the instance to which
+ * each address is assigned. The pool is reloaded once it is older than the refresh interval, and
+ * {@link NovaFloatingIP} keeps it current as addresses are requested, assigned and released. Addresses are copied
+ * on the way in and on the way out, so callers never hold the objects the snapshot indexes.
+ * @since 2015.06.2
+ * @version 2015.06.2 initial version
+ */
+public class FloatingIPSnapshot {
+    static public final long REFRESH_INTERVAL = CalendarWrapper.MINUTE;
+
+    private Map<String,IpAddress>       byAddress  = new HashMap<String, IpAddress>();
+    private Map<String,IpAddress>       byId       = new LinkedHashMap<String, IpAddress>();
+    private Map<String,List<IpAddress>> byInstance = new HashMap<String, List<IpAddress>>();
+    private long                        loadedAt   = -1L;
+
+    /**
+     * Constructs an empty snapshot that is stale until it is loaded.
+     */
+    public FloatingIPSnapshot() { }
+
+    /**
+     * @return true if the snapshot has never been loaded or is older than the refresh interval
+     */
+    public boolean isStale() {
+        return (loadedAt < 0L || System.currentTimeMillis() - loadedAt >= REFRESH_INTERVAL);
+    }
+
+    void invalidate() {
+        loadedAt = -1L;
+    }
+
+    void load(@Nonnull Iterable<IpAddress> addresses) {
+        byAddress.clear();
+        byId.clear();
+        byInstance.clear();
+        for( IpAddress address : addresses ) {
+            put(address);
+        }
+        loadedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Copies the fields of an address that {@link NovaFloatingIP} fills in.
+     */
+    static private @Nonnull IpAddress copy(@Nonnull IpAddress address) {
+        IpAddress copy = new IpAddress();
+
+        copy.setAddress(address.getRawAddress().getIpAddress());
+        copy.setAddressType(address.getAddressType());
+        copy.setIpAddressId(address.getProviderIpAddressId());
+        copy.setProviderLoadBalancerId(address.getProviderLoadBalancerId());
+        copy.setRegionId(address.getRegionId());
+        copy.setServerId(address.getServerId());
+        copy.setVersion(address.getVersion());
+        return copy;
+    }
+
+    static private @Nonnull List<IpAddress> copy(@Nonnull Iterable<IpAddress> addresses) {
+        List<IpAddress> list = new ArrayList<IpAddress>();
+
+        for( IpAddress address : addresses ) {
+            list.add(copy(address));
+        }
+        return list;
+    }
+
+    void put(@Nonnull IpAddress address) {
+        address = copy(address);
+        remove(address.getProviderIpAddressId());
+        byId.put(address.getProviderIpAddressId(), address);
+        byAddress.put(address.getRawAddress().getIpAddress(), address);
+        if( address.getServerId() != null ) {
+            List<IpAddress> list = byInstance.get(address.getServerId());
+
+            if( list == null ) {
+                list = new ArrayList<IpAddress>();
+                byInstance.put(address.getServerId(), list);
+            }
+            list.add(address);
+        }
+    }
+
+    void remove(@Nonnull String addressId) {
+        IpAddress address = byId.remove(addressId);
+
+        if( address != null ) {
+            byAddress.remove(address.getRawAddress().getIpAddress());
+            if( address.getServerId() != null ) {
+                List<IpAddress> list = byInstance.get(address.getServerId());
+
+                if( list != null ) {
+                    list.remove(address);
+                    if( list.isEmpty() ) {
+                        byInstance.remove(address.getServerId());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Records that an address has been assigned to or released from an instance.
+     * @param addressId the address whose assignment changed
+     * @param instanceId the instance now holding the address, or null if it was released
+     */
+    void assign(@Nonnull String addressId, @Nullable String instanceId) {
+        IpAddress address = byId.get(addressId);
+
+        if( address != null ) {
+            // a fresh copy replaces the indexed one, which callers may still be holding copies of
+            IpAddress assigned = copy(address);
+
+            assigned.setServerId(instanceId);
+            put(assigned);
+        }
+    }
+
+    public @Nullable IpAddress getAddress(@Nonnull String addressId) {
+        IpAddress address = byId.get(addressId);
+
+        return (address == null ? null : copy(address));
+    }
+
+    public @Nullable IpAddress getAddressByIp(@Nonnull String ipAddress) {
+        IpAddress address = byAddress.get(ipAddress);
+
+        return (address == null ? null : copy(address));
+    }
+
+    /**
+     * @param instanceId the instance in question
+     * @return the addresses assigned to the instance, in the order the pool lists them
+     */
+    public @Nonnull List<IpAddress> listAddressesByInstance(@Nonnull String instanceId) {
+        List<IpAddress> list = byInstance.get(instanceId);
+
+        if( list == null ) {
+            return Collections.emptyList();
+        }
+        return copy(list);
+    }
+
+    /**
+     * @param unassignedOnly true to list only the addresses not assigned to any instance
+     * @return the addresses in the pool
+     */
+    public @Nonnull List<IpAddress> listAddresses(boolean unassignedOnly) {
+        List<IpAddress> list = new ArrayList<IpAddress>();
+
+        for( IpAddress address : byId.values() ) {
+            if( !unassignedOnly || address.getServerId() == null ) {
+                list.add(copy(address));
+            }
+        }
+        return list;
+    }
+}
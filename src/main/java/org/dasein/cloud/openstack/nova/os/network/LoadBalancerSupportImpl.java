@@ -8,11 +8,16 @@ import org.dasein.cloud.InternalException;
 import org.dasein.cloud.ResourceStatus;
 import org.dasein.cloud.compute.VirtualMachine;
 import org.dasein.cloud.network.*;
+import org.dasein.cloud.openstack.nova.os.BatchExecutor;
+import org.dasein.cloud.openstack.nova.os.NeutronQuery;
 import org.dasein.cloud.openstack.nova.os.NovaException;
 import org.dasein.cloud.openstack.nova.os.NovaMethod;
 import org.dasein.cloud.openstack.nova.os.NovaOpenStack;
 import org.dasein.cloud.util.APITrace;
 import org.dasein.util.CalendarWrapper;
+import org.dasein.util.Jiterator;
+import org.dasein.util.JiteratorPopulator;
+import org.dasein.util.PopulatorThread;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -79,11 +84,12 @@ public class LoadBalancerSupportImpl extends AbstractLoadBalancerSupport<NovaOpe
     public boolean isSubscribed() throws CloudException, InternalException {
         APITrace.begin(getProvider(), "LB.isSubscribed");
         try {
-            listLoadBalancers();
-            return true;
+            NetworkDiscovery discovery = new NetworkDiscovery(getProvider());
+
+            return ( discovery.getNetworkType().equals(Quantum.QuantumType.QUANTUM) && discovery.hasNetworkExtension("lbaas", getLoadBalancersResource()) );
         }
-        catch( CloudException e ) {
-            return false;
+        finally {
+            APITrace.end();
         }
     }
 
@@ -168,8 +174,8 @@ public class LoadBalancerSupportImpl extends AbstractLoadBalancerSupport<NovaOpe
     public @Nonnull Iterable<ResourceStatus> listLoadBalancerStatus() throws CloudException, InternalException {
         NovaMethod method = new NovaMethod(getProvider());
         // Unlike Horizon the OS LB API returns all tenants' load balancers, so we must filter
-        JSONObject result = method.getNetworks(getLoadBalancersResource(), null, false,
-                "?tenant_id="+getContext().getAccountNumber() + "&fields=id&fields=status");
+        JSONObject result = method.getNetworks(getLoadBalancersResource(), null,
+                tenantQuery().withFields("id", "status"));
         List<ResourceStatus> results = new ArrayList<ResourceStatus>();
         if( result != null && result.has("pools") ) {
             try {
@@ -331,7 +337,7 @@ public class LoadBalancerSupportImpl extends AbstractLoadBalancerSupport<NovaOpe
         APITrace.begin(getProvider(), "LB.listLBHealthChecks");
         try {
             NovaMethod method = new NovaMethod(getProvider());
-            JSONObject result = method.getNetworks(getHealthMonitorsResource(), null, false);
+            JSONObject result = method.getNetworks(getHealthMonitorsResource(), null, tenantQuery());
             List<LoadBalancerHealthCheck> healthMonitors = new ArrayList<LoadBalancerHealthCheck>();
             if( result != null && result.has("health_monitors") ) {
                 try {
@@ -639,7 +645,12 @@ public class LoadBalancerSupportImpl extends AbstractLoadBalancerSupport<NovaOpe
      */
     private List<JSONObject> findAllVips(@Nullable String loadBalancerId) throws CloudException, InternalException {
         NovaMethod method = new NovaMethod(getProvider());
-        JSONObject result = method.getNetworks(getListenersResource(), null, false, "?tenant_id="+getContext().getAccountNumber());
+        NeutronQuery query = tenantQuery();
+
+        if( loadBalancerId != null ) {
+            query.withFilter("pool_id", loadBalancerId);
+        }
+        JSONObject result = method.getNetworks(getListenersResource(), null, query);
         List<JSONObject> listeners = new ArrayList<JSONObject>();
         if( result != null && result.has("vips") ) {
             try {
@@ -668,13 +679,21 @@ public class LoadBalancerSupportImpl extends AbstractLoadBalancerSupport<NovaOpe
      */
     private List<JSONObject> findAllMembers(@Nullable String loadBalancerId) throws CloudException, InternalException {
         NovaMethod method = new NovaMethod(getProvider());
-        JSONObject result = method.getNetworks(getMembersResource(), null, false, "?tenant_id="+getContext().getAccountNumber());
+        NeutronQuery query = tenantQuery();
+
+        if( loadBalancerId != null ) {
+            query.withFilter("pool_id", loadBalancerId);
+        }
+        JSONObject result = method.getNetworks(getMembersResource(), null, query);
         List<JSONObject> members = new ArrayList<JSONObject>();
         if( result != null && result.has("members") ) {
             try {
                 JSONArray list = result.getJSONArray("members");
                 for( int i = 0; i < list.length(); i++ ) {
-                    members.add(list.getJSONObject(i));
+                    JSONObject member = list.getJSONObject(i);
+                    if( loadBalancerId == null || loadBalancerId.equalsIgnoreCase(member.optString("pool_id")) ) {
+                        members.add(member);
+                    }
                 }
             }
             catch( JSONException e ) {
@@ -686,48 +705,113 @@ public class LoadBalancerSupportImpl extends AbstractLoadBalancerSupport<NovaOpe
     }
 
     /**
-     * Find all or a single load balancer
+     * Find the pools, either all of them or a single one
      * @param loadBalancerId optional load balancer id if looking for just one
-     * @return
+     * @return the matching pools
      * @throws CloudException
      * @throws InternalException
      */
-    private List<LoadBalancer> findLoadBalancers(@Nullable String loadBalancerId) throws CloudException, InternalException {
-        APITrace.begin(getProvider(), "LB.listLoadBalancers");
+    private List<JSONObject> findAllPools(@Nullable String loadBalancerId) throws CloudException, InternalException {
+        NovaMethod method = new NovaMethod(getProvider());
+        // Unlike Horizon the OS LB API returns all tenants' load balancers, so we must filter
+        JSONObject result = method.getNetworks(getLoadBalancersResource(), loadBalancerId, tenantQuery());
+        List<JSONObject> pools = new ArrayList<JSONObject>();
+
         try {
-            // get all vips, optionally filtered by lbId
-            List<JSONObject> listeners = findAllVips(loadBalancerId);
+            if( loadBalancerId == null && result != null && result.has("pools") ) {
+                JSONArray list = result.getJSONArray("pools");
+                for( int i = 0; i < list.length(); i++ ) {
+                    pools.add(list.getJSONObject(i));
+                }
+            }
+            else if( result != null && result.has("pool") ) {
+                pools.add(result.getJSONObject("pool"));
+            }
+        }
+        catch( JSONException e ) {
+            logger.error("Unable to understand listPools response: " + e.getMessage());
+            throw new CloudException(e);
+        }
+        return pools;
+    }
 
-            // get all members, optionally filtered by lbId
-            List<JSONObject> members = findAllMembers(loadBalancerId);
+    /**
+     * Find all or a single load balancer. Pools, VIPs and members are fetched concurrently and joined on
+     * their pool IDs.
+     * @param loadBalancerId optional load balancer id if looking for just one
+     * @return
+     * @throws CloudException
+     * @throws InternalException
+     */
+    private List<LoadBalancer> findLoadBalancers(@Nullable final String loadBalancerId) throws CloudException, InternalException {
+        return findLoadBalancers(loadBalancerId, null);
+    }
 
-            NovaMethod method = new NovaMethod(getProvider());
-            // Unlike Horizon the OS LB API returns all tenants' load balancers, so we must filter
-            JSONObject result = method.getNetworks(getLoadBalancersResource(), loadBalancerId, false, "?tenant_id="+getContext().getAccountNumber());
-            List<LoadBalancer> results = new ArrayList<LoadBalancer>();
-            if( loadBalancerId == null && result != null && result.has("pools") ) {
-                try {
-                    JSONArray loadbalancers = result.getJSONArray("pools");
-                    for( int i = 0; i < loadbalancers.length(); i++ ) {
-                        JSONObject lb = loadbalancers.getJSONObject(i);
-                        results.add(toLoadBalancer(lb, listeners, members));
+    /**
+     * Find all or a single load balancer, handing each one to the iterator as soon as its pool is joined with
+     * its VIP and members.
+     * @param loadBalancerId optional load balancer id if looking for just one
+     * @param iterator the iterator to push each load balancer into, or null to collect them into the result
+     * @return the load balancers found, or an empty list if they were pushed into the iterator
+     * @throws CloudException
+     * @throws InternalException
+     */
+    private List<LoadBalancer> findLoadBalancers(@Nullable final String loadBalancerId, @Nullable Jiterator<LoadBalancer> iterator) throws CloudException, InternalException {
+        APITrace.begin(getProvider(), "LB.listLoadBalancers");
+        try {
+            BatchExecutor.Result<List<JSONObject>> fetched = new BatchExecutor(getProvider(), "lb-list").execute(Arrays.asList("pools", "vips", "members"), new BatchExecutor.Operation<List<JSONObject>>() {
+                @Override
+                public List<JSONObject> execute(@Nonnull String collection) throws CloudException, InternalException {
+                    if( collection.equals("pools") ) {
+                        return findAllPools(loadBalancerId);
                     }
+                    else if( collection.equals("vips") ) {
+                        return findAllVips(loadBalancerId);
+                    }
+                    return findAllMembers(loadBalancerId);
                 }
-                catch( JSONException e ) {
-                    logger.error("Unable to understand listPools response: " + e.getMessage());
-                    throw new CloudException(e);
+            });
+
+            fetched.rethrow();
+            // OS LB 1.0 allows one VIP per pool, the first one found wins as before
+            Map<String,JSONObject> vipsByPool = new HashMap<String, JSONObject>();
+            for( JSONObject vip : fetched.getResults().get("vips") ) {
+                String poolId = vip.optString("pool_id", null);
+                if( poolId != null && !vipsByPool.containsKey(poolId) ) {
+                    vipsByPool.put(poolId, vip);
                 }
             }
-            else if( result != null && result.has("pool")) {
-                try {
-                    return Collections.singletonList(toLoadBalancer(result.getJSONObject("pool"), listeners, members));
-                }
-                catch( JSONException e ) {
-                    logger.error("Unable to understand getPool response: " + e.getMessage());
-                    throw new CloudException(e);
+            Map<String,List<JSONObject>> membersByPool = new HashMap<String, List<JSONObject>>();
+            for( JSONObject member : fetched.getResults().get("members") ) {
+                String poolId = member.optString("pool_id", null);
+                if( poolId != null ) {
+                    List<JSONObject> list = membersByPool.get(poolId);
+                    if( list == null ) {
+                        list = new ArrayList<JSONObject>();
+                        membersByPool.put(poolId, list);
+                    }
+                    list.add(member);
                 }
             }
+            List<LoadBalancer> results = new ArrayList<LoadBalancer>();
+            try {
+                for( JSONObject lb : fetched.getResults().get("pools") ) {
+                    String poolId = lb.getString("id");
+                    List<JSONObject> members = membersByPool.get(poolId);
+                    LoadBalancer loadBalancer = toLoadBalancer(lb, vipsByPool.get(poolId), members == null ? Collections.<JSONObject>emptyList() : members);
 
+                    if( iterator == null ) {
+                        results.add(loadBalancer);
+                    }
+                    else {
+                        iterator.push(loadBalancer);
+                    }
+                }
+            }
+            catch( JSONException e ) {
+                logger.error("Unable to understand listPools response: " + e.getMessage());
+                throw new CloudException(e);
+            }
             return results;
         }
         finally {
@@ -737,20 +821,58 @@ public class LoadBalancerSupportImpl extends AbstractLoadBalancerSupport<NovaOpe
 
     @Override
     public @Nonnull Iterable<LoadBalancer> listLoadBalancers() throws CloudException, InternalException {
-        return findLoadBalancers(null);
+        PopulatorThread<LoadBalancer> populator;
+
+        getProvider().hold();
+        populator = new PopulatorThread<LoadBalancer>(new JiteratorPopulator<LoadBalancer>() {
+            public void populate(@Nonnull Jiterator<LoadBalancer> iterator) throws CloudException, InternalException {
+                try {
+                    findLoadBalancers(null, iterator);
+                }
+                finally {
+                    getProvider().release();
+                }
+            }
+        });
+        populator.populate();
+        return populator.getResult();
     }
 
+    /**
+     * Finds the load balancers whose VIP is bound to one of the specified Neutron ports.
+     * @param vipPortIds the IDs of the VIP ports
+     * @return the matching load balancers
+     * @throws CloudException an error occurred with the cloud provider while looking up the load balancers
+     * @throws InternalException an error occurred within Dasein Cloud while looking up the load balancers
+     */
+    @Nonnull List<LoadBalancer> listLoadBalancersByVipPort(@Nonnull Collection<String> vipPortIds) throws CloudException, InternalException {
+        NovaMethod method = new NovaMethod(getProvider());
+        JSONObject result = method.getNetworks(getListenersResource(), null, tenantQuery().withFields("id", "pool_id", "port_id"));
+        List<LoadBalancer> loadBalancers = new ArrayList<LoadBalancer>();
 
-    private @Nullable JSONObject findListenerByLbId(@Nonnull List<JSONObject> listeners, @Nonnull String lbId) throws JSONException {
-        for( JSONObject listener : listeners ) {
-            if( listener.has("pool_id") && lbId.equals(listener.getString("pool_id")) ) {
-                return listener;
+        if( result != null && result.has("vips") ) {
+            try {
+                JSONArray list = result.getJSONArray("vips");
+                for( int i = 0; i < list.length(); i++ ) {
+                    JSONObject vip = list.getJSONObject(i);
+                    if( vipPortIds.contains(vip.optString("port_id")) && vip.has("pool_id") ) {
+                        LoadBalancer lb = getLoadBalancer(vip.getString("pool_id"));
+                        if( lb != null ) {
+                            loadBalancers.add(lb);
+                        }
+                    }
+                }
+            }
+            catch( JSONException e ) {
+                logger.error("Unable to understand listVips response: " + e.getMessage());
+                throw new CloudException(e);
             }
         }
-        return null;
+        return loadBalancers;
     }
 
-    private LoadBalancer toLoadBalancer(JSONObject lb, List<JSONObject> listeners, List<JSONObject> members) throws JSONException, InternalException {
+
+    private LoadBalancer toLoadBalancer(@Nonnull JSONObject lb, @Nullable JSONObject vip, @Nonnull List<JSONObject> members) throws JSONException, InternalException {
         String ownerId = lb.optString("tenant_id");
         String regionId = getContext().getRegionId();
         String lbId = lb.getString("id");
@@ -759,7 +881,6 @@ public class LoadBalancerSupportImpl extends AbstractLoadBalancerSupport<NovaOpe
         String name = lb.getString("name");
         String description = lb.getString("description");
         LoadBalancerAddressType addressType = LoadBalancerAddressType.IP;
-        JSONObject vip = findListenerByLbId(listeners, lbId);
         String address = null;
         int publicPort = -1;
         LbAlgorithm algorithm = LbAlgorithm.ROUND_ROBIN;
@@ -804,9 +925,6 @@ public class LoadBalancerSupportImpl extends AbstractLoadBalancerSupport<NovaOpe
             // if we were unable to get the private port from the name, let's see if we can find it from the members
             if( privatePort < 0 ) {
                 for( JSONObject member : members ) {
-                    if( !member.getString("pool_id").equalsIgnoreCase(lbId) ) {
-                        continue;
-                    }
                     privatePort = member.getInt("protocol_port");
                     lbListeners.add(LbListener.getInstance(algorithm, persistence, protocol, publicPort, privatePort));
                 }
@@ -936,6 +1054,14 @@ public class LoadBalancerSupportImpl extends AbstractLoadBalancerSupport<NovaOpe
         }
     }
 
+    /**
+     * Unlike Horizon the OS LB API returns all tenants' objects, so every listing is restricted to the current tenant
+     * @return a query filtering on the current tenant
+     */
+    private NeutronQuery tenantQuery() {
+        return NeutronQuery.getInstance().withFilter("tenant_id", getContext().getAccountNumber());
+    }
+
     // Below is the list of resource endpoints, these will change in LBaaS 2.0
     private String getLoadBalancersResource() {
         return "v2.0/lb/pools";
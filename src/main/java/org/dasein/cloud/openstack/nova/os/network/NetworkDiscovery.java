@@ -0,0 +1,418 @@
+/**
+ * Copyright (C) 2009-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.openstack.nova.os.network;
+
+import org.apache.http.HttpStatus;
+import org.apache.log4j.Logger;
+import org.dasein.cloud.CloudException;
+import org.dasein.cloud.InternalException;
+import org.dasein.cloud.openstack.nova.os.NeutronQuery;
+import org.dasein.cloud.openstack.nova.os.NovaMethod;
+import org.dasein.cloud.openstack.nova.os.NovaOpenStack;
+import org.dasein.cloud.openstack.nova.os.OpenStackProvider;
+import org.dasein.cloud.util.Cache;
+import org.dasein.cloud.util.CacheLevel;
+import org.dasein.util.CalendarWrapper;
+import org.dasein.util.uom.time.Day;
+import org.dasein.util.uom.time.TimePeriod;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Discovers what the networking endpoints of a region support: the networking flavour, the Neutron API version,
+ * the Neutron extensions and the presence of individual compute resources. Every finding, including a negative
+ * one, is remembered for the region until it expires, so support objects can ask on every call without probing
+ * the cloud each time. Probes run outside the lock on the findings, so a slow endpoint does not hold up questions
+ * that are already answered.
+ * @since 2015.06.2
+ * @version 2015.06.2 initial version
+ */
+public class NetworkDiscovery {
+    static private final Logger logger = NovaOpenStack.getLogger(NetworkDiscovery.class, "std");
+
+    /**
+     * How long something found to be supported is remembered.
+     */
+    static public final long POSITIVE_TTL = CalendarWrapper.HOUR;
+    /**
+     * How long something found to be missing is remembered. Shorter, so an endpoint that was briefly down or an
+     * extension that was just enabled is picked up again soon.
+     */
+    static public final long NEGATIVE_TTL = CalendarWrapper.MINUTE * 10L;
+
+    static private class Finding<T> {
+        private long expiresAt;
+        private T    value;
+
+        private Finding(@Nullable T value, boolean positive) {
+            this.value = value;
+            this.expiresAt = System.currentTimeMillis() + (positive ? POSITIVE_TTL : NEGATIVE_TTL);
+        }
+
+        private boolean isFresh() {
+            return (System.currentTimeMillis() < expiresAt);
+        }
+    }
+
+    /**
+     * The findings for one region, shared by every support object through the cache.
+     */
+    static private class Findings {
+        private Map<String,Finding<Boolean>> computeResources = new HashMap<String, Finding<Boolean>>();
+        private Finding<Set<String>>         extensions;
+        private Map<String,Finding<Boolean>> networkResources = new HashMap<String, Finding<Boolean>>();
+        private Finding<Quantum.QuantumType> networkType;
+        private Finding<String>              networkVersion;
+    }
+
+    private NovaOpenStack provider;
+
+    public NetworkDiscovery(@Nonnull NovaOpenStack provider) {
+        this.provider = provider;
+    }
+
+    private @Nonnull Findings getFindings() throws CloudException, InternalException {
+        Cache<Findings> cache = Cache.getInstance(provider, "networkDiscovery", Findings.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Day>(1, TimePeriod.DAY));
+        Iterable<Findings> it = cache.get(provider.getContext());
+
+        if( it != null ) {
+            Iterator<Findings> b = it.iterator();
+
+            if( b.hasNext() ) {
+                return b.next();
+            }
+        }
+        Findings findings = new Findings();
+
+        cache.put(provider.getContext(), Collections.singletonList(findings));
+        return findings;
+    }
+
+    /**
+     * Forgets everything discovered about the current region so the next question probes the cloud again.
+     * @throws CloudException an error occurred with the cloud provider while accessing the cache
+     * @throws InternalException an error occurred within Dasein Cloud while accessing the cache
+     */
+    public void clear() throws CloudException, InternalException {
+        Findings findings = getFindings();
+
+        synchronized( findings ) {
+            findings.computeResources.clear();
+            findings.extensions = null;
+            findings.networkResources.clear();
+            findings.networkType = null;
+            findings.networkVersion = null;
+        }
+    }
+
+    /**
+     * Hands back what was found before when a probe fails without the cloud answering the question. A stale
+     * finding is not refreshed, so the next question probes again.
+     */
+    static private @Nonnull <T> Finding<T> keep(@Nullable Finding<T> previous, @Nonnull CloudException e, @Nonnull String what) throws CloudException {
+        if( previous == null ) {
+            throw e;
+        }
+        logger.warn("Unable to probe " + what + ", keeping the previous finding: " + e.getMessage());
+        return previous;
+    }
+
+    static private boolean isMissing(@Nonnull CloudException e) {
+        return (e.getHttpCode() == HttpStatus.SC_NOT_FOUND);
+    }
+
+    /**
+     * Identifies the networking flavour of the current region, probing the Neutron endpoint and then the Nova
+     * networks extension. A region with neither is reported as {@link Quantum.QuantumType#NONE}, and that result
+     * is remembered for {@link #NEGATIVE_TTL}. A probe that fails without an answer from the cloud is not
+     * remembered; the previous finding is used instead, or the error is passed on if there is none.
+     * @return the networking flavour of the current region
+     * @throws CloudException an error occurred with the cloud provider while probing and nothing was found before
+     * @throws InternalException an error occurred within Dasein Cloud while probing
+     */
+    public @Nonnull Quantum.QuantumType getNetworkType() throws CloudException, InternalException {
+        Findings findings = getFindings();
+        Finding<Quantum.QuantumType> finding;
+
+        synchronized( findings ) {
+            finding = findings.networkType;
+        }
+        if( finding == null || !finding.isFresh() ) {
+            try {
+                Quantum.QuantumType type = probeNetworkType();
+
+                finding = new Finding<Quantum.QuantumType>(type, !type.equals(Quantum.QuantumType.NONE));
+                synchronized( findings ) {
+                    findings.networkType = finding;
+                }
+            }
+            catch( CloudException e ) {
+                finding = keep(finding, e, "the network type");
+            }
+        }
+        return finding.value;
+    }
+
+    private @Nonnull Quantum.QuantumType probeNetworkType() throws CloudException, InternalException {
+        if( provider.getCloudProvider().equals(OpenStackProvider.RACKSPACE) ) {
+            return Quantum.QuantumType.RACKSPACE;
+        }
+        NovaMethod method = new NovaMethod(provider);
+
+        if( provider.getAuthenticationContext().getNetworkUrl() != null ) {
+            try {
+                JSONObject ob = method.getNetworks(getNetworkVersion() + Quantum.QuantumType.QUANTUM.getNetworkResource(), null, NeutronQuery.getInstance().withFields("id").withLimit(1));
+
+                if( ob != null && ob.has("networks") ) {
+                    return Quantum.QuantumType.QUANTUM;
+                }
+            }
+            catch( CloudException e ) {
+                if( !isMissing(e) ) {
+                    throw e;
+                }
+            }
+        }
+        try {
+            JSONObject ob = method.getServers(Quantum.QuantumType.NOVA.getNetworkResource(), null, false);
+
+            if( ob != null && ob.has("networks") ) {
+                return Quantum.QuantumType.NOVA;
+            }
+        }
+        catch( CloudException e ) {
+            if( !isMissing(e) ) {
+                throw e;
+            }
+        }
+        return Quantum.QuantumType.NONE;
+    }
+
+    /**
+     * @return the ID of the current Neutron API version, such as <code>v2.0</code>, or null if the network
+     * endpoint does not advertise one
+     * @throws CloudException an error occurred with the cloud provider while probing and nothing was found before
+     * @throws InternalException an error occurred within Dasein Cloud while probing
+     */
+    public @Nullable String getNetworkVersion() throws CloudException, InternalException {
+        Findings findings = getFindings();
+        Finding<String> finding;
+
+        synchronized( findings ) {
+            finding = findings.networkVersion;
+        }
+        if( finding == null || !finding.isFresh() ) {
+            try {
+                String versionId = probeNetworkVersion();
+
+                finding = new Finding<String>(versionId, versionId != null);
+                synchronized( findings ) {
+                    findings.networkVersion = finding;
+                }
+            }
+            catch( CloudException e ) {
+                finding = keep(finding, e, "the Neutron API version");
+            }
+        }
+        return finding.value;
+    }
+
+    private @Nullable String probeNetworkVersion() throws CloudException, InternalException {
+        if( provider.getAuthenticationContext().getNetworkUrl() == null ) {
+            return null;
+        }
+        NovaMethod method = new NovaMethod(provider);
+        JSONObject ob;
+
+        try {
+            ob = method.getNetworks(null, null, false);
+        }
+        catch( CloudException e ) {
+            if( isMissing(e) ) {
+                return null;
+            }
+            throw e;
+        }
+        if( ob != null && ob.has("versions") ) {
+            try {
+                JSONArray versions = ob.getJSONArray("versions");
+
+                for( int i=0; i<versions.length(); i++ ) {
+                    JSONObject version = versions.getJSONObject(i);
+
+                    if( version.has("status") && !version.isNull("status") && version.getString("status").equalsIgnoreCase("current") ) {
+                        if( version.has("id") && !version.isNull("id") ) {
+                            return version.getString("id");
+                        }
+                    }
+                }
+            }
+            catch( JSONException e ) {
+                logger.warn("Unable to parse the Neutron version list: " + e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Determines whether the Neutron endpoint supports an extension. The answer comes from the endpoint's extension
+     * list; if the endpoint does not publish one, the resource the extension provides is probed instead.
+     * @param alias the alias of the extension, such as <code>lbaas</code>
+     * @param resource a resource provided by the extension, such as <code>v2.0/lb/pools</code>
+     * @return true if the extension is available in the current region
+     * @throws CloudException an error occurred with the cloud provider while probing and nothing was found before
+     * @throws InternalException an error occurred within Dasein Cloud while probing
+     */
+    public boolean hasNetworkExtension(@Nonnull String alias, @Nonnull String resource) throws CloudException, InternalException {
+        Findings findings = getFindings();
+        Finding<Set<String>> extensions;
+        Finding<Boolean> finding;
+
+        synchronized( findings ) {
+            extensions = findings.extensions;
+            finding = findings.networkResources.get(resource);
+        }
+        if( extensions == null || !extensions.isFresh() ) {
+            try {
+                Set<String> aliases = probeExtensions();
+
+                extensions = new Finding<Set<String>>(aliases, aliases != null);
+                synchronized( findings ) {
+                    findings.extensions = extensions;
+                }
+            }
+            catch( CloudException e ) {
+                extensions = keep(extensions, e, "the Neutron extensions");
+            }
+        }
+        if( extensions.value != null ) {
+            return extensions.value.contains(alias);
+        }
+        if( finding == null || !finding.isFresh() ) {
+            try {
+                boolean found = probeNetworkResource(resource);
+
+                finding = new Finding<Boolean>(found, found);
+                synchronized( findings ) {
+                    findings.networkResources.put(resource, finding);
+                }
+            }
+            catch( CloudException e ) {
+                finding = keep(finding, e, resource);
+            }
+        }
+        return finding.value;
+    }
+
+    private @Nullable Set<String> probeExtensions() throws CloudException, InternalException {
+        NovaMethod method = new NovaMethod(provider);
+        JSONObject ob;
+
+        try {
+            ob = method.getNetworks(getNetworkVersion() + "/extensions", null, false);
+        }
+        catch( CloudException e ) {
+            if( isMissing(e) ) {
+                return null;
+            }
+            throw e;
+        }
+        if( ob != null && ob.has("extensions") ) {
+            try {
+                JSONArray list = ob.getJSONArray("extensions");
+                Set<String> aliases = new HashSet<String>();
+
+                for( int i=0; i<list.length(); i++ ) {
+                    JSONObject extension = list.getJSONObject(i);
+
+                    if( extension.has("alias") && !extension.isNull("alias") ) {
+                        aliases.add(extension.getString("alias"));
+                    }
+                }
+                return Collections.unmodifiableSet(aliases);
+            }
+            catch( JSONException e ) {
+                logger.warn("Unable to parse the Neutron extension list: " + e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    private boolean probeNetworkResource(@Nonnull String resource) throws CloudException, InternalException {
+        NovaMethod method = new NovaMethod(provider);
+
+        try {
+            return (method.getNetworks(resource, null, NeutronQuery.getInstance().withFields("id").withLimit(1)) != null);
+        }
+        catch( CloudException e ) {
+            if( isMissing(e) ) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Determines whether the compute endpoint serves a resource, such as the <code>/os-floating-ips</code>
+     * extension. A resource reported missing by the cloud is remembered as missing; any other error is passed
+     * on to the caller and not remembered.
+     * @param resource the compute resource to check
+     * @return true if the resource is available in the current region
+     * @throws CloudException an error other than "not found" occurred with the cloud provider while probing
+     * @throws InternalException an error occurred within Dasein Cloud while probing
+     */
+    public boolean hasComputeResource(@Nonnull String resource) throws CloudException, InternalException {
+        Findings findings = getFindings();
+        Finding<Boolean> finding;
+
+        synchronized( findings ) {
+            finding = findings.computeResources.get(resource);
+        }
+        if( finding == null || !finding.isFresh() ) {
+            NovaMethod method = new NovaMethod(provider);
+            boolean found;
+
+            try {
+                found = (method.getServers(resource, null, false) != null);
+            }
+            catch( CloudException e ) {
+                if( !isMissing(e) ) {
+                    throw e;
+                }
+                found = false;
+            }
+            finding = new Finding<Boolean>(found, found);
+            synchronized( findings ) {
+                findings.computeResources.put(resource, finding);
+            }
+        }
+        return finding.value;
+    }
+}
@@ -0,0 +1,269 @@
+/**
+ * Copyright (C) 2009-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.openstack.nova.os.network;
+
+import org.dasein.cloud.network.Subnet;
+import org.dasein.cloud.network.VLAN;
+import org.dasein.util.CalendarWrapper;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory copy of the Neutron networks, subnets and ports in a region, indexed by ID, network, subnet and
+ * device. Each of the three collections is reloaded on its own once it is older than the refresh interval or
+ * has been invalidated by a change made through {@link Quantum}. A collection is fetched without holding the
+ * topology's lock and swapped in afterwards; a listing that was already under way when the collection was
+ * invalidated is swapped in but not trusted, so the collection is fetched again on its next use.
+ * @since 2015.06.2
+ * @version 2015.06.2 initial version
+ */
+public class NeutronTopology {
+    static public final long REFRESH_INTERVAL = CalendarWrapper.MINUTE * 2L;
+
+    public enum Kind { NETWORKS, SUBNETS, PORTS }
+
+    /**
+     * A Neutron port reduced to the fields used to relate it to networks, subnets and devices.
+     */
+    static public class Port {
+        private String       deviceId;
+        private String       deviceOwner;
+        private List<String> ipAddresses;
+        private String       networkId;
+        private String       portId;
+        private List<String> subnetIds;
+
+        public Port(@Nonnull String portId, @Nullable String networkId, @Nullable String deviceId, @Nullable String deviceOwner, @Nonnull List<String> subnetIds, @Nonnull List<String> ipAddresses) {
+            this.portId = portId;
+            this.networkId = networkId;
+            this.deviceId = deviceId;
+            this.deviceOwner = deviceOwner;
+            this.subnetIds = subnetIds;
+            this.ipAddresses = ipAddresses;
+        }
+
+        public @Nullable String getDeviceId() {
+            return deviceId;
+        }
+
+        public @Nullable String getDeviceOwner() {
+            return deviceOwner;
+        }
+
+        public @Nonnull List<String> getIpAddresses() {
+            return Collections.unmodifiableList(ipAddresses);
+        }
+
+        public @Nullable String getNetworkId() {
+            return networkId;
+        }
+
+        public @Nonnull String getPortId() {
+            return portId;
+        }
+
+        public @Nonnull List<String> getSubnetIds() {
+            return Collections.unmodifiableList(subnetIds);
+        }
+    }
+
+    private Map<Kind,Long>          invalidatedAt    = new EnumMap<Kind, Long>(Kind.class);
+    private Map<Kind,Long>          loadedAt         = new EnumMap<Kind, Long>(Kind.class);
+    private Map<String,VLAN>        networks         = new LinkedHashMap<String, VLAN>();
+    private Map<String,Subnet>      subnets          = new LinkedHashMap<String, Subnet>();
+    private Map<String,List<Subnet>> subnetsByNetwork = new LinkedHashMap<String, List<Subnet>>();
+    private Map<String,Port>        ports            = new LinkedHashMap<String, Port>();
+    private Map<String,List<Port>>  portsByNetwork   = new LinkedHashMap<String, List<Port>>();
+    private Map<String,List<Port>>  portsBySubnet    = new LinkedHashMap<String, List<Port>>();
+    private Map<String,List<Port>>  portsByDevice    = new LinkedHashMap<String, List<Port>>();
+
+    @Nonnull List<Kind> listStale() {
+        ArrayList<Kind> stale = new ArrayList<Kind>();
+        long now = System.currentTimeMillis();
+
+        for( Kind kind : Kind.values() ) {
+            Long when = loadedAt.get(kind);
+
+            if( when == null || now - when >= REFRESH_INTERVAL ) {
+                stale.add(kind);
+            }
+        }
+        return stale;
+    }
+
+    void invalidate(@Nonnull Kind kind) {
+        loadedAt.remove(kind);
+        invalidatedAt.put(kind, System.currentTimeMillis());
+    }
+
+    /**
+     * Marks a collection as loaded by a listing that started at the specified time, unless the collection was
+     * invalidated after the listing started.
+     */
+    private void markLoaded(@Nonnull Kind kind, long startedAt) {
+        Long when = invalidatedAt.get(kind);
+
+        if( when == null || when < startedAt ) {
+            loadedAt.put(kind, startedAt);
+        }
+        else {
+            loadedAt.remove(kind);
+        }
+    }
+
+    void setNetworks(@Nonnull Collection<VLAN> list, long startedAt) {
+        networks.clear();
+        for( VLAN vlan : list ) {
+            networks.put(vlan.getProviderVlanId(), vlan);
+        }
+        markLoaded(Kind.NETWORKS, startedAt);
+    }
+
+    void setSubnets(@Nonnull Collection<Subnet> list, long startedAt) {
+        subnets.clear();
+        subnetsByNetwork.clear();
+        for( Subnet subnet : list ) {
+            putSubnet(subnet);
+        }
+        markLoaded(Kind.SUBNETS, startedAt);
+    }
+
+    void setPorts(@Nonnull Collection<Port> list, long startedAt) {
+        ports.clear();
+        portsByNetwork.clear();
+        portsBySubnet.clear();
+        portsByDevice.clear();
+        for( Port port : list ) {
+            putPort(port);
+        }
+        markLoaded(Kind.PORTS, startedAt);
+    }
+
+    void putNetwork(@Nonnull VLAN vlan) {
+        networks.put(vlan.getProviderVlanId(), vlan);
+    }
+
+    void putSubnet(@Nonnull Subnet subnet) {
+        Subnet old = subnets.put(subnet.getProviderSubnetId(), subnet);
+
+        if( old != null ) {
+            unindex(subnetsByNetwork, old.getProviderVlanId(), old);
+        }
+        index(subnetsByNetwork, subnet.getProviderVlanId(), subnet);
+    }
+
+    void putPort(@Nonnull Port port) {
+        removePort(port.getPortId());
+        ports.put(port.getPortId(), port);
+        index(portsByNetwork, port.getNetworkId(), port);
+        index(portsByDevice, port.getDeviceId(), port);
+        for( String subnetId : port.getSubnetIds() ) {
+            index(portsBySubnet, subnetId, port);
+        }
+    }
+
+    void removePort(@Nonnull String portId) {
+        Port port = ports.remove(portId);
+
+        if( port != null ) {
+            unindex(portsByNetwork, port.getNetworkId(), port);
+            unindex(portsByDevice, port.getDeviceId(), port);
+            for( String subnetId : port.getSubnetIds() ) {
+                unindex(portsBySubnet, subnetId, port);
+            }
+        }
+    }
+
+    private <T> void index(@Nonnull Map<String,List<T>> index, @Nullable String key, @Nonnull T item) {
+        if( key != null ) {
+            List<T> list = index.get(key);
+
+            if( list == null ) {
+                list = new ArrayList<T>();
+                index.put(key, list);
+            }
+            list.add(item);
+        }
+    }
+
+    private <T> void unindex(@Nonnull Map<String,List<T>> index, @Nullable String key, @Nonnull T item) {
+        if( key != null ) {
+            List<T> list = index.get(key);
+
+            if( list != null ) {
+                list.remove(item);
+                if( list.isEmpty() ) {
+                    index.remove(key);
+                }
+            }
+        }
+    }
+
+    private @Nonnull <T> List<T> copy(@Nullable List<T> list) {
+        if( list == null ) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<T>(list);
+    }
+
+    public @Nullable VLAN getNetwork(@Nonnull String networkId) {
+        return networks.get(networkId);
+    }
+
+    public @Nonnull List<VLAN> listNetworks() {
+        return new ArrayList<VLAN>(networks.values());
+    }
+
+    public @Nullable Subnet getSubnet(@Nonnull String subnetId) {
+        return subnets.get(subnetId);
+    }
+
+    public @Nonnull List<Subnet> listSubnets(@Nonnull String networkId) {
+        return copy(subnetsByNetwork.get(networkId));
+    }
+
+    public @Nullable Port getPort(@Nonnull String portId) {
+        return ports.get(portId);
+    }
+
+    public @Nonnull List<Port> listPorts() {
+        return new ArrayList<Port>(ports.values());
+    }
+
+    public @Nonnull List<Port> listPortsByNetwork(@Nonnull String networkId) {
+        return copy(portsByNetwork.get(networkId));
+    }
+
+    public @Nonnull List<Port> listPortsBySubnet(@Nonnull String subnetId) {
+        return copy(portsBySubnet.get(subnetId));
+    }
+
+    public @Nonnull List<Port> listPortsByDevice(@Nonnull String deviceId) {
+        return copy(portsByDevice.get(deviceId));
+    }
+}
@@ -41,7 +41,11 @@ import org.dasein.cloud.openstack.nova.os.NovaException;
 import org.dasein.cloud.openstack.nova.os.NovaMethod;
 import org.dasein.cloud.openstack.nova.os.NovaOpenStack;
 import org.dasein.cloud.util.APITrace;
+import org.dasein.cloud.util.Cache;
+import org.dasein.cloud.util.CacheLevel;
 import org.dasein.util.CalendarWrapper;
+import org.dasein.util.uom.time.Day;
+import org.dasein.util.uom.time.TimePeriod;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -52,12 +56,11 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
 /**
@@ -74,8 +77,6 @@ public class NovaFloatingIP extends AbstractIpAddressSupport<NovaOpenStack> {
     static public final String QUANTIUM_TARGET = "/floating-ips";
     static public final String NOVA_TARGET     = "/os-floating-ips";
 
-    static private final ExecutorService threadPool = Executors.newFixedThreadPool(10);
-    
     NovaFloatingIP(NovaOpenStack cloud) {
         super(cloud);
     }
@@ -102,6 +103,12 @@ public class NovaFloatingIP extends AbstractIpAddressSupport<NovaOpenStack> {
             NovaMethod method = new NovaMethod(getProvider());
 
             method.postServers("/servers", serverId, new JSONObject(json), true);
+
+            FloatingIPSnapshot snapshot = getCachedSnapshot();
+
+            synchronized( snapshot ) {
+                snapshot.assign(addressId, serverId);
+            }
         }
         finally {
             APITrace.end();
@@ -132,6 +139,15 @@ public class NovaFloatingIP extends AbstractIpAddressSupport<NovaOpenStack> {
     public @Nullable IpAddress getIpAddress(@Nonnull String addressId) throws InternalException, CloudException {
         APITrace.begin(getProvider(), "IpAddress.getIpAddress");
         try {
+            FloatingIPSnapshot snapshot = getCachedSnapshot();
+
+            synchronized( snapshot ) {
+                IpAddress addr = (snapshot.isStale() ? null : snapshot.getAddress(addressId));
+
+                if( addr != null ) {
+                    return addr;
+                }
+            }
             NovaMethod method = new NovaMethod(getProvider());
             JSONObject ob = method.getServers(getEndpoint(), addressId, false);
 
@@ -144,6 +160,9 @@ public class NovaFloatingIP extends AbstractIpAddressSupport<NovaOpenStack> {
                     IpAddress addr = toIP(json);
 
                     if( addr != null ) {
+                        synchronized( snapshot ) {
+                            snapshot.put(addr);
+                        }
                         return addr;
                     }
                 }
@@ -207,18 +226,7 @@ public class NovaFloatingIP extends AbstractIpAddressSupport<NovaOpenStack> {
     private boolean verifySupport() throws InternalException, CloudException {
         APITrace.begin(getProvider(), "IpAddress.verifySupport");
         try {
-            NovaMethod method = new NovaMethod(getProvider());
-
-            try {
-                method.getServers(getEndpoint(), null, false);
-                return true;
-            }
-            catch( CloudException e ) {
-                if( e.getHttpCode() == 404 ) {
-                    return false;
-                }
-                throw e;
-            }
+            return new NetworkDiscovery(getProvider()).hasComputeResource(getEndpoint());
         }
         finally {
             APITrace.end();
@@ -257,12 +265,7 @@ public class NovaFloatingIP extends AbstractIpAddressSupport<NovaOpenStack> {
     public @Nonnull Iterable<IpAddress> listIpPool(@Nonnull IPVersion version, boolean unassignedOnly) throws InternalException, CloudException {
         APITrace.begin(getProvider(), "IpAddress.listIpPool");
         try {
-            Future<Iterable<IpAddress>> ipPoolFuture = listIpPoolConcurrently(version, unassignedOnly);
-            return ipPoolFuture.get();
-        } catch (CloudException ce) {
-            throw ce;
-        } catch (Exception e) {
-            throw new InternalException(e);
+            return new ListIpPoolCallable(version, unassignedOnly).call();
         }
         finally {
             APITrace.end();
@@ -320,15 +323,10 @@ public class NovaFloatingIP extends AbstractIpAddressSupport<NovaOpenStack> {
     @Nonnull
     @Override
     public Future<Iterable<IpAddress>> listIpPoolConcurrently(@Nonnull IPVersion ipVersion, boolean unassignedOnly) throws InternalException, CloudException {
-        return threadPool.submit(
-            new ListIpPoolCallable(
-                ipVersion,
-                unassignedOnly
-            )
-        );
+        return getProvider().getExecutor().submit(new ListIpPoolCallable(ipVersion, unassignedOnly));
     }
 
-    public class ListIpPoolCallable implements Callable {
+    public class ListIpPoolCallable implements Callable<Iterable<IpAddress>> {
         IPVersion version;
         boolean unassignedOnly;
 
@@ -341,40 +339,72 @@ public class NovaFloatingIP extends AbstractIpAddressSupport<NovaOpenStack> {
             if( !getVersions().contains(version) ) {
                 return Collections.emptyList();
             }
-            NovaMethod method = new NovaMethod(getProvider());
-            JSONObject ob = method.getServers(getEndpoint(), null, false);
-            ArrayList<IpAddress> addresses = new ArrayList<IpAddress>();
+            FloatingIPSnapshot snapshot = getSnapshot();
 
-            try {
-                if( ob != null && ob.has("floating_ips") ) {
-                    JSONArray list = ob.getJSONArray("floating_ips");
+            synchronized( snapshot ) {
+                return snapshot.listAddresses(unassignedOnly);
+            }
+        }
+    }
 
-                    for( int i=0; i<list.length(); i++ ) {
-                        JSONObject json = list.getJSONObject(i);
+    private @Nonnull FloatingIPSnapshot getCachedSnapshot() throws CloudException, InternalException {
+        Cache<FloatingIPSnapshot> cache = Cache.getInstance(getProvider(), "floatingIPSnapshot", FloatingIPSnapshot.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Day>(1, TimePeriod.DAY));
+        Iterable<FloatingIPSnapshot> it = cache.get(getContext());
 
-                        try {
-                            IpAddress addr = toIP(json);
+        if( it != null ) {
+            Iterator<FloatingIPSnapshot> b = it.iterator();
 
-                            if( addr != null ) {
-                                if( !unassignedOnly || addr.getServerId() == null ) {
-                                    addresses.add(addr);
-                                }
-                            }
-                        }
-                        catch( JSONException e ) {
-                            logger.error("Invalid JSON from cloud: " + e.getMessage());
-                            throw new CloudException("Invalid JSON from cloud: " + e.getMessage());
-                        }
+            if( b.hasNext() ) {
+                return b.next();
+            }
+        }
+        FloatingIPSnapshot snapshot = new FloatingIPSnapshot();
+
+        cache.put(getContext(), Collections.singletonList(snapshot));
+        return snapshot;
+    }
+
+    /**
+     * Provides the floating IP pool for the current region, first reloading it if it is older than
+     * {@link FloatingIPSnapshot#REFRESH_INTERVAL}. Callers reading the snapshot should synchronize on it.
+     * @return the current floating IP pool
+     * @throws CloudException an error occurred with the cloud provider while loading the pool
+     * @throws InternalException an error occurred within Dasein Cloud while loading the pool
+     */
+    public @Nonnull FloatingIPSnapshot getSnapshot() throws CloudException, InternalException {
+        FloatingIPSnapshot snapshot = getCachedSnapshot();
+
+        synchronized( snapshot ) {
+            if( snapshot.isStale() ) {
+                snapshot.load(loadAddresses());
+            }
+        }
+        return snapshot;
+    }
+
+    private @Nonnull List<IpAddress> loadAddresses() throws CloudException, InternalException {
+        NovaMethod method = new NovaMethod(getProvider());
+        JSONObject ob = method.getServers(getEndpoint(), null, false);
+        ArrayList<IpAddress> addresses = new ArrayList<IpAddress>();
+
+        try {
+            if( ob != null && ob.has("floating_ips") ) {
+                JSONArray list = ob.getJSONArray("floating_ips");
+
+                for( int i=0; i<list.length(); i++ ) {
+                    IpAddress addr = toIP(list.getJSONObject(i));
+
+                    if( addr != null ) {
+                        addresses.add(addr);
                     }
                 }
             }
-            catch( JSONException e ) {
-                logger.error("list(): Unable to identify expected values in JSON: " + e.getMessage());
-                e.printStackTrace();
-                throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", "Missing JSON element for floating IP in " + ob.toString());
-            }
-            return addresses;
         }
+        catch( JSONException e ) {
+            logger.error("list(): Unable to identify expected values in JSON: " + e.getMessage());
+            throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", "Missing JSON element for floating IP in " + ob.toString());
+        }
+        return addresses;
     }
 
     @Override
@@ -456,6 +486,12 @@ public class NovaFloatingIP extends AbstractIpAddressSupport<NovaOpenStack> {
             do {
                 try {
                     method.deleteServers(getEndpoint(), addressId);
+
+                    FloatingIPSnapshot snapshot = getCachedSnapshot();
+
+                    synchronized( snapshot ) {
+                        snapshot.remove(addressId);
+                    }
                     return;
                 }
                 catch( NovaException e ) {
@@ -495,6 +531,12 @@ public class NovaFloatingIP extends AbstractIpAddressSupport<NovaOpenStack> {
             NovaMethod method = new NovaMethod(getProvider());
 
             method.postServers("/servers", serverId, new JSONObject(json), true);
+
+            FloatingIPSnapshot snapshot = getCachedSnapshot();
+
+            synchronized( snapshot ) {
+                snapshot.assign(addressId, null);
+            }
         }
         finally {
             APITrace.end();
@@ -585,6 +627,11 @@ public class NovaFloatingIP extends AbstractIpAddressSupport<NovaOpenStack> {
                     IpAddress addr = toIP(ob);
 
                     if( addr != null ) {
+                        FloatingIPSnapshot snapshot = getCachedSnapshot();
+
+                        synchronized( snapshot ) {
+                            snapshot.put(addr);
+                        }
                         return addr.getProviderIpAddressId();
                     }
                 }
@@ -37,11 +37,17 @@ import org.dasein.cloud.network.Permission;
 import org.dasein.cloud.network.Protocol;
 import org.dasein.cloud.network.RuleTarget;
 import org.dasein.cloud.network.RuleTargetType;
+import org.dasein.cloud.openstack.nova.os.BatchExecutor;
+import org.dasein.cloud.openstack.nova.os.ConflictBackoff;
 import org.dasein.cloud.openstack.nova.os.NovaException;
 import org.dasein.cloud.openstack.nova.os.NovaMethod;
 import org.dasein.cloud.openstack.nova.os.NovaOpenStack;
 import org.dasein.cloud.util.APITrace;
+import org.dasein.cloud.util.Cache;
+import org.dasein.cloud.util.CacheLevel;
 import org.dasein.util.CalendarWrapper;
+import org.dasein.util.uom.time.Day;
+import org.dasein.util.uom.time.TimePeriod;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -53,7 +59,13 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Support for OpenStack security groups.
@@ -123,7 +135,11 @@ public class NovaSecurityGroup extends AbstractFirewallSupport {
             if( result != null && result.has("security_group_rule") ) {
                 try {
                     JSONObject rule = result.getJSONObject("security_group_rule");
+                    FirewallSnapshot snapshot = getCachedSnapshot();
 
+                    synchronized( snapshot ) {
+                        snapshot.invalidateRules(firewallId);
+                    }
                     return rule.getString("id");
                 }
                 catch( JSONException e ) {
@@ -164,6 +180,11 @@ public class NovaSecurityGroup extends AbstractFirewallSupport {
                         String id = fw.getProviderFirewallId();
                         
                         if( id != null ) {
+                            FirewallSnapshot snapshot = getCachedSnapshot();
+
+                            synchronized( snapshot ) {
+                                snapshot.put(fw, new ArrayList<FirewallRule>());
+                            }
                             return id;
                         }
                     }
@@ -193,6 +214,12 @@ public class NovaSecurityGroup extends AbstractFirewallSupport {
             do {
                 try {
                     method.deleteServers("/os-security-groups", firewallId);
+
+                    FirewallSnapshot snapshot = getCachedSnapshot();
+
+                    synchronized( snapshot ) {
+                        snapshot.remove(firewallId);
+                    }
                     return;
                 }
                 catch( NovaException e ) {
@@ -223,6 +250,15 @@ public class NovaSecurityGroup extends AbstractFirewallSupport {
     public @Nullable Firewall getFirewall(@Nonnull String firewallId) throws InternalException, CloudException {
         APITrace.begin(getProvider(), "Firewall.getFirewall");
         try {
+            FirewallSnapshot snapshot = getCachedSnapshot();
+
+            synchronized( snapshot ) {
+                Firewall fw = (snapshot.isStale() ? null : snapshot.getFirewall(firewallId));
+
+                if( fw != null ) {
+                    return fw;
+                }
+            }
             NovaMethod method = new NovaMethod((NovaOpenStack)getProvider());
             JSONObject ob = method.getServers("/os-security-groups", firewallId, false);
 
@@ -235,6 +271,11 @@ public class NovaSecurityGroup extends AbstractFirewallSupport {
                     Firewall fw = toFirewall(json);
 
                     if( fw != null ) {
+                        List<FirewallRule> rules = toRules(fw.getProviderFirewallId(), json, null);
+
+                        synchronized( snapshot ) {
+                            snapshot.put(fw, rules);
+                        }
                         return fw;
                     }
                 }
@@ -259,123 +300,406 @@ public class NovaSecurityGroup extends AbstractFirewallSupport {
     public @Nonnull Collection<FirewallRule> getRules(@Nonnull String firewallId) throws InternalException, CloudException {
         APITrace.begin(getProvider(), "Firewall.getRules");
         try {
+            FirewallSnapshot snapshot = getCachedSnapshot();
 
-            NovaMethod method = new NovaMethod((NovaOpenStack)getProvider());
-            JSONObject ob = method.getServers("/os-security-groups", firewallId, false);
+            synchronized( snapshot ) {
+                List<FirewallRule> rules = (snapshot.isStale() ? null : snapshot.listRules(firewallId));
 
-            if( ob == null ) {
+                if( rules != null ) {
+                    return rules;
+                }
+            }
+            List<FirewallRule> rules = loadRules(Collections.singletonList(firewallId)).get(firewallId);
+
+            if( rules == null ) {
                 return Collections.emptyList();
             }
-            try {
-                if( ob.has("security_group") ) {
-                    JSONObject json = ob.getJSONObject("security_group");
+            return rules;
+        }
+        finally {
+            APITrace.end();
+        }
+    }
+
+    private @Nonnull FirewallSnapshot getCachedSnapshot() throws CloudException, InternalException {
+        Cache<FirewallSnapshot> cache = Cache.getInstance(getProvider(), "firewallSnapshot", FirewallSnapshot.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Day>(1, TimePeriod.DAY));
+        Iterable<FirewallSnapshot> it = cache.get(getContext());
+
+        if( it != null ) {
+            Iterator<FirewallSnapshot> b = it.iterator();
+
+            if( b.hasNext() ) {
+                return b.next();
+            }
+        }
+        FirewallSnapshot snapshot = new FirewallSnapshot();
+
+        cache.put(getContext(), Collections.singletonList(snapshot));
+        return snapshot;
+    }
+
+    /**
+     * Provides the security groups and rules of the current region, first reloading them if they are older than
+     * {@link FirewallSnapshot#REFRESH_INTERVAL}. Callers reading the snapshot should synchronize on it.
+     * @return the current security groups and their rules
+     * @throws CloudException an error occurred with the cloud provider while loading the security groups
+     * @throws InternalException an error occurred within Dasein Cloud while loading the security groups
+     */
+    public @Nonnull FirewallSnapshot getSnapshot() throws CloudException, InternalException {
+        FirewallSnapshot snapshot = getCachedSnapshot();
+        boolean stale;
+
+        synchronized( snapshot ) {
+            stale = snapshot.isStale();
+        }
+        if( stale ) {
+            reload(snapshot);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Replaces the snapshot with the security groups and inlined rules from a single listing of every group in
+     * the tenant. The listing runs without the lock on the snapshot, which is held only to swap the result in.
+     */
+    private void reload(@Nonnull FirewallSnapshot snapshot) throws CloudException, InternalException {
+        long startedAt = System.currentTimeMillis();
+        NovaMethod method = new NovaMethod((NovaOpenStack)getProvider());
+        JSONObject ob = method.getServers("/os-security-groups", null, false);
+        List<Firewall> firewalls = new ArrayList<Firewall>();
+        Map<String,List<FirewallRule>> rules = new HashMap<String, List<FirewallRule>>();
 
-                    if( !json.has("rules") ) {
-                        return Collections.emptyList();
+        try {
+            if( ob != null && ob.has("security_groups") ) {
+                JSONArray list = ob.getJSONArray("security_groups");
+                List<JSONObject> groups = new ArrayList<JSONObject>();
+                Map<String,String> groupIds = new HashMap<String, String>();
+
+                for( int i=0; i<list.length(); i++ ) {
+                    JSONObject json = list.getJSONObject(i);
+                    Firewall fw = toFirewall(json);
+
+                    if( fw != null ) {
+                        firewalls.add(fw);
+                        groups.add(json);
+                        groupIds.put(fw.getName(), fw.getProviderFirewallId());
                     }
-                    ArrayList<FirewallRule> rules = new ArrayList<FirewallRule>();
-                    JSONArray arr = json.getJSONArray("rules");
-                    Iterable<Firewall> myFirewalls = null;
-
-                    for( int i=0; i<arr.length(); i++ ) {
-                        JSONObject rule = arr.getJSONObject(i);
-                        int startPort = -1, endPort = -1;
-                        Protocol protocol = null;
-                        String ruleId = null;
-
-                        if( rule.has("id") && !rule.isNull("id")) {
-                            ruleId = rule.getString("id");
-                        }
-                        if( ruleId == null ) {
-                            continue;
-                        }
-                        RuleTarget sourceEndpoint = null;
+                }
+                for( int i=0; i<groups.size(); i++ ) {
+                    String id = firewalls.get(i).getProviderFirewallId();
 
-                        if( rule.has("ip_range") && !rule.isNull("ip_range")) {
-                            JSONObject range = rule.getJSONObject("ip_range");
+                    rules.put(id, toRules(id, groups.get(i), groupIds));
+                }
+            }
+        }
+        catch( JSONException e ) {
+            logger.error("reload(): Unable to identify expected values in JSON: " + e.getMessage());
+            throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", "Missing JSON element for security groups");
+        }
+        synchronized( snapshot ) {
+            snapshot.load(firewalls, rules, startedAt);
+        }
+    }
 
-                            if( range.has("cidr") && !range.isNull("cidr")) {
-                                sourceEndpoint = RuleTarget.getCIDR(range.getString("cidr"));
-                            }
-                        }
-                        if( rule.has("group") && !rule.isNull("group")) {
-                            JSONObject g = rule.getJSONObject("group");
-                            String id = (g.has("id") && !g.isNull("id") ? g.getString("id") : null);
+    /**
+     * Loads the current rules of the specified security groups, bypassing any cached copy. A single group is
+     * fetched on its own; for several groups the whole snapshot is reloaded from one listing of every group in the
+     * tenant, which carries the rules of each group inline.
+     * @param firewallIds the security groups whose rules are to be loaded
+     * @return the rules of each group that exists, keyed by group ID
+     */
+    private @Nonnull Map<String,List<FirewallRule>> loadRules(@Nonnull Collection<String> firewallIds) throws CloudException, InternalException {
+        Map<String,List<FirewallRule>> rules = new LinkedHashMap<String, List<FirewallRule>>();
+        FirewallSnapshot snapshot = getCachedSnapshot();
+
+        if( firewallIds.isEmpty() ) {
+            return rules;
+        }
+        if( firewallIds.size() > 1 ) {
+            reload(snapshot);
+            synchronized( snapshot ) {
+                for( String id : firewallIds ) {
+                    List<FirewallRule> list = snapshot.listRules(id);
+
+                    if( list != null ) {
+                        rules.put(id, list);
+                    }
+                }
+            }
+            return rules;
+        }
+        NovaMethod method = new NovaMethod((NovaOpenStack)getProvider());
+        String firewallId = firewallIds.iterator().next();
+        JSONObject ob = method.getServers("/os-security-groups", firewallId, false);
 
-                            if( id != null ) {
-                                sourceEndpoint = RuleTarget.getGlobal(id);
-                            }
-                            else {
-                                String o = (g.has("tenant_id") && !g.isNull("tenant_id") ? g.getString("tenant_id") : null);
-
-                                if( getTenantId().equals(o) ) {
-                                    String n = (g.has("name") && !g.isNull("name") ? g.getString("name") : null);
-
-                                    if( n != null ) {
-                                        if( myFirewalls == null ) {
-                                            myFirewalls = list();
-                                        }
-                                        for( Firewall fw : myFirewalls ) {
-                                            if( fw.getName().equals(n) ) {
-                                                sourceEndpoint = RuleTarget.getGlobal(fw.getProviderFirewallId());
-                                                break;
-                                            }
-                                        }
-
-                                    }
-                                }
-                            }
-                        }
-                        if( sourceEndpoint == null ) {
-                            continue;
-                        }
+        try {
+            if( ob != null && ob.has("security_group") ) {
+                JSONObject json = ob.getJSONObject("security_group");
+                Firewall fw = toFirewall(json);
+                List<FirewallRule> list = toRules(firewallId, json, null);
+
+                if( fw != null ) {
+                    synchronized( snapshot ) {
+                        snapshot.put(fw, list);
+                    }
+                }
+                rules.put(firewallId, list);
+            }
+            return rules;
+        }
+        catch( JSONException e ) {
+            logger.error("loadRules(): Unable to identify expected values in JSON: " + e.getMessage());
+            throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", "Missing JSON element for security groups");
+        }
+    }
 
-                        if( rule.has("from_port") && !rule.isNull("from_port")) {
-                            startPort = rule.getInt("from_port");
-                        }
-                        if( rule.has("to_port") && !rule.isNull("to_port")) {
-                            endPort = rule.getInt("to_port");
-                        }
-                        if( startPort == -1 && endPort != -1 ) {
-                            startPort = endPort;
-                        }
-                        else if( endPort == -1 && startPort != -1 ) {
-                            endPort = startPort;
-                        }
-                        if( startPort > endPort ) {
-                            int s = startPort;
+    /**
+     * @param firewallId the security group to which the rules belong
+     * @param json the security group as returned by the cloud
+     * @param groupIds the IDs of the tenant's security groups keyed by name, or null to look them up if needed
+     * @return the rules of the security group
+     */
+    private @Nonnull List<FirewallRule> toRules(@Nonnull String firewallId, @Nonnull JSONObject json, @Nullable Map<String,String> groupIds) throws CloudException, InternalException, JSONException {
+        if( !json.has("rules") ) {
+            return new ArrayList<FirewallRule>();
+        }
+        ArrayList<FirewallRule> rules = new ArrayList<FirewallRule>();
+        JSONArray arr = json.getJSONArray("rules");
 
-                            startPort = endPort;
-                            endPort = s;
-                        }
-                        if( rule.has("ip_protocol") ) {
-                            String p = null;
+        for( int i=0; i<arr.length(); i++ ) {
+            JSONObject rule = arr.getJSONObject(i);
+            int startPort = -1, endPort = -1;
+            Protocol protocol = null;
+            String ruleId = null;
 
-                            if( !rule.isNull("ip_protocol") ) {
-                                p = rule.getString("ip_protocol");
-                            }
+            if( rule.has("id") && !rule.isNull("id")) {
+                ruleId = rule.getString("id");
+            }
+            if( ruleId == null ) {
+                continue;
+            }
+            RuleTarget sourceEndpoint = null;
+
+            if( rule.has("ip_range") && !rule.isNull("ip_range")) {
+                JSONObject range = rule.getJSONObject("ip_range");
 
-                            if( p == null || p.equalsIgnoreCase("null") ) {
-                                protocol = Protocol.ANY;
+                if( range.has("cidr") && !range.isNull("cidr")) {
+                    sourceEndpoint = RuleTarget.getCIDR(range.getString("cidr"));
+                }
+            }
+            if( rule.has("group") && !rule.isNull("group")) {
+                JSONObject g = rule.getJSONObject("group");
+                String id = (g.has("id") && !g.isNull("id") ? g.getString("id") : null);
+
+                if( id != null ) {
+                    sourceEndpoint = RuleTarget.getGlobal(id);
+                }
+                else {
+                    String o = (g.has("tenant_id") && !g.isNull("tenant_id") ? g.getString("tenant_id") : null);
+
+                    if( getTenantId().equals(o) ) {
+                        String n = (g.has("name") && !g.isNull("name") ? g.getString("name") : null);
+
+                        if( n != null ) {
+                            if( groupIds == null ) {
+                                groupIds = new HashMap<String, String>();
+                                for( Firewall fw : list() ) {
+                                    groupIds.put(fw.getName(), fw.getProviderFirewallId());
+                                }
                             }
-                            else {
-                                protocol = Protocol.valueOf(p.toUpperCase());
+                            if( groupIds.containsKey(n) ) {
+                                sourceEndpoint = RuleTarget.getGlobal(groupIds.get(n));
                             }
                         }
-                        if( protocol == null ) {
-                            protocol = Protocol.TCP;
-                        }
+                    }
+                }
+            }
+            if( sourceEndpoint == null ) {
+                continue;
+            }
+
+            if( rule.has("from_port") && !rule.isNull("from_port")) {
+                startPort = rule.getInt("from_port");
+            }
+            if( rule.has("to_port") && !rule.isNull("to_port")) {
+                endPort = rule.getInt("to_port");
+            }
+            if( startPort == -1 && endPort != -1 ) {
+                startPort = endPort;
+            }
+            else if( endPort == -1 && startPort != -1 ) {
+                endPort = startPort;
+            }
+            if( startPort > endPort ) {
+                int s = startPort;
+
+                startPort = endPort;
+                endPort = s;
+            }
+            if( rule.has("ip_protocol") ) {
+                String p = null;
 
-                        rules.add(FirewallRule.getInstance(ruleId, firewallId, sourceEndpoint, Direction.INGRESS, protocol, Permission.ALLOW, RuleTarget.getGlobal(firewallId), startPort, endPort));
+                if( !rule.isNull("ip_protocol") ) {
+                    p = rule.getString("ip_protocol");
+                }
+
+                if( p == null || p.equalsIgnoreCase("null") ) {
+                    protocol = Protocol.ANY;
+                }
+                else {
+                    protocol = Protocol.valueOf(p.toUpperCase());
+                }
+            }
+            if( protocol == null ) {
+                protocol = Protocol.TCP;
+            }
+
+            rules.add(FirewallRule.getInstance(ruleId, firewallId, sourceEndpoint, Direction.INGRESS, protocol, Permission.ALLOW, RuleTarget.getGlobal(firewallId), startPort, endPort));
+        }
+        return rules;
+    }
+
+    /**
+     * Identifies a rule by everything except its ID, so a desired rule can be matched to an existing one. Security
+     * group rules always apply to the group itself, so the destination is not part of the key.
+     */
+    static private @Nonnull String toRuleKey(@Nonnull Direction direction, @Nonnull Permission permission, @Nonnull RuleTarget source, @Nonnull Protocol protocol, int startPort, int endPort) {
+        String src;
+
+        switch( source.getRuleTargetType() ) {
+            case CIDR:
+                String cidr = source.getCidr();
+
+                //noinspection ConstantConditions
+                src = "cidr:" + (cidr.indexOf('/') == -1 ? cidr + "/32" : cidr);
+                break;
+            case GLOBAL: src = "group:" + source.getProviderFirewallId(); break;
+            case VLAN: src = "vlan:" + source.getProviderVlanId(); break;
+            case VM: src = "vm:" + source.getProviderVirtualMachineId(); break;
+            default: src = String.valueOf(source.getRuleTargetType()); break;
+        }
+        return direction.name() + " " + permission.name() + " " + src + " " + protocol.name() + " " + startPort + "-" + endPort;
+    }
+
+    static private @Nonnull String toRuleKey(@Nonnull FirewallRule rule) {
+        return toRuleKey(rule.getDirection(), rule.getPermission(), rule.getSourceEndpoint(), rule.getProtocol(), rule.getStartPort(), rule.getEndPort());
+    }
+
+    /**
+     * Groups rules by what they allow. A group can hold several rules that allow the same thing, so every rule is
+     * kept under its key.
+     */
+    static private @Nonnull Map<String,List<FirewallRule>> indexRules(@Nonnull Collection<FirewallRule> rules) {
+        Map<String,List<FirewallRule>> index = new LinkedHashMap<String, List<FirewallRule>>();
+
+        for( FirewallRule rule : rules ) {
+            String key = toRuleKey(rule);
+            List<FirewallRule> list = index.get(key);
+
+            if( list == null ) {
+                list = new ArrayList<FirewallRule>();
+                index.put(key, list);
+            }
+            list.add(rule);
+        }
+        return index;
+    }
+
+    /**
+     * Makes the rules of a security group match the specified rules, authorizing the missing ones and revoking the
+     * ones not asked for. See {@link #setRules(java.util.Map)}.
+     * @param firewallId the security group to converge
+     * @param rules the rules the group should have
+     * @return the rules the group has once the changes are made
+     * @throws CloudException an error occurred with the cloud provider while changing the rules
+     * @throws InternalException an error occurred within Dasein Cloud while changing the rules
+     */
+    public @Nonnull Collection<FirewallRule> setRules(@Nonnull String firewallId, @Nonnull Collection<FirewallRule> rules) throws CloudException, InternalException {
+        return setRules(Collections.singletonMap(firewallId, rules)).get(firewallId);
+    }
+
+    /**
+     * Makes the rules of each security group match the rules specified for it. The current rules of all the groups
+     * are loaded in one call and indexed, each group's rules are compared with the desired rules, and every
+     * authorization and revocation that results is applied concurrently. Rules that already exist are left alone,
+     * except that only one of several rules allowing the same thing is kept and the duplicates are revoked.
+     * @param rulesByFirewall the rules each group should have, keyed by security group ID
+     * @return the rules each group has once the changes are made, keyed by security group ID
+     * @throws CloudException a group does not exist or one or more changes failed
+     * @throws InternalException an error occurred within Dasein Cloud while changing the rules
+     */
+    public @Nonnull Map<String,Collection<FirewallRule>> setRules(@Nonnull Map<String,? extends Collection<FirewallRule>> rulesByFirewall) throws CloudException, InternalException {
+        APITrace.begin(getProvider(), "Firewall.setRules");
+        try {
+            Map<String,List<FirewallRule>> current = loadRules(rulesByFirewall.keySet());
+            Map<String,Collection<FirewallRule>> result = new LinkedHashMap<String, Collection<FirewallRule>>();
+            final Map<String,FirewallRule> changes = new LinkedHashMap<String, FirewallRule>();
+
+            for( Map.Entry<String,? extends Collection<FirewallRule>> entry : rulesByFirewall.entrySet() ) {
+                String firewallId = entry.getKey();
+                List<FirewallRule> existing = current.get(firewallId);
+
+                if( existing == null ) {
+                    throw new CloudException("No such security group: " + firewallId);
+                }
+                Map<String,List<FirewallRule>> index = indexRules(existing);
+                Set<String> wanted = new HashSet<String>();
+                List<FirewallRule> kept = new ArrayList<FirewallRule>();
+
+                for( FirewallRule rule : entry.getValue() ) {
+                    String key = toRuleKey(rule);
+
+                    if( !wanted.add(key) ) {
+                        continue;
+                    }
+                    List<FirewallRule> matches = index.remove(key);
+
+                    if( matches != null ) {
+                        kept.add(matches.get(0));
+                        for( FirewallRule duplicate : matches.subList(1, matches.size()) ) {
+                            changes.put("-" + duplicate.getProviderRuleId(), duplicate);
+                        }
+                    }
+                    else {
+                        changes.put("+" + firewallId + " " + key, FirewallRule.getInstance(null, firewallId, rule.getSourceEndpoint(), rule.getDirection(), rule.getProtocol(), rule.getPermission(), RuleTarget.getGlobal(firewallId), rule.getStartPort(), rule.getEndPort()));
+                    }
+                }
+                for( List<FirewallRule> unwanted : index.values() ) {
+                    for( FirewallRule stale : unwanted ) {
+                        changes.put("-" + stale.getProviderRuleId(), stale);
                     }
-                    return rules;
                 }
+                result.put(firewallId, kept);
             }
-            catch( JSONException e ) {
-                logger.error("getRules(): Unable to identify expected values in JSON: " + e.getMessage());
-                throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", "Missing JSON element for security groups");
+            BatchExecutor.Result<String> outcome = new BatchExecutor((NovaOpenStack)getProvider(), "firewall-rules").execute(changes.keySet(), new BatchExecutor.Operation<String>() {
+                @Override
+                public String execute(@Nonnull String change) throws CloudException, InternalException {
+                    FirewallRule rule = changes.get(change);
+
+                    if( change.startsWith("-") ) {
+                        revoke(rule.getProviderRuleId());
+                        return null;
+                    }
+                    return authorize(rule.getFirewallId(), rule.getDirection(), rule.getPermission(), rule.getSourceEndpoint(), rule.getProtocol(), rule.getDestinationEndpoint(), rule.getStartPort(), rule.getEndPort(), 0);
+                }
+            });
+
+            outcome.rethrow();
+            for( Map.Entry<String,String> created : outcome.getResults().entrySet() ) {
+                FirewallRule rule = changes.get(created.getKey());
+
+                if( created.getValue() != null ) {
+                    result.get(rule.getFirewallId()).add(FirewallRule.getInstance(created.getValue(), rule.getFirewallId(), rule.getSourceEndpoint(), rule.getDirection(), rule.getProtocol(), rule.getPermission(), rule.getDestinationEndpoint(), rule.getStartPort(), rule.getEndPort()));
+                }
             }
-            return Collections.emptyList();
+            FirewallSnapshot snapshot = getCachedSnapshot();
+
+            synchronized( snapshot ) {
+                for( Map.Entry<String,Collection<FirewallRule>> entry : result.entrySet() ) {
+                    snapshot.putRules(entry.getKey(), new ArrayList<FirewallRule>(entry.getValue()));
+                }
+            }
+            return result;
         }
         finally {
             APITrace.end();
@@ -425,29 +749,11 @@ public class NovaSecurityGroup extends AbstractFirewallSupport {
     public @Nonnull Collection<Firewall> list() throws InternalException, CloudException {
         APITrace.begin(getProvider(), "Firewall.list");
         try {
-            NovaMethod method = new NovaMethod((NovaOpenStack)getProvider());
-            JSONObject ob = method.getServers("/os-security-groups", null, false);
-            ArrayList<Firewall> firewalls = new ArrayList<Firewall>();
-
-            try {
-                if( ob != null && ob.has("security_groups") ) {
-                    JSONArray list = ob.getJSONArray("security_groups");
+            FirewallSnapshot snapshot = getSnapshot();
 
-                    for( int i=0; i<list.length(); i++ ) {
-                        JSONObject json = list.getJSONObject(i);
-                        Firewall fw = toFirewall(json);
-    
-                        if( fw != null ) {
-                            firewalls.add(fw);
-                        }
-                    }
-                }
-            }
-            catch( JSONException e ) {
-                logger.error("list(): Unable to identify expected values in JSON: " + e.getMessage());                e.printStackTrace();
-                throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", "Missing JSON element for security groups in " + ob.toString());
+            synchronized( snapshot ) {
+                return snapshot.listFirewalls();
             }
-            return firewalls;
         }
         finally {
             APITrace.end();
@@ -458,33 +764,14 @@ public class NovaSecurityGroup extends AbstractFirewallSupport {
     public @Nonnull Iterable<ResourceStatus> listFirewallStatus() throws InternalException, CloudException {
         APITrace.begin(getProvider(), "Firewall.listFirewallStatus");
         try {
-            NovaMethod method = new NovaMethod((NovaOpenStack)getProvider());
-            JSONObject ob = method.getServers("/os-security-groups", null, false);
+            FirewallSnapshot snapshot = getSnapshot();
             ArrayList<ResourceStatus> firewalls = new ArrayList<ResourceStatus>();
 
-            try {
-                if( ob != null && ob.has("security_groups") ) {
-                    JSONArray list = ob.getJSONArray("security_groups");
-
-                    for( int i=0; i<list.length(); i++ ) {
-                        JSONObject json = list.getJSONObject(i);
-
-                        try {
-                            ResourceStatus fw = toStatus(json);
-
-                            if( fw != null ) {
-                                firewalls.add(fw);
-                            }
-                        }
-                        catch( JSONException e ) {
-                            throw new CloudException("Invalid JSON from cloud: " + e.getMessage());
-                        }
-                    }
+            synchronized( snapshot ) {
+                for( Firewall fw : snapshot.listFirewalls() ) {
+                    firewalls.add(new ResourceStatus(fw.getProviderFirewallId(), true));
                 }
             }
-            catch( JSONException e ) {
-                throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", "Missing JSON element for security groups in " + ob.toString());
-            }
             return firewalls;
         }
         finally {
@@ -529,25 +816,24 @@ public class NovaSecurityGroup extends AbstractFirewallSupport {
     }
 
     @Override
-    public void revoke(@Nonnull String providerFirewallRuleId) throws InternalException, CloudException {
+    public void revoke(@Nonnull final String providerFirewallRuleId) throws InternalException, CloudException {
         APITrace.begin(getProvider(), "Firewall.revoke");
         try {
-            NovaMethod method = new NovaMethod((NovaOpenStack)getProvider());
-            long timeout = System.currentTimeMillis() + CalendarWrapper.HOUR;
+            final NovaMethod method = new NovaMethod((NovaOpenStack)getProvider());
 
-            do {
-                try {
+            ConflictBackoff.retry(System.currentTimeMillis() + CalendarWrapper.HOUR, new ConflictBackoff.Operation<Void>() {
+                @Override
+                public Void execute() throws CloudException, InternalException {
                     method.deleteServers("/os-security-group-rules", providerFirewallRuleId);
-                    return;
-                }
-                catch( NovaException e ) {
-                    if( e.getHttpCode() != HttpStatus.SC_CONFLICT ) {
-                        throw e;
-                    }
+                    return null;
                 }
-                try { Thread.sleep(CalendarWrapper.MINUTE); }
-                catch( InterruptedException e ) { /* ignore */ }
-            } while( System.currentTimeMillis() < timeout );
+            });
+
+            FirewallSnapshot snapshot = getCachedSnapshot();
+
+            synchronized( snapshot ) {
+                snapshot.removeRule(providerFirewallRuleId);
+            }
         }
         finally {
             APITrace.end();
@@ -579,75 +865,17 @@ public class NovaSecurityGroup extends AbstractFirewallSupport {
             if( direction.equals(Direction.EGRESS) ) {
                 throw new OperationNotSupportedException(getProvider().getCloudName() + " does not support egress rules.");
             }
-            FirewallRule targetRule = null;
-
-            for( FirewallRule rule : getRules(firewallId) ) {
-                RuleTarget t = rule.getSourceEndpoint();
-
-                if( t.getRuleTargetType().equals(RuleTargetType.CIDR) && source.equals(t.getCidr()) ) {
-                    RuleTarget rt = rule.getDestinationEndpoint();
-
-                    if( target.getRuleTargetType().equals(rt.getRuleTargetType()) ) {
-                        boolean matches = false;
-
-                        switch( rt.getRuleTargetType() ) {
-                            case CIDR:
-                                //noinspection ConstantConditions
-                                matches = target.getCidr().equals(rt.getCidr());
-                                break;
-                            case GLOBAL:
-                                //noinspection ConstantConditions
-                                matches = target.getProviderFirewallId().equals(rt.getProviderFirewallId());
-                                break;
-                            case VLAN:
-                                //noinspection ConstantConditions
-                                matches = target.getProviderVlanId().equals(rt.getProviderVlanId());
-                                break;
-                            case VM:
-                                //noinspection ConstantConditions
-                                matches = target.getProviderVirtualMachineId().equals(rt.getProviderVirtualMachineId());
-                                break;
-                        }
-                        if( matches && rule.getProtocol().equals(protocol) && rule.getPermission().equals(permission) && rule.getDirection().equals(direction) ) {
-                            if( rule.getStartPort() == beginPort && rule.getEndPort() == endPort ) {
-                                targetRule = rule;
-                                break;
-                            }
-                        }
-                    }
-                }
-                else if( t.getRuleTargetType().equals(RuleTargetType.GLOBAL) && source.equals(t.getProviderFirewallId()) ) {
-                    RuleTarget rt = rule.getDestinationEndpoint();
-
-                    if( target.getRuleTargetType().equals(rt.getRuleTargetType()) ) {
-                        boolean matches = false;
-
-                        switch( rt.getRuleTargetType() ) {
-                            case CIDR:
-                                //noinspection ConstantConditions
-                                matches = target.getCidr().equals(rt.getCidr());
-                                break;
-                            case GLOBAL:
-                                //noinspection ConstantConditions
-                                matches = target.getProviderFirewallId().equals(rt.getProviderFirewallId());
-                                break;
-                            case VLAN:
-                                //noinspection ConstantConditions
-                                matches = target.getProviderVlanId().equals(rt.getProviderVlanId());
-                                break;
-                            case VM:
-                                //noinspection ConstantConditions
-                                matches = target.getProviderVirtualMachineId().equals(rt.getProviderVirtualMachineId());
-                                break;
-                        }
-                        if( matches && rule.getProtocol().equals(protocol) && rule.getPermission().equals(permission) && rule.getDirection().equals(direction) ) {
-                            if( rule.getStartPort() == beginPort && rule.getEndPort() == endPort ) {
-                                targetRule = rule;
-                                break;
-                            }
-                        }
-                    }
-                }
+            Map<String,List<FirewallRule>> index = indexRules(getRules(firewallId));
+            List<FirewallRule> matches = index.get(toRuleKey(direction, permission, RuleTarget.getCIDR(source), protocol, beginPort, endPort));
+
+            if( matches == null ) {
+                matches = index.get(toRuleKey(direction, permission, RuleTarget.getGlobal(source), protocol, beginPort, endPort));
+            }
+            FirewallRule targetRule = (matches == null ? null : matches.get(0));
+
+            if( targetRule != null && !(target.getRuleTargetType().equals(RuleTargetType.GLOBAL) && firewallId.equals(target.getProviderFirewallId())) ) {
+                // rules here only ever target their own group
+                targetRule = null;
             }
             if( targetRule == null ) {
                 throw new CloudException("No such firewall rule");
@@ -700,16 +928,4 @@ public class NovaSecurityGroup extends AbstractFirewallSupport {
             throw new InternalException(e);
         }
     }
-
-    private @Nullable ResourceStatus toStatus(@Nonnull JSONObject json) throws JSONException {
-        String id = null;
-
-        if( json.has("id") ) {
-            id = json.getString("id");
-        }
-        if( id == null ) {
-            return null;
-        }
-        return new ResourceStatus(id, true);
-    }
 }
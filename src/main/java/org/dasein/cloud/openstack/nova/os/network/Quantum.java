@@ -31,6 +31,9 @@ import org.dasein.cloud.network.AbstractVLANSupport;
 import org.dasein.cloud.network.AllocationPool;
 import org.dasein.cloud.network.InternetGateway;
 import org.dasein.cloud.network.IPVersion;
+import org.dasein.cloud.network.LoadBalancer;
+import org.dasein.cloud.network.LoadBalancerSupport;
+import org.dasein.cloud.network.NetworkServices;
 import org.dasein.cloud.network.Networkable;
 import org.dasein.cloud.network.RawAddress;
 import org.dasein.cloud.network.Subnet;
@@ -63,7 +66,10 @@ import java.util.*;
 public class Quantum extends AbstractVLANSupport {
     static private final Logger logger = NovaOpenStack.getLogger(Quantum.class, "std");
 
-    private String networkVersionId = null;
+    static private final int      PAGE_SIZE      = 500;
+    static private final String[] NETWORK_FIELDS = { "id", "name", "label", "cidr", "status", "metadata" };
+    static private final String[] SUBNET_FIELDS  = { "id", "network_id", "name", "description", "cidr", "metadata", "ip_version", "allocation_pools", "gateway_ip" };
+    static private final String[] PORT_FIELDS    = { "id", "network_id", "device_id", "device_owner", "fixed_ips" };
 
     public Quantum(@Nonnull NovaOpenStack provider) {
         super(provider);
@@ -106,53 +112,13 @@ public class Quantum extends AbstractVLANSupport {
         return capabilities;
     }
 
+    /**
+     * @return the networking flavour of the current region, as discovered and remembered by {@link NetworkDiscovery}
+     * @throws CloudException an error occurred with the cloud provider while identifying the networking flavour
+     * @throws InternalException an error occurred within Dasein Cloud while identifying the networking flavour
+     */
     public QuantumType getNetworkType() throws CloudException, InternalException {
-        Cache<QuantumType> cache = Cache.getInstance(getProvider(), "quantumness", QuantumType.class, CacheLevel.CLOUD);
-
-        Iterable<QuantumType> it = cache.get(getContext());
-
-        if( it != null ) {
-            Iterator<QuantumType> b = it.iterator();
-
-            if( b.hasNext() ) {
-                return b.next();
-            }
-        }
-        try {
-            if( ((NovaOpenStack)getProvider()).getCloudProvider().equals(OpenStackProvider.RACKSPACE) ) {
-                cache.put(getContext(), Collections.singletonList(QuantumType.RACKSPACE));
-                return QuantumType.RACKSPACE;
-            }
-            NovaMethod method = new NovaMethod((NovaOpenStack)getProvider());
-            try {
-				JSONObject ob = method.getNetworks(
-                        getNetworkResourceVersion()+QuantumType.QUANTUM.getNetworkResource(), null, false);
-
-                if( ob != null && ob.has("networks") ) {
-                    cache.put(getContext(), Collections.singletonList(QuantumType.QUANTUM));
-                    return QuantumType.QUANTUM;
-                }
-            }
-            catch( Throwable ignore ) {
-                // ignore
-            }
-            try {
-				JSONObject ob = method.getServers(
-						QuantumType.NOVA.getNetworkResource(), null, false);
-
-                if( ob != null && ob.has("networks") ) {
-                    cache.put(getContext(), Collections.singletonList(QuantumType.NOVA));
-                    return QuantumType.NOVA;
-                }
-            }
-            catch( Throwable ignore ) {
-                // ignore
-            }
-            return QuantumType.NONE;
-        }
-        finally {
-            APITrace.end();
-        }
+        return new NetworkDiscovery((NovaOpenStack)getProvider()).getNetworkType();
     }
 
     private @Nonnull String getTenantId() throws CloudException, InternalException {
@@ -206,9 +172,15 @@ public class Quantum extends AbstractVLANSupport {
             if( result != null && result.has("port") ) {
                 try {
                     JSONObject ob = result.getJSONObject("port");
+                    NeutronTopology.Port port = toPort(ob);
 
-                    if( ob.has("id") ) {
-                        return ob.getString("id");
+                    if( port != null ) {
+                        NeutronTopology topology = getCachedTopology();
+
+                        synchronized( topology ) {
+                            topology.putPort(port);
+                        }
+                        return port.getPortId();
                     }
                 }
                 catch( JSONException e ) {
@@ -230,13 +202,35 @@ public class Quantum extends AbstractVLANSupport {
         try {
             NovaMethod method = new NovaMethod((NovaOpenStack)getProvider());
 
-            JSONObject result = null;
             if (getNetworkType().equals(QuantumType.QUANTUM) ) {
-                result = method.getNetworks(getPortResource() + "?device_id="+vm.getProviderVirtualMachineId()+"&fields=id", null, false);
-            }
-            else {
-                result = method.getServers(getNetworkResource() + "/" + vm.getProviderVlanId() + "/ports", null, false);
+                // Nova binds ports to a server on its own, so ask Neutron directly and fold the answer into the topology
+                JSONObject result = method.getNetworks(getPortResource(), null, NeutronQuery.getInstance().withFilter("device_id", vm.getProviderVirtualMachineId()).withFields(PORT_FIELDS));
+                NeutronTopology topology = getCachedTopology();
+                List<String> portIds = new ArrayList<String>();
+
+                if( result != null && result.has("ports") ) {
+                    try {
+                        JSONArray ports = result.getJSONArray("ports");
+
+                        synchronized( topology ) {
+                            for( int i = 0; i < ports.length(); i++ ) {
+                                NeutronTopology.Port port = toPort(ports.getJSONObject(i));
+
+                                if( port != null ) {
+                                    topology.putPort(port);
+                                    portIds.add(port.getPortId());
+                                }
+                            }
+                        }
+                    } catch (JSONException e) {
+                        logger.error("Unable to understand listPorts response: " + e.getMessage());
+                        throw new CloudException(e);
+                    }
+                }
+                return portIds;
             }
+            JSONObject result = method.getServers(getNetworkResource() + "/" + vm.getProviderVlanId() + "/ports", null, false);
+
             if( result != null && result.has("ports") ) {
                 List<String> portIds = new ArrayList<String>();
                 try {
@@ -262,16 +256,21 @@ public class Quantum extends AbstractVLANSupport {
     private @Nonnull Iterable<String> listPortsBySubnetId(@Nonnull String subnetId) throws CloudException, InternalException {
         APITrace.begin(getProvider(), "VLAN.listPorts");
         try {
+            if (getNetworkType().equals(QuantumType.QUANTUM) ) {
+                NeutronTopology topology = getTopology(NeutronTopology.Kind.PORTS);
+
+                synchronized( topology ) {
+                    return toPortIds(topology.listPortsBySubnet(subnetId));
+                }
+            }
             NovaMethod method = new NovaMethod((NovaOpenStack)getProvider());
             Subnet subnet = getSubnet(subnetId);
 
-            JSONObject result = null;
-            if (getNetworkType().equals(QuantumType.QUANTUM) ) {
-                result = method.getNetworks(getPortResource() + "?network_id=" + subnet.getProviderVlanId() + "&fields=id&fields=fixed_ips", null, false);
-            }
-            else {
-                result = method.getServers(getNetworkResource() + "/" + subnet.getProviderVlanId() + "/ports", null, false);
+            if( subnet == null ) {
+                return Collections.emptyList();
             }
+            JSONObject result = method.getServers(getNetworkResource() + "/" + subnet.getProviderVlanId() + "/ports", null, false);
+
             if( result != null && result.has("ports") ) {
                 List<String> portIds = new ArrayList<String>();
                 try {
@@ -309,15 +308,16 @@ public class Quantum extends AbstractVLANSupport {
     private @Nonnull Iterable<String> listPortsByNetworkId(@Nonnull String vlanId) throws CloudException, InternalException {
         APITrace.begin(getProvider(), "VLAN.listPorts");
         try {
-            NovaMethod method = new NovaMethod((NovaOpenStack)getProvider());
-
-            JSONObject result = null;
             if (getNetworkType().equals(QuantumType.QUANTUM) ) {
-                result = method.getNetworks(getPortResource() + "?network_id=" + vlanId + "&fields=id", null, false);
-            }
-            else {
-                result = method.getServers(getNetworkResource() + "/" + vlanId + "/ports", null, false);
+                NeutronTopology topology = getTopology(NeutronTopology.Kind.PORTS);
+
+                synchronized( topology ) {
+                    return toPortIds(topology.listPortsByNetwork(vlanId));
+                }
             }
+            NovaMethod method = new NovaMethod((NovaOpenStack)getProvider());
+            JSONObject result = method.getServers(getNetworkResource() + "/" + vlanId + "/ports", null, false);
+
             if( result != null && result.has("ports") ) {
                 List<String> portIds = new ArrayList<String>();
                 try {
@@ -397,6 +397,7 @@ public class Quantum extends AbstractVLANSupport {
                     if( subnet == null ) {
                         throw new CloudException("No matching subnet was generated from " + ob.toString());
                     }
+                    invalidateTopology(NeutronTopology.Kind.SUBNETS);
                     return subnet;
                 }
                 catch( JSONException e ) {
@@ -460,6 +461,7 @@ public class Quantum extends AbstractVLANSupport {
                     if( vlan == null ) {
                         throw new CloudException("No matching network was generated from " + ob.toString());
                     }
+                    invalidateTopology(NeutronTopology.Kind.NETWORKS);
                     if( getNetworkType().equals(QuantumType.QUANTUM) && cidr != null ) {
                         createSubnet(SubnetCreateOptions.getInstance(vlan.getProviderVlanId(), cidr, name + "-subnet", "Auto-created subnet"));
                     }
@@ -488,33 +490,7 @@ public class Quantum extends AbstractVLANSupport {
     }
 
     private @Nonnull String getNetworkResourceVersion() throws CloudException, InternalException {
-        if (networkVersionId == null) {
-            NovaMethod method = new NovaMethod((NovaOpenStack)getProvider());
-
-            try {
-                JSONObject ob = method.getNetworks(null, null, false);
-
-                if( ob != null && ob.has("versions")) {
-                    JSONArray versions = ob.getJSONArray("versions");
-                    for (int i = 0; i<versions.length(); i++) {
-                        JSONObject version = versions.getJSONObject(i);
-                        if (version.has("status") && !version.isNull("status")) {
-                            String status = version.getString("status");
-                            if (status.equalsIgnoreCase("current")) {
-                                if (version.has("id") && !version.isNull("id")) {
-                                    String versionId = version.getString("id");
-                                    networkVersionId = versionId;
-                                }
-                            }
-                        }
-                    }
-                }
-            }
-            catch( Throwable ignore ) {
-                // ignore
-            }
-        }
-        return networkVersionId;
+        return new NetworkDiscovery((NovaOpenStack)getProvider()).getNetworkVersion();
     }
 
     private @Nonnull String getSubnetResource() throws CloudException, InternalException {
@@ -533,6 +509,249 @@ public class Quantum extends AbstractVLANSupport {
         return type.getSubnetResource();
     }
 
+    private @Nonnull String getDataCenterId(@Nonnull String regionId) throws CloudException, InternalException {
+        Iterable<DataCenter> dc = getProvider().getDataCenterServices().listDataCenters(regionId);
+
+        return dc.iterator().next().getProviderDataCenterId();
+    }
+
+    private @Nonnull NeutronTopology getCachedTopology() throws CloudException, InternalException {
+        Cache<NeutronTopology> cache = Cache.getInstance(getProvider(), "neutronTopology", NeutronTopology.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Day>(1, TimePeriod.DAY));
+        Iterable<NeutronTopology> it = cache.get(getContext());
+
+        if( it != null ) {
+            Iterator<NeutronTopology> b = it.iterator();
+
+            if( b.hasNext() ) {
+                return b.next();
+            }
+        }
+        NeutronTopology topology = new NeutronTopology();
+
+        cache.put(getContext(), Collections.singletonList(topology));
+        return topology;
+    }
+
+    /**
+     * Provides the Neutron topology for the current region, first reloading any part of it that has expired or
+     * been invalidated. Only meaningful for clouds with {@link QuantumType#QUANTUM} networking.
+     * @return the current topology
+     * @throws CloudException an error occurred with the cloud provider while loading the topology
+     * @throws InternalException an error occurred within Dasein Cloud while loading the topology
+     */
+    public @Nonnull NeutronTopology getTopology() throws CloudException, InternalException {
+        return getTopology(NeutronTopology.Kind.values());
+    }
+
+    /**
+     * Provides the Neutron topology for the current region, first reloading the requested parts of it that have
+     * expired or been invalidated. The other parts are left as they are, so callers needing only networks and
+     * subnets do not wait for every port to be listed.
+     * @param kinds the parts of the topology the caller reads
+     * @return the current topology
+     * @throws CloudException an error occurred with the cloud provider while loading the topology
+     * @throws InternalException an error occurred within Dasein Cloud while loading the topology
+     */
+    public @Nonnull NeutronTopology getTopology(@Nonnull NeutronTopology.Kind ... kinds) throws CloudException, InternalException {
+        NeutronTopology topology = getCachedTopology();
+        List<NeutronTopology.Kind> stale;
+
+        synchronized( topology ) {
+            stale = topology.listStale();
+        }
+        stale.retainAll(Arrays.asList(kinds));
+        if( !stale.isEmpty() ) {
+            loadTopology(topology, stale);
+        }
+        return topology;
+    }
+
+    private void invalidateTopology(@Nonnull NeutronTopology.Kind ... kinds) throws CloudException, InternalException {
+        NeutronTopology topology = getCachedTopology();
+
+        synchronized( topology ) {
+            for( NeutronTopology.Kind kind : kinds ) {
+                topology.invalidate(kind);
+            }
+        }
+    }
+
+    /**
+     * Fetches the stale parts of the topology in parallel and replaces them in the topology. The listings are
+     * fetched and converted without holding the topology's lock, which is taken only to read the current
+     * networks and to swap in the results, so readers are never blocked behind Neutron calls. Networks are
+     * converted before subnets so each subnet is linked to its network without another lookup. A subnet whose
+     * network is missing from the listing has its network fetched on its own; if the network cannot be found,
+     * the subnet is skipped with a warning.
+     */
+    private void loadTopology(@Nonnull NeutronTopology topology, @Nonnull List<NeutronTopology.Kind> stale) throws CloudException, InternalException {
+        final NovaMethod method = new NovaMethod((NovaOpenStack)getProvider());
+        final Map<String,String> resources = new HashMap<String, String>();
+        final Map<String,NeutronQuery> queries = new HashMap<String, NeutronQuery>();
+        long started = System.currentTimeMillis();
+
+        for( NeutronTopology.Kind kind : stale ) {
+            switch( kind ) {
+                case NETWORKS:
+                    resources.put(kind.name(), getNetworkResource());
+                    queries.put(kind.name(), NeutronQuery.getInstance().withFields(NETWORK_FIELDS).withLimit(PAGE_SIZE));
+                    break;
+                case SUBNETS:
+                    resources.put(kind.name(), getSubnetResource());
+                    queries.put(kind.name(), NeutronQuery.getInstance().withFields(SUBNET_FIELDS).withLimit(PAGE_SIZE));
+                    break;
+                case PORTS:
+                    resources.put(kind.name(), getPortResource());
+                    queries.put(kind.name(), NeutronQuery.getInstance().withFields(PORT_FIELDS).withLimit(PAGE_SIZE));
+                    break;
+            }
+        }
+        BatchExecutor.Result<List<JSONObject>> result = new BatchExecutor((NovaOpenStack)getProvider(), "neutron-topology").execute(resources.keySet(), new BatchExecutor.Operation<List<JSONObject>>() {
+            @Override
+            public List<JSONObject> execute(@Nonnull String kind) throws CloudException, InternalException {
+                return method.listNetworks(resources.get(kind), kind.toLowerCase(), queries.get(kind));
+            }
+        });
+
+        result.rethrow();
+        String dataCenterId = getDataCenterId(getContext().getRegionId());
+        ArrayList<VLAN> networks = null;
+        ArrayList<Subnet> subnets = null;
+        ArrayList<NeutronTopology.Port> ports = null;
+        ArrayList<VLAN> fetched = new ArrayList<VLAN>();
+
+        try {
+            if( resources.containsKey(NeutronTopology.Kind.NETWORKS.name()) ) {
+                networks = new ArrayList<VLAN>();
+                for( JSONObject json : result.getResults().get(NeutronTopology.Kind.NETWORKS.name()) ) {
+                    VLAN v = toVLAN(json, dataCenterId);
+
+                    if( v != null ) {
+                        networks.add(v);
+                    }
+                }
+            }
+            if( resources.containsKey(NeutronTopology.Kind.SUBNETS.name()) ) {
+                Map<String,VLAN> networksById = new HashMap<String, VLAN>();
+
+                if( networks == null ) {
+                    synchronized( topology ) {
+                        for( VLAN v : topology.listNetworks() ) {
+                            networksById.put(v.getProviderVlanId(), v);
+                        }
+                    }
+                }
+                else {
+                    for( VLAN v : networks ) {
+                        networksById.put(v.getProviderVlanId(), v);
+                    }
+                }
+                subnets = new ArrayList<Subnet>();
+                for( JSONObject json : result.getResults().get(NeutronTopology.Kind.SUBNETS.name()) ) {
+                    String networkId = (json.has("network_id") && !json.isNull("network_id") ? json.getString("network_id") : null);
+
+                    if( networkId == null ) {
+                        logger.warn("Skipping subnet " + json.optString("id") + " as it names no network");
+                        continue;
+                    }
+                    if( !networksById.containsKey(networkId) ) {
+                        // created after the network listing or not listed to this tenant, so look it up directly
+                        VLAN vlan = fetchNetwork(method, networkId, dataCenterId);
+
+                        networksById.put(networkId, vlan);
+                        if( vlan != null ) {
+                            fetched.add(vlan);
+                        }
+                    }
+                    VLAN vlan = networksById.get(networkId);
+
+                    if( vlan == null ) {
+                        logger.warn("Skipping subnet " + json.optString("id") + " as its network " + networkId + " could not be found");
+                        continue;
+                    }
+                    Subnet subnet = toSubnet(json, vlan, dataCenterId);
+
+                    if( subnet != null ) {
+                        subnets.add(subnet);
+                    }
+                }
+            }
+            if( resources.containsKey(NeutronTopology.Kind.PORTS.name()) ) {
+                ports = new ArrayList<NeutronTopology.Port>();
+                for( JSONObject json : result.getResults().get(NeutronTopology.Kind.PORTS.name()) ) {
+                    NeutronTopology.Port port = toPort(json);
+
+                    if( port != null ) {
+                        ports.add(port);
+                    }
+                }
+            }
+        }
+        catch( JSONException e ) {
+            logger.error("Unable to identify expected values in JSON: " + e.getMessage());
+            throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", "Missing JSON element for network topology: " + e.getMessage());
+        }
+        synchronized( topology ) {
+            if( networks != null ) {
+                topology.setNetworks(networks, started);
+            }
+            for( VLAN vlan : fetched ) {
+                topology.putNetwork(vlan);
+            }
+            if( subnets != null ) {
+                topology.setSubnets(subnets, started);
+            }
+            if( ports != null ) {
+                topology.setPorts(ports, started);
+            }
+        }
+    }
+
+    /**
+     * Looks up a single network for a subnet whose network is missing from the topology's network listing.
+     * @return the network, or null if the cloud does not know it
+     */
+    private @Nullable VLAN fetchNetwork(@Nonnull NovaMethod method, @Nonnull String networkId, @Nonnull String dataCenterId) throws CloudException, InternalException, JSONException {
+        JSONObject ob;
+
+        try {
+            ob = method.getNetworks(getNetworkResource(), networkId, false);
+        }
+        catch( CloudException e ) {
+            if( e.getHttpCode() == HttpStatus.SC_NOT_FOUND ) {
+                return null;
+            }
+            throw e;
+        }
+        if( ob == null || !ob.has("network") ) {
+            return null;
+        }
+        return toVLAN(ob.getJSONObject("network"), dataCenterId);
+    }
+
+    private @Nonnull List<VLAN> listTopologyNetworks() throws CloudException, InternalException {
+        NeutronTopology topology = getTopology(NeutronTopology.Kind.NETWORKS);
+        ArrayList<VLAN> networks = new ArrayList<VLAN>();
+
+        synchronized( topology ) {
+            for( VLAN v : topology.listNetworks() ) {
+                if( v.getProviderVlanId().equals("00000000-0000-0000-0000-000000000000") || v.getProviderVlanId().equals("11111111-1111-1111-1111-111111111111") ) {
+                    continue;
+                }
+                networks.add(v);
+            }
+        }
+        return networks;
+    }
+
+    private @Nonnull List<String> toPortIds(@Nonnull List<NeutronTopology.Port> ports) {
+        ArrayList<String> portIds = new ArrayList<String>();
+
+        for( NeutronTopology.Port port : ports ) {
+            portIds.add(port.getPortId());
+        }
+        return portIds;
+    }
 
     @Override
     public @Nonnull String getProviderTermForNetworkInterface(@Nonnull Locale locale) {
@@ -556,20 +775,27 @@ public class Quantum extends AbstractVLANSupport {
             if( !getNetworkType().equals(QuantumType.QUANTUM) ) {
                 return null;
             }
-            NovaMethod method = new NovaMethod((NovaOpenStack)getProvider());
-            JSONObject ob = null;
+            NeutronTopology topology = getTopology(NeutronTopology.Kind.NETWORKS, NeutronTopology.Kind.SUBNETS);
 
-            if (getNetworkType().equals(QuantumType.QUANTUM) ) {
-                ob = method.getNetworks(getSubnetResource(), subnetId, false);
-            }
-            else {
-                ob = method.getServers(getSubnetResource(), subnetId, false);
+            synchronized( topology ) {
+                Subnet subnet = topology.getSubnet(subnetId);
+
+                if( subnet != null ) {
+                    return subnet;
+                }
             }
+            // not in the topology, so it may have been created elsewhere since the last refresh
+            NovaMethod method = new NovaMethod((NovaOpenStack)getProvider());
+            JSONObject ob = method.getNetworks(getSubnetResource(), subnetId, false);
+
             try {
                 if( ob != null && ob.has("subnet") ) {
                     Subnet subnet = toSubnet(ob.getJSONObject("subnet"), null);
 
                     if( subnet != null ) {
+                        synchronized( topology ) {
+                            topology.putSubnet(subnet);
+                        }
                         return subnet;
                     }
                 }
@@ -593,6 +819,18 @@ public class Quantum extends AbstractVLANSupport {
             if( vlanId.equals("00000000-0000-0000-0000-000000000000") || vlanId.equals("11111111-1111-1111-1111-111111111111") ) {
                 return super.getVlan(vlanId);
             }
+            NeutronTopology topology = null;
+
+            if( getNetworkType().equals(QuantumType.QUANTUM) ) {
+                topology = getTopology(NeutronTopology.Kind.NETWORKS);
+                synchronized( topology ) {
+                    VLAN v = topology.getNetwork(vlanId);
+
+                    if( v != null ) {
+                        return v;
+                    }
+                }
+            }
             NovaMethod method = new NovaMethod((NovaOpenStack)getProvider());
             JSONObject ob = null;
             if (getNetworkType().equals(QuantumType.QUANTUM) ) {
@@ -606,6 +844,11 @@ public class Quantum extends AbstractVLANSupport {
                     VLAN v = toVLAN(ob.getJSONObject("network"));
 
                     if( v != null ) {
+                        if( topology != null ) {
+                            synchronized( topology ) {
+                                topology.putNetwork(v);
+                            }
+                        }
                         return v;
                     }
                 }
@@ -638,15 +881,16 @@ public class Quantum extends AbstractVLANSupport {
     public boolean isSubscribed() throws CloudException, InternalException {
         APITrace.begin(getProvider(), "VLAN.isSubscribed");
         try {
-            NovaMethod method = new NovaMethod((NovaOpenStack)getProvider());
-            JSONObject ob = null;
-            if (getNetworkType().equals(QuantumType.QUANTUM) ) {
-                ob = method.getNetworks(getNetworkResource(), null, false);
+            QuantumType type = getNetworkType();
+
+            // detecting Neutron or Nova networking already proved the network listing works
+            if( type.equals(QuantumType.QUANTUM) || type.equals(QuantumType.NOVA) ) {
+                return true;
             }
-            else {
-                ob = method.getServers(getNetworkResource(), null, false);
+            if( type.equals(QuantumType.RACKSPACE) ) {
+                return new NetworkDiscovery((NovaOpenStack)getProvider()).hasComputeResource(getNetworkResource());
             }
-            return (ob != null && ob.has("networks"));
+            return false;
         }
         finally {
             APITrace.end();
@@ -663,6 +907,9 @@ public class Quantum extends AbstractVLANSupport {
     public @Nonnull Iterable<Networkable> listResources(@Nonnull String inVlanId) throws CloudException, InternalException {
         APITrace.begin(getProvider(), "VLAN.listResources");
         try {
+            if( getNetworkType().equals(QuantumType.QUANTUM) ) {
+                return listResourcesByPort(inVlanId);
+            }
             ArrayList<Networkable> list = new ArrayList<Networkable>();
             ComputeServices services = getProvider().getComputeServices();
 
@@ -684,6 +931,67 @@ public class Quantum extends AbstractVLANSupport {
         }
     }
 
+    /**
+     * Identifies the resources on a network from the ports plugged into it, so only the servers and load balancers
+     * actually on the network are looked up rather than every server in the tenant. Router ports are skipped as
+     * routers are not modelled by this driver.
+     * @param inVlanId the network in question
+     * @return the servers and load balancers with a port on the network
+     * @throws CloudException an error occurred with the cloud provider while resolving the resources
+     * @throws InternalException an error occurred within Dasein Cloud while resolving the resources
+     */
+    private @Nonnull Iterable<Networkable> listResourcesByPort(@Nonnull String inVlanId) throws CloudException, InternalException {
+        NovaMethod method = new NovaMethod((NovaOpenStack)getProvider());
+        List<JSONObject> ports = method.listNetworks(getPortResource(), "ports", NeutronQuery.getInstance().withFilter("network_id", inVlanId).withFields("id", "device_id", "device_owner").withLimit(PAGE_SIZE));
+        Set<String> serverIds = new LinkedHashSet<String>();
+        Set<String> vipPortIds = new HashSet<String>();
+
+        for( JSONObject port : ports ) {
+            String owner = port.optString("device_owner", "");
+            String deviceId = port.optString("device_id", "");
+
+            if( owner.startsWith("compute:") && !deviceId.isEmpty() ) {
+                serverIds.add(deviceId);
+            }
+            else if( owner.equals("neutron:LOADBALANCER") && port.has("id") ) {
+                vipPortIds.add(port.optString("id"));
+            }
+        }
+        ArrayList<Networkable> list = new ArrayList<Networkable>();
+
+        if( !serverIds.isEmpty() ) {
+            ComputeServices services = getProvider().getComputeServices();
+            final VirtualMachineSupport vmSupport = (services == null ? null : services.getVirtualMachineSupport());
+
+            if( vmSupport != null ) {
+                BatchExecutor.Result<VirtualMachine> result = new BatchExecutor((NovaOpenStack)getProvider(), "vlan-resources").execute(serverIds, new BatchExecutor.Operation<VirtualMachine>() {
+                    @Override
+                    public VirtualMachine execute(@Nonnull String vmId) throws CloudException, InternalException {
+                        return vmSupport.getVirtualMachine(vmId);
+                    }
+                });
+
+                result.rethrow();
+                for( VirtualMachine vm : result.getResults().values() ) {
+                    if( vm != null ) {
+                        list.add(vm);
+                    }
+                }
+            }
+        }
+        if( !vipPortIds.isEmpty() ) {
+            NetworkServices services = getProvider().getNetworkServices();
+            LoadBalancerSupport lbSupport = (services == null ? null : services.getLoadBalancerSupport());
+
+            if( lbSupport instanceof LoadBalancerSupportImpl ) {
+                for( LoadBalancer lb : ((LoadBalancerSupportImpl)lbSupport).listLoadBalancersByVipPort(vipPortIds) ) {
+                    list.add(lb);
+                }
+            }
+        }
+        return list;
+    }
+
     @Override
     public @Nonnull Iterable<Subnet> listSubnets(@Nonnull String inVlanId) throws CloudException, InternalException {
         APITrace.begin(getProvider(), "VLAN.listSubnets");
@@ -691,36 +999,11 @@ public class Quantum extends AbstractVLANSupport {
             if( !getNetworkType().equals(QuantumType.QUANTUM) ) {
                 return Collections.emptyList();
             }
-            NovaMethod method = new NovaMethod((NovaOpenStack)getProvider());
-            JSONObject ob = null;
-
-            if (getNetworkType().equals(QuantumType.QUANTUM) ) {
-                ob = method.getNetworks(getSubnetResource(), null, false);
-            }
-            else {
-                ob = method.getServers(getSubnetResource(), null, false);
-            }
-            ArrayList<Subnet> subnets = new ArrayList<Subnet>();
-
-            try {
-                if( ob != null && ob.has("subnets") ) {
-                    JSONArray list = ob.getJSONArray("subnets");
-
-                    for( int i=0; i<list.length(); i++ ) {
-                        Subnet subnet = toSubnet(list.getJSONObject(i), null);
+            NeutronTopology topology = getTopology(NeutronTopology.Kind.NETWORKS, NeutronTopology.Kind.SUBNETS);
 
-                        if( subnet != null && subnet.getProviderVlanId().equals(inVlanId) ) {
-                            subnets.add(subnet);
-                        }
-                    }
-                }
-            }
-            catch( JSONException e ) {
-                logger.error("Unable to identify expected values in JSON: " + e.getMessage());
-                e.printStackTrace();
-                throw new CloudException(CloudErrorType.COMMUNICATION, 200, "invalidJson", "Missing JSON element for subnets in " + ob.toString());
+            synchronized( topology ) {
+                return topology.listSubnets(inVlanId);
             }
-            return subnets;
         }
         finally {
             APITrace.end();
@@ -731,14 +1014,16 @@ public class Quantum extends AbstractVLANSupport {
     public @Nonnull Iterable<ResourceStatus> listVlanStatus() throws CloudException, InternalException {
         APITrace.begin(getProvider(), "VLAN.listVlanStatus");
         try {
-            NovaMethod method = new NovaMethod((NovaOpenStack)getProvider());
-            JSONObject ob = null;
-            if (getNetworkType().equals(QuantumType.QUANTUM) ) {
-                ob = method.getNetworks(getNetworkResource(), null, false);
-            }
-            else {
-                ob = method.getServers(getNetworkResource(), null, false);
+            if( getNetworkType().equals(QuantumType.QUANTUM) ) {
+                ArrayList<ResourceStatus> networks = new ArrayList<ResourceStatus>();
+
+                for( VLAN v : listTopologyNetworks() ) {
+                    networks.add(new ResourceStatus(v.getProviderVlanId(), v.getCurrentState()));
+                }
+                return networks;
             }
+            NovaMethod method = new NovaMethod((NovaOpenStack)getProvider());
+            JSONObject ob = method.getServers(getNetworkResource(), null, false);
             ArrayList<ResourceStatus> networks = new ArrayList<ResourceStatus>();
 
             try {
@@ -775,14 +1060,11 @@ public class Quantum extends AbstractVLANSupport {
     public @Nonnull Iterable<VLAN> listVlans() throws CloudException, InternalException {
         APITrace.begin(getProvider(), "VLAN.listVlans");
         try {
-            NovaMethod method = new NovaMethod((NovaOpenStack)getProvider());
-            JSONObject ob = null;
-            if (getNetworkType().equals(QuantumType.QUANTUM) ) {
-                ob = method.getNetworks(getNetworkResource(), null, false);
-            }
-            else {
-                ob = method.getServers(getNetworkResource(), null, false);
+            if( getNetworkType().equals(QuantumType.QUANTUM) ) {
+                return listTopologyNetworks();
             }
+            NovaMethod method = new NovaMethod((NovaOpenStack)getProvider());
+            JSONObject ob = method.getServers(getNetworkResource(), null, false);
             ArrayList<VLAN> networks = new ArrayList<VLAN>();
 
             try {
@@ -826,6 +1108,12 @@ public class Quantum extends AbstractVLANSupport {
             }
             NovaMethod method = new NovaMethod((NovaOpenStack)getProvider());
             method.deleteNetworks(getPortResource(), portId+".json");
+
+            NeutronTopology topology = getCachedTopology();
+
+            synchronized( topology ) {
+                topology.removePort(portId);
+            }
         }
         catch( CloudException e ) {
             if( e.getHttpCode() == HttpStatus.SC_NOT_FOUND ) {
@@ -850,11 +1138,14 @@ public class Quantum extends AbstractVLANSupport {
             NovaMethod method = new NovaMethod((NovaOpenStack)getProvider());
 
             if (getNetworkType().equals(QuantumType.QUANTUM) ) {
+                // make sure every port on the subnet is known before it is torn down
+                invalidateTopology(NeutronTopology.Kind.PORTS);
                 Iterable<String> portIds = listPortsBySubnetId(subnetId);
                 for (String portId : portIds) {
                     removePort(portId);
                 }
                 method.deleteNetworks(getSubnetResource(), subnetId);
+                invalidateTopology(NeutronTopology.Kind.SUBNETS, NeutronTopology.Kind.PORTS);
             }
             else {
                 method.deleteServers(getSubnetResource(), subnetId);
@@ -872,12 +1163,14 @@ public class Quantum extends AbstractVLANSupport {
             NovaMethod method = new NovaMethod((NovaOpenStack)getProvider());
 
             if (getNetworkType().equals(QuantumType.QUANTUM) ) {
+                invalidateTopology(NeutronTopology.Kind.PORTS);
                 Iterable<String> portIds = listPortsByNetworkId(vlanId);
                 for (String portId : portIds) {
                     removePort(portId);
                 }
 
                 method.deleteNetworks(getNetworkResource(), vlanId);
+                invalidateTopology(NeutronTopology.Kind.values());
             }
             else {
                 method.deleteServers(getNetworkResource(), vlanId);
@@ -893,6 +1186,35 @@ public class Quantum extends AbstractVLANSupport {
         //To change body of implemented methods use File | Settings | File Templates.
     }
 
+    private @Nullable NeutronTopology.Port toPort(@Nonnull JSONObject json) throws JSONException {
+        String portId = (json.has("id") ? json.getString("id") : null);
+
+        if( portId == null ) {
+            return null;
+        }
+        String networkId = (json.has("network_id") && !json.isNull("network_id") ? json.getString("network_id") : null);
+        String deviceId = (json.has("device_id") && !json.isNull("device_id") ? json.getString("device_id") : null);
+        String deviceOwner = (json.has("device_owner") && !json.isNull("device_owner") ? json.getString("device_owner") : null);
+        ArrayList<String> subnetIds = new ArrayList<String>();
+        ArrayList<String> addresses = new ArrayList<String>();
+
+        if( json.has("fixed_ips") ) {
+            JSONArray ips = json.getJSONArray("fixed_ips");
+
+            for( int i=0; i<ips.length(); i++ ) {
+                JSONObject fixedIp = ips.getJSONObject(i);
+
+                if( fixedIp.has("subnet_id") && !subnetIds.contains(fixedIp.getString("subnet_id")) ) {
+                    subnetIds.add(fixedIp.getString("subnet_id"));
+                }
+                if( fixedIp.has("ip_address") ) {
+                    addresses.add(fixedIp.getString("ip_address"));
+                }
+            }
+        }
+        return new NeutronTopology.Port(portId, networkId, (deviceId == null || deviceId.isEmpty() ? null : deviceId), (deviceOwner == null || deviceOwner.isEmpty() ? null : deviceOwner), subnetIds, addresses);
+    }
+
     private @Nonnull VLANState toState(@Nonnull String s) {
         if( s.equalsIgnoreCase("active") ) {
             return VLANState.AVAILABLE;
@@ -920,6 +1242,10 @@ public class Quantum extends AbstractVLANSupport {
     }
 
     private @Nullable Subnet toSubnet(@Nonnull JSONObject json, @Nullable VLAN vlan) throws CloudException, InternalException {
+        return toSubnet(json, vlan, null);
+    }
+
+    private @Nullable Subnet toSubnet(@Nonnull JSONObject json, @Nullable VLAN vlan, @Nullable String dataCenterId) throws CloudException, InternalException {
         try {
             if( vlan == null ) {
                 String vlanId = (json.has("network_id") ? json.getString("network_id") : null);
@@ -983,8 +1309,7 @@ public class Quantum extends AbstractVLANSupport {
                 }
             }
             Subnet subnet = Subnet.getInstance(vlan.getProviderOwnerId(), vlan.getProviderRegionId(), vlan.getProviderVlanId(), subnetId, SubnetState.AVAILABLE, name, description, cidr).supportingTraffic(traffic);
-            Iterable<DataCenter> dc = getProvider().getDataCenterServices().listDataCenters(vlan.getProviderRegionId());
-            subnet.constrainedToDataCenter(dc.iterator().next().getProviderDataCenterId());
+            subnet.constrainedToDataCenter(dataCenterId == null ? getDataCenterId(vlan.getProviderRegionId()) : dataCenterId);
 
             if( json.has("allocation_pools") ) {
                 JSONArray p = json.getJSONArray("allocation_pools");
@@ -1050,14 +1375,17 @@ public class Quantum extends AbstractVLANSupport {
     }
 
     private @Nullable VLAN toVLAN(@Nonnull JSONObject network) throws CloudException, InternalException {
+        return toVLAN(network, null);
+    }
+
+    private @Nullable VLAN toVLAN(@Nonnull JSONObject network, @Nullable String dataCenterId) throws CloudException, InternalException {
         try {
             VLAN v = new VLAN();
 
             v.setProviderOwnerId(getTenantId());
             v.setCurrentState(VLANState.AVAILABLE);
             v.setProviderRegionId(getContext().getRegionId());
-            Iterable<DataCenter> dc = getProvider().getDataCenterServices().listDataCenters(getContext().getRegionId());
-            v.setProviderDataCenterId(dc.iterator().next().getProviderDataCenterId());
+            v.setProviderDataCenterId(dataCenterId == null ? getDataCenterId(getContext().getRegionId()) : dataCenterId);
             v.setVisibleScope(VisibleScope.ACCOUNT_REGION);
 
             if( network.has("id") ) {
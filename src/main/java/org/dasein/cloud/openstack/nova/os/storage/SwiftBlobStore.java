@@ -26,6 +26,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Locale;
 import java.util.Map;
@@ -38,6 +39,7 @@ import org.dasein.cloud.ProviderContext;
 import org.dasein.cloud.Tag;
 import org.dasein.cloud.identity.ServiceAction;
 import org.dasein.cloud.openstack.nova.os.AuthenticationContext;
+import org.dasein.cloud.openstack.nova.os.BatchExecutor;
 import org.dasein.cloud.openstack.nova.os.NovaOpenStack;
 import org.dasein.cloud.openstack.nova.os.SwiftMethod;
 import org.dasein.cloud.storage.AbstractBlobStoreSupport;
@@ -747,18 +749,17 @@ public class SwiftBlobStore extends AbstractBlobStoreSupport<NovaOpenStack> {
     }
     
     @Override
-    public void updateTags(@Nonnull String[] bucketNames, @Nonnull Tag ... tags) throws CloudException, InternalException {
-    	for( String id : bucketNames ) {
-    		updateTags(id, tags);
-    	}
-    }
-    
-    @Override
-    public void removeTags(@Nonnull String bucketName, @Nonnull Tag ... tags) throws CloudException, InternalException {
-    	APITrace.begin(getProvider(), "Bucket.removeTags");
+    public void updateTags(@Nonnull String[] bucketNames, @Nonnull final Tag ... tags) throws CloudException, InternalException {
+    	APITrace.begin(getProvider(), "Bucket.updateTags");
     	try {
-    		SwiftMethod method = new SwiftMethod(getProvider());
-    		method.put( bucketName , "X-Remove-Container-Meta-", tags);
+    		new BatchExecutor(getProvider(), "updateTags").execute(Arrays.asList(bucketNames), new BatchExecutor.Operation<Void>() {
+    			@Override
+    			public Void execute(@Nonnull String bucketName) throws CloudException, InternalException {
+    				SwiftMethod method = new SwiftMethod(getProvider());
+    				method.put( bucketName , "X-Container-Meta-", tags);
+    				return null;
+    			}
+    		}).rethrow();
     	}
     	finally {
     		APITrace.end();
@@ -766,47 +767,32 @@ public class SwiftBlobStore extends AbstractBlobStoreSupport<NovaOpenStack> {
     }
     
     @Override
-    public void removeTags(@Nonnull String[] bucketNames, @Nonnull Tag ... tags) throws CloudException, InternalException {
-    	for( String id : bucketNames ) {
-    		removeTags(id, tags);
-    	}
-    }
-
-    @Override
-    public void updateTags(@Nonnull String bucketName, @Nonnull Tag ... tags) throws CloudException, InternalException {
-    	APITrace.begin(getProvider(), "Bucket.updateTags");
+    public void removeTags(@Nonnull String bucketName, @Nonnull Tag ... tags) throws CloudException, InternalException {
+    	APITrace.begin(getProvider(), "Bucket.removeTags");
     	try {
     		SwiftMethod method = new SwiftMethod(getProvider());
-    		method.put( bucketName , "X-Container-Meta-", tags);
+    		method.put( bucketName , "X-Remove-Container-Meta-", tags);
     	}
     	finally {
     		APITrace.end();
     	}
     }
-
-    @Override
-    public void updateTags(@Nonnull String[] bucketNames, @Nonnull Tag ... tags) throws CloudException, InternalException {
-    	for( String id : bucketNames ) {
-    		updateTags(id, tags);
-    	}
-    }
-
+    
     @Override
-    public void removeTags(@Nonnull String bucketName, @Nonnull Tag ... tags) throws CloudException, InternalException {
+    public void removeTags(@Nonnull String[] bucketNames, @Nonnull final Tag ... tags) throws CloudException, InternalException {
     	APITrace.begin(getProvider(), "Bucket.removeTags");
     	try {
-    		SwiftMethod method = new SwiftMethod(getProvider());
-    		method.put( bucketName , "X-Remove-Container-Meta-", tags);
+    		new BatchExecutor(getProvider(), "removeTags").execute(Arrays.asList(bucketNames), new BatchExecutor.Operation<Void>() {
+    			@Override
+    			public Void execute(@Nonnull String bucketName) throws CloudException, InternalException {
+    				SwiftMethod method = new SwiftMethod(getProvider());
+    				method.put( bucketName , "X-Remove-Container-Meta-", tags);
+    				return null;
+    			}
+    		}).rethrow();
     	}
     	finally {
     		APITrace.end();
     	}
     }
-
-    @Override
-    public void removeTags(@Nonnull String[] bucketNames, @Nonnull Tag ... tags) throws CloudException, InternalException {
-    	for( String id : bucketNames ) {
-    		removeTags(id, tags);
-    	}
-    }
 }
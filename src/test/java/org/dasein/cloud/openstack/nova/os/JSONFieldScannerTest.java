@@ -0,0 +1,134 @@
+/**
+ * Copyright (C) 2009-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.openstack.nova.os;
+
+import org.json.JSONException;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class JSONFieldScannerTest {
+    @Test
+    public void readsRequestedFields() throws JSONException {
+        List<Map<String,String>> items = JSONFieldScanner.scan("{\"servers\": [{\"id\": \"a\", \"status\": \"ACTIVE\", \"name\": \"one\"}, {\"id\": \"b\", \"status\": \"BUILD\"}]}", "servers", "id", "status");
+
+        assertEquals(2, items.size());
+        assertEquals("a", items.get(0).get("id"));
+        assertEquals("ACTIVE", items.get(0).get("status"));
+        assertFalse(items.get(0).containsKey("name"));
+        assertEquals("b", items.get(1).get("id"));
+        assertEquals("BUILD", items.get(1).get("status"));
+    }
+
+    @Test
+    public void unescapesStrings() throws JSONException {
+        List<Map<String,String>> items = JSONFieldScanner.scan("{\"servers\":[{\"id\":\"q\\\"b\\\\s\\/t\\tn\\nu\\u00e9\"}]}", "servers", "id");
+
+        assertEquals(1, items.size());
+        assertEquals("q\"b\\s/t\tn\nu\u00e9", items.get(0).get("id"));
+    }
+
+    @Test
+    public void skipsEscapedQuotesInOtherFields() throws JSONException {
+        List<Map<String,String>> items = JSONFieldScanner.scan("{\"servers\":[{\"name\":\"say \\\"}]\\\"\",\"id\":\"x\"}]}", "servers", "id");
+
+        assertEquals(1, items.size());
+        assertEquals("x", items.get(0).get("id"));
+    }
+
+    @Test
+    public void returnsNestedValuesRaw() throws JSONException {
+        String json = "{\"servers\":[{\"metadata\":{\"a\":[1,{\"b\":\"]}\"}]},\"addresses\":[ [1, 2], {} ],\"id\":\"x\"}]}";
+        List<Map<String,String>> items = JSONFieldScanner.scan(json, "servers", "id", "metadata", "addresses");
+
+        assertEquals(1, items.size());
+        assertEquals("x", items.get(0).get("id"));
+        assertEquals("{\"a\":[1,{\"b\":\"]}\"}]}", items.get(0).get("metadata"));
+        assertEquals("[ [1, 2], {} ]", items.get(0).get("addresses"));
+    }
+
+    @Test
+    public void returnsPrimitivesRaw() throws JSONException {
+        List<Map<String,String>> items = JSONFieldScanner.scan("{\"servers\":[{\"progress\": 42 ,\"locked\":true}]}", "servers", "progress", "locked");
+
+        assertEquals("42", items.get(0).get("progress"));
+        assertEquals("true", items.get(0).get("locked"));
+    }
+
+    @Test
+    public void readsNulls() throws JSONException {
+        List<Map<String,String>> items = JSONFieldScanner.scan("{\"servers\":[{\"id\":\"x\",\"status\":null}]}", "servers", "id", "status");
+
+        assertEquals(1, items.size());
+        assertTrue(items.get(0).containsKey("status"));
+        assertNull(items.get(0).get("status"));
+    }
+
+    @Test
+    public void ignoresOtherKeysAroundCollection() throws JSONException {
+        String json = "{\"links\":[{\"rel\":\"next\",\"href\":\"x\"}],\"servers\":[{\"id\":\"a\"}],\"servers_links\":{\"servers\":[{\"id\":\"b\"}]}}";
+        List<Map<String,String>> items = JSONFieldScanner.scan(json, "servers", "id");
+
+        assertEquals(1, items.size());
+        assertEquals("a", items.get(0).get("id"));
+    }
+
+    @Test
+    public void handlesEmptyInput() throws JSONException {
+        assertTrue(JSONFieldScanner.scan(null, "servers", "id").isEmpty());
+        assertTrue(JSONFieldScanner.scan("{}", "servers", "id").isEmpty());
+        assertTrue(JSONFieldScanner.scan("{\"servers\": []}", "servers", "id").isEmpty());
+        assertTrue(JSONFieldScanner.scan("{\"volumes\": [{\"id\":\"a\"}]}", "servers", "id").isEmpty());
+    }
+
+    @Test
+    public void handlesEmptyItems() throws JSONException {
+        List<Map<String,String>> items = JSONFieldScanner.scan("{\"servers\": [{}, { }]}", "servers", "id");
+
+        assertEquals(2, items.size());
+        assertTrue(items.get(0).isEmpty());
+    }
+
+    @Test(expected=JSONException.class)
+    public void rejectsNonObject() throws JSONException {
+        JSONFieldScanner.scan("[1, 2]", "servers", "id");
+    }
+
+    @Test(expected=JSONException.class)
+    public void rejectsUnterminatedString() throws JSONException {
+        JSONFieldScanner.scan("{\"servers\":[{\"id\":\"abc", "servers", "id");
+    }
+
+    @Test(expected=JSONException.class)
+    public void rejectsTruncatedInput() throws JSONException {
+        JSONFieldScanner.scan("{\"servers\":[{\"id\":\"a\"}", "servers", "id");
+    }
+
+    @Test(expected=JSONException.class)
+    public void rejectsBadUnicodeEscape() throws JSONException {
+        JSONFieldScanner.scan("{\"servers\":[{\"id\":\"\\u00zz\"}]}", "servers", "id");
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ * Copyright (C) 2009-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.openstack.nova.os;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class NeutronQueryTest {
+    @Test
+    public void emptyQueryHasNoQueryString() {
+        assertEquals("", NeutronQuery.getInstance().toQueryString());
+    }
+
+    @Test
+    public void buildsFiltersFieldsSortsAndPaging() {
+        NeutronQuery query = NeutronQuery.getInstance().withFilter("network_id", "n1").withFields("id", "fixed_ips").sortedBy("name", true).withLimit(50).withMarker("p9");
+
+        assertEquals("?network_id=n1&fields=id&fields=fixed_ips&sort_key=name&sort_dir=asc&limit=50&marker=p9", query.toQueryString());
+    }
+
+    @Test
+    public void encodesNamesAndValues() {
+        NeutronQuery query = NeutronQuery.getInstance().withFilter("name", "a b&c=d/\u00e9");
+
+        assertEquals("?name=a+b%26c%3Dd%2F%C3%A9", query.toQueryString());
+    }
+
+    @Test
+    public void ignoresDuplicateFields() {
+        NeutronQuery query = NeutronQuery.getInstance().withFields("id", "name").withFields("id");
+
+        assertEquals(2, query.getFields().size());
+        assertEquals("?fields=id&fields=name", query.toQueryString());
+    }
+
+    @Test
+    public void laterFilterReplacesEarlier() {
+        NeutronQuery query = NeutronQuery.getInstance().withFilter("device_id", "a").withFilter("device_id", "b");
+
+        assertEquals("?device_id=b", query.toQueryString());
+    }
+
+    @Test
+    public void omitsUnsetLimitAndMarker() {
+        NeutronQuery query = NeutronQuery.getInstance().withLimit(0).withMarker(null).sortedBy("id", false);
+
+        assertEquals(0, query.getLimit());
+        assertNull(query.getMarker());
+        assertEquals("?sort_key=id&sort_dir=desc", query.toQueryString());
+    }
+
+    @Test
+    public void copyIsIndependent() {
+        NeutronQuery query = NeutronQuery.getInstance().withFields("id").withLimit(10);
+        NeutronQuery copy = query.copy().withMarker("m").withFields("name");
+
+        assertEquals("?fields=id&limit=10", query.toQueryString());
+        assertEquals("?fields=id&fields=name&limit=10&marker=m", copy.toQueryString());
+        assertEquals(query.toString(), query.toQueryString());
+    }
+}
@@ -0,0 +1,119 @@
+/**
+ * Copyright (C) 2009-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.openstack.nova.os.compute;
+
+import org.dasein.cloud.compute.Snapshot;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SnapshotIndexTest {
+    private Snapshot snapshot(String id, String volumeId, long timestamp) {
+        Snapshot snapshot = new Snapshot();
+
+        snapshot.setProviderSnapshotId(id);
+        snapshot.setVolumeId(volumeId);
+        snapshot.setSnapshotTimestamp(timestamp);
+        return snapshot;
+    }
+
+    @Test
+    public void emptyIndexIsNotLoaded() {
+        SnapshotIndex index = new SnapshotIndex();
+
+        assertFalse(index.isComplete());
+        assertFalse(index.isLoaded("vol-1"));
+        assertNull(index.getLatest("vol-1"));
+        assertTrue(index.list("vol-1").isEmpty());
+    }
+
+    @Test
+    public void fullLoadCoversEveryVolume() {
+        SnapshotIndex index = new SnapshotIndex();
+
+        index.load(Arrays.asList(snapshot("s1", "vol-1", 100L), snapshot("s2", "vol-2", 200L)));
+        assertTrue(index.isComplete());
+        assertTrue(index.isLoaded("vol-1"));
+        assertTrue(index.isLoaded("vol-3"));
+        assertEquals(2, index.list().size());
+    }
+
+    @Test
+    public void volumeLoadCoversOnlyThatVolume() {
+        SnapshotIndex index = new SnapshotIndex();
+
+        index.load("vol-1", Arrays.asList(snapshot("s1", "vol-1", 100L)));
+        assertFalse(index.isComplete());
+        assertTrue(index.isLoaded("vol-1"));
+        assertFalse(index.isLoaded("vol-2"));
+    }
+
+    @Test
+    public void volumeLoadReplacesPreviousSnapshots() {
+        SnapshotIndex index = new SnapshotIndex();
+
+        index.load("vol-1", Arrays.asList(snapshot("s1", "vol-1", 100L), snapshot("s2", "vol-1", 200L)));
+        index.load("vol-1", Arrays.asList(snapshot("s3", "vol-1", 300L)));
+        assertNull(index.getSnapshot("s1"));
+        assertEquals(1, index.list("vol-1").size());
+        assertEquals("s3", index.getLatest("vol-1").getProviderSnapshotId());
+    }
+
+    @Test
+    public void keepsSnapshotsOrderedByCreation() {
+        SnapshotIndex index = new SnapshotIndex();
+
+        index.load("vol-1", Arrays.asList(snapshot("s2", "vol-1", 200L), snapshot("s3", "vol-1", 300L), snapshot("s1", "vol-1", 100L)));
+        List<Snapshot> list = index.list("vol-1");
+
+        assertEquals("s1", list.get(0).getProviderSnapshotId());
+        assertEquals("s2", list.get(1).getProviderSnapshotId());
+        assertEquals("s3", list.get(2).getProviderSnapshotId());
+        assertEquals("s3", index.getLatest("vol-1").getProviderSnapshotId());
+    }
+
+    @Test
+    public void putAndRemoveKeepLatestCurrent() {
+        SnapshotIndex index = new SnapshotIndex();
+
+        index.load("vol-1", Arrays.asList(snapshot("s1", "vol-1", 100L)));
+        index.put(snapshot("s2", "vol-1", 200L));
+        assertEquals("s2", index.getLatest("vol-1").getProviderSnapshotId());
+        index.remove("s2");
+        assertNull(index.getSnapshot("s2"));
+        assertEquals("s1", index.getLatest("vol-1").getProviderSnapshotId());
+    }
+
+    @Test
+    public void putReplacesSnapshotWithSameId() {
+        SnapshotIndex index = new SnapshotIndex();
+
+        index.put(snapshot("s1", "vol-1", 100L));
+        index.put(snapshot("s1", "vol-1", 100L));
+        assertEquals(1, index.list("vol-1").size());
+        assertEquals(1, index.list().size());
+    }
+}
@@ -0,0 +1,144 @@
+/**
+ * Copyright (C) 2009-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.openstack.nova.os.identity;
+
+import org.dasein.cloud.identity.SSHKeypair;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class KeypairIndexTest {
+    private SSHKeypair keypair(String name, String fingerprint) {
+        SSHKeypair keypair = new SSHKeypair();
+
+        keypair.setName(name);
+        keypair.setProviderKeypairId(name);
+        keypair.setFingerprint(fingerprint);
+        keypair.setPublicKey("ssh-rsa " + name);
+        keypair.setPrivateKey(new byte[] { 1, 2, 3 });
+        return keypair;
+    }
+
+    @Test
+    public void emptyIndexIsStale() {
+        KeypairIndex index = new KeypairIndex();
+
+        assertTrue(index.isStale());
+        assertNull(index.getKeypair("a"));
+        assertTrue(index.listKeypairs().isEmpty());
+    }
+
+    @Test
+    public void loadIndexesByNameAndFingerprint() {
+        KeypairIndex index = new KeypairIndex();
+
+        index.load(Arrays.asList(keypair("a", "fa"), keypair("b", "fb")));
+        assertFalse(index.isStale());
+        assertEquals("fa", index.getKeypair("a").getFingerprint());
+        assertEquals("b", index.getKeypairByFingerprint("fb").getProviderKeypairId());
+
+        List<SSHKeypair> keypairs = index.listKeypairs();
+
+        assertEquals(2, keypairs.size());
+        assertEquals("a", keypairs.get(0).getName());
+        assertEquals("b", keypairs.get(1).getName());
+    }
+
+    @Test
+    public void loadReplacesPreviousKeypairs() {
+        KeypairIndex index = new KeypairIndex();
+
+        index.load(Arrays.asList(keypair("a", "fa")));
+        index.load(Arrays.asList(keypair("b", "fb")));
+        assertNull(index.getKeypair("a"));
+        assertNull(index.getKeypairByFingerprint("fa"));
+        assertEquals(1, index.listKeypairs().size());
+    }
+
+    @Test
+    public void privateKeyIsNotKept() {
+        KeypairIndex index = new KeypairIndex();
+
+        index.put(keypair("a", "fa"));
+        assertNull(index.getKeypair("a").getPrivateKey());
+    }
+
+    @Test
+    public void putReplacesKeypairOfSameName() {
+        KeypairIndex index = new KeypairIndex();
+
+        index.put(keypair("a", "fa"));
+        index.put(keypair("a", "fa2"));
+        assertEquals("fa2", index.getKeypair("a").getFingerprint());
+        assertNull(index.getKeypairByFingerprint("fa"));
+        assertEquals(1, index.listKeypairs().size());
+    }
+
+    @Test
+    public void removeForgetsNameAndFingerprint() {
+        KeypairIndex index = new KeypairIndex();
+
+        index.put(keypair("a", "fa"));
+        index.remove("a");
+        assertNull(index.getKeypair("a"));
+        assertNull(index.getKeypairByFingerprint("fa"));
+    }
+
+    @Test
+    public void removeKeepsFingerprintSharedWithAnotherKeypair() {
+        KeypairIndex index = new KeypairIndex();
+
+        index.put(keypair("a", "f"));
+        index.put(keypair("b", "f"));
+        index.remove("a");
+        assertEquals("b", index.getKeypairByFingerprint("f").getName());
+    }
+
+    @Test
+    public void changesToInputDoNotReachIndex() {
+        KeypairIndex index = new KeypairIndex();
+        SSHKeypair keypair = keypair("a", "fa");
+
+        index.put(keypair);
+        keypair.setFingerprint("changed");
+        assertEquals("fa", index.getKeypair("a").getFingerprint());
+    }
+
+    @Test
+    public void changesToOutputDoNotReachIndex() {
+        KeypairIndex index = new KeypairIndex();
+
+        index.put(keypair("a", "fa"));
+        assertNotSame(index.getKeypair("a"), index.getKeypair("a"));
+        index.getKeypair("a").setFingerprint("changed");
+        index.getKeypairByFingerprint("fa").setPublicKey("changed");
+        index.listKeypairs().get(0).setName("changed");
+        assertEquals("fa", index.getKeypair("a").getFingerprint());
+        assertEquals("ssh-rsa a", index.getKeypair("a").getPublicKey());
+        assertEquals("a", index.getKeypair("a").getName());
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright (C) 2009-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.openstack.nova.os.network;
+
+import org.dasein.cloud.network.IpAddress;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class FloatingIPSnapshotTest {
+    private IpAddress address(String id, String ip, String serverId) {
+        IpAddress address = new IpAddress();
+
+        address.setIpAddressId(id);
+        address.setAddress(ip);
+        address.setServerId(serverId);
+        return address;
+    }
+
+    private FloatingIPSnapshot load(IpAddress ... addresses) {
+        FloatingIPSnapshot snapshot = new FloatingIPSnapshot();
+
+        snapshot.load(Arrays.asList(addresses));
+        return snapshot;
+    }
+
+    @Test
+    public void staleUntilLoaded() {
+        FloatingIPSnapshot snapshot = new FloatingIPSnapshot();
+
+        assertTrue(snapshot.isStale());
+        snapshot.load(Arrays.asList(address("a1", "10.0.0.1", null)));
+        assertFalse(snapshot.isStale());
+        snapshot.invalidate();
+        assertTrue(snapshot.isStale());
+    }
+
+    @Test
+    public void indexesByIdAddressAndInstance() {
+        FloatingIPSnapshot snapshot = load(address("a1", "10.0.0.1", "vm-1"), address("a2", "10.0.0.2", null), address("a3", "10.0.0.3", "vm-1"));
+
+        assertEquals("10.0.0.2", snapshot.getAddress("a2").getRawAddress().getIpAddress());
+        assertEquals("a3", snapshot.getAddressByIp("10.0.0.3").getProviderIpAddressId());
+        assertEquals(2, snapshot.listAddressesByInstance("vm-1").size());
+        assertTrue(snapshot.listAddressesByInstance("vm-2").isEmpty());
+        assertEquals(3, snapshot.listAddresses(false).size());
+        assertEquals(1, snapshot.listAddresses(true).size());
+        assertNull(snapshot.getAddress("a9"));
+        assertNull(snapshot.getAddressByIp("10.0.0.9"));
+    }
+
+    @Test
+    public void assignMovesAddressBetweenInstances() {
+        FloatingIPSnapshot snapshot = load(address("a1", "10.0.0.1", "vm-1"));
+
+        snapshot.assign("a1", "vm-2");
+        assertTrue(snapshot.listAddressesByInstance("vm-1").isEmpty());
+        assertEquals("a1", snapshot.listAddressesByInstance("vm-2").get(0).getProviderIpAddressId());
+        snapshot.assign("a1", null);
+        assertTrue(snapshot.listAddressesByInstance("vm-2").isEmpty());
+        assertEquals(1, snapshot.listAddresses(true).size());
+    }
+
+    @Test
+    public void assignDoesNotChangeAddressesAlreadyReturned() {
+        FloatingIPSnapshot snapshot = load(address("a1", "10.0.0.1", null));
+        IpAddress before = snapshot.getAddress("a1");
+        IpAddress listed = snapshot.listAddresses(false).get(0);
+
+        snapshot.assign("a1", "vm-1");
+        assertNull(before.getServerId());
+        assertNull(listed.getServerId());
+        assertEquals("vm-1", snapshot.getAddress("a1").getServerId());
+    }
+
+    @Test
+    public void callersCannotChangeTheSnapshot() {
+        IpAddress loaded = address("a1", "10.0.0.1", null);
+        FloatingIPSnapshot snapshot = load(loaded);
+
+        loaded.setServerId("vm-1");
+        snapshot.getAddress("a1").setServerId("vm-2");
+        snapshot.getAddressByIp("10.0.0.1").setServerId("vm-3");
+        assertNull(snapshot.getAddress("a1").getServerId());
+        assertNotSame(snapshot.getAddress("a1"), snapshot.getAddress("a1"));
+    }
+
+    @Test
+    public void removeDropsEveryIndex() {
+        FloatingIPSnapshot snapshot = load(address("a1", "10.0.0.1", "vm-1"));
+
+        snapshot.remove("a1");
+        assertNull(snapshot.getAddress("a1"));
+        assertNull(snapshot.getAddressByIp("10.0.0.1"));
+        assertTrue(snapshot.listAddressesByInstance("vm-1").isEmpty());
+    }
+}